@@ -2,6 +2,7 @@ plugins {
     id("java")
     id("org.jetbrains.intellij.platform") version "2.1.0"
     id("com.github.sherter.google-java-format") version "0.9"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "dev.dong4j"
@@ -34,6 +35,8 @@ dependencies {
 
         // Bundled plugins
         bundledPlugin("com.intellij.java")
+        // 增量模式按基准版本列出 Git 变更，plugin.xml 中为可选依赖
+        bundledPlugin("Git4Idea")
 
         // Plugin development utilities
         instrumentationTools()
@@ -60,6 +63,27 @@ dependencies {
     testAnnotationProcessor("org.projectlombok:lombok:1.18.26")
 }
 
+// JMH 基准测试：./gradlew jmh，可通过 -PjmhIncludes=<正则> 只运行匹配的基准
+// 基准代码与测试共用依赖（IntelliJ Platform、Mockito 等），结果输出到 build/results/jmh
+sourceSets {
+    named("jmh") {
+        compileClasspath += sourceSets["test"].compileClasspath
+        runtimeClasspath += sourceSets["test"].runtimeClasspath
+    }
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    // 分配分析：输出每次调用的分配字节数（gc.alloc.rate.norm）
+    profilers.add("gc")
+    // 测试类路径中的平台 jar 含有重复的类（注解、kotlin stdlib 等），打包 jmhJar 时只保留第一个
+    duplicateClassesStrategy.set(DuplicatesStrategy.EXCLUDE)
+    (project.findProperty("jmhIncludes") as String?)?.let { includes.add(it) }
+}
+
 tasks {
     withType<JavaCompile> {
         sourceCompatibility = "17"
@@ -78,5 +102,8 @@ tasks {
 
     test {
         useJUnitPlatform()
+        // 吞吐量基准的参数：-Pai.javadoc.throughput=true 等，转发为同名系统属性，见 TaskExecutorThroughputHarness
+        project.properties.filterKeys { it.startsWith("ai.javadoc.throughput") }
+            .forEach { (key, value) -> systemProperty(key, value.toString()) }
     }
 }
@@ -0,0 +1,132 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import com.google.gson.JsonObject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+import dev.dong4j.zeka.stack.idea.plugin.benchmark.BenchmarkFixtures;
+import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
+import dev.dong4j.zeka.stack.idea.plugin.task.DocumentationTask;
+
+/**
+ * AICompatibleProvider 请求构建与响应解析基准
+ *
+ * <p>覆盖每个任务都会经过的四个步骤：
+ * <ul>
+ *   <li>{@link AICompatibleProvider#buildPrompt}：加载模板并插入代码</li>
+ *   <li>{@link AICompatibleProvider#buildRequestBody}：构建 JSON 请求体并序列化（对照基线）</li>
+ *   <li>{@link AICompatibleProvider#encodeRequestBody}：基于预编码模板将请求体写入输出流</li>
+ *   <li>{@link AICompatibleProvider#parseResponse}：解析响应体并过滤思考内容</li>
+ *   <li>{@code filterThinkingContent}：单独测量思考内容的过滤（私有方法，通过 MethodHandle 调用）</li>
+ * </ul>
+ *
+ * <p>与 {@code gc} 分析器一起运行时，{@code gc.alloc.rate.norm} 即每次调用的分配字节数。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AICompatibleProviderBenchmark {
+
+    /** 类规模 */
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    public BenchmarkFixtures.ClassSize size;
+
+    /** 响应是否带有思考内容 */
+    @Param({"false", "true"})
+    public boolean thinking;
+
+    /** 被测提供商 */
+    private AICompatibleProvider provider;
+    /** 类源码 */
+    private String code;
+    /** 已构建的提示词 */
+    private String prompt;
+    /** 模型输出的文本 */
+    private String content;
+    /** 完整响应体 */
+    private String responseBody;
+    /** filterThinkingContent 的句柄 */
+    private MethodHandle filterThinkingContent;
+
+    /**
+     * 准备提供商和测试数据
+     */
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        SettingsState settings = new SettingsState();
+        settings.aiProvider = AIProviderType.CUSTOM.getProviderId();
+        settings.baseUrl = "http://localhost:8080/v1";
+        settings.apiKey = "benchmark";
+        settings.modelName = "qwen-max";
+        provider = new CustomProvider(settings);
+
+        code = BenchmarkFixtures.classSource(size);
+        prompt = provider.buildPrompt(code, DocumentationTask.TaskType.CLASS, "java");
+        content = BenchmarkFixtures.generatedJavadoc(thinking);
+        responseBody = BenchmarkFixtures.chatCompletionResponse(content);
+        filterThinkingContent = MethodHandles.privateLookupIn(AICompatibleProvider.class, MethodHandles.lookup())
+            .findVirtual(AICompatibleProvider.class, "filterThinkingContent",
+                         MethodType.methodType(String.class, String.class));
+    }
+
+    /**
+     * 构建类级别提示词
+     */
+    @Benchmark
+    public String buildPrompt() {
+        return provider.buildPrompt(code, DocumentationTask.TaskType.CLASS, "java");
+    }
+
+    /**
+     * 构建请求体并序列化为发送的字符串
+     */
+    @Benchmark
+    public String buildRequestBody() {
+        JsonObject body = provider.buildRequestBody(prompt);
+        return body.toString();
+    }
+
+    /**
+     * 基于预编码模板编码请求体并写入输出流
+     */
+    @Benchmark
+    public int encodeRequestBody() throws IOException {
+        ChatRequestBody body = provider.encodeRequestBody(prompt);
+        body.writeTo(OutputStream.nullOutputStream());
+        return body.byteLength();
+    }
+
+    /**
+     * 解析响应体
+     */
+    @Benchmark
+    public String parseResponse() throws AIServiceException {
+        return provider.parseResponse(responseBody);
+    }
+
+    /**
+     * 过滤思考内容
+     */
+    @Benchmark
+    public String filterThinkingContent() throws Throwable {
+        return (String) filterThinkingContent.invoke(provider, content);
+    }
+}
@@ -0,0 +1,175 @@
+package dev.dong4j.zeka.stack.idea.plugin.benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 基准测试数据
+ *
+ * <p>生成接近真实项目的类源码：带 JavaDoc 和 {@code //} 注释的字段与方法、空行、注解和方法体，
+ * 以及 OpenAI 兼容格式的响应体。数据只在 {@code @Setup} 阶段生成一次，不计入测量。
+ *
+ * <p>生成的源码不包含 {@code %} 字符，避免被提示词模板的格式化误解析。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class BenchmarkFixtures {
+
+    /**
+     * 类规模
+     */
+    public enum ClassSize {
+        /** 小型类：约 80 行 */
+        SMALL(2),
+        /** 中型类：普通业务服务，约 700 行 */
+        MEDIUM(20),
+        /** 超大类：遗留代码，约 1 万行，超过默认的 1000 行截取上限 */
+        HUGE(300);
+
+        /** 方法（以及字段）数量 */
+        private final int members;
+
+        ClassSize(int members) {
+            this.members = members;
+        }
+    }
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 生成指定规模的类源码
+     *
+     * @param size 类规模
+     * @return 类源码
+     */
+    @NotNull
+    public static String classSource(@NotNull ClassSize size) {
+        StringBuilder code = new StringBuilder(size.members * 400);
+        code.append("package com.example.order.service;\n\n");
+        code.append("import java.math.BigDecimal;\n");
+        code.append("import java.util.ArrayList;\n");
+        code.append("import java.util.List;\n");
+        code.append("import java.util.Map;\n");
+        code.append("import java.util.concurrent.ConcurrentHashMap;\n\n");
+        code.append("/**\n * 订单服务\n *\n * @author example\n * @since 1.0.0\n */\n");
+        code.append("@SuppressWarnings(\"unused\")\n");
+        code.append("public class OrderService {\n\n");
+
+        for (int i = 0; i < size.members; i++) {
+            code.append("    /** 缓存 ").append(i).append(" */\n");
+            code.append("    private final Map<String, BigDecimal> cache").append(i)
+                .append(" = new ConcurrentHashMap<>();\n\n");
+        }
+
+        for (int i = 0; i < size.members; i++) {
+            appendMethod(code, i);
+        }
+
+        code.append("}\n");
+        return code.toString();
+    }
+
+    /**
+     * 追加一个带 JavaDoc、行注释和空行的方法
+     */
+    private static void appendMethod(@NotNull StringBuilder code, int index) {
+        code.append("    /**\n");
+        code.append("     * 计算订单 ").append(index).append(" 的优惠金额\n");
+        code.append("     *\n");
+        code.append("     * @param orderId 订单 ID\n");
+        code.append("     * @param items   订单明细\n");
+        code.append("     * @return 优惠金额\n");
+        code.append("     */\n");
+        code.append("    @Deprecated\n");
+        code.append("    public BigDecimal calculateDiscount").append(index)
+            .append("(String orderId, List<BigDecimal> items) {\n");
+        code.append("        // 先查缓存，命中时直接返回\n");
+        code.append("        BigDecimal cached = cache").append(index).append(".get(orderId);\n");
+        code.append("        if (cached != null) {\n");
+        code.append("            return cached;\n");
+        code.append("        }\n\n");
+        code.append("        // 逐项累加，跳过空值\n");
+        code.append("        BigDecimal total = BigDecimal.ZERO;\n");
+        code.append("        List<BigDecimal> valid = new ArrayList<>(items.size());\n");
+        code.append("        for (BigDecimal item : items) {\n");
+        code.append("            if (item == null) {\n");
+        code.append("                continue; // 忽略空明细\n");
+        code.append("            }\n");
+        code.append("            valid.add(item);\n");
+        code.append("            total = total.add(item);\n");
+        code.append("        }\n\n");
+        code.append("        BigDecimal discount = total.multiply(BigDecimal.valueOf(").append(index % 10)
+            .append(")).divide(BigDecimal.valueOf(100));\n");
+        code.append("        cache").append(index).append(".put(orderId, discount);\n");
+        code.append("        return discount;\n");
+        code.append("    }\n\n");
+    }
+
+    /**
+     * 生成一段典型的方法 JavaDoc
+     *
+     * @param thinking 是否在前面附带 {@code <think>} 思考内容
+     * @return 模型输出的文本
+     */
+    @NotNull
+    public static String generatedJavadoc(boolean thinking) {
+        StringBuilder content = new StringBuilder();
+        if (thinking) {
+            content.append("<think>\n");
+            for (int i = 0; i < 20; i++) {
+                content.append("先分析方法签名和方法体，确认参数含义、返回值以及缓存命中时的行为。\n");
+            }
+            content.append("</think>\n\n");
+        }
+        content.append("/**\n");
+        content.append(" * 计算订单的优惠金额\n");
+        content.append(" * <p>\n");
+        content.append(" * 优先读取缓存；未命中时累加所有非空明细，按折扣比例计算优惠金额并写入缓存。\n");
+        content.append(" *\n");
+        content.append(" * @param orderId 订单 ID\n");
+        content.append(" * @param items   订单明细金额列表，空值会被忽略\n");
+        content.append(" * @return 优惠金额\n");
+        content.append(" */");
+        return content.toString();
+    }
+
+    /**
+     * 生成 OpenAI 兼容的 chat/completions 响应体
+     *
+     * @param content 模型输出的文本
+     * @return 响应体 JSON
+     */
+    @NotNull
+    public static String chatCompletionResponse(@NotNull String content) {
+        JsonObject message = new JsonObject();
+        message.addProperty("role", "assistant");
+        message.addProperty("content", content);
+
+        JsonObject choice = new JsonObject();
+        choice.addProperty("index", 0);
+        choice.add("message", message);
+        choice.addProperty("finish_reason", "stop");
+
+        JsonArray choices = new JsonArray();
+        choices.add(choice);
+
+        JsonObject usage = new JsonObject();
+        usage.addProperty("prompt_tokens", 812);
+        usage.addProperty("completion_tokens", 96);
+        usage.addProperty("total_tokens", 908);
+
+        JsonObject response = new JsonObject();
+        response.addProperty("id", "chatcmpl-0123456789");
+        response.addProperty("object", "chat.completion");
+        response.addProperty("created", 1_700_000_000L);
+        response.addProperty("model", "qwen-max");
+        response.add("choices", choices);
+        response.add("usage", usage);
+        return response.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.impl.DocumentImpl;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.javadoc.PsiDocComment;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import dev.dong4j.zeka.stack.idea.plugin.benchmark.BenchmarkFixtures;
+
+/**
+ * 旧注释删除范围计算基准
+ *
+ * <p>测量 {@link DocumentationWriter#computeDeleteRange} 的字符扫描：从旧 JavaDoc 向前跳过缩进和空行，
+ * 向后吞掉一个换行符。目标是类中间方法的注释，注释前额外放了几行只含空白的空行。
+ *
+ * <p>PSI 元素用 Mockito 模拟（只提供注释的文本范围），文档使用平台的 {@link DocumentImpl}，
+ * 行号查找与编辑器中一致；模拟调用的开销与类规模无关。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DocumentationWriterBenchmark {
+
+    /** 类规模 */
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    public BenchmarkFixtures.ClassSize size;
+
+    /** 带旧注释的方法 */
+    private PsiMethod method;
+    /** 类源码对应的文档 */
+    private Document document;
+
+    /**
+     * 准备文档和模拟的 PSI 元素
+     */
+    @Setup
+    public void setUp() {
+        String code = BenchmarkFixtures.classSource(size);
+        int methods = code.split("public BigDecimal calculateDiscount", -1).length - 1;
+        String marker = "    /**\n     * 计算订单 " + methods / 2 + " ";
+        int start = code.indexOf(marker);
+        code = code.substring(0, start) + "    \n\t\n\n" + code.substring(start);
+        start = code.indexOf(marker) + 4;
+        int end = code.indexOf("*/", start) + 2;
+
+        PsiDocComment comment = Mockito.mock(PsiDocComment.class);
+        Mockito.when(comment.getTextRange()).thenReturn(new TextRange(start, end));
+        method = Mockito.mock(PsiMethod.class);
+        Mockito.when(method.getDocComment()).thenReturn(comment);
+        document = new DocumentImpl(code);
+    }
+
+    /**
+     * 计算删除范围
+     */
+    @Benchmark
+    public TextRange computeDeleteRange() {
+        return DocumentationWriter.computeDeleteRange(method, document);
+    }
+}
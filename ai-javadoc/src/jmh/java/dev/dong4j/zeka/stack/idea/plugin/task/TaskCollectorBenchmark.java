@@ -0,0 +1,75 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import com.intellij.openapi.project.Project;
+
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+import dev.dong4j.zeka.stack.idea.plugin.benchmark.BenchmarkFixtures;
+import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
+
+/**
+ * TaskCollector 类代码优化基准
+ *
+ * <p>测量 {@code optimizeClassCode} 删除空行、行注释并按行数截取的开销。
+ * 超大类超过默认的 1000 行上限，会走截取分支。
+ *
+ * <p>TaskCollector 在构造时读取全局设置，这里在 {@code @Setup} 中用 Mockito 替换
+ * {@link SettingsState#getInstance()}，因此不需要启动 IDE。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskCollectorBenchmark {
+
+    /** 类规模 */
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    public BenchmarkFixtures.ClassSize size;
+
+    /** 被测收集器 */
+    private TaskCollector collector;
+    /** 类源码 */
+    private String code;
+    /** optimizeClassCode 的句柄 */
+    private MethodHandle optimizeClassCode;
+
+    /**
+     * 准备收集器和测试数据
+     */
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        SettingsState settings = new SettingsState();
+        try (MockedStatic<SettingsState> mocked = Mockito.mockStatic(SettingsState.class, Mockito.CALLS_REAL_METHODS)) {
+            mocked.when(SettingsState::getInstance).thenReturn(settings);
+            collector = new TaskCollector(Mockito.mock(Project.class));
+        }
+        code = BenchmarkFixtures.classSource(size);
+        optimizeClassCode = MethodHandles.privateLookupIn(TaskCollector.class, MethodHandles.lookup())
+            .findVirtual(TaskCollector.class, "optimizeClassCode", MethodType.methodType(String.class, String.class));
+    }
+
+    /**
+     * 优化类代码
+     */
+    @Benchmark
+    public String optimizeClassCode() throws Throwable {
+        return (String) optimizeClassCode.invoke(collector, code);
+    }
+}
@@ -0,0 +1,143 @@
+package dev.dong4j.zeka.stack.idea.plugin.action;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.vcs.VcsException;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import dev.dong4j.zeka.stack.idea.plugin.service.DocumentationGenerationService;
+import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
+import dev.dong4j.zeka.stack.idea.plugin.task.ChangedCodeDetector;
+import dev.dong4j.zeka.stack.idea.plugin.task.ChangedLines;
+import dev.dong4j.zeka.stack.idea.plugin.task.TaskCollector;
+import dev.dong4j.zeka.stack.idea.plugin.task.TaskExecutor;
+import dev.dong4j.zeka.stack.idea.plugin.util.JavaDocBundle;
+import dev.dong4j.zeka.stack.idea.plugin.util.NotificationUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 为变更的代码生成 JavaDoc（增量模式）
+ *
+ * <p>在项目视图和本地变更视图的右键菜单中提供，只为文本范围与变更行相交的类、方法和字段生成文档，
+ * 不需要为整个模块付出生成成本，适合在每个功能分支上运行。
+ *
+ * <p>变更范围：
+ * <ul>
+ *   <li>选中的文件/目录；未选中时为整个项目</li>
+ *   <li>基准版本由 {@link SettingsState#changesBaseRevision} 配置，为空时使用未提交的本地修改</li>
+ * </ul>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @see ChangedCodeDetector
+ * @see TaskCollector#collectFromChanges(Map)
+ * @since 1.0.0
+ */
+@SuppressWarnings("DuplicatedCode")
+@Slf4j
+public class GenerateJavaDocForChangesAction extends AnAction {
+
+    /**
+     * 处理动作事件，为选中范围内变更的代码生成 JavaDoc
+     * <p>
+     * 先在带进度的后台任务中检测变更的文件和行，再在后台以非阻塞读操作收集与变更行相交的元素任务，
+     * 任务较多时弹出确认对话框，最后调用文档生成服务。
+     *
+     * @param e 动作事件对象，包含项目和选中的文件信息
+     */
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            return;
+        }
+
+        VirtualFile[] files = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+        List<VirtualFile> roots = files != null && files.length > 0
+                                  ? Arrays.asList(files)
+                                  : Arrays.asList(ProjectRootManager.getInstance(project).getContentRoots());
+        String baseRevision = SettingsState.getInstance().changesBaseRevision;
+
+        log.info("为变更的代码生成 JavaDoc，范围: {} 个文件/目录，基准版本: {}",
+                 roots.size(), baseRevision == null || baseRevision.isBlank() ? "本地修改" : baseRevision);
+
+        // 检测变更（可能执行 VCS 命令，在带进度的后台任务中执行）
+        Map<VirtualFile, ChangedLines> changes;
+        try {
+            changes = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+                () -> new ChangedCodeDetector(project).detect(
+                    roots, baseRevision, ProgressManager.getInstance().getProgressIndicator()),
+                JavaDocBundle.message("progress.detecting.changes"),
+                true,
+                project);
+        } catch (VcsException ex) {
+            log.info("检测变更失败", ex);
+            NotificationUtil.notifyErrorMessage(project, JavaDocBundle.message("notification.changes.failed", ex.getMessage()));
+            return;
+        }
+
+        log.info("检测到 {} 个变更文件", changes.size());
+
+        // 在后台收集任务，收集完成后确认并生成，带自定义完成回调
+        DocumentationGenerationService service = new DocumentationGenerationService();
+        service.collectAndGenerate(project, "变更的代码", collector -> collector.collectFromChanges(changes),
+                                   JavaDocBundle.message("notification.no.task.changes"),
+                                   stats -> showCompletionMessage(project, stats));
+    }
+
+    /**
+     * 获取用于更新操作的线程类型
+     * <p>
+     * 返回在后台线程中执行更新操作的线程类型，以避免阻塞事件调度线程（EDT）。
+     *
+     * @return 更新操作所使用的线程类型
+     */
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        // 在后台线程中执行 update，避免阻塞 EDT
+        return ActionUpdateThread.BGT;
+    }
+
+    /**
+     * 更新操作的呈现信息
+     * <p>
+     * 有打开的项目时启用，设置操作文本和描述。
+     *
+     * @param e 事件对象，包含操作上下文信息
+     */
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabled(e.getProject() != null);
+        e.getPresentation().setText(JavaDocBundle.message("action.generate.javadoc.changes"));
+        e.getPresentation().setDescription(JavaDocBundle.message("action.generate.javadoc.changes.description"));
+    }
+
+    /**
+     * 显示文档生成完成的通知消息
+     *
+     * @param project 项目对象，用于通知的上下文
+     * @param stats   任务统计信息，包含完成、失败和跳过任务的数量
+     */
+    private void showCompletionMessage(Project project, TaskExecutor.TaskStatistics stats) {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            String content = JavaDocBundle.message("notification.target.completion.format",
+                                                   JavaDocBundle.message("notification.generation.complete"),
+                                                   stats.completed(),
+                                                   stats.failed(),
+                                                   stats.skipped());
+            NotificationUtil.notifyInfo(project, JavaDocBundle.message("notification.title"), content);
+        });
+    }
+}
@@ -6,7 +6,6 @@ import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.CommonDataKeys;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.vfs.VirtualFile;
 
 import org.jetbrains.annotations.NotNull;
@@ -43,8 +42,8 @@ public class GenerateJavaDocForSelectionAction extends AnAction {
      * 处理动作事件，用于为选中的文件或目录生成 JavaDoc 注释
      * <p>
      * 该方法首先获取当前项目和选中的文件列表，若项目或文件为空则直接返回。
-     * 然后收集所有需要生成 JavaDoc 的任务，检查任务是否为空，若为空则返回。
-     * 若任务数量较多，会弹出确认对话框，用户确认后才继续执行。
+     * 然后在后台以非阻塞读操作收集所有需要生成 JavaDoc 的任务（遍历目录和构建 PSI 不阻塞 EDT），
+     * 收集完成后若任务为空则提示，若任务数量较多则弹出确认对话框，用户确认后才继续执行。
      * 最后调用文档生成服务，生成 JavaDoc 并显示完成信息。
      *
      * @param e 动作事件对象，包含项目和选中的文件信息
@@ -60,42 +59,35 @@ public class GenerateJavaDocForSelectionAction extends AnAction {
 
         log.info("为 {} 个文件/目录生成 JavaDoc", files.length);
 
-        // 收集任务
-        TaskCollector collector = new TaskCollector(project);
-        List<DocumentationTask> tasks = new ArrayList<>();
+        // 在后台收集任务，收集完成后确认并生成，带自定义完成回调
+        DocumentationGenerationService service = new DocumentationGenerationService();
+        service.collectAndGenerate(project, "选中文件", collector -> collectTasks(collector, files),
+                                   JavaDocBundle.message("notification.no.task.selection"),
+                                   stats -> showCompletionMessage(project, stats));
+    }
 
+    /**
+     * 收集选中的文件和目录中的任务
+     * <p>
+     * 在读操作中调用，目录递归收集其中的 Java 文件，非 Java 文件被忽略。
+     *
+     * @param collector 任务收集器
+     * @param files     选中的文件和目录
+     * @return 文档生成任务列表
+     */
+    private List<DocumentationTask> collectTasks(TaskCollector collector, VirtualFile[] files) {
+        List<DocumentationTask> tasks = new ArrayList<>();
         for (VirtualFile file : files) {
+            if (!file.isValid()) {
+                continue;
+            }
             if (file.isDirectory()) {
                 tasks.addAll(collector.collectFromDirectory(file));
             } else if (isJavaFile(file)) {
                 tasks.addAll(collector.collectFromVirtualFile(file));
             }
         }
-
-        // 使用文档生成服务处理任务
-        DocumentationGenerationService service = new DocumentationGenerationService();
-        if (service.checkEmptyTasks(project, tasks, JavaDocBundle.message("notification.no.task.selection"))) {
-            return;
-        }
-
-        // 确认是否继续（如果任务很多）
-        if (tasks.size() > 50) {
-            int result = Messages.showYesNoDialog(
-                project,
-                JavaDocBundle.message("confirmation.batch.generation.message", tasks.size()),
-                JavaDocBundle.message("confirmation.batch.generation.title"),
-                Messages.getQuestionIcon()
-                                                 );
-
-            if (result != Messages.YES) {
-                return;
-            }
-        }
-
-        // 使用服务生成文档，带自定义完成回调
-        service.generateDocumentation(project, tasks, "选中文件", stats -> {
-            showCompletionMessage(project, stats);
-        });
+        return tasks;
     }
 
     /**
@@ -15,7 +15,6 @@ import org.jetbrains.annotations.NotNull;
 import java.util.List;
 
 import dev.dong4j.zeka.stack.idea.plugin.service.DocumentationGenerationService;
-import dev.dong4j.zeka.stack.idea.plugin.task.DocumentationTask;
 import dev.dong4j.zeka.stack.idea.plugin.task.TaskCollector;
 import dev.dong4j.zeka.stack.idea.plugin.task.TaskExecutor;
 import dev.dong4j.zeka.stack.idea.plugin.util.JavaDocBundle;
@@ -50,7 +49,7 @@ import lombok.extern.slf4j.Slf4j;
  * <ol>
  *   <li>获取当前项目、编辑器和 PSI 文件</li>
  *   <li>使用 PsiElementLocator 智能定位元素</li>
- *   <li>通过 TaskCollector 收集文档生成任务</li>
+ *   <li>在后台以非阻塞读操作通过 TaskCollector 收集文档生成任务</li>
  *   <li>在后台任务中使用 TaskExecutor 处理任务</li>
  *   <li>显示处理结果和统计信息</li>
  * </ol>
@@ -91,7 +90,7 @@ public class GenerateJavaDocGenerateAction extends AnAction {
      * <ol>
      *   <li>验证环境：检查项目、编辑器和文件有效性</li>
      *   <li>智能定位：根据光标位置确定处理范围</li>
-     *   <li>任务收集：收集需要生成文档的代码元素</li>
+     *   <li>任务收集：在后台以非阻塞读操作收集需要生成文档的代码元素，任务较多时请求确认</li>
      *   <li>异步处理：在后台任务中生成文档</li>
      *   <li>结果通知：显示处理结果给用户</li>
      * </ol>
@@ -121,9 +120,8 @@ public class GenerateJavaDocGenerateAction extends AnAction {
 
         log.info("通过 Generate 菜单为文件生成 JavaDoc: {}", psiFile.getName());
 
-        // 智能定位：根据光标位置确定要生成文档的元素
-        TaskCollector collector = new TaskCollector(project);
-        List<DocumentationTask> tasks;
+        // 智能定位：根据光标位置确定要生成文档的元素，无法定位时为整个文件生成
+        PsiElement target = psiFile;
         String targetDescription = "文件";
 
         if (editor != null) {
@@ -132,26 +130,16 @@ public class GenerateJavaDocGenerateAction extends AnAction {
             if (locateResult != null) {
                 targetDescription = PsiElementLocator.getElementDescription(locateResult.element());
                 log.info("智能定位到: {}", targetDescription);
-                tasks = collector.collectFromElement(locateResult.element());
-            } else {
-                // 无法定位，为整个文件生成
-                tasks = collector.collectFromFile(psiFile);
+                target = locateResult.element();
             }
-        } else {
-            // 没有编辑器，为整个文件生成
-            tasks = collector.collectFromFile(psiFile);
         }
 
-        // 使用文档生成服务处理任务
+        // 在后台以非阻塞读操作收集任务，收集完成后使用服务生成文档
+        PsiElement finalTarget = target;
         DocumentationGenerationService service = new DocumentationGenerationService();
-        if (service.checkEmptyTasks(project, tasks, JavaDocBundle.message("notification.no.task.default"))) {
-            return;
-        }
-
-        log.info("收集到 {} 个任务", tasks.size());
-
-        // 使用服务生成文档
-        service.generateDocumentation(project, tasks, targetDescription);
+        service.collectAndGenerate(project, targetDescription,
+                                   collector -> finalTarget.isValid() ? collector.collectFromElement(finalTarget) : List.of(),
+                                   JavaDocBundle.message("notification.no.task.default"));
     }
 
     /**
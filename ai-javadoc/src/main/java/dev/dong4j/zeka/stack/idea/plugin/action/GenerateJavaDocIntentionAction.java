@@ -17,7 +17,6 @@ import org.jetbrains.annotations.NotNull;
 import java.util.List;
 
 import dev.dong4j.zeka.stack.idea.plugin.service.DocumentationGenerationService;
-import dev.dong4j.zeka.stack.idea.plugin.task.DocumentationTask;
 import dev.dong4j.zeka.stack.idea.plugin.task.TaskCollector;
 import dev.dong4j.zeka.stack.idea.plugin.task.TaskExecutor;
 import dev.dong4j.zeka.stack.idea.plugin.util.JavaDocBundle;
@@ -170,7 +169,7 @@ public class GenerateJavaDocIntentionAction extends PsiElementBaseIntentionActio
      * <ol>
      *   <li>验证环境和文件类型</li>
      *   <li>智能定位元素</li>
-     *   <li>收集文档生成任务</li>
+     *   <li>在后台以非阻塞读操作收集文档生成任务</li>
      *   <li>异步处理任务</li>
      *   <li>显示结果通知</li>
      * </ol>
@@ -210,25 +209,31 @@ public class GenerateJavaDocIntentionAction extends PsiElementBaseIntentionActio
         String elementDesc = PsiElementLocator.getElementDescription(locateResult.element());
         log.info("Intention Action - 智能定位到: {}", elementDesc);
 
-        // 收集任务
-        TaskCollector collector = new TaskCollector(project);
-        List<DocumentationTask> tasks = collector.collectFromElement(locateResult.element());
-
-        // 使用文档生成服务处理任务
+        // 在后台以非阻塞读操作收集任务，收集完成后使用服务生成文档，带自定义完成回调
+        PsiElement target = locateResult.element();
         DocumentationGenerationService service = new DocumentationGenerationService();
-        if (service.checkEmptyTasks(project, tasks, JavaDocBundle.message("notification.no.task.default"))) {
-            return;
-        }
-
-        log.info("收集到 {} 个任务", tasks.size());
+        service.collectAndGenerate(project, elementDesc,
+                                   collector -> target.isValid() ? collector.collectFromElement(target) : List.of(),
+                                   JavaDocBundle.message("notification.no.task.default"),
+                                   stats -> {
+                                       // 如果只有一个任务且成功，不显示统计（用户体验更好）
+                                       if (stats.getTotal() > 1) {
+                                           showCompletionMessage(project, stats, elementDesc);
+                                       }
+                                   });
+    }
 
-        // 使用服务生成文档，带自定义完成回调
-        service.generateDocumentation(project, tasks, elementDesc, stats -> {
-            // 如果只有一个任务且成功，不显示统计（用户体验更好）
-            if (tasks.size() > 1) {
-                showCompletionMessage(project, stats, elementDesc);
-            }
-        });
+    /**
+     * 是否在写操作中执行
+     *
+     * <p>任务收集在后台读操作中进行，文档写入由 TaskExecutor 自行获取写操作，
+     * 调用时不需要持有写锁。
+     *
+     * @return 始终返回 false
+     */
+    @Override
+    public boolean startInWriteAction() {
+        return false;
     }
 
     /**
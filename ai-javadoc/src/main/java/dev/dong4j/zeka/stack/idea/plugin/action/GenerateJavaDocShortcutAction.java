@@ -7,6 +7,7 @@ import com.intellij.openapi.actionSystem.CommonDataKeys;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiJavaFile;
 
@@ -15,8 +16,6 @@ import org.jetbrains.annotations.NotNull;
 import java.util.List;
 
 import dev.dong4j.zeka.stack.idea.plugin.service.DocumentationGenerationService;
-import dev.dong4j.zeka.stack.idea.plugin.task.DocumentationTask;
-import dev.dong4j.zeka.stack.idea.plugin.task.TaskCollector;
 import dev.dong4j.zeka.stack.idea.plugin.util.JavaDocBundle;
 import dev.dong4j.zeka.stack.idea.plugin.util.NotificationUtil;
 import dev.dong4j.zeka.stack.idea.plugin.util.PsiElementLocator;
@@ -76,7 +75,7 @@ public class GenerateJavaDocShortcutAction extends AnAction {
      *   <li>获取当前编辑器和 PSI 文件</li>
      *   <li>验证当前文件是否为 Java 文件</li>
      *   <li>使用 PsiElementLocator 根据光标位置智能定位元素</li>
-     *   <li>使用 TaskCollector 收集需要生成文档的任务</li>
+     *   <li>在后台以非阻塞读操作收集需要生成文档的任务，任务较多时请求确认</li>
      *   <li>在后台任务中使用 TaskExecutor 处理任务</li>
      *   <li>显示进度和统计信息</li>
      * </ol>
@@ -111,8 +110,7 @@ public class GenerateJavaDocShortcutAction extends AnAction {
         }
 
         // 智能定位：根据光标位置确定要生成文档的元素
-        TaskCollector collector = new TaskCollector(project);
-        List<DocumentationTask> tasks;
+        PsiElement target;
 
         if (editor != null) {
             PsiElementLocator.LocateResult locateResult = PsiElementLocator.locateElement(editor, psiFile);
@@ -124,24 +122,17 @@ public class GenerateJavaDocShortcutAction extends AnAction {
 
             String elementDesc = PsiElementLocator.getElementDescription(locateResult.element());
             log.info("智能定位到: {}", elementDesc);
-
-            // 根据定位结果收集任务
-            tasks = collector.collectFromElement(locateResult.element());
+            target = locateResult.element();
         } else {
             // 没有编辑器（不应该发生），使用整个文件
-            tasks = collector.collectFromFile(psiFile);
+            target = psiFile;
         }
 
-        // 使用文档生成服务处理任务
+        // 在后台以非阻塞读操作收集任务，收集完成后使用服务生成文档
         DocumentationGenerationService service = new DocumentationGenerationService();
-        if (service.checkEmptyTasks(project, tasks, JavaDocBundle.message("notification.no.task.default"))) {
-            return;
-        }
-
-        log.info("收集到 {} 个任务", tasks.size());
-
-        // 使用服务生成文档
-        service.generateDocumentation(project, tasks);
+        service.collectAndGenerate(project, "文档",
+                                   collector -> target.isValid() ? collector.collectFromElement(target) : List.of(),
+                                   JavaDocBundle.message("notification.no.task.default"));
     }
 
     /**
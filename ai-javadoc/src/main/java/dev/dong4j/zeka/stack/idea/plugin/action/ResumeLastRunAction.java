@@ -0,0 +1,77 @@
+package dev.dong4j.zeka.stack.idea.plugin.action;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.Project;
+
+import org.jetbrains.annotations.NotNull;
+
+import dev.dong4j.zeka.stack.idea.plugin.service.DocumentationGenerationService;
+import dev.dong4j.zeka.stack.idea.plugin.task.JobJournal;
+import dev.dong4j.zeka.stack.idea.plugin.task.TaskCollector;
+import dev.dong4j.zeka.stack.idea.plugin.util.JavaDocBundle;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 继续上次的文档生成
+ *
+ * <p>IDE 重启或用户取消批量生成后，从最近一次运行的任务日志恢复：
+ * 已写入或跳过的元素不再处理，已生成但尚未写入的文档直接写入，不再请求 AI 服务，
+ * 其余元素按正常流程生成。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @see JobJournal
+ * @see TaskCollector#collectFromJournal(java.util.List)
+ * @since 1.0.0
+ */
+@Slf4j
+public class ResumeLastRunAction extends AnAction {
+
+    /**
+     * 处理动作事件，继续上次中断的文档生成
+     * <p>
+     * 在后台读取任务日志并以非阻塞读操作重新定位元素，然后调用文档生成服务。
+     *
+     * @param e 动作事件对象
+     */
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            return;
+        }
+
+        log.info("继续上次的文档生成");
+
+        DocumentationGenerationService service = new DocumentationGenerationService();
+        service.collectAndGenerate(project, "上次运行",
+                                   collector -> collector.collectFromJournal(JobJournal.loadLatest(project)),
+                                   JavaDocBundle.message("notification.no.task.resume"));
+    }
+
+    /**
+     * 获取用于更新操作的线程类型
+     *
+     * @return 更新操作所使用的线程类型
+     */
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    /**
+     * 更新操作的呈现信息
+     * <p>
+     * 有打开的项目时启用，设置操作文本和描述。
+     *
+     * @param e 事件对象，包含操作上下文信息
+     */
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabled(e.getProject() != null);
+        e.getPresentation().setText(JavaDocBundle.message("action.resume.last.run"));
+        e.getPresentation().setDescription(JavaDocBundle.message("action.resume.last.run.description"));
+    }
+}
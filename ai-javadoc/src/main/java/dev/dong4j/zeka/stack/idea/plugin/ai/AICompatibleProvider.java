@@ -3,20 +3,54 @@ package dev.dong4j.zeka.stack.idea.plugin.ai;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.MalformedJsonException;
 
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.util.io.HttpRequests;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
 import dev.dong4j.zeka.stack.idea.plugin.task.DocumentationTask;
+import dev.dong4j.zeka.stack.idea.plugin.task.PromptContext;
 
 /**
  * OpenAI 兼容的服务提供商抽象类
@@ -34,6 +68,7 @@ import dev.dong4j.zeka.stack.idea.plugin.task.DocumentationTask;
  *   <li>HTTP 请求构建和发送</li>
  *   <li>响应解析和错误处理</li>
  *   <li>重试机制和指数退避</li>
+ *   <li>按端点共享的客户端限流（{@link ProviderRateLimiter}）</li>
  *   <li>日志记录和调试支持</li>
  *   <li>配置验证</li>
  * </ul>
@@ -57,9 +92,39 @@ public abstract class AICompatibleProvider implements AIServiceProvider {
 
     /** AI 兼容提供者日志记录器 */
     private static final Logger LOG = Logger.getInstance(AICompatibleProvider.class);
+    /** 打包响应中每个成员注释前的分隔标记前缀 */
+    private static final String PACKED_SEPARATOR_PREFIX = "===DOC ";
+    /** 打包响应分隔标记，分组 1 为成员编号 */
+    private static final Pattern PACKED_SEPARATOR = Pattern.compile("^\\s*===\\s*DOC\\s*(\\d{1,4})\\s*===\\s*$", Pattern.MULTILINE);
+    /** 缓存的预编码请求体模板数，并发处理多个类的成员时各自的前缀同时在用 */
+    private static final int MAX_REQUEST_TEMPLATES = 16;
+    /** 提示词前缀中所在类声明的说明 */
+    private static final String CLASS_CONTEXT_HEADER = "待处理成员所在类的声明（仅供参考，不需要为它生成注释）：\n";
 
     /** 用户界面设置状态对象 */
     protected final SettingsState settings;
+    /** 按文档类型缓存的预编译提示词模板，设置中的模板变化后重新编译 */
+    private final Map<DocumentationTask.TaskType, PromptTemplate> compiledTemplates = new ConcurrentHashMap<>();
+    /** 按设置和提示词前缀缓存的预编码请求体模板，按访问顺序淘汰，访问时需要同步 */
+    private final LinkedHashMap<List<?>, ChatRequestBody.Template> requestTemplates = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<?>, ChatRequestBody.Template> eldest) {
+            return size() > MAX_REQUEST_TEMPLATES;
+        }
+    };
+
+    /** 文档生成请求的响应解析器，支持直接从响应流中读取消息内容 */
+    private final ResponseParser completionParser = new ResponseParser() {
+        @Override
+        public String parse(String responseBody) throws AIServiceException {
+            return parseResponse(responseBody);
+        }
+
+        @Override
+        public String parse(Reader responseBody) throws IOException, AIServiceException {
+            return parseResponse(responseBody);
+        }
+    };
 
     /**
      * 初始化 AI 兼容提供者
@@ -83,12 +148,33 @@ public abstract class AICompatibleProvider implements AIServiceProvider {
      * @return 生成的文档注释内容
      * @throws AIServiceException 当AI服务调用失败时抛出
      */
-    @SuppressWarnings("D")
     @Override
     @NotNull
     public String generateDocumentation(@NotNull String code,
                                         @NotNull DocumentationTask.TaskType type,
                                         @NotNull String language) throws AIServiceException {
+        return generateDocumentation(code, type, language, PromptContext.EMPTY);
+    }
+
+    /**
+     * 使用提示词上下文生成文档注释内容
+     * <p>
+     * 上下文变量填入提示词模板后发送请求，失败时按指数退避重试。
+     *
+     * @param code     代码内容
+     * @param type     文档生成任务类型
+     * @param language 文档语言
+     * @param context  提示词模板的上下文变量
+     * @return 生成的文档注释内容
+     * @throws AIServiceException 当AI服务调用失败时抛出
+     */
+    @SuppressWarnings("D")
+    @Override
+    @NotNull
+    public String generateDocumentation(@NotNull String code,
+                                        @NotNull DocumentationTask.TaskType type,
+                                        @NotNull String language,
+                                        @NotNull PromptContext context) throws AIServiceException {
 
         if (settings.verboseLogging) {
             LOG.debug("=== Generate Documentation ===");
@@ -98,12 +184,70 @@ public abstract class AICompatibleProvider implements AIServiceProvider {
             LOG.debug("Code Preview:\n " + truncateForLog(code, 300));
         }
 
-        String prompt = buildPrompt(code, type, language);
+        List<String> prefix = buildPromptPrefix(type, language, context);
+        String prompt = buildMemberPrompt(prefix, code, type, language, context);
 
         if (settings.verboseLogging) {
-            LOG.debug("Built Prompt Length: " + prompt.length() + " characters");
+            LOG.debug("Built Prompt Length: " + prompt.length() + " characters, prefix messages: " + prefix.size());
         }
 
+        long startTime = System.currentTimeMillis();
+        String result;
+        try {
+            result = sendRequestWithRetry(prefix, prompt);
+        } catch (AIServiceException e) {
+            getMetrics().recordFailure();
+            throw e;
+        }
+        long latency = System.currentTimeMillis() - startTime;
+        getLatencyTracker().record(latency);
+        getMetrics().recordSuccess(latency, result.length());
+        return result;
+    }
+
+    /**
+     * 在一次请求中为多个成员生成文档注释
+     * <p>
+     * 多个成员共用一次系统提示词，每种成员类型的模板说明只出现一次，各成员代码按编号排列，
+     * 要求模型按 {@code ===DOC n===} 分隔输出，再按编号拆分回对应的任务。
+     *
+     * @param tasks    需要生成文档的任务列表
+     * @param language 编程语言
+     * @return 与任务列表一一对应的文档注释，某个成员未能解析出注释时对应位置为空字符串
+     * @throws AIServiceException 当AI服务调用失败时抛出
+     */
+    @Override
+    @NotNull
+    public List<String> generateDocumentationBatch(@NotNull List<DocumentationTask> tasks,
+                                                   @NotNull String language) throws AIServiceException {
+        String prompt = buildPackedPrompt(tasks, language);
+
+        if (settings.verboseLogging) {
+            LOG.debug("=== Generate Packed Documentation ===");
+            LOG.debug("Members: " + tasks.size() + ", Prompt Length: " + prompt.length() + " characters");
+        }
+
+        long startTime = System.currentTimeMillis();
+        String response;
+        try {
+            response = sendRequestWithRetry(List.of(), prompt);
+        } catch (AIServiceException e) {
+            getMetrics().recordFailure();
+            throw e;
+        }
+        getMetrics().recordSuccess(System.currentTimeMillis() - startTime, response.length());
+        return splitPackedResponse(response, tasks.size());
+    }
+
+    /**
+     * 发送请求，失败时按指数退避重试
+     *
+     * @param prefix 提示词前缀消息，为空时只发送一条用户消息
+     * @param prompt 提示词
+     * @return AI 生成的文本内容
+     * @throws AIServiceException 重试耗尽或遇到不可重试的错误时抛出
+     */
+    private String sendRequestWithRetry(List<String> prefix, String prompt) throws AIServiceException {
         int attempts = 0;
         AIServiceException lastException = null;
 
@@ -113,7 +257,7 @@ public abstract class AICompatibleProvider implements AIServiceProvider {
                     LOG.debug("Attempt " + (attempts + 1) + "/" + settings.maxRetries + " to generate documentation");
                 }
 
-                String result = sendRequest(prompt);
+                String result = sendRequest(prefix, prompt);
 
                 if (settings.verboseLogging) {
                     LOG.debug("Successfully generated documentation on attempt " + (attempts + 1));
@@ -129,8 +273,9 @@ public abstract class AICompatibleProvider implements AIServiceProvider {
                     break;
                 }
 
-                // 指数退避
-                long waitTime = (long) (settings.waitDuration * Math.pow(2, attempts - 1));
+                // 指数退避；被限流时由限流器按 Retry-After 暂停整个端点，不再额外等待
+                long waitTime = getRetryWaitTime(e, attempts - 1);
+                getMetrics().recordRetry();
                 LOG.warn("Request failed, retrying in " + waitTime + "ms (attempt " + attempts + "/" +
                          settings.maxRetries + "): " + e.getMessage());
 
@@ -148,6 +293,247 @@ public abstract class AICompatibleProvider implements AIServiceProvider {
               new AIServiceException("Failed after " + attempts + " attempts");
     }
 
+    /**
+     * 异步生成文档注释内容
+     *
+     * @param code     代码内容
+     * @param type     文档生成任务类型
+     * @param language 文档语言
+     * @return 生成结果的 Future，失败时以 AIServiceException 异常完成
+     * @see #generateDocumentationAsync(String, DocumentationTask.TaskType, String, Consumer)
+     */
+    @Override
+    @NotNull
+    public CompletableFuture<String> generateDocumentationAsync(@NotNull String code,
+                                                                @NotNull DocumentationTask.TaskType type,
+                                                                @NotNull String language) {
+        return generateDocumentationAsync(code, type, language, null);
+    }
+
+    /**
+     * 异步生成文档注释内容，并在流式模式下推送增量内容
+     * <p>
+     * 通过共享的 {@link SharedHttpClient} 发送非阻塞请求，等待响应期间不占用调用线程。
+     * 重试策略与同步方法一致（可重试错误按指数退避重试），退避等待通过延迟执行器调度而不是阻塞线程。
+     * 启用 {@link SettingsState#streaming} 时，每收到一段可见内容（已过滤思考内容）就通知监听器。
+     *
+     * @param code            代码内容
+     * @param type            文档生成任务类型
+     * @param language        文档语言
+     * @param partialListener 增量内容监听器，可为 null
+     * @return 生成结果的 Future，失败时以 AIServiceException 异常完成
+     */
+    @Override
+    @NotNull
+    public CompletableFuture<String> generateDocumentationAsync(@NotNull String code,
+                                                                @NotNull DocumentationTask.TaskType type,
+                                                                @NotNull String language,
+                                                                @Nullable Consumer<String> partialListener) {
+        return generateDocumentationAsync(code, type, language, PromptContext.EMPTY, partialListener);
+    }
+
+    /**
+     * 使用提示词上下文异步生成文档注释内容，并在流式模式下推送增量内容
+     *
+     * @param code            代码内容
+     * @param type            文档生成任务类型
+     * @param language        文档语言
+     * @param context         提示词模板的上下文变量
+     * @param partialListener 增量内容监听器，可为 null
+     * @return 生成结果的 Future，失败时以 AIServiceException 异常完成
+     * @see #generateDocumentationAsync(String, DocumentationTask.TaskType, String, Consumer)
+     */
+    @Override
+    @NotNull
+    public CompletableFuture<String> generateDocumentationAsync(@NotNull String code,
+                                                                @NotNull DocumentationTask.TaskType type,
+                                                                @NotNull String language,
+                                                                @NotNull PromptContext context,
+                                                                @Nullable Consumer<String> partialListener) {
+        if (settings.verboseLogging) {
+            LOG.debug("=== Generate Documentation (async) ===");
+            LOG.debug("Type: " + type);
+            LOG.debug("Language: " + language);
+            LOG.debug("Code Length: " + code.length() + " characters");
+        }
+
+        List<String> prefix = buildPromptPrefix(type, language, context);
+        String prompt = buildMemberPrompt(prefix, code, type, language, context);
+        long startTime = System.currentTimeMillis();
+        ProviderLatencyTracker tracker = getLatencyTracker();
+        ProviderMetrics metrics = getMetrics();
+        CancellationScope scope = new CancellationScope();
+        CompletableFuture<String> future = sendRequestWithRetryAsync(prefix, prompt, partialListener, 0, scope)
+            .whenComplete((result, error) -> {
+                if (error == null) {
+                    long latency = System.currentTimeMillis() - startTime;
+                    tracker.record(latency);
+                    metrics.recordSuccess(latency, result.length());
+                } else {
+                    metrics.recordFailure();
+                }
+            });
+        // 调用方取消结果时中止传输层的请求和尚未开始的重试；被取消的 Future 不再执行上面的回调，
+        // 落后的对冲请求不会计入延迟分布和成功失败数
+        return cancelWith(future, scope);
+    }
+
+    /**
+     * 在 Future 被取消时取消对应的范围
+     *
+     * @param future 返回给调用方的 Future
+     * @param scope  Future 所依赖的传输层操作的取消范围
+     * @param <T>    结果类型
+     * @return 传入的 Future
+     */
+    private static <T> CompletableFuture<T> cancelWith(CompletableFuture<T> future, CancellationScope scope) {
+        future.whenComplete((result, error) -> {
+            if (error instanceof CancellationException) {
+                scope.cancel();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 获取当前端点共享的延迟统计
+     *
+     * @return 端点延迟统计
+     */
+    @Override
+    @NotNull
+    public ProviderLatencyTracker getLatencyTracker() {
+        return ProviderLatencyTracker.forEndpoint(getProviderId(), settings.baseUrl, settings.apiKey);
+    }
+
+    /**
+     * 获取当前端点共享的运行指标
+     *
+     * @return 端点运行指标，显示名称为提供商名称和模型名称
+     */
+    @NotNull
+    private ProviderMetrics getMetrics() {
+        return ProviderMetrics.forEndpoint(getProviderId(), settings.baseUrl, settings.apiKey,
+                                           getProviderName() + " / " + settings.modelName);
+    }
+
+    /**
+     * 获取请求配置指纹
+     * <p>
+     * 以未填充代码的提示词模板构建请求体，请求体中包含系统提示词、模型名称和全部采样参数，
+     * 再加上提供商标识和服务地址。只影响传输方式的 stream 参数和只影响模型驻留的 keep_alive 参数不计入指纹。
+     * 按可缓存前缀组织提示词时消息布局不同，指纹中追加标记。
+     *
+     * @param type     文档类型
+     * @param language 编程语言
+     * @return 请求配置指纹
+     */
+    @Override
+    @NotNull
+    public String getRequestFingerprint(@NotNull DocumentationTask.TaskType type, @NotNull String language) {
+        JsonObject body = buildRequestBody(loadPromptTemplate(type, language));
+        body.remove("stream");
+        body.remove("keep_alive");
+        String fingerprint = getProviderId() + "\n" + settings.baseUrl + "\n" + body;
+        return settings.promptPrefixCaching ? fingerprint + "\npromptPrefixCaching" : fingerprint;
+    }
+
+    /**
+     * 获取包含提示词上下文的请求配置指纹
+     * <p>
+     * 在 {@link #getRequestFingerprint(DocumentationTask.TaskType, String)} 的基础上追加模板用到的上下文变量值，
+     * 提示词前缀中发送所在类的声明时一并追加；模板只使用代码占位符且没有前缀时与不带上下文的指纹相同。
+     *
+     * @param type     文档类型
+     * @param language 编程语言
+     * @param context  提示词模板的上下文变量
+     * @return 请求配置指纹
+     */
+    @Override
+    @NotNull
+    public String getRequestFingerprint(@NotNull DocumentationTask.TaskType type, @NotNull String language,
+                                        @NotNull PromptContext context) {
+        String fingerprint = getRequestFingerprint(type, language);
+        PromptTemplate template = compiledTemplate(type, language);
+        StringBuilder variables = new StringBuilder();
+        for (PromptTemplate.Variable variable : PromptTemplate.Variable.values()) {
+            if (variable != PromptTemplate.Variable.CODE && template.uses(variable)) {
+                variables.append('\n').append(variable.getName()).append('=').append(variable.valueOf("", context));
+            }
+        }
+        List<String> prefix = buildPromptPrefix(type, language, context);
+        if (prefix.size() > 1) {
+            variables.append("\nclassContext=").append(prefix.get(prefix.size() - 1));
+        }
+        return variables.isEmpty() ? fingerprint : fingerprint + variables;
+    }
+
+    /**
+     * 异步发送请求，失败时按指数退避重试
+     *
+     * <p>范围取消后不再重试，退避等待也登记在范围中，取消时一并结束。
+     *
+     * @param prefix          提示词前缀消息，为空时只发送一条用户消息
+     * @param prompt          提示词
+     * @param partialListener 增量内容监听器，可为 null
+     * @param attempt         已尝试次数（从 0 开始）
+     * @param scope           取消范围
+     * @return 生成结果的 Future
+     */
+    private CompletableFuture<String> sendRequestWithRetryAsync(List<String> prefix,
+                                                                String prompt,
+                                                                @Nullable Consumer<String> partialListener,
+                                                                int attempt,
+                                                                CancellationScope scope) {
+        return sendRequestAsync(prefix, prompt, partialListener, scope)
+            .handle((result, error) -> {
+                if (error == null) {
+                    if (settings.verboseLogging) {
+                        LOG.debug("Successfully generated documentation on attempt " + (attempt + 1));
+                    }
+                    return CompletableFuture.completedFuture(result);
+                }
+                if (scope.isCancelled()) {
+                    return CompletableFuture.<String>failedFuture(new CancellationException("Request canceled"));
+                }
+
+                AIServiceException e = toAIServiceException(error, "AI Request");
+                int attempts = attempt + 1;
+                if (!e.isRetryable() || attempts >= settings.maxRetries) {
+                    LOG.info("Generation failed after " + attempts + " attempts: " + e.getMessage());
+                    return CompletableFuture.<String>failedFuture(e);
+                }
+
+                // 指数退避，由延迟执行器调度，不阻塞线程；被限流时由限流器控制等待时间
+                long waitTime = getRetryWaitTime(e, attempt);
+                getMetrics().recordRetry();
+                LOG.warn("Request failed, retrying in " + waitTime + "ms (attempt " + attempts + "/" +
+                         settings.maxRetries + "): " + e.getMessage());
+                Executor delayed = CompletableFuture.delayedExecutor(waitTime, TimeUnit.MILLISECONDS);
+                return scope.track(CompletableFuture.runAsync(() -> {
+                }, delayed)).thenCompose(ignored -> sendRequestWithRetryAsync(prefix, prompt, partialListener, attempts,
+                                                                              scope));
+            })
+            .thenCompose(Function.identity());
+    }
+
+    /**
+     * 计算重试前的等待时间
+     *
+     * <p>普通的可重试错误按指数退避等待。被限流（429）时，{@link ProviderRateLimiter} 已按服务端的
+     * {@code Retry-After} 暂停了该端点的所有请求，重试时申请额度会自动等待，这里不再叠加退避时间。
+     *
+     * @param e       本次失败的异常
+     * @param attempt 已失败的次数减一（从 0 开始）
+     * @return 等待的毫秒数
+     */
+    private long getRetryWaitTime(AIServiceException e, int attempt) {
+        if (e.getErrorCode() == AIServiceException.ErrorCode.RATE_LIMIT) {
+            return 0;
+        }
+        return (long) (settings.waitDuration * Math.pow(2, attempt));
+    }
+
     /**
      * 发送请求到 AI 服务
      *
@@ -178,8 +564,97 @@ public abstract class AICompatibleProvider implements AIServiceProvider {
      * @see #parseResponse(String)
      */
     protected String sendRequest(String prompt) throws AIServiceException {
-        JsonObject body = buildRequestBody(prompt);
-        return sendRequestWithBody(body, "AI Request", prompt.length(), this::parseResponse);
+        return sendRequest(List.of(), prompt);
+    }
+
+    /**
+     * 发送带提示词前缀消息的请求到 AI 服务
+     *
+     * <p>与异步请求一样通过共享的 {@link SharedHttpClient} 发送，只是在调用线程上等待结果，
+     * 性能模式和打包请求等同步路径因此同样复用预热过的连接。
+     *
+     * @param prefix 提示词前缀消息，位于系统提示词之后、用户提示词之前，为空时只发送一条用户消息
+     * @param prompt 提示词，包含代码和生成指令
+     * @return AI 生成的文本内容
+     * @throws AIServiceException 当请求失败时抛出
+     * @see #buildRequestBody(List, String)
+     */
+    protected String sendRequest(List<String> prefix, String prompt) throws AIServiceException {
+        CancellationScope scope = new CancellationScope();
+        return awaitResult(cancelWith(sendRequestAsync(prefix, prompt, null, scope), scope), "AI Request");
+    }
+
+    /**
+     * 异步发送请求到 AI 服务
+     *
+     * <p>请求体与 {@link #sendRequest(String)} 相同，使用共享的 HTTP 客户端非阻塞发送，
+     * 连接在多次请求之间复用。
+     *
+     * @param prompt 提示词，包含代码和生成指令
+     * @return AI 生成文本的 Future，失败时以 AIServiceException 异常完成
+     * @see #sendRequest(String)
+     */
+    protected CompletableFuture<String> sendRequestAsync(String prompt) {
+        return sendRequestAsync(prompt, null);
+    }
+
+    /**
+     * 异步发送请求到 AI 服务，启用流式模式时以 SSE 方式接收结果
+     *
+     * @param prompt          提示词，包含代码和生成指令
+     * @param partialListener 流式模式下的增量内容监听器，可为 null
+     * @return AI 生成文本的 Future，失败时以 AIServiceException 异常完成
+     * @see SettingsState#streaming
+     */
+    protected CompletableFuture<String> sendRequestAsync(String prompt, @Nullable Consumer<String> partialListener) {
+        return sendRequestAsync(List.of(), prompt, partialListener);
+    }
+
+    /**
+     * 异步发送带提示词前缀消息的请求到 AI 服务
+     *
+     * @param prefix          提示词前缀消息，为空时只发送一条用户消息
+     * @param prompt          提示词，包含代码和生成指令
+     * @param partialListener 流式模式下的增量内容监听器，可为 null
+     * @return AI 生成文本的 Future，失败时以 AIServiceException 异常完成
+     * @see #sendRequest(List, String)
+     */
+    protected CompletableFuture<String> sendRequestAsync(List<String> prefix, String prompt,
+                                                         @Nullable Consumer<String> partialListener) {
+        return sendRequestAsync(prefix, prompt, partialListener, new CancellationScope());
+    }
+
+    /**
+     * 在指定的取消范围内异步发送请求
+     *
+     * @param prefix          提示词前缀消息，为空时只发送一条用户消息
+     * @param prompt          提示词，包含代码和生成指令
+     * @param partialListener 流式模式下的增量内容监听器，可为 null
+     * @param scope           取消范围，登记本次请求的限流等待、HTTP 交换和 SSE 订阅
+     * @return AI 生成文本的 Future，失败时以 AIServiceException 异常完成
+     */
+    private CompletableFuture<String> sendRequestAsync(List<String> prefix, String prompt,
+                                                       @Nullable Consumer<String> partialListener,
+                                                       CancellationScope scope) {
+        ChatRequestBody body = encodeRequestBody(prefix, prompt);
+        if (settings.streaming) {
+            return sendStreamingRequestAsync(body, getCompletionsUrl(), "AI Request", prompt.length(), partialListener,
+                                             scope);
+        }
+        return sendRequestWithBodyAsync(body, getCompletionsUrl(), "AI Request", prompt.length(), completionParser,
+                                        scope);
+    }
+
+    /**
+     * 获取文档生成请求的地址
+     * <p>
+     * 默认为 OpenAI 兼容的 {@code {baseUrl}/chat/completions}，使用其他接口的提供商覆盖此方法，
+     * 同时覆盖 {@link #buildRequestBody(List, String)} 构建对应格式的请求体。配置验证始终使用 OpenAI 兼容接口。
+     *
+     * @return 请求地址
+     */
+    protected String getCompletionsUrl() {
+        return settings.baseUrl + "/chat/completions";
     }
 
     /**
@@ -209,8 +684,9 @@ public abstract class AICompatibleProvider implements AIServiceProvider {
      * @throws AIServiceException 当验证请求失败时抛出
      */
     protected String sendValidationRequest() throws AIServiceException {
-        JsonObject body = buildValidationRequestBody();
-        return sendRequestWithBody(body, "Validation Request", 0, this::parseValidationResponse);
+        ChatRequestBody body = ChatRequestBody.of(buildValidationRequestBody());
+        return sendRequestWithBody(body, settings.baseUrl + "/chat/completions", "Validation Request", 0,
+                                   this::parseValidationResponse);
     }
 
     /**
@@ -229,101 +705,587 @@ public abstract class AICompatibleProvider implements AIServiceProvider {
          * @throws AIServiceException 如果解析过程中发生错误
          */
         String parse(String responseBody) throws AIServiceException;
+
+        /**
+         * 从响应流中解析结果
+         * <p>
+         * 默认读取完整响应后交给 {@link #parse(String)}，支持流式解析的实现可以覆盖此方法。
+         *
+         * @param responseBody 响应内容
+         * @return 解析后的结果
+         * @throws IOException        读取响应失败时抛出
+         * @throws AIServiceException 如果解析过程中发生错误
+         */
+        default String parse(Reader responseBody) throws IOException, AIServiceException {
+            StringWriter content = new StringWriter();
+            responseBody.transferTo(content);
+            String text = content.toString();
+            if (text.trim().isEmpty()) {
+                throw new AIServiceException("Invalid response from AI service",
+                                             AIServiceException.ErrorCode.INVALID_RESPONSE);
+            }
+            return parse(text);
+        }
+    }
+
+    /**
+     * 向指定的API端点发送带有请求体的HTTP请求，并解析返回的响应内容
+     * <p>
+     * 该方法用于构建并发送HTTP POST请求，处理API Key验证、请求日志记录、超时设置、响应解析等操作。
+     * 如果请求成功且响应内容非空，则返回解析后的结果；否则抛出相应的异常。
+     *
+     * <p>请求体按声明的长度直接写入连接的输出流；未开启详细日志时，响应同样直接从输入流交给解析器，
+     * 不再先读取为完整的字符串。目前只用于配置验证请求，文档生成请求都通过共享的 {@link SharedHttpClient} 发送。
+     *
+     * @param body           请求体
+     * @param url            请求地址
+     * @param logPrefix      日志前缀，用于区分不同请求的日志信息
+     * @param promptLength   提示内容长度，用于日志记录
+     * @param responseParser 响应解析器，用于解析服务器返回的响应内容
+     * @return 解析后的响应结果字符串
+     * @throws AIServiceException 如果发生配置错误、网络错误、响应无效或未知错误
+     */
+    private String sendRequestWithBody(ChatRequestBody body, String url, String logPrefix, int promptLength,
+                                       ResponseParser responseParser) throws AIServiceException {
+        try {
+            // 检查API Key配置
+            if (requiresApiKey()) {
+                String apiKey = settings.apiKey;
+                if (apiKey == null || apiKey.trim().isEmpty()) {
+                    throw new AIServiceException("Failed to build request headers: API Key is required but not configured",
+                                                 AIServiceException.ErrorCode.CONFIGURATION_ERROR);
+                }
+            }
+
+            boolean verbose = settings.verboseLogging;
+
+            // 调试日志：记录请求信息
+            if (verbose) {
+                LOG.trace("=== " + logPrefix + " ===");
+                LOG.trace("URL: " + url);
+                LOG.trace("Model: " + settings.modelName);
+                LOG.trace("Request Body: " + truncateForLog(body.toString(),
+                                                            "Validation Request".equals(logPrefix) ? 500 : 1000));
+                if (promptLength > 0) {
+                    LOG.trace("Prompt Length: " + promptLength + " characters");
+                }
+            }
+
+            // 按端点限流，额度不足时等待
+            ProviderRateLimiter limiter = getRateLimiter();
+            awaitPermit(limiter, body.length());
+
+            // 使用IDEA SDK的HttpRequests发送请求，错误状态码由 checkStatusCode 统一分类
+            ProviderMetrics metrics = getMetrics();
+            metrics.requestStarted(body.length());
+            SyncResponse response;
+            try {
+                response = HttpRequests.post(url, "application/json")
+                    .throwStatusCodeException(false)
+                    .tuner(connection -> {
+                        // 设置超时
+                        connection.setConnectTimeout(settings.timeout); // 使用设置中的连接超时
+                        connection.setReadTimeout(settings.timeout * 2); // 读取超时是连接超时的2倍
+
+                        // 设置Authorization头（如果需要）
+                        if (requiresApiKey()) {
+                            connection.setRequestProperty("Authorization", "Bearer " + settings.apiKey);
+                        }
+                    })
+                    .connect(request -> {
+                        // 声明请求体长度后直接写入输出流，连接内部不再缓冲整个请求体
+                        HttpURLConnection connection = (HttpURLConnection) request.getConnection();
+                        connection.setFixedLengthStreamingMode(body.byteLength());
+                        try (OutputStream out = connection.getOutputStream()) {
+                            body.writeTo(out);
+                        }
+                        // 读取状态码和限流相关的响应头，错误响应不读取响应体
+                        int statusCode = connection.getResponseCode();
+                        limiter.onResponse(connection::getHeaderField);
+                        long retryAfter = ProviderRateLimiter.parseRetryAfter(connection::getHeaderField,
+                                                                              System.currentTimeMillis());
+                        if (statusCode >= 400) {
+                            return new SyncResponse(statusCode, retryAfter, null, null, null);
+                        }
+                        if (verbose) {
+                            return new SyncResponse(statusCode, retryAfter, request.readString(), null, null);
+                        }
+                        try (Reader reader = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)) {
+                            return new SyncResponse(statusCode, retryAfter, null, responseParser.parse(reader), null);
+                        } catch (AIServiceException e) {
+                            return new SyncResponse(statusCode, retryAfter, null, null, e);
+                        }
+                    });
+            } finally {
+                metrics.requestFinished();
+            }
+            checkStatusCode(response.statusCode(), response.retryAfterMillis(), limiter);
+            if (response.error() != null) {
+                throw response.error();
+            }
+            if (response.result() != null) {
+                return response.result();
+            }
+            String responseBody = response.body();
+
+            // 调试日志：记录响应信息
+            if (verbose) {
+                LOG.trace("=== " + logPrefix.replace("Request", "Response") + " ===");
+                LOG.trace("Response Body: " + truncateForLog(responseBody,
+                                                             "Validation".equals(logPrefix) ? 1000 : 2000));
+            }
+
+            if (!responseBody.trim().isEmpty()) {
+                String result = responseParser.parse(responseBody);
+
+                if (settings.verboseLogging) {
+                    LOG.trace("Parsed Result Length: " + result.length() + " characters");
+                    LOG.trace("Parsed Result:\n" + truncateForLog(result,
+                                                                  "Validation".equals(logPrefix) ? 200 : 1000));
+                }
+
+                return result;
+            }
+
+            throw new AIServiceException("Invalid response from AI service",
+                                         AIServiceException.ErrorCode.INVALID_RESPONSE);
+
+        } catch (IOException e) {
+            LOG.info("Network Error during " + logPrefix.toLowerCase() + ": " + e.getMessage());
+            throw new AIServiceException("Network error: " + e.getMessage(),
+                                         AIServiceException.ErrorCode.NETWORK_ERROR, e);
+        } catch (AIServiceException e) {
+            // 重新抛出AIServiceException
+            throw e;
+        } catch (Exception e) {
+            LOG.info("Unexpected error during " + logPrefix.toLowerCase(), e);
+            throw new AIServiceException("Unexpected error: " + e.getMessage(),
+                                         AIServiceException.ErrorCode.UNKNOWN_ERROR, e);
+        }
+    }
+
+    /**
+     * 异步发送带有请求体的 HTTP 请求，并解析返回的响应内容
+     * <p>
+     * 与 {@link #sendRequestWithBody} 的请求内容、超时和错误映射保持一致，
+     * 区别在于使用 {@link SharedHttpClient} 的 {@code sendAsync} 发送，调用线程不会阻塞等待响应。
+     *
+     * @param body           请求体
+     * @param url            请求地址
+     * @param logPrefix      日志前缀，用于区分不同请求的日志信息
+     * @param promptLength   提示内容长度，用于日志记录
+     * @param responseParser 响应解析器，用于解析服务器返回的响应内容
+     * @param scope          取消范围，取消时中止限流等待和 HTTP 交换
+     * @return 解析结果的 Future，失败时以 AIServiceException 异常完成
+     */
+    private CompletableFuture<String> sendRequestWithBodyAsync(ChatRequestBody body, String url, String logPrefix,
+                                                               int promptLength, ResponseParser responseParser,
+                                                               CancellationScope scope) {
+        HttpRequest request;
+        try {
+            request = buildHttpRequest(body, url, logPrefix, promptLength, false);
+        } catch (AIServiceException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        ProviderRateLimiter limiter = getRateLimiter();
+        ProviderMetrics metrics = getMetrics();
+        return scope.track(afterPermit(limiter, body.length()))
+            .thenCompose(permit -> {
+                if (scope.isCancelled()) {
+                    throw new CancellationException("Request canceled");
+                }
+                metrics.requestStarted(body.length());
+                return scope.track(SharedHttpClient.get(request.uri(), settings.timeout)
+                                       .sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)))
+                    .whenComplete((response, error) -> metrics.requestFinished());
+            })
+            .handle((response, error) -> {
+                if (error != null) {
+                    throw new CompletionException(toAIServiceException(error, logPrefix));
+                }
+                try {
+                    return handleAsyncResponse(response, logPrefix, responseParser, limiter);
+                } catch (AIServiceException e) {
+                    throw new CompletionException(e);
+                } catch (Exception e) {
+                    throw new CompletionException(toAIServiceException(e, logPrefix));
+                }
+            });
+    }
+
+    /**
+     * 以流式（SSE）方式异步发送请求
+     * <p>
+     * 请求不设置整体读取超时，改为由订阅器限制两次数据之间的间隔（首次数据之前即等待响应头的时间），
+     * 长文档只要持续输出就不会因为总生成时间超过超时而失败。
+     * 服务端忽略 {@code stream} 参数返回普通 JSON 时，回退为按非流式响应解析。
+     *
+     * @param body            请求体，{@code stream} 字段为 true
+     * @param url             请求地址
+     * @param logPrefix       日志前缀，用于区分不同请求的日志信息
+     * @param promptLength    提示内容长度，用于日志记录
+     * @param partialListener 增量内容监听器，可为 null
+     * @param scope           取消范围，取消时中止限流等待、HTTP 交换和 SSE 订阅
+     * @return 过滤思考内容后的完整结果的 Future，失败时以 AIServiceException 异常完成
+     * @see SseCompletionSubscriber
+     */
+    private CompletableFuture<String> sendStreamingRequestAsync(ChatRequestBody body, String url, String logPrefix,
+                                                                int promptLength,
+                                                                @Nullable Consumer<String> partialListener,
+                                                                CancellationScope scope) {
+        HttpRequest request;
+        try {
+            request = buildHttpRequest(body, url, logPrefix, promptLength, true);
+        } catch (AIServiceException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        SseCompletionSubscriber subscriber = new SseCompletionSubscriber(settings.timeout * 2L, partialListener);
+        AtomicInteger statusCode = new AtomicInteger();
+        AtomicLong retryAfter = new AtomicLong(-1);
+        ProviderRateLimiter limiter = getRateLimiter();
+        ProviderMetrics metrics = getMetrics();
+        scope.onCancel(() -> subscriber.fail(new CancellationException("Request canceled")));
+        scope.track(afterPermit(limiter, body.length()))
+            .thenCompose(permit -> {
+                if (scope.isCancelled()) {
+                    throw new CancellationException("Request canceled");
+                }
+                // 额度就绪后再开始计算数据间隔超时
+                subscriber.start();
+                metrics.requestStarted(body.length());
+                return scope.track(SharedHttpClient.get(request.uri(), settings.timeout)
+                    .sendAsync(request, responseInfo -> {
+                        statusCode.set(responseInfo.statusCode());
+                        Function<String, String> headers = name -> responseInfo.headers().firstValue(name).orElse(null);
+                        limiter.onResponse(headers);
+                        retryAfter.set(ProviderRateLimiter.parseRetryAfter(headers, System.currentTimeMillis()));
+                        return HttpResponse.BodySubscribers.fromLineSubscriber(subscriber, ignored -> null,
+                                                                               StandardCharsets.UTF_8, null);
+                    }))
+                    .whenComplete((response, error) -> metrics.requestFinished());
+            })
+            .whenComplete((response, error) -> {
+                if (error != null) {
+                    subscriber.fail(error);
+                }
+            });
+
+        return subscriber.result().handle((result, error) -> {
+            if (error != null) {
+                throw new CompletionException(toAIServiceException(error, logPrefix));
+            }
+            try {
+                checkStatusCode(statusCode.get(), retryAfter.get(), limiter);
+                if (settings.verboseLogging) {
+                    LOG.trace("=== " + logPrefix.replace("Request", "Response") + " (stream) ===");
+                    LOG.trace("Streamed: " + result.streamed() + ", Body: " + truncateForLog(result.body(), 2000));
+                }
+                if (!result.streamed()) {
+                    return parseFallbackResponse(result.body());
+                }
+                String content = filterThinkingContent(result.body().trim());
+                if (content == null || content.isEmpty()) {
+                    throw new AIServiceException("Invalid response from AI service",
+                                                 AIServiceException.ErrorCode.INVALID_RESPONSE);
+                }
+                return content;
+            } catch (AIServiceException e) {
+                throw new CompletionException(e);
+            } catch (Exception e) {
+                throw new CompletionException(toAIServiceException(e, logPrefix));
+            }
+        });
+    }
+
+    /**
+     * 解析未按流式返回的响应体
+     *
+     * @param responseBody 原始响应体
+     * @return 解析结果
+     * @throws AIServiceException 响应内容无效时抛出
+     */
+    private String parseFallbackResponse(String responseBody) throws AIServiceException {
+        if (responseBody.trim().isEmpty()) {
+            throw new AIServiceException("Invalid response from AI service",
+                                         AIServiceException.ErrorCode.INVALID_RESPONSE);
+        }
+        return parseResponse(responseBody);
+    }
+
+    /**
+     * 构建异步请求
+     * <p>
+     * 检查 API Key 配置，记录调试日志，并设置请求头和读取超时。
+     *
+     * @param body         请求体
+     * @param url          请求地址
+     * @param logPrefix    日志前缀
+     * @param promptLength 提示内容长度，用于日志记录
+     * @param streaming    是否为流式请求
+     * @return HTTP 请求
+     * @throws AIServiceException 缺少 API Key 或 Base URL 无效时抛出
+     */
+    private HttpRequest buildHttpRequest(ChatRequestBody body, String url, String logPrefix, int promptLength,
+                                         boolean streaming) throws AIServiceException {
+        // 检查API Key配置
+        if (requiresApiKey()) {
+            String apiKey = settings.apiKey;
+            if (apiKey == null || apiKey.trim().isEmpty()) {
+                throw new AIServiceException("Failed to build request headers: API Key is required but not configured",
+                                             AIServiceException.ErrorCode.CONFIGURATION_ERROR);
+            }
+        }
+
+        if (settings.verboseLogging) {
+            LOG.trace("=== " + logPrefix + (streaming ? " (stream) ===" : " (async) ==="));
+            LOG.trace("URL: " + url);
+            LOG.trace("Model: " + settings.modelName);
+            LOG.trace("Request Body: " + truncateForLog(body.toString(), 1000));
+            if (promptLength > 0) {
+                LOG.trace("Prompt Length: " + promptLength + " characters");
+            }
+        }
+
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(body.publisher());
+            if (streaming) {
+                // 流式请求的整体读取超时会覆盖整个生成过程，改由订阅器按数据间隔计算
+                builder.header("Accept", "text/event-stream");
+            } else {
+                // 读取超时是连接超时的2倍
+                builder.timeout(Duration.ofMillis(settings.timeout * 2L));
+            }
+            if (requiresApiKey()) {
+                builder.header("Authorization", "Bearer " + settings.apiKey);
+            }
+            return builder.build();
+        } catch (IllegalArgumentException e) {
+            throw new AIServiceException("Invalid base URL: " + settings.baseUrl,
+                                         AIServiceException.ErrorCode.CONFIGURATION_ERROR, e);
+        }
+    }
+
+    /**
+     * 检查响应状态码
+     *
+     * <p>错误分类：
+     * <ul>
+     *   <li>401/403：API Key 无效，不重试</li>
+     *   <li>408：请求超时</li>
+     *   <li>429：限流，按 {@code Retry-After} 暂停该端点的所有请求</li>
+     *   <li>5xx：服务不可用，503 带 {@code Retry-After} 时同样暂停该端点</li>
+     *   <li>其他 4xx：网络错误</li>
+     * </ul>
+     *
+     * @param statusCode       HTTP 状态码
+     * @param retryAfterMillis 响应要求的重试等待时间，未指定时为负数
+     * @param limiter          端点限流器
+     * @throws AIServiceException 状态码表示请求失败时抛出
+     */
+    private void checkStatusCode(int statusCode, long retryAfterMillis,
+                                 ProviderRateLimiter limiter) throws AIServiceException {
+        if (statusCode < 400) {
+            return;
+        }
+        String retryHint = retryAfterMillis >= 0 ? ", retry after " + retryAfterMillis + "ms" : "";
+        if (statusCode == 401 || statusCode == 403) {
+            throw new AIServiceException("Invalid API Key (HTTP " + statusCode + ")",
+                                         AIServiceException.ErrorCode.INVALID_API_KEY);
+        }
+        if (statusCode == 408) {
+            throw new AIServiceException("Request timeout (HTTP 408)", AIServiceException.ErrorCode.TIMEOUT);
+        }
+        if (statusCode == 429) {
+            limiter.onRateLimited(retryAfterMillis);
+            getMetrics().recordRateLimited();
+            throw new AIServiceException("Rate limit exceeded (HTTP 429" + retryHint + ")",
+                                         AIServiceException.ErrorCode.RATE_LIMIT);
+        }
+        if (statusCode >= 500) {
+            if (statusCode == 503 && retryAfterMillis > 0) {
+                limiter.onRateLimited(retryAfterMillis);
+            }
+            throw new AIServiceException("Server error (HTTP " + statusCode + retryHint + ")",
+                                         AIServiceException.ErrorCode.SERVICE_UNAVAILABLE);
+        }
+        throw new AIServiceException("Network error: Request failed with status code " + statusCode,
+                                     AIServiceException.ErrorCode.NETWORK_ERROR);
+    }
+
+    /**
+     * 获取当前端点共享的限流器，并应用用户配置的配额
+     *
+     * @return 端点限流器
+     * @see SettingsState#requestsPerMinute
+     * @see SettingsState#tokensPerMinute
+     */
+    private ProviderRateLimiter getRateLimiter() {
+        ProviderRateLimiter limiter = ProviderRateLimiter.forEndpoint(getProviderId(), settings.baseUrl, settings.apiKey);
+        limiter.configure(settings.requestsPerMinute, settings.tokensPerMinute);
+        return limiter;
+    }
+
+    /**
+     * 估算请求消耗的 token 数
+     *
+     * <p>按 {@link TokenEstimator} 估算请求体的输入，加上 max_tokens 作为输出上限，与服务端预扣配额的方式一致。
+     * 估算偏差由响应头中的剩余额度校正。
+     *
+     * @param requestLength 请求体字符数
+     * @return 预计消耗的 token 数
+     */
+    private int estimateTokens(int requestLength) {
+        return TokenEstimator.estimate(requestLength) + Math.max(0, settings.maxTokens);
+    }
+
+    /**
+     * 在调用线程上等待限流额度
+     *
+     * @param limiter       端点限流器
+     * @param requestLength 请求体字符数
+     * @throws AIServiceException 等待被中断时抛出
+     */
+    private void awaitPermit(ProviderRateLimiter limiter, int requestLength) throws AIServiceException {
+        long delay = limiter.reserve(estimateTokens(requestLength));
+        if (delay <= 0) {
+            return;
+        }
+        if (settings.verboseLogging) {
+            LOG.debug("Rate limited by client, waiting " + delay + "ms before sending");
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AIServiceException("Interrupted while waiting for rate limit",
+                                         AIServiceException.ErrorCode.UNKNOWN_ERROR, e);
+        }
+    }
+
+    /**
+     * 异步等待限流额度，等待通过延迟执行器调度而不阻塞线程
+     *
+     * @param limiter       端点限流器
+     * @param requestLength 请求体字符数
+     * @return 额度就绪时完成的 Future
+     */
+    private CompletableFuture<Void> afterPermit(ProviderRateLimiter limiter, int requestLength) {
+        long delay = limiter.reserve(estimateTokens(requestLength));
+        if (delay <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (settings.verboseLogging) {
+            LOG.debug("Rate limited by client, delaying request by " + delay + "ms");
+        }
+        return CompletableFuture.runAsync(() -> {
+        }, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * 同步请求的响应
+     *
+     * @param statusCode       HTTP 状态码
+     * @param retryAfterMillis 响应要求的重试等待时间，未指定时为负数
+     * @param body             开启详细日志时读取的完整响应体，其他情况为 null
+     * @param result           直接从响应流解析出的结果，未解析时为 null
+     * @param error            直接从响应流解析失败时的异常
+     */
+    private record SyncResponse(int statusCode, long retryAfterMillis, @Nullable String body,
+                                @Nullable String result, @Nullable AIServiceException error) {
+    }
+
+    /**
+     * 在调用线程上等待异步请求结果
+     *
+     * @param future    异步请求
+     * @param logPrefix 日志前缀
+     * @return 请求结果
+     * @throws AIServiceException 请求失败或等待被中断时抛出
+     */
+    private String awaitResult(CompletableFuture<String> future, String logPrefix) throws AIServiceException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw toAIServiceException(e, logPrefix);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AIServiceException("Interrupted while waiting for response",
+                                         AIServiceException.ErrorCode.UNKNOWN_ERROR, e);
+        }
     }
 
     /**
-     * 向指定的API端点发送带有请求体的HTTP请求，并解析返回的响应内容
-     * <p>
-     * 该方法用于构建并发送HTTP POST请求，处理API Key验证、请求日志记录、超时设置、响应解析等操作。
-     * 如果请求成功且响应内容非空，则返回解析后的结果；否则抛出相应的异常。
+     * 校验并解析异步请求的响应
      *
-     * @param body           请求体，使用JsonObject格式
-     * @param logPrefix      日志前缀，用于区分不同请求的日志信息
-     * @param promptLength   提示内容长度，用于日志记录
-     * @param responseParser 响应解析器，用于解析服务器返回的响应内容
+     * @param response       HTTP 响应
+     * @param logPrefix      日志前缀
+     * @param responseParser 响应解析器
+     * @param limiter        端点限流器
      * @return 解析后的响应结果字符串
-     * @throws AIServiceException 如果发生配置错误、网络错误、响应无效或未知错误
+     * @throws AIServiceException 响应状态码异常或响应内容无效时抛出
      */
-    private String sendRequestWithBody(JsonObject body, String logPrefix, int promptLength,
-                                       ResponseParser responseParser) throws AIServiceException {
-        try {
-            // 检查API Key配置
-            if (requiresApiKey()) {
-                String apiKey = settings.apiKey;
-                if (apiKey == null || apiKey.trim().isEmpty()) {
-                    throw new AIServiceException("Failed to build request headers: API Key is required but not configured",
-                                                 AIServiceException.ErrorCode.CONFIGURATION_ERROR);
-                }
-            }
-
-            String url = settings.baseUrl + "/chat/completions";
-            String requestBody = body.toString();
+    private String handleAsyncResponse(HttpResponse<String> response, String logPrefix,
+                                       ResponseParser responseParser,
+                                       ProviderRateLimiter limiter) throws AIServiceException {
+        String responseBody = response.body();
 
-            // 调试日志：记录请求信息
-            if (settings.verboseLogging) {
-                LOG.trace("=== " + logPrefix + " ===");
-                LOG.trace("URL: " + url);
-                LOG.trace("Model: " + settings.modelName);
-                LOG.trace("Request Body: " + truncateForLog(requestBody,
-                                                            "Validation Request".equals(logPrefix) ? 500 : 1000));
-                if (promptLength > 0) {
-                    LOG.trace("Prompt Length: " + promptLength + " characters");
-                }
-            }
+        if (settings.verboseLogging) {
+            LOG.trace("=== " + logPrefix.replace("Request", "Response") + " (async) ===");
+            LOG.trace("Status: " + response.statusCode() + ", Protocol: " + response.version());
+            LOG.trace("Response Body: " + truncateForLog(responseBody, 2000));
+        }
 
-            // 使用IDEA SDK的HttpRequests发送请求
-            String responseBody = HttpRequests.post(url, "application/json")
-                .tuner(connection -> {
-                    // 设置超时
-                    connection.setConnectTimeout(settings.timeout); // 使用设置中的连接超时
-                    connection.setReadTimeout(settings.timeout * 2); // 读取超时是连接超时的2倍
+        Function<String, String> headers = name -> response.headers().firstValue(name).orElse(null);
+        limiter.onResponse(headers);
+        checkStatusCode(response.statusCode(), ProviderRateLimiter.parseRetryAfter(headers, System.currentTimeMillis()),
+                        limiter);
 
-                    // 设置Authorization头（如果需要）
-                    if (requiresApiKey()) {
-                        connection.setRequestProperty("Authorization", "Bearer " + settings.apiKey);
-                    }
-                })
-                .connect(request -> {
-                    // 写入请求体
-                    request.write(requestBody);
-                    // 读取响应
-                    return request.readString();
-                });
+        if (responseBody != null && !responseBody.trim().isEmpty()) {
+            String result = responseParser.parse(responseBody);
 
-            // 调试日志：记录响应信息
             if (settings.verboseLogging) {
-                LOG.trace("=== " + logPrefix.replace("Request", "Response") + " ===");
-                LOG.trace("Response Body: " + truncateForLog(responseBody,
-                                                             "Validation".equals(logPrefix) ? 1000 : 2000));
+                LOG.trace("Parsed Result Length: " + result.length() + " characters");
             }
 
-            if (!responseBody.trim().isEmpty()) {
-                String result = responseParser.parse(responseBody);
-
-                if (settings.verboseLogging) {
-                    LOG.trace("Parsed Result Length: " + result.length() + " characters");
-                    LOG.trace("Parsed Result:\n" + truncateForLog(result,
-                                                                  "Validation".equals(logPrefix) ? 200 : 1000));
-                }
+            return result;
+        }
 
-                return result;
-            }
+        throw new AIServiceException("Invalid response from AI service",
+                                     AIServiceException.ErrorCode.INVALID_RESPONSE);
+    }
 
-            throw new AIServiceException("Invalid response from AI service",
-                                         AIServiceException.ErrorCode.INVALID_RESPONSE);
+    /**
+     * 将异步调用链中的异常转换为 AIServiceException
+     *
+     * <p>错误分类与同步请求一致：IO 异常视为网络错误，其余未知异常视为未知错误。
+     *
+     * @param error     异步调用链中的异常
+     * @param logPrefix 日志前缀
+     * @return 对应的 AIServiceException
+     */
+    private AIServiceException toAIServiceException(Throwable error, String logPrefix) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+               && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
 
-        } catch (IOException e) {
-            LOG.info("Network Error during " + logPrefix.toLowerCase() + ": " + e.getMessage());
-            throw new AIServiceException("Network error: " + e.getMessage(),
-                                         AIServiceException.ErrorCode.NETWORK_ERROR, e);
-        } catch (AIServiceException e) {
-            // 重新抛出AIServiceException
-            throw e;
-        } catch (Exception e) {
-            LOG.info("Unexpected error during " + logPrefix.toLowerCase(), e);
-            throw new AIServiceException("Unexpected error: " + e.getMessage(),
-                                         AIServiceException.ErrorCode.UNKNOWN_ERROR, e);
+        if (cause instanceof AIServiceException) {
+            return (AIServiceException) cause;
+        }
+        if (cause instanceof IOException) {
+            LOG.info("Network Error during " + logPrefix.toLowerCase() + ": " + cause.getMessage());
+            return new AIServiceException("Network error: " + cause.getMessage(),
+                                          AIServiceException.ErrorCode.NETWORK_ERROR, cause);
         }
+        LOG.info("Unexpected error during " + logPrefix.toLowerCase(), cause);
+        return new AIServiceException("Unexpected error: " + cause.getMessage(),
+                                      AIServiceException.ErrorCode.UNKNOWN_ERROR, cause);
     }
 
     /**
@@ -385,6 +1347,21 @@ public abstract class AICompatibleProvider implements AIServiceProvider {
      * @see org.json.JSONObject
      */
     protected JsonObject buildRequestBody(String prompt) {
+        return buildRequestBody(List.of(), prompt);
+    }
+
+    /**
+     * 构建带提示词前缀消息的请求体
+     *
+     * <p>前缀消息作为用户消息依次放在系统提示词之后、用户提示词之前。
+     * 同一个类的成员请求中，系统提示词和前缀消息逐字节相同，服务端可以复用前缀的提示词缓存；
+     * 最后一条前缀消息交给 {@link #markCacheablePrefix(JsonObject)} 附加提供商的显式缓存标记。
+     *
+     * @param prefix 提示词前缀消息，为空时与 {@link #buildRequestBody(String)} 相同
+     * @param prompt 提示词内容
+     * @return 构建好的 JSON 请求体
+     */
+    protected JsonObject buildRequestBody(List<String> prefix, String prompt) {
         // 创建 system 消息
         JsonObject systemMessage = new JsonObject();
         systemMessage.addProperty("role", "system");
@@ -401,12 +1378,21 @@ public abstract class AICompatibleProvider implements AIServiceProvider {
         body.addProperty("think", false);
         // openapi 兼容的参数
         body.addProperty("enable_thinking", false);
-        // 关闭流式输出
-        body.addProperty("stream", false);
+        // 流式输出由设置控制，关闭时等待完整响应
+        body.addProperty("stream", settings.streaming);
 
         // 创建消息数组
         JsonArray messagesArray = new JsonArray();
         messagesArray.add(systemMessage);
+        for (int i = 0; i < prefix.size(); i++) {
+            JsonObject prefixMessage = new JsonObject();
+            prefixMessage.addProperty("role", "user");
+            prefixMessage.addProperty("content", prefix.get(i));
+            if (i == prefix.size() - 1) {
+                markCacheablePrefix(prefixMessage);
+            }
+            messagesArray.add(prefixMessage);
+        }
         messagesArray.add(userMessage);
         body.add("messages", messagesArray);
 
@@ -419,6 +1405,76 @@ public abstract class AICompatibleProvider implements AIServiceProvider {
         return body;
     }
 
+    /**
+     * 编码文档生成请求的请求体
+     *
+     * <p>除用户提示词外，请求体的其余部分（模型、参数和系统提示词）在设置不变时保持不变，
+     * 因此以占位提示词调用 {@link #buildRequestBody(String)} 预编码一次并缓存，
+     * 之后每次请求只需编码提示词本身。得到的字节与 {@code buildRequestBody(prompt).toString()} 相同。
+     *
+     * @param prompt 提示词内容
+     * @return 请求体
+     */
+    ChatRequestBody encodeRequestBody(String prompt) {
+        return encodeRequestBody(List.of(), prompt);
+    }
+
+    /**
+     * 编码带提示词前缀消息的请求体
+     *
+     * <p>前缀消息计入模板的缓存键，处理同一个类的成员时复用同一个模板。模板按最近使用保留
+     * {@value #MAX_REQUEST_TEMPLATES} 个，并发处理多个类时交替的请求不会互相淘汰对方的模板；
+     * 设置变化后旧模板不再命中，随后被淘汰。
+     * 得到的字节与 {@code buildRequestBody(prefix, prompt).toString()} 相同。
+     *
+     * @param prefix 提示词前缀消息
+     * @param prompt 提示词内容
+     * @return 请求体
+     */
+    ChatRequestBody encodeRequestBody(List<String> prefix, String prompt) {
+        List<?> key = Arrays.asList(settings.modelName, settings.streaming, getSystemPrompt(), settings.temperature,
+                                    settings.maxTokens, settings.topP, settings.topK, settings.presencePenalty, prefix,
+                                    getRequestOptionsKey());
+        ChatRequestBody.Template template;
+        synchronized (requestTemplates) {
+            template = requestTemplates.get(key);
+        }
+        if (template == null) {
+            template = ChatRequestBody.Template.split(buildRequestBody(prefix, ChatRequestBody.PROMPT_PLACEHOLDER));
+            if (template == null) {
+                // 系统提示词或前缀中恰好包含占位内容时无法拆分，退回整体编码
+                return ChatRequestBody.of(buildRequestBody(prefix, prompt));
+            }
+            synchronized (requestTemplates) {
+                requestTemplates.put(key, template);
+            }
+        }
+        return template.body(prompt);
+    }
+
+    /**
+     * 获取提供商专用的请求参数
+     * <p>
+     * 覆盖 {@link #buildRequestBody(List, String)} 加入其他设置项的提供商返回这些设置项的值，
+     * 计入预编码请求体模板的缓存键，设置变化后重建模板。
+     *
+     * @return 提供商专用参数，默认为空列表
+     */
+    protected List<?> getRequestOptionsKey() {
+        return List.of();
+    }
+
+    /**
+     * 为提示词前缀的最后一条消息附加显式缓存标记
+     *
+     * <p>OpenAI 兼容服务、Ollama 和 LM Studio 会自动复用相同前缀的缓存，默认不做处理；
+     * 需要显式声明缓存位置的提供商覆盖此方法。
+     *
+     * @param message 前缀的最后一条消息
+     */
+    protected void markCacheablePrefix(JsonObject message) {
+    }
+
     /**
      * 获取系统提示词
      *
@@ -493,12 +1549,7 @@ public abstract class AICompatibleProvider implements AIServiceProvider {
      */
     protected String parseResponse(String responseBody) throws AIServiceException {
         try {
-            JsonObject json = JsonParser.parseString(responseBody).getAsJsonObject();
-            String content = json.getAsJsonArray("choices")
-                .get(0).getAsJsonObject()
-                .getAsJsonObject("message")
-                .get("content").getAsString()
-                .trim();
+            String content = readCompletion(new StringReader(responseBody));
 
             // 过滤思考数据，只保留实际内容
             return filterThinkingContent(content);
@@ -509,6 +1560,45 @@ public abstract class AICompatibleProvider implements AIServiceProvider {
         }
     }
 
+    /**
+     * 从响应流中解析 AI 响应
+     *
+     * <p>与 {@link #parseResponse(String)} 的结果相同，边读取边解析，不缓冲完整的响应体。
+     * 响应为空、被截断或格式不符时抛出 INVALID_RESPONSE 异常，读取过程中的其他网络错误原样抛出。
+     *
+     * @param responseBody 响应流
+     * @return 解析出的文本内容，已过滤思考数据
+     * @throws IOException        读取响应失败时抛出
+     * @throws AIServiceException 当解析失败时抛出 INVALID_RESPONSE 类型异常
+     */
+    protected String parseResponse(Reader responseBody) throws IOException, AIServiceException {
+        String content;
+        try {
+            content = readCompletion(responseBody);
+        } catch (EOFException | MalformedJsonException | JsonParseException | IllegalStateException e) {
+            LOG.info("Failed to parse AI response", e);
+            throw new AIServiceException("Failed to parse response",
+                                         AIServiceException.ErrorCode.INVALID_RESPONSE, e);
+        }
+        return filterThinkingContent(content);
+    }
+
+    /**
+     * 读取响应中的消息内容，并记录服务端报告的提示词缓存用量
+     *
+     * @param responseBody 响应内容
+     * @return 去除首尾空白的消息内容
+     * @throws IOException 读到消息内容之前读取失败时抛出
+     * @see ChatResponseReader#readCompletion(Reader)
+     */
+    private String readCompletion(Reader responseBody) throws IOException {
+        ChatResponseReader.Completion completion = ChatResponseReader.readCompletion(responseBody);
+        if (completion.cachedTokens() >= 0) {
+            getMetrics().recordPromptCache(completion.promptTokens(), completion.cachedTokens());
+        }
+        return completion.content().trim();
+    }
+
     /**
      * 解析验证响应
      *
@@ -632,8 +1722,8 @@ public abstract class AICompatibleProvider implements AIServiceProvider {
      *
      * <p>构建流程：
      * <ol>
-     *   <li>根据文档类型加载相应的 Prompt 模板</li>
-     *   <li>使用 String.format 将代码内容插入模板</li>
+     *   <li>根据文档类型获取相应的预编译 Prompt 模板</li>
+     *   <li>将代码内容和上下文变量填入模板</li>
      *   <li>返回完整的用户提示词</li>
      * </ol>
      *
@@ -641,11 +1731,214 @@ public abstract class AICompatibleProvider implements AIServiceProvider {
      * @param type     文档类型
      * @param language 编程语言
      * @return 构建好的用户提示词
-     * @see #loadPromptTemplate(DocumentationTask.TaskType, String)
+     * @see #buildPrompt(String, DocumentationTask.TaskType, String, PromptContext)
      */
     protected String buildPrompt(String code, DocumentationTask.TaskType type, String language) {
-        String template = loadPromptTemplate(type, language);
-        return String.format(template, code);
+        return buildPrompt(code, type, language, PromptContext.EMPTY);
+    }
+
+    /**
+     * 使用提示词上下文构建用户提示词
+     *
+     * @param code     代码内容
+     * @param type     文档类型
+     * @param language 编程语言
+     * @param context  提示词模板的上下文变量
+     * @return 构建好的用户提示词
+     * @see PromptTemplate
+     */
+    protected String buildPrompt(String code, DocumentationTask.TaskType type, String language,
+                                 PromptContext context) {
+        return compiledTemplate(type, language).render(code, context);
+    }
+
+    /**
+     * 构建提示词前缀消息
+     * <p>
+     * 启用 {@link SettingsState#promptPrefixCaching} 且模板在代码之前有说明文字时，返回依次放在系统提示词之后的消息：
+     * <ol>
+     *   <li>模板中第一个随成员变化的变量之前的说明，同类型的所有成员相同</li>
+     *   <li>所在类的声明（存在时），同一个类的所有成员相同</li>
+     * </ol>
+     * 未启用或模板没有可拆分的前缀时返回空列表，请求按原来的单条用户消息发送。
+     *
+     * @param type     文档类型
+     * @param language 编程语言
+     * @param context  提示词模板的上下文变量
+     * @return 提示词前缀消息
+     * @see PromptTemplate#renderPrefix(PromptContext)
+     */
+    protected List<String> buildPromptPrefix(DocumentationTask.TaskType type, String language, PromptContext context) {
+        if (!settings.promptPrefixCaching) {
+            return List.of();
+        }
+        PromptTemplate template = compiledTemplate(type, language);
+        if (!template.hasPrefix()) {
+            return List.of();
+        }
+        String instructions = template.renderPrefix(context);
+        if (context.classDeclaration().isEmpty()) {
+            return List.of(instructions);
+        }
+        String packageLine = context.packageName().isEmpty() ? "" : "package " + context.packageName() + ";\n\n";
+        return List.of(instructions, CLASS_CONTEXT_HEADER + packageLine + context.classDeclaration());
+    }
+
+    /**
+     * 构建发送在前缀消息之后的用户提示词
+     *
+     * @param prefix   提示词前缀消息
+     * @param code     代码内容
+     * @param type     文档类型
+     * @param language 编程语言
+     * @param context  提示词模板的上下文变量
+     * @return 没有前缀时为完整的提示词，否则为模板中前缀之后的部分
+     */
+    private String buildMemberPrompt(List<String> prefix, String code, DocumentationTask.TaskType type,
+                                     String language, PromptContext context) {
+        if (prefix.isEmpty()) {
+            return buildPrompt(code, type, language, context);
+        }
+        return compiledTemplate(type, language).renderAfterPrefix(code, context);
+    }
+
+    /**
+     * 获取预编译的提示词模板
+     * <p>
+     * 按文档类型缓存编译结果，设置中的模板变化后才重新编译。
+     *
+     * @param type     文档类型
+     * @param language 编程语言
+     * @return 预编译的模板
+     * @see #loadPromptTemplate(DocumentationTask.TaskType, String)
+     */
+    protected PromptTemplate compiledTemplate(DocumentationTask.TaskType type, String language) {
+        String source = loadPromptTemplate(type, language);
+        PromptTemplate template = compiledTemplates.get(type);
+        if (template == null || !template.getSource().equals(source)) {
+            template = PromptTemplate.compile(source);
+            compiledTemplates.put(type, template);
+        }
+        return template;
+    }
+
+    /**
+     * 构建多成员打包的提示词
+     * <p>
+     * 每种成员类型的模板只出现一次（代码占位符替换为指向下方成员列表的说明，
+     * 其他上下文变量只在该类型的所有成员取值相同时填入），之后是输出格式要求和按编号排列的成员代码。
+     *
+     * @param tasks    需要生成文档的任务列表
+     * @param language 编程语言
+     * @return 打包后的提示词
+     */
+    protected String buildPackedPrompt(List<DocumentationTask> tasks, String language) {
+        StringBuilder prompt = new StringBuilder();
+        Set<DocumentationTask.TaskType> types = EnumSet.noneOf(DocumentationTask.TaskType.class);
+        for (DocumentationTask task : tasks) {
+            if (types.add(task.getType())) {
+                prompt.append("# ").append(getPackedTypeName(task.getType())).append("注释要求\n");
+                compiledTemplate(task.getType(), language)
+                    .renderTo(prompt, "（见下方“待处理的成员”中类型为" + getPackedTypeName(task.getType()) + "的代码）",
+                              sharedContext(tasks, task.getType()))
+                    .append("\n\n");
+            }
+        }
+
+        prompt.append("# 批量输出要求\n");
+        prompt.append("下面共有 ").append(tasks.size())
+            .append(" 个成员，请按上述对应类型的要求分别为每个成员生成 JavaDoc 注释。\n");
+        prompt.append("严格按以下格式输出，每个注释前单独一行写分隔标记，编号与成员编号一致，不要输出其他内容：\n");
+        prompt.append(PACKED_SEPARATOR_PREFIX).append("1===\n/** 成员 1 的注释 */\n");
+        prompt.append(PACKED_SEPARATOR_PREFIX).append("2===\n/** 成员 2 的注释 */\n\n");
+
+        prompt.append("# 待处理的成员\n");
+        for (int i = 0; i < tasks.size(); i++) {
+            DocumentationTask task = tasks.get(i);
+            prompt.append("===CODE ").append(i + 1).append(" (").append(getPackedTypeName(task.getType())).append(")===\n");
+            prompt.append(task.getCode().trim()).append("\n\n");
+        }
+        return prompt.toString();
+    }
+
+    /**
+     * 获取同一类型的成员共同的上下文
+     *
+     * @param tasks 打包的任务列表
+     * @param type  成员类型
+     * @return 各变量在该类型所有成员中取值相同时保留，否则为空字符串
+     */
+    private static PromptContext sharedContext(List<DocumentationTask> tasks, DocumentationTask.TaskType type) {
+        PromptContext shared = null;
+        for (DocumentationTask task : tasks) {
+            if (task.getType() != type) {
+                continue;
+            }
+            PromptContext context = task.getPromptContext();
+            shared = shared == null ? context : new PromptContext(
+                shared.className().equals(context.className()) ? shared.className() : "",
+                shared.signature().equals(context.signature()) ? shared.signature() : "",
+                shared.packageName().equals(context.packageName()) ? shared.packageName() : "",
+                shared.existingDoc().equals(context.existingDoc()) ? shared.existingDoc() : "");
+        }
+        return shared != null ? shared : PromptContext.EMPTY;
+    }
+
+    /**
+     * 将打包请求的响应按编号拆分
+     *
+     * @param response 过滤思考内容后的完整响应
+     * @param count    成员数量
+     * @return 按成员编号排列的注释，缺失或无法识别的成员为空字符串
+     */
+    protected List<String> splitPackedResponse(String response, int count) {
+        List<String> results = new ArrayList<>(Collections.nCopies(count, ""));
+        Matcher matcher = PACKED_SEPARATOR.matcher(response);
+        int index = -1;
+        int contentStart = 0;
+        while (true) {
+            boolean found = matcher.find();
+            if (index >= 0 && index < count) {
+                String section = response.substring(contentStart, found ? matcher.start() : response.length());
+                results.set(index, extractJavadoc(section));
+            }
+            if (!found) {
+                break;
+            }
+            index = Integer.parseInt(matcher.group(1)) - 1;
+            contentStart = matcher.end();
+        }
+        return results;
+    }
+
+    /**
+     * 从响应片段中提取 JavaDoc 注释
+     *
+     * @param section 响应片段，可能包含代码块标记等多余内容
+     * @return 注释内容，片段中不包含完整注释时返回空字符串
+     */
+    private static String extractJavadoc(String section) {
+        int start = section.indexOf("/**");
+        int end = section.lastIndexOf("*/");
+        if (start < 0 || end < start + 3) {
+            return "";
+        }
+        return section.substring(start, end + 2);
+    }
+
+    /**
+     * 获取打包提示词中使用的成员类型名称
+     *
+     * @param type 任务类型
+     * @return 类型名称
+     */
+    private static String getPackedTypeName(DocumentationTask.TaskType type) {
+        return switch (type) {
+            case FIELD -> "字段";
+            case TEST_METHOD -> "测试方法";
+            case CLASS, INTERFACE, ENUM -> "类";
+            default -> "方法";
+        };
     }
 
     /**
@@ -657,7 +1950,7 @@ public abstract class AICompatibleProvider implements AIServiceProvider {
      *
      * @param type     文档类型（类、方法、字段、测试方法等）
      * @param language 编程语言
-     * @return Prompt 模板字符串，包含 %s 占位符用于代码插入
+     * @return Prompt 模板字符串，包含 {@code {code}}（或 {@code %s}）等占位符，见 {@link PromptTemplate}
      */
     protected String loadPromptTemplate(DocumentationTask.TaskType type, String language) {
         String template;
@@ -851,11 +2144,30 @@ public abstract class AICompatibleProvider implements AIServiceProvider {
      *   <li>超时：记录日志，返回空列表</li>
      * </ul>
      *
+     * <p>有效期内的结果直接从 {@link ModelCatalog} 返回，不发送请求。
+     *
      * @return 可用模型名称列表，如果获取失败返回空列表
+     * @see #getAvailableModels(boolean)
      */
     @NotNull
     @Override
     public List<String> getAvailableModels() {
+        return getAvailableModels(false);
+    }
+
+    /**
+     * 获取可用的模型列表，可要求绕过缓存
+     *
+     * <p>模型列表按端点缓存在 {@link ModelCatalog} 中，过期或 {@code refresh} 为 true 时
+     * 带 {@code If-None-Match}、{@code If-Modified-Since} 发送条件请求。
+     * 请求使用与文档生成相同的共享 HTTP 客户端，建立的连接之后的生成请求可以直接复用。
+     *
+     * @param refresh 是否忽略缓存的有效期
+     * @return 可用模型名称列表，如果获取失败返回空列表
+     */
+    @NotNull
+    @Override
+    public List<String> getAvailableModels(boolean refresh) {
         try {
             if (settings.verboseLogging) {
                 LOG.debug("Fetching available models from provider: " + getProviderId());
@@ -871,49 +2183,79 @@ public abstract class AICompatibleProvider implements AIServiceProvider {
                 }
             }
 
-            String url = settings.baseUrl + "/models";
+            List<String> models = ModelCatalog.forEndpoint(getProviderId(), settings.baseUrl, settings.apiKey)
+                .get(refresh, this::fetchModels, this::parseModelsResponse);
 
             if (settings.verboseLogging) {
-                LOG.debug("Requesting models from: " + url);
+                LOG.debug("Fetched " + models.size() + " models");
             }
-
-            // 使用IDEA SDK的HttpRequests发送GET请求
-            // 读取响应
-            String responseBody = HttpRequests.request(url)
-                .tuner(connection -> {
-                    // 设置超时
-                    connection.setConnectTimeout(settings.timeout); // 使用设置中的连接超时
-                    connection.setReadTimeout(settings.timeout * 2); // 读取超时是连接超时的2倍
-
-                    // 设置Authorization头（如果需要）
-                    if (requiresApiKey()) {
-                        connection.setRequestProperty("Authorization", "Bearer " + settings.apiKey);
-                    }
-                })
-                .connect(HttpRequests.Request::readString);
-
-            if (!responseBody.trim().isEmpty()) {
-                List<String> models = parseModelsResponse(responseBody);
-
-                if (settings.verboseLogging) {
-                    LOG.debug("Successfully fetched " + models.size() + " models");
-                }
-
-                return models;
-            }
-
-            LOG.warn("Failed to fetch models: Empty response");
-            return new ArrayList<>();
+            return new ArrayList<>(models);
 
         } catch (IOException e) {
             LOG.warn("Network error while fetching models: " + e.getMessage());
             return new ArrayList<>();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ArrayList<>();
         } catch (Exception e) {
             LOG.warn("Unexpected error while fetching models", e);
             return new ArrayList<>();
         }
     }
 
+    /**
+     * 请求模型列表
+     *
+     * @param etag         上次响应的 ETag，没有时为 null
+     * @param lastModified 上次响应的 Last-Modified，没有时为 null
+     * @return 响应
+     * @throws IOException          请求失败或服务端返回错误状态码时抛出
+     * @throws InterruptedException 等待响应时被中断时抛出
+     */
+    @NotNull
+    private ModelCatalog.Response fetchModels(@Nullable String etag, @Nullable String lastModified)
+        throws IOException, InterruptedException {
+        String url = settings.baseUrl + "/models";
+        if (settings.verboseLogging) {
+            LOG.debug("Requesting models from: " + url);
+        }
+
+        HttpRequest.Builder builder;
+        try {
+            builder = HttpRequest.newBuilder(URI.create(url));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid URL: " + url, e);
+        }
+        // 读取超时是连接超时的2倍
+        builder.timeout(Duration.ofMillis(Math.max(1, settings.timeout) * 2L)).GET();
+        if (requiresApiKey()) {
+            builder.header("Authorization", "Bearer " + settings.apiKey);
+        }
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            builder.header("If-Modified-Since", lastModified);
+        }
+        HttpRequest request = builder.build();
+
+        HttpResponse<String> response = SharedHttpClient.get(request.uri(), settings.timeout)
+            .send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        int statusCode = response.statusCode();
+        String responseEtag = response.headers().firstValue("ETag").orElse(null);
+        String responseLastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        if (statusCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            return new ModelCatalog.Response(true, null, responseEtag, responseLastModified);
+        }
+        if (statusCode < 200 || statusCode >= 300) {
+            throw new IOException("HTTP " + statusCode + " from " + url);
+        }
+        if (response.body().trim().isEmpty()) {
+            LOG.warn("Failed to fetch models: Empty response");
+        }
+        return new ModelCatalog.Response(false, response.body(), responseEtag, responseLastModified);
+    }
+
     /**
      * 解析模型列表响应
      *
@@ -140,6 +140,10 @@ public class AIServiceFactory {
             tempSettings.baseUrl = providerConfig.baseUrl;
             tempSettings.apiKey = providerConfig.apiKey;
             tempSettings.configurationVerified = providerConfig.configurationVerified;
+            // 客户端限流配额对所有提供商生效
+            SettingsState settings = SettingsState.getInstance();
+            tempSettings.requestsPerMinute = settings.requestsPerMinute;
+            tempSettings.tokensPerMinute = settings.tokensPerMinute;
 
             return providerClass.getDeclaredConstructor(SettingsState.class)
                 .newInstance(tempSettings);
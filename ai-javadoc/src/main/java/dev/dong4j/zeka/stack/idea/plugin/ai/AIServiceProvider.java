@@ -1,10 +1,18 @@
 package dev.dong4j.zeka.stack.idea.plugin.ai;
 
+import com.intellij.util.concurrency.AppExecutorUtil;
+
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 import dev.dong4j.zeka.stack.idea.plugin.task.DocumentationTask;
+import dev.dong4j.zeka.stack.idea.plugin.task.PromptContext;
 
 /**
  * AI 服务提供商接口
@@ -71,6 +79,185 @@ public interface AIServiceProvider {
                                  @NotNull DocumentationTask.TaskType type,
                                  @NotNull String language) throws AIServiceException;
 
+    /**
+     * 使用提示词上下文生成文档注释
+     *
+     * <p>上下文中的类名、声明、包名和已有注释填入提示词模板的命名变量。
+     * 默认实现忽略上下文，调用 {@link #generateDocumentation(String, DocumentationTask.TaskType, String)}。
+     *
+     * @param code     代码片段，包含需要生成文档的代码元素
+     * @param type     文档类型，决定使用的 Prompt 模板
+     * @param language 编程语言（如 "java", "kotlin"）
+     * @param context  提示词模板的上下文变量
+     * @return 生成的文档注释
+     * @throws AIServiceException 当 AI 服务调用失败时抛出
+     * @see PromptTemplate
+     */
+    @NotNull
+    default String generateDocumentation(@NotNull String code,
+                                         @NotNull DocumentationTask.TaskType type,
+                                         @NotNull String language,
+                                         @NotNull PromptContext context) throws AIServiceException {
+        return generateDocumentation(code, type, language);
+    }
+
+    /**
+     * 在一次请求中为多个成员生成文档注释
+     *
+     * <p>用于把同一个类中的字段和短方法合并为一次请求，减少请求数和重复发送的提示词。
+     * 返回列表与任务列表一一对应，某个成员未能生成注释时对应位置为空字符串，调用方可以单独重试这些成员。
+     *
+     * <p>默认实现逐个调用 {@link #generateDocumentation(String, DocumentationTask.TaskType, String)}。
+     *
+     * @param tasks    需要生成文档的任务列表
+     * @param language 编程语言（如 "java", "kotlin"）
+     * @return 与任务列表一一对应的文档注释
+     * @throws AIServiceException 当 AI 服务调用失败时抛出
+     */
+    @NotNull
+    default List<String> generateDocumentationBatch(@NotNull List<DocumentationTask> tasks,
+                                                    @NotNull String language) throws AIServiceException {
+        List<String> results = new ArrayList<>(tasks.size());
+        for (DocumentationTask task : tasks) {
+            results.add(generateDocumentation(task.getCode(), task.getType(), language));
+        }
+        return results;
+    }
+
+    /**
+     * 异步生成文档注释
+     *
+     * <p>与 {@link #generateDocumentation(String, DocumentationTask.TaskType, String)} 语义相同，
+     * 但立即返回 {@link CompletableFuture}，调用线程不会阻塞等待 AI 服务响应。
+     * 失败时 Future 以 {@link AIServiceException} 异常完成。
+     *
+     * <p>默认实现在应用线程池中调用同步方法；基于 HTTP 的提供商应重写为真正的非阻塞请求。
+     *
+     * @param code     代码片段，包含需要生成文档的代码元素
+     * @param type     文档类型，决定使用的 Prompt 模板
+     * @param language 编程语言（如 "java", "kotlin"）
+     * @return 生成结果的 Future
+     * @see #generateDocumentation(String, DocumentationTask.TaskType, String)
+     */
+    @NotNull
+    default CompletableFuture<String> generateDocumentationAsync(@NotNull String code,
+                                                                 @NotNull DocumentationTask.TaskType type,
+                                                                 @NotNull String language) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return generateDocumentation(code, type, language);
+            } catch (AIServiceException e) {
+                throw new CompletionException(e);
+            }
+        }, AppExecutorUtil.getAppExecutorService());
+    }
+
+    /**
+     * 异步生成文档注释，并推送生成过程中的增量内容
+     *
+     * <p>支持流式响应的提供商在收到每段可见内容时调用监听器，调用方可以据此尽早展示生成进度。
+     * 监听器在网络线程上调用，不应执行耗时操作。默认实现不推送增量内容。
+     *
+     * @param code            代码片段，包含需要生成文档的代码元素
+     * @param type            文档类型，决定使用的 Prompt 模板
+     * @param language        编程语言（如 "java", "kotlin"）
+     * @param partialListener 增量内容监听器，可为 null
+     * @return 生成结果的 Future
+     * @see #generateDocumentationAsync(String, DocumentationTask.TaskType, String)
+     */
+    @NotNull
+    default CompletableFuture<String> generateDocumentationAsync(@NotNull String code,
+                                                                 @NotNull DocumentationTask.TaskType type,
+                                                                 @NotNull String language,
+                                                                 @Nullable Consumer<String> partialListener) {
+        return generateDocumentationAsync(code, type, language);
+    }
+
+    /**
+     * 使用提示词上下文异步生成文档注释，并推送生成过程中的增量内容
+     *
+     * <p>默认实现忽略上下文，调用 {@link #generateDocumentationAsync(String, DocumentationTask.TaskType, String, Consumer)}。
+     *
+     * @param code            代码片段，包含需要生成文档的代码元素
+     * @param type            文档类型，决定使用的 Prompt 模板
+     * @param language        编程语言（如 "java", "kotlin"）
+     * @param context         提示词模板的上下文变量
+     * @param partialListener 增量内容监听器，可为 null
+     * @return 生成结果的 Future
+     * @see #generateDocumentation(String, DocumentationTask.TaskType, String, PromptContext)
+     */
+    @NotNull
+    default CompletableFuture<String> generateDocumentationAsync(@NotNull String code,
+                                                                 @NotNull DocumentationTask.TaskType type,
+                                                                 @NotNull String language,
+                                                                 @NotNull PromptContext context,
+                                                                 @Nullable Consumer<String> partialListener) {
+        return generateDocumentationAsync(code, type, language, partialListener);
+    }
+
+    /**
+     * 获取请求配置指纹
+     *
+     * <p>指纹应覆盖除代码以外所有影响生成结果的请求参数（提示词模板、系统提示词、模型名称和采样参数等），
+     * 与代码一起作为文档缓存的键。任一参数变化都必须产生不同的指纹，缓存的结果随之失效。
+     *
+     * <p>默认返回 null，表示该提供商的结果不可缓存。
+     *
+     * @param type     文档类型
+     * @param language 编程语言（如 "java", "kotlin"）
+     * @return 请求配置指纹，不可缓存时返回 null
+     * @see dev.dong4j.zeka.stack.idea.plugin.task.DocumentationCache
+     */
+    @Nullable
+    default String getRequestFingerprint(@NotNull DocumentationTask.TaskType type, @NotNull String language) {
+        return null;
+    }
+
+    /**
+     * 获取包含提示词上下文的请求配置指纹
+     *
+     * <p>提示词模板使用了代码以外的上下文变量时，这些变量的值同样影响生成结果，需要计入指纹。
+     * 默认实现忽略上下文，返回 {@link #getRequestFingerprint(DocumentationTask.TaskType, String)}。
+     *
+     * @param type     文档类型
+     * @param language 编程语言（如 "java", "kotlin"）
+     * @param context  提示词模板的上下文变量
+     * @return 请求配置指纹，不可缓存时返回 null
+     */
+    @Nullable
+    default String getRequestFingerprint(@NotNull DocumentationTask.TaskType type, @NotNull String language,
+                                         @NotNull PromptContext context) {
+        return getRequestFingerprint(type, language);
+    }
+
+    /**
+     * 获取该提供商端点的延迟统计
+     *
+     * <p>统计单个元素文档生成的耗时，用于对冲请求判断请求是否明显慢于平常。
+     * 默认返回 null，表示该提供商不记录延迟。
+     *
+     * @return 延迟统计，不记录时返回 null
+     * @see ProviderLatencyTracker
+     */
+    @Nullable
+    default ProviderLatencyTracker getLatencyTracker() {
+        return null;
+    }
+
+    /**
+     * 预加载模型
+     *
+     * <p>在开始生成（收集任务）时调用，让需要加载模型的本地服务提前把模型载入内存，
+     * 第一个任务不必等待冷启动。方法立即返回，预加载在后台进行，失败不影响后续生成。
+     * 默认不做任何处理。
+     *
+     * @return 预加载完成的 Future，结果表示是否成功
+     */
+    @NotNull
+    default CompletableFuture<Boolean> preload() {
+        return CompletableFuture.completedFuture(false);
+    }
+
     /**
      * 验证配置是否正确
      *
@@ -233,6 +420,21 @@ public interface AIServiceProvider {
     @NotNull
     List<String> getAvailableModels();
 
+    /**
+     * 获取可用的模型列表，可要求绕过缓存
+     *
+     * <p>支持缓存模型列表的提供商在 {@code refresh} 为 false 时可以直接返回有效期内的结果，
+     * 为 true 时（例如用户点击刷新按钮）向服务端确认列表是否变化。默认与 {@link #getAvailableModels()} 相同。
+     *
+     * @param refresh 是否忽略缓存的有效期
+     * @return 可用模型名称列表，如果获取失败返回空列表
+     * @see ModelCatalog
+     */
+    @NotNull
+    default List<String> getAvailableModels(boolean refresh) {
+        return getAvailableModels();
+    }
+
     /**
      * 是否需要 API Key
      *
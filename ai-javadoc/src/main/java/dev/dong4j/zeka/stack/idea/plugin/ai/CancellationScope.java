@@ -0,0 +1,87 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 一次异步生成的取消范围
+ *
+ * <p>{@link CompletableFuture#cancel(boolean)} 只取消调用方持有的 Future，不会传递到它所依赖的阶段。
+ * 异步生成把传输层的操作（限流等待、{@code HttpClient.sendAsync} 返回的 Future、SSE 订阅和重试前的退避等待）
+ * 依次登记到同一个范围中，调用方取消生成结果时调用 {@link #cancel()}，逐一中止这些操作：
+ * 被取消的 {@code sendAsync} 会关闭对应的连接（HTTP/2 为重置流），不再继续占用服务端和限流额度。
+ *
+ * <p>范围取消后登记的操作立即被取消，重试之前通过 {@link #isCancelled()} 检查，不再发出新的请求。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @see AICompatibleProvider#generateDocumentationAsync
+ * @since 1.0.0
+ */
+final class CancellationScope {
+
+    /** 取消时执行的操作 */
+    private final List<Runnable> actions = new ArrayList<>();
+    /** 是否已取消 */
+    private boolean cancelled;
+
+    /**
+     * 判断范围是否已取消
+     *
+     * @return 已取消时返回 true
+     */
+    synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 登记取消时执行的操作，范围已取消时立即执行
+     *
+     * @param action 取消操作
+     */
+    void onCancel(@NotNull Runnable action) {
+        synchronized (this) {
+            if (!cancelled) {
+                actions.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    /**
+     * 登记范围取消时一并取消的 Future
+     *
+     * @param future 传输层操作的 Future，需要是操作本身而不是其派生阶段
+     * @param <T>    结果类型
+     * @return 传入的 Future
+     */
+    @NotNull
+    <T> CompletableFuture<T> track(@NotNull CompletableFuture<T> future) {
+        if (!future.isDone()) {
+            onCancel(() -> future.cancel(true));
+        }
+        return future;
+    }
+
+    /**
+     * 取消范围，执行所有已登记的取消操作
+     */
+    void cancel() {
+        List<Runnable> pending;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            pending = new ArrayList<>(actions);
+            actions.clear();
+        }
+        for (Runnable action : pending) {
+            action.run();
+        }
+    }
+}
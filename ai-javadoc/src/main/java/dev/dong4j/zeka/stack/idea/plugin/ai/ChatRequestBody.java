@@ -0,0 +1,360 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import com.google.gson.JsonObject;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 流式编码的 chat/completions 请求体
+ *
+ * <p>请求体由三部分组成：预编码的头部（模型、参数和系统提示词，到用户消息 content 的开始引号为止）、
+ * 用户提示词和预编码的尾部。头尾两部分由提供商按设置和提示词前缀缓存在 {@link Template} 中，不需要每次重新编码；
+ * 提示词在发送时边转义边按 UTF-8 编码写入连接，不再生成完整的 JSON 字符串和字节数组。
+ *
+ * <p>转义规则与 Gson 的 {@code JsonWriter} 一致（不启用 HTML 转义），
+ * 因此写出的字节与 {@code buildRequestBody(prompt).toString()} 完全相同。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+final class ChatRequestBody {
+
+    /** 构建模板时代替提示词的占位内容 */
+    static final String PROMPT_PLACEHOLDER = "@@ai-javadoc-prompt-7c1e4b@@";
+
+    /** 提示词按块编码时每块的字节数 */
+    private static final int CHUNK_SIZE = 8192;
+    /** 单个字符编码后的最大字节数（\\uXXXX 转义为 6 字节） */
+    private static final int MAX_CHAR_BYTES = 6;
+    /** 十六进制字符 */
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /** 头部 */
+    private final byte[] head;
+    /** 头部字符数 */
+    private final int headChars;
+    /** 用户提示词，整体预编码时为 null */
+    private final String prompt;
+    /** 尾部 */
+    private final byte[] tail;
+    /** 尾部字符数 */
+    private final int tailChars;
+    /** 提示词转义后的 UTF-8 字节数 */
+    private final int promptBytes;
+    /** 提示词转义后的字符数 */
+    private final int promptChars;
+
+    private ChatRequestBody(byte[] head, int headChars, @Nullable String prompt, byte[] tail, int tailChars) {
+        this.head = head;
+        this.headChars = headChars;
+        this.prompt = prompt;
+        this.tail = tail;
+        this.tailChars = tailChars;
+
+        int bytes = 0;
+        int chars = 0;
+        if (prompt != null) {
+            for (int i = 0; i < prompt.length(); i++) {
+                char c = prompt.charAt(i);
+                int escaped = escapedLength(c);
+                if (escaped > 0) {
+                    bytes += escaped;
+                    chars += escaped;
+                } else if (c < 0x80) {
+                    bytes++;
+                    chars++;
+                } else if (c < 0x800) {
+                    bytes += 2;
+                    chars++;
+                } else if (Character.isHighSurrogate(c) && i + 1 < prompt.length()
+                           && Character.isLowSurrogate(prompt.charAt(i + 1))) {
+                    bytes += 4;
+                    chars += 2;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    // 不成对的代理字符按 UTF-8 编码器的行为替换为 '?'
+                    bytes++;
+                    chars++;
+                } else {
+                    bytes += 3;
+                    chars++;
+                }
+            }
+        }
+        this.promptBytes = bytes;
+        this.promptChars = chars;
+    }
+
+    /**
+     * 将已构建好的 JSON 对象整体编码为请求体
+     *
+     * <p>用于验证请求等不需要缓存模板的场景。
+     *
+     * @param body JSON 对象
+     * @return 请求体
+     */
+    @NotNull
+    static ChatRequestBody of(@NotNull JsonObject body) {
+        String json = body.toString();
+        return new ChatRequestBody(json.getBytes(StandardCharsets.UTF_8), json.length(), null, new byte[0], 0);
+    }
+
+    /**
+     * 获取请求体的 UTF-8 字节数
+     *
+     * @return 字节数
+     */
+    int byteLength() {
+        return head.length + promptBytes + tail.length;
+    }
+
+    /**
+     * 获取请求体的字符数，与 JSON 字符串的长度相同，用于 token 估算和指标
+     *
+     * @return 字符数
+     */
+    int length() {
+        return headChars + promptChars + tailChars;
+    }
+
+    /**
+     * 将请求体写入输出流
+     *
+     * @param out 输出流，不会被关闭
+     * @throws IOException 写入失败时抛出
+     */
+    void writeTo(@NotNull OutputStream out) throws IOException {
+        out.write(head);
+        if (prompt != null) {
+            byte[] buffer = new byte[CHUNK_SIZE];
+            int[] state = {0};
+            while (state[0] < prompt.length()) {
+                out.write(buffer, 0, encode(prompt, state, buffer));
+            }
+        }
+        out.write(tail);
+    }
+
+    /**
+     * 创建 HttpClient 使用的请求体发布器
+     *
+     * <p>提示词按块延迟编码，并声明 Content-Length，服务端无需处理分块传输。
+     *
+     * @return 请求体发布器
+     */
+    @NotNull
+    HttpRequest.BodyPublisher publisher() {
+        return HttpRequest.BodyPublishers.fromPublisher(HttpRequest.BodyPublishers.ofByteArrays(this::chunks),
+                                                        byteLength());
+    }
+
+    /**
+     * 按块迭代请求体的字节
+     *
+     * @return 字节块迭代器，每次调用都从头开始
+     */
+    @NotNull
+    Iterator<byte[]> chunks() {
+        return new Iterator<>() {
+            /** 0：头部，1：提示词，2：尾部，3：结束 */
+            private int part;
+            /** 提示词的编码位置 */
+            private final int[] state = {0};
+            /** 编码缓冲区 */
+            private final byte[] buffer = new byte[CHUNK_SIZE];
+
+            @Override
+            public boolean hasNext() {
+                if (part == 1 && (prompt == null || state[0] >= prompt.length())) {
+                    part = 2;
+                }
+                return part < 3;
+            }
+
+            @Override
+            public byte[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                switch (part) {
+                    case 0 -> {
+                        part = 1;
+                        return head;
+                    }
+                    case 1 -> {
+                        return Arrays.copyOf(buffer, encode(prompt, state, buffer));
+                    }
+                    default -> {
+                        part = 3;
+                        return tail;
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * 生成完整的 JSON 字符串，仅用于调试日志
+     *
+     * @return JSON 字符串
+     */
+    @Override
+    public String toString() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(byteLength());
+        try {
+            writeTo(out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 从 {@code state[0]} 开始转义并编码提示词，直到缓冲区写满或提示词结束
+     *
+     * @param text   提示词
+     * @param state  编码位置，返回时更新为下一个待编码字符的位置
+     * @param buffer 输出缓冲区
+     * @return 写入的字节数
+     */
+    private static int encode(@NotNull String text, int[] state, byte[] buffer) {
+        int limit = buffer.length - MAX_CHAR_BYTES;
+        int length = 0;
+        int i = state[0];
+        while (i < text.length() && length <= limit) {
+            char c = text.charAt(i++);
+            if (escapedLength(c) > 0) {
+                length = writeEscaped(c, buffer, length);
+            } else if (c < 0x80) {
+                buffer[length++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[length++] = (byte) (0xc0 | c >> 6);
+                buffer[length++] = (byte) (0x80 | c & 0x3f);
+            } else if (Character.isHighSurrogate(c) && i < text.length() && Character.isLowSurrogate(text.charAt(i))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(i++));
+                buffer[length++] = (byte) (0xf0 | codePoint >> 18);
+                buffer[length++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+                buffer[length++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+                buffer[length++] = (byte) (0x80 | codePoint & 0x3f);
+            } else if (Character.isSurrogate(c)) {
+                buffer[length++] = '?';
+            } else {
+                buffer[length++] = (byte) (0xe0 | c >> 12);
+                buffer[length++] = (byte) (0x80 | c >> 6 & 0x3f);
+                buffer[length++] = (byte) (0x80 | c & 0x3f);
+            }
+        }
+        state[0] = i;
+        return length;
+    }
+
+    /**
+     * 获取字符转义后的长度
+     *
+     * @param c 字符
+     * @return 转义后的长度，不需要转义时返回 0
+     */
+    private static int escapedLength(char c) {
+        return switch (c) {
+            case '"', '\\', '\t', '\b', '\n', '\r', '\f' -> 2;
+            case '\u2028', '\u2029' -> 6;
+            default -> c < 0x20 ? 6 : 0;
+        };
+    }
+
+    /**
+     * 写入字符的转义形式
+     *
+     * @param c      需要转义的字符
+     * @param buffer 输出缓冲区
+     * @param offset 写入位置
+     * @return 写入后的位置
+     */
+    private static int writeEscaped(char c, byte[] buffer, int offset) {
+        char shortForm = switch (c) {
+            case '"' -> '"';
+            case '\\' -> '\\';
+            case '\t' -> 't';
+            case '\b' -> 'b';
+            case '\n' -> 'n';
+            case '\r' -> 'r';
+            case '\f' -> 'f';
+            default -> 0;
+        };
+        buffer[offset++] = '\\';
+        if (shortForm != 0) {
+            buffer[offset++] = (byte) shortForm;
+            return offset;
+        }
+        buffer[offset++] = 'u';
+        buffer[offset++] = HEX[c >> 12 & 0xf];
+        buffer[offset++] = HEX[c >> 8 & 0xf];
+        buffer[offset++] = HEX[c >> 4 & 0xf];
+        buffer[offset++] = HEX[c & 0xf];
+        return offset;
+    }
+
+    /**
+     * 预编码的请求体模板
+     *
+     * <p>以占位提示词构建一次完整请求体，在占位处拆分为头尾两部分并编码为字节。
+     * 模板不记录构建时的设置，由调用方以设置作为键缓存。
+     */
+    static final class Template {
+
+        /** 头部 */
+        private final byte[] head;
+        /** 头部字符数 */
+        private final int headChars;
+        /** 尾部 */
+        private final byte[] tail;
+        /** 尾部字符数 */
+        private final int tailChars;
+
+        private Template(String head, String tail) {
+            this.head = head.getBytes(StandardCharsets.UTF_8);
+            this.headChars = head.length();
+            this.tail = tail.getBytes(StandardCharsets.UTF_8);
+            this.tailChars = tail.length();
+        }
+
+        /**
+         * 从以占位提示词构建的请求体创建模板
+         *
+         * @param body 以 {@link #PROMPT_PLACEHOLDER} 作为用户消息构建的请求体
+         * @return 模板，请求体中找不到唯一的占位内容时返回 null
+         */
+        @Nullable
+        static Template split(@NotNull JsonObject body) {
+            String json = body.toString();
+            String marker = "\"" + PROMPT_PLACEHOLDER + "\"";
+            int index = json.indexOf(marker);
+            if (index < 0 || json.indexOf(marker, index + 1) >= 0) {
+                return null;
+            }
+            return new Template(json.substring(0, index + 1), json.substring(index + marker.length() - 1));
+        }
+
+        /**
+         * 以模板创建请求体
+         *
+         * @param prompt 用户提示词
+         * @return 请求体
+         */
+        @NotNull
+        ChatRequestBody body(@NotNull String prompt) {
+            return new ChatRequestBody(head, headChars, prompt, tail, tailChars);
+        }
+    }
+}
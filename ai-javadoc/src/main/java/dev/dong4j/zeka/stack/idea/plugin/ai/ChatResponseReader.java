@@ -0,0 +1,217 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * chat/completions 响应的流式读取
+ *
+ * <p>用 {@link JsonReader} 顺序读取响应，跳过其他字段，只取出 {@code choices[0].message.content}
+ * 和提示词缓存用量，不构建 JSON 树，也不需要先把整个响应读成字符串。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+final class ChatResponseReader {
+
+    private ChatResponseReader() {
+    }
+
+    /**
+     * 读取第一个选项的消息内容和服务端报告的提示词缓存用量
+     *
+     * <p>读到消息内容后继续读完响应，以获取通常位于 {@code choices} 之后的用量字段：
+     * <ul>
+     *   <li>{@code usage.prompt_tokens} 和 {@code usage.prompt_tokens_details.cached_tokens}（OpenAI、通义千问等）</li>
+     *   <li>{@code usage.prompt_cache_hit_tokens}（DeepSeek 风格的服务）</li>
+     *   <li>{@code timings.prompt_n} 和 {@code timings.cache_n}（llama.cpp 服务）</li>
+     * </ul>
+     * 消息内容之后的部分格式不符或被截断时忽略，只返回消息内容。
+     *
+     * <p>同时支持 Ollama 原生 {@code /api/chat} 接口的响应，消息位于顶层的 {@code message} 字段。
+     *
+     * @param reader 响应内容
+     * @return 消息内容和缓存用量
+     * @throws IOException        读到消息内容之前读取失败时抛出
+     * @throws JsonParseException 响应不是对象、没有选项或消息内容不是字符串时抛出
+     */
+    @NotNull
+    static Completion readCompletion(@NotNull Reader reader) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        json.setLenient(true);
+        String content = null;
+        long promptTokens = -1;
+        long cachedTokens = -1;
+        long evaluatedTokens = -1;
+        long reusedTokens = -1;
+        try {
+            json.beginObject();
+            while (json.hasNext()) {
+                String name = json.nextName();
+                if (content == null && "choices".equals(name)) {
+                    content = readChoiceContent(json);
+                    // 跳过 message、choice 的其余字段和其他选项
+                    skipRemaining(json);
+                    json.endObject();
+                    skipRemaining(json);
+                    json.endObject();
+                    while (json.hasNext()) {
+                        json.skipValue();
+                    }
+                    json.endArray();
+                } else if (content == null && "message".equals(name) && json.peek() == JsonToken.BEGIN_OBJECT) {
+                    content = readMessageContent(json);
+                    skipRemaining(json);
+                    json.endObject();
+                } else if ("usage".equals(name) && json.peek() == JsonToken.BEGIN_OBJECT) {
+                    json.beginObject();
+                    while (json.hasNext()) {
+                        String field = json.nextName();
+                        if ("prompt_tokens".equals(field)) {
+                            promptTokens = nextLong(json);
+                        } else if ("prompt_cache_hit_tokens".equals(field)) {
+                            cachedTokens = nextLong(json);
+                        } else if ("prompt_tokens_details".equals(field) && json.peek() == JsonToken.BEGIN_OBJECT) {
+                            json.beginObject();
+                            while (json.hasNext()) {
+                                if ("cached_tokens".equals(json.nextName())) {
+                                    cachedTokens = nextLong(json);
+                                } else {
+                                    json.skipValue();
+                                }
+                            }
+                            json.endObject();
+                        } else {
+                            json.skipValue();
+                        }
+                    }
+                    json.endObject();
+                } else if ("timings".equals(name) && json.peek() == JsonToken.BEGIN_OBJECT) {
+                    json.beginObject();
+                    while (json.hasNext()) {
+                        String field = json.nextName();
+                        if ("prompt_n".equals(field)) {
+                            evaluatedTokens = nextLong(json);
+                        } else if ("cache_n".equals(field)) {
+                            reusedTokens = nextLong(json);
+                        } else {
+                            json.skipValue();
+                        }
+                    }
+                    json.endObject();
+                } else {
+                    json.skipValue();
+                }
+            }
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            if (content == null) {
+                throw e;
+            }
+        }
+        if (content == null) {
+            throw new JsonParseException("No message content in response");
+        }
+        if (cachedTokens < 0 && reusedTokens >= 0 && evaluatedTokens >= 0) {
+            promptTokens = evaluatedTokens + reusedTokens;
+            cachedTokens = reusedTokens;
+        }
+        return new Completion(content, promptTokens, cachedTokens);
+    }
+
+    /**
+     * 从 {@code choices} 数组的开始处读到第一个选项的消息内容
+     *
+     * <p>返回时读取器停在 message 对象内部。
+     *
+     * @param json JSON 读取器，下一个值为 {@code choices} 数组
+     * @return 消息内容
+     * @throws IOException        读取失败时抛出
+     * @throws JsonParseException 没有选项或消息内容不是字符串时抛出
+     */
+    @NotNull
+    private static String readChoiceContent(@NotNull JsonReader json) throws IOException {
+        json.beginArray();
+        if (json.hasNext()) {
+            json.beginObject();
+            while (json.hasNext()) {
+                if (!"message".equals(json.nextName())) {
+                    json.skipValue();
+                    continue;
+                }
+                return readMessageContent(json);
+            }
+        }
+        throw new JsonParseException("No message content in response");
+    }
+
+    /**
+     * 从 message 对象的开始处读到消息内容
+     *
+     * <p>返回时读取器停在 message 对象内部。
+     *
+     * @param json JSON 读取器，下一个值为 message 对象
+     * @return 消息内容
+     * @throws IOException        读取失败时抛出
+     * @throws JsonParseException 消息内容缺失或不是字符串时抛出
+     */
+    @NotNull
+    private static String readMessageContent(@NotNull JsonReader json) throws IOException {
+        json.beginObject();
+        while (json.hasNext()) {
+            if (!"content".equals(json.nextName())) {
+                json.skipValue();
+                continue;
+            }
+            if (json.peek() != JsonToken.STRING) {
+                throw new JsonParseException("Message content is " + json.peek());
+            }
+            return json.nextString();
+        }
+        throw new JsonParseException("No message content in response");
+    }
+
+    /**
+     * 跳过当前对象的其余字段
+     *
+     * @param json JSON 读取器，位于对象内部
+     * @throws IOException 读取失败时抛出
+     */
+    private static void skipRemaining(@NotNull JsonReader json) throws IOException {
+        while (json.hasNext()) {
+            json.nextName();
+            json.skipValue();
+        }
+    }
+
+    /**
+     * 读取整数值，不是数字时跳过
+     *
+     * @param json JSON 读取器，下一个值为要读取的值
+     * @return 整数值，不是数字时为 -1
+     * @throws IOException 读取失败时抛出
+     */
+    private static long nextLong(@NotNull JsonReader json) throws IOException {
+        if (json.peek() != JsonToken.NUMBER) {
+            json.skipValue();
+            return -1;
+        }
+        return (long) json.nextDouble();
+    }
+
+    /**
+     * 响应中的消息内容和提示词缓存用量
+     *
+     * @param content      消息内容，未去除首尾空白
+     * @param promptTokens 服务端报告的输入 token 数，未报告时为 -1
+     * @param cachedTokens 其中命中提示词缓存的 token 数，未报告时为 -1
+     */
+    record Completion(@NotNull String content, long promptTokens, long cachedTokens) {
+    }
+}
@@ -0,0 +1,107 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁的延迟直方图
+ *
+ * <p>按对数分桶记录耗时（毫秒）：小于 {@value #SUB_BUCKETS} 的值各占一个桶，更大的值在每个 2 的幂区间内
+ * 均分为 {@value #SUB_BUCKETS} 个桶，分位数的相对误差不超过 12.5%。超过一小时的值计入最后一个桶。
+ *
+ * <p>记录只是一次原子自增，可在任意线程高频调用；读取分位数时遍历所有桶，结果是近似的快照。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @see ProviderMetrics
+ * @since 1.0.0
+ */
+final class LatencyHistogram {
+
+    /** 每个 2 的幂区间的子桶数的位数 */
+    private static final int SUB_BUCKET_BITS = 3;
+    /** 每个 2 的幂区间的子桶数 */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** 可区分的最大值（毫秒），更大的值计入最后一个桶 */
+    static final long MAX_VALUE = 60 * 60 * 1000L;
+
+    /** 各桶的计数 */
+    private final AtomicLongArray counts = new AtomicLongArray(bucketOf(MAX_VALUE) + 1);
+
+    /**
+     * 记录一次耗时
+     *
+     * @param millis 耗时（毫秒），负数被忽略
+     */
+    void record(long millis) {
+        if (millis < 0) {
+            return;
+        }
+        counts.incrementAndGet(bucketOf(Math.min(millis, MAX_VALUE)));
+    }
+
+    /**
+     * 获取分位数
+     *
+     * @param quantile 分位，取值 (0, 1]
+     * @return 分位数所在桶的上界（毫秒），没有样本时返回 -1
+     */
+    long percentile(double quantile) {
+        long[] snapshot = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return -1;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(snapshot.length - 1);
+    }
+
+    /**
+     * 清空所有样本
+     */
+    void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * 计算值所在的桶
+     *
+     * @param value 非负值
+     * @return 桶序号
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * 计算桶的上界
+     *
+     * @param bucket 桶序号
+     * @return 桶中最大的值
+     */
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        int subBucket = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1L) << shift) - 1;
+    }
+}
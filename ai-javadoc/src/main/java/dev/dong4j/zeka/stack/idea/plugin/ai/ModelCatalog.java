@@ -0,0 +1,193 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 可用模型列表缓存
+ *
+ * <p>每个服务端点（与 {@link ProviderRateLimiter} 一致）共享一份模型列表，在有效期
+ * {@value #DEFAULT_TTL_MINUTES} 分钟内直接返回，打开设置面板、切换提供商和项目启动预热不再每次请求 {@code /models}。
+ * 过期或用户手动刷新时带上次响应的 {@code ETag}、{@code Last-Modified} 发送条件请求，
+ * 服务端返回 304 时沿用缓存的列表并重新计算有效期。
+ *
+ * <p>请求失败时如果有缓存（即使已过期）则返回缓存的列表；空列表不缓存，下次重新请求。
+ * 同一端点的并发获取只发送一次请求，其余调用等待并使用其结果。
+ *
+ * <p>缓存只保存在内存中，IDE 重启后重新获取。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @see AICompatibleProvider#getAvailableModels(boolean)
+ * @since 1.0.0
+ */
+public final class ModelCatalog {
+
+    /** 已创建的缓存，key 为端点标识 */
+    private static final Map<String, ModelCatalog> CATALOGS = new ConcurrentHashMap<>();
+    /** 默认的有效期（分钟） */
+    static final long DEFAULT_TTL_MINUTES = 10;
+
+    /** 有效期（毫秒） */
+    private final long ttlMillis;
+    /** 时钟（毫秒） */
+    private final LongSupplier clock;
+    /** 缓存的模型列表，没有获取成功过时为 null */
+    private volatile Entry entry;
+
+    /**
+     * 创建缓存
+     *
+     * @param ttlMillis 有效期（毫秒）
+     * @param clock     时钟（毫秒）
+     */
+    ModelCatalog(long ttlMillis, @NotNull LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * 获取指定端点共享的模型列表缓存
+     *
+     * @param providerId 提供商标识
+     * @param baseUrl    服务地址
+     * @param apiKey     API 密钥，可为 null
+     * @return 端点共享的缓存
+     */
+    @NotNull
+    public static ModelCatalog forEndpoint(@NotNull String providerId, @Nullable String baseUrl, @Nullable String apiKey) {
+        return CATALOGS.computeIfAbsent(ProviderRateLimiter.endpointKey(providerId, baseUrl, apiKey),
+                                        k -> new ModelCatalog(TimeUnit.MINUTES.toMillis(DEFAULT_TTL_MINUTES),
+                                                              System::currentTimeMillis));
+    }
+
+    /**
+     * 清空所有端点的缓存
+     */
+    static void clearAll() {
+        CATALOGS.clear();
+    }
+
+    /**
+     * 获取模型列表
+     *
+     * @param refresh 为 true 时忽略有效期，向服务端确认列表是否变化
+     * @param fetcher 请求模型列表的函数
+     * @param parser  解析响应体的函数
+     * @return 模型列表，获取失败且没有缓存时为空列表
+     * @throws IOException          请求失败且没有缓存时抛出
+     * @throws InterruptedException 等待响应时被中断时抛出
+     */
+    @NotNull
+    public List<String> get(boolean refresh,
+                            @NotNull Fetcher fetcher,
+                            @NotNull Function<String, List<String>> parser) throws IOException, InterruptedException {
+        Entry current = entry;
+        if (!refresh && isFresh(current)) {
+            return current.models();
+        }
+        synchronized (this) {
+            // 等待期间其他线程可能已经完成获取
+            Entry latest = entry;
+            if (latest != current && isFresh(latest)) {
+                return latest.models();
+            }
+            Response response;
+            try {
+                response = latest != null ? fetcher.fetch(latest.etag(), latest.lastModified())
+                                          : fetcher.fetch(null, null);
+            } catch (IOException e) {
+                if (latest != null) {
+                    return latest.models();
+                }
+                throw e;
+            }
+
+            long now = clock.getAsLong();
+            if (response.notModified() && latest != null) {
+                entry = new Entry(latest.models(), latest.etag(), latest.lastModified(), now);
+                return latest.models();
+            }
+            List<String> models = response.body() != null ? parser.apply(response.body()) : List.of();
+            if (models.isEmpty()) {
+                return latest != null ? latest.models() : List.of();
+            }
+            models = List.copyOf(models);
+            entry = new Entry(models, response.etag(), response.lastModified(), now);
+            return models;
+        }
+    }
+
+    /**
+     * 获取有效期内的模型列表，不发送请求
+     *
+     * @return 模型列表，没有缓存或已过期时为 null
+     */
+    @Nullable
+    public List<String> getIfFresh() {
+        Entry current = entry;
+        return isFresh(current) ? current.models() : null;
+    }
+
+    /**
+     * 判断缓存是否在有效期内
+     *
+     * @param entry 缓存的模型列表，可为 null
+     * @return 在有效期内时返回 true
+     */
+    private boolean isFresh(@Nullable Entry entry) {
+        return entry != null && clock.getAsLong() - entry.fetchedAt() < ttlMillis;
+    }
+
+    /**
+     * 请求模型列表的函数
+     */
+    @FunctionalInterface
+    public interface Fetcher {
+
+        /**
+         * 请求模型列表
+         *
+         * @param etag         上次响应的 ETag，没有时为 null
+         * @param lastModified 上次响应的 Last-Modified，没有时为 null
+         * @return 响应
+         * @throws IOException          请求失败或服务端返回错误状态码时抛出
+         * @throws InterruptedException 等待响应时被中断时抛出
+         */
+        @NotNull
+        Response fetch(@Nullable String etag, @Nullable String lastModified) throws IOException, InterruptedException;
+    }
+
+    /**
+     * 模型列表请求的响应
+     *
+     * @param notModified  服务端是否返回 304
+     * @param body         响应体，304 时为 null
+     * @param etag         响应的 ETag，可为 null
+     * @param lastModified 响应的 Last-Modified，可为 null
+     */
+    public record Response(boolean notModified,
+                           @Nullable String body,
+                           @Nullable String etag,
+                           @Nullable String lastModified) {
+    }
+
+    /**
+     * 缓存的模型列表
+     *
+     * @param models       模型列表
+     * @param etag         响应的 ETag，可为 null
+     * @param lastModified 响应的 Last-Modified，可为 null
+     * @param fetchedAt    获取或最近确认的时间（毫秒）
+     */
+    private record Entry(List<String> models, String etag, String lastModified, long fetchedAt) {
+    }
+}
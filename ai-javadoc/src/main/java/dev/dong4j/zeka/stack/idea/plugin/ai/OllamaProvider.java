@@ -4,11 +4,17 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.intellij.openapi.diagnostic.Logger;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
 
@@ -51,6 +57,9 @@ import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
  *   <li>模型大小影响内存占用和推理速度</li>
  *   <li>较大的模型通常提供更好的生成质量</li>
  *   <li>需要足够的系统资源支持模型运行</li>
+ *   <li>启用原生接口（{@link SettingsState#ollamaNativeApi}）后改为调用 {@code /api/chat}，
+ *       可以设置模型常驻时间 {@code keep_alive} 和上下文长度 {@code num_ctx}，避免批量生成期间模型被卸载或重新加载</li>
+ *   <li>批量生成开始时通过 {@link #preload()} 预先加载模型，首个请求不再等待模型加载</li>
  * </ul>
  *
  * @author dong4j
@@ -61,6 +70,8 @@ import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
  */
 public class OllamaProvider extends AICompatibleProvider {
 
+    private static final Logger LOG = Logger.getInstance(OllamaProvider.class);
+
     /**
      * 构造函数，用于初始化 OllamaProvider 实例
      * <p>
@@ -188,14 +199,15 @@ public class OllamaProvider extends AICompatibleProvider {
      *   <li>如果 name 字段不存在，使用 model 字段</li>
      * </ul>
      *
+     * @param refresh 是否忽略缓存的有效期
      * @return 可用模型名称列表，如果获取失败返回空列表
      */
     @NotNull
     @Override
-    public List<String> getAvailableModels() {
+    public List<String> getAvailableModels(boolean refresh) {
         try {
-            // 调用父类方法获取模型列表
-            List<String> models = super.getAvailableModels();
+            // 调用父类方法获取模型列表，有效期内直接使用缓存
+            List<String> models = super.getAvailableModels(refresh);
 
             // 如果父类方法失败，尝试解析 Ollama 特定格式
             if (models.isEmpty()) {
@@ -292,5 +304,151 @@ public class OllamaProvider extends AICompatibleProvider {
 
         return models;
     }
-}
 
+    /**
+     * 获取文档生成请求的地址
+     * <p>
+     * 启用原生接口时为 {@code /api/chat}，否则使用 OpenAI 兼容接口。
+     *
+     * @return 请求地址
+     */
+    @Override
+    protected String getCompletionsUrl() {
+        return settings.ollamaNativeApi ? getNativeBaseUrl() + "/api/chat" : super.getCompletionsUrl();
+    }
+
+    /**
+     * 构建请求体
+     * <p>
+     * 启用原生接口时转换为 {@code /api/chat} 的格式：生成参数放在 {@code options} 中，
+     * 并附加 {@code keep_alive}、{@code num_ctx} 和 {@code num_predict}。原生接口始终整体返回结果，
+     * 流式模式下按普通响应解析。
+     *
+     * @param prefix 提示词前缀消息
+     * @param prompt 提示词内容
+     * @return 构建好的 JSON 请求体
+     */
+    @Override
+    protected JsonObject buildRequestBody(List<String> prefix, String prompt) {
+        JsonObject body = super.buildRequestBody(prefix, prompt);
+        if (!settings.ollamaNativeApi) {
+            return body;
+        }
+
+        JsonObject options = new JsonObject();
+        options.addProperty("temperature", settings.temperature);
+        options.addProperty("top_p", settings.topP);
+        options.addProperty("top_k", settings.topK);
+        options.addProperty("presence_penalty", settings.presencePenalty);
+        options.addProperty("num_predict", settings.ollamaNumPredict > 0 ? settings.ollamaNumPredict : settings.maxTokens);
+        if (settings.ollamaNumCtx > 0) {
+            options.addProperty("num_ctx", settings.ollamaNumCtx);
+        }
+
+        JsonObject nativeBody = new JsonObject();
+        nativeBody.addProperty("model", settings.modelName);
+        nativeBody.add("messages", body.get("messages"));
+        nativeBody.addProperty("stream", false);
+        nativeBody.addProperty("think", false);
+        addKeepAlive(nativeBody);
+        nativeBody.add("options", options);
+        return nativeBody;
+    }
+
+    /**
+     * 获取原生接口专用的请求参数
+     *
+     * @return 原生接口开关、keep_alive、num_ctx 和 num_predict 的设置值
+     */
+    @Override
+    protected List<?> getRequestOptionsKey() {
+        return Arrays.asList(settings.ollamaNativeApi, settings.ollamaKeepAlive, settings.ollamaNumCtx,
+                             settings.ollamaNumPredict);
+    }
+
+    /**
+     * 预先加载模型
+     * <p>
+     * 向 {@code /api/generate} 发送不含提示词的请求，Ollama 只加载模型并按 {@code keep_alive} 保持常驻，
+     * 模型已加载时只刷新常驻时间。启用原生接口时按设置的 {@code num_ctx} 加载，
+     * 避免之后的请求因上下文长度不同而重新加载模型。失败时只记录日志。
+     *
+     * @return 加载成功时完成为 true 的 Future
+     */
+    @NotNull
+    @Override
+    public CompletableFuture<Boolean> preload() {
+        JsonObject body = new JsonObject();
+        body.addProperty("model", settings.modelName);
+        addKeepAlive(body);
+        if (settings.ollamaNativeApi && settings.ollamaNumCtx > 0) {
+            JsonObject options = new JsonObject();
+            options.addProperty("num_ctx", settings.ollamaNumCtx);
+            body.add("options", options);
+        }
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(getNativeBaseUrl() + "/api/generate"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        } catch (IllegalArgumentException e) {
+            LOG.debug("Invalid Ollama base URL: " + settings.baseUrl, e);
+            return CompletableFuture.completedFuture(false);
+        }
+
+        // 加载大模型可能需要较长时间，不设置请求超时
+        return SharedHttpClient.get(request.uri(), settings.timeout)
+            .sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .handle((response, error) -> {
+                if (error != null) {
+                    LOG.debug("Failed to preload Ollama model: " + settings.modelName, error);
+                    return false;
+                }
+                boolean loaded = response.statusCode() / 100 == 2;
+                if (!loaded) {
+                    LOG.debug("Failed to preload Ollama model: " + settings.modelName + ", status: "
+                              + response.statusCode());
+                }
+                return loaded;
+            });
+    }
+
+    /**
+     * 获取 Ollama 原生接口的根地址
+     * <p>
+     * 去掉 Base URL 末尾的斜杠和 OpenAI 兼容接口的 {@code /v1}，例如
+     * {@code http://localhost:11434/v1} 对应 {@code http://localhost:11434}。
+     *
+     * @return 原生接口的根地址
+     */
+    @NotNull
+    String getNativeBaseUrl() {
+        String url = settings.baseUrl != null ? settings.baseUrl.trim() : "";
+        while (url.endsWith("/")) {
+            url = url.substring(0, url.length() - 1);
+        }
+        return url.endsWith("/v1") ? url.substring(0, url.length() - 3) : url;
+    }
+
+    /**
+     * 添加模型常驻时间
+     * <p>
+     * 纯数字按秒数发送（例如 {@code -1} 表示一直常驻），其他值按时长字符串发送（例如 {@code 30m}），
+     * 未设置时不添加，使用服务端的默认值。
+     *
+     * @param body 请求体
+     */
+    private void addKeepAlive(@NotNull JsonObject body) {
+        String keepAlive = settings.ollamaKeepAlive != null ? settings.ollamaKeepAlive.trim() : "";
+        if (keepAlive.isEmpty()) {
+            return;
+        }
+        if (keepAlive.matches("-?\\d{1,9}")) {
+            body.addProperty("keep_alive", Integer.parseInt(keepAlive));
+        } else {
+            body.addProperty("keep_alive", keepAlive);
+        }
+    }
+}
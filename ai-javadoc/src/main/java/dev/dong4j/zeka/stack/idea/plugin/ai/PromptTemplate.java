@@ -0,0 +1,305 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import dev.dong4j.zeka.stack.idea.plugin.task.PromptContext;
+
+/**
+ * 预编译的提示词模板
+ *
+ * <p>模板在编译时拆分为文本片段和变量，渲染时按顺序拼接，不再像 {@code String.format} 那样每次重新解析，
+ * 并且可以直接渲染到调用方的 {@link StringBuilder} 中。支持的占位符：
+ * <ul>
+ *   <li>{@code {code}} 或 {@code %s}：代码</li>
+ *   <li>{@code {className}}、{@code {signature}}、{@code {packageName}}、{@code {existingDoc}}：
+ *       收集任务时提取的上下文变量，见 {@link PromptContext}</li>
+ *   <li>{@code %%}：字面量 {@code %}，兼容按 {@code String.format} 语法编写的旧模板</li>
+ * </ul>
+ *
+ * <p>其他内容（包括单独的 {@code %} 和未知名称的花括号，例如示例代码中的 {@code { ... }}）原样保留，
+ * 用户编辑的模板不会再因为包含 {@code %} 而渲染失败。
+ *
+ * <p>模板在第一个随成员变化的变量（代码、元素声明或已有注释）处分为前缀和其余部分，
+ * 前缀只包含说明文字和类级别的变量，同一个类的成员渲染出的前缀相同，可作为提示词缓存的前缀单独发送，
+ * 见 {@link #renderPrefix(PromptContext)} 和 {@link #renderAfterPrefix(String, PromptContext)}。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class PromptTemplate {
+
+    /**
+     * 模板变量
+     */
+    public enum Variable {
+        /** 代码 */
+        CODE("code"),
+        /** 所在类的简单名称 */
+        CLASS_NAME("className"),
+        /** 元素声明 */
+        SIGNATURE("signature"),
+        /** 包名 */
+        PACKAGE_NAME("packageName"),
+        /** 已有的 JavaDoc 注释 */
+        EXISTING_DOC("existingDoc");
+
+        /** 模板中使用的变量名 */
+        private final String name;
+
+        Variable(String name) {
+            this.name = name;
+        }
+
+        /**
+         * 获取模板中使用的变量名
+         *
+         * @return 变量名
+         */
+        @NotNull
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 获取变量的值
+         *
+         * @param code    代码
+         * @param context 上下文
+         * @return 变量值
+         */
+        @NotNull
+        String valueOf(@NotNull String code, @NotNull PromptContext context) {
+            return switch (this) {
+                case CODE -> code;
+                case CLASS_NAME -> context.className();
+                case SIGNATURE -> context.signature();
+                case PACKAGE_NAME -> context.packageName();
+                case EXISTING_DOC -> context.existingDoc();
+            };
+        }
+
+        /**
+         * 判断变量的值是否随成员变化
+         *
+         * @return 代码、元素声明和已有注释返回 true，类名和包名返回 false
+         */
+        boolean isMemberSpecific() {
+            return this == CODE || this == SIGNATURE || this == EXISTING_DOC;
+        }
+    }
+
+    /** 模板原文 */
+    private final String source;
+    /** 文本片段，比变量多一个，第 i 个变量位于第 i 和第 i + 1 个片段之间 */
+    private final String[] literals;
+    /** 按出现顺序排列的变量 */
+    private final Variable[] variables;
+    /** 文本片段的总长度 */
+    private final int literalLength;
+    /** 模板使用到的变量 */
+    private final Set<Variable> used;
+    /** 前缀包含的变量数，即第一个随成员变化的变量的位置，没有这样的变量时为 -1 */
+    private final int prefixVariables;
+
+    private PromptTemplate(String source, List<String> literals, List<Variable> variables) {
+        this.source = source;
+        this.literals = literals.toArray(String[]::new);
+        this.variables = variables.toArray(Variable[]::new);
+        this.literalLength = literals.stream().mapToInt(String::length).sum();
+        this.used = variables.isEmpty() ? EnumSet.noneOf(Variable.class) : EnumSet.copyOf(variables);
+        int prefix = -1;
+        for (int i = 0; i < this.variables.length && prefix < 0; i++) {
+            if (this.variables[i].isMemberSpecific()) {
+                prefix = i;
+            }
+        }
+        this.prefixVariables = prefix;
+    }
+
+    /**
+     * 编译模板
+     *
+     * @param source 模板原文
+     * @return 编译后的模板
+     */
+    @NotNull
+    public static PromptTemplate compile(@NotNull String source) {
+        List<String> literals = new ArrayList<>();
+        List<Variable> variables = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            Variable variable = null;
+            int next = i + 1;
+            if (c == '%' && next < source.length()) {
+                char specifier = source.charAt(next);
+                if (specifier == 's') {
+                    variable = Variable.CODE;
+                    next++;
+                } else if (specifier == '%') {
+                    literal.append('%');
+                    i = next + 1;
+                    continue;
+                }
+            } else if (c == '{') {
+                int close = source.indexOf('}', next);
+                variable = close > next ? find(source.substring(next, close)) : null;
+                next = close + 1;
+            }
+            if (variable == null) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            literals.add(literal.toString());
+            literal.setLength(0);
+            variables.add(variable);
+            i = next;
+        }
+        literals.add(literal.toString());
+        return new PromptTemplate(source, literals, variables);
+    }
+
+    /**
+     * 按名称查找变量
+     *
+     * @param name 变量名
+     * @return 变量，名称未知时返回 null
+     */
+    private static Variable find(String name) {
+        for (Variable variable : Variable.values()) {
+            if (variable.name.equals(name)) {
+                return variable;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取模板原文
+     *
+     * @return 模板原文
+     */
+    @NotNull
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * 判断模板是否使用了指定变量
+     *
+     * @param variable 变量
+     * @return 使用时返回 true
+     */
+    public boolean uses(@NotNull Variable variable) {
+        return used.contains(variable);
+    }
+
+    /**
+     * 计算渲染结果的长度
+     *
+     * @param code    代码
+     * @param context 上下文
+     * @return 渲染结果的字符数
+     */
+    public int length(@NotNull String code, @NotNull PromptContext context) {
+        int length = literalLength;
+        for (Variable variable : variables) {
+            length += variable.valueOf(code, context).length();
+        }
+        return length;
+    }
+
+    /**
+     * 渲染模板并追加到指定的构建器
+     *
+     * @param out     输出构建器
+     * @param code    代码
+     * @param context 上下文
+     * @return 输出构建器
+     */
+    @NotNull
+    public StringBuilder renderTo(@NotNull StringBuilder out, @NotNull String code, @NotNull PromptContext context) {
+        out.append(literals[0]);
+        for (int i = 0; i < variables.length; i++) {
+            out.append(variables[i].valueOf(code, context)).append(literals[i + 1]);
+        }
+        return out;
+    }
+
+    /**
+     * 判断模板是否有可单独发送的前缀
+     *
+     * @return 模板包含随成员变化的变量，且其之前有非空白的说明文字时返回 true
+     */
+    public boolean hasPrefix() {
+        for (int i = 0; i <= prefixVariables; i++) {
+            if (!literals[i].isBlank()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 渲染模板的前缀，即第一个随成员变化的变量之前的部分
+     *
+     * @param context 上下文，只使用类级别的变量
+     * @return 前缀，模板没有前缀时为空字符串
+     * @see #hasPrefix()
+     */
+    @NotNull
+    public String renderPrefix(@NotNull PromptContext context) {
+        if (prefixVariables < 0) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(literals[0]);
+        for (int i = 0; i < prefixVariables; i++) {
+            out.append(variables[i].valueOf("", context)).append(literals[i + 1]);
+        }
+        return out.toString();
+    }
+
+    /**
+     * 渲染前缀之后的部分
+     *
+     * <p>与 {@link #renderPrefix(PromptContext)} 的结果拼接后与 {@link #render(String, PromptContext)} 相同；
+     * 模板没有随成员变化的变量时返回完整的渲染结果。
+     *
+     * @param code    代码
+     * @param context 上下文
+     * @return 前缀之后的部分
+     */
+    @NotNull
+    public String renderAfterPrefix(@NotNull String code, @NotNull PromptContext context) {
+        if (prefixVariables < 0) {
+            return render(code, context);
+        }
+        StringBuilder out = new StringBuilder();
+        for (int i = prefixVariables; i < variables.length; i++) {
+            out.append(variables[i].valueOf(code, context)).append(literals[i + 1]);
+        }
+        return out.toString();
+    }
+
+    /**
+     * 渲染模板
+     *
+     * <p>构建器按结果长度一次分配，渲染过程中不会扩容复制。
+     *
+     * @param code    代码
+     * @param context 上下文
+     * @return 渲染结果
+     */
+    @NotNull
+    public String render(@NotNull String code, @NotNull PromptContext context) {
+        return renderTo(new StringBuilder(length(code, context)), code, context).toString();
+    }
+}
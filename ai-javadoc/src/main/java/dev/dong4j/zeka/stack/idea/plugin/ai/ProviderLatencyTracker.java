@@ -0,0 +1,100 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 提供商延迟统计
+ *
+ * <p>每个服务端点（提供商、服务地址和 API Key，与 {@link ProviderRateLimiter} 一致）共享一个统计，
+ * 记录最近 {@value #WINDOW_SIZE} 次成功生成单个元素文档的耗时（包括重试），用于估计该端点的 p90 延迟。
+ * 对冲请求据此判断一次请求是否已经明显慢于平常。
+ *
+ * <p>统计只保存在内存中，IDE 重启后重新积累。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @see AIServiceProvider#getLatencyTracker()
+ * @since 1.0.0
+ */
+public final class ProviderLatencyTracker {
+
+    /** 已创建的统计，key 为端点标识 */
+    private static final Map<String, ProviderLatencyTracker> TRACKERS = new ConcurrentHashMap<>();
+    /** 保留的最近样本数 */
+    static final int WINDOW_SIZE = 50;
+    /** 计算分位数所需的最少样本数，样本太少时分位数没有参考价值 */
+    static final int MIN_SAMPLES = 5;
+
+    /** 最近的样本，循环写入 */
+    private final long[] samples = new long[WINDOW_SIZE];
+    /** 已记录的样本总数 */
+    private long count;
+
+    /**
+     * 创建延迟统计
+     */
+    ProviderLatencyTracker() {
+    }
+
+    /**
+     * 获取指定端点共享的延迟统计
+     *
+     * @param providerId 提供商标识
+     * @param baseUrl    服务地址
+     * @param apiKey     API 密钥，可为 null
+     * @return 端点共享的延迟统计
+     */
+    @NotNull
+    public static ProviderLatencyTracker forEndpoint(@NotNull String providerId,
+                                                     @Nullable String baseUrl,
+                                                     @Nullable String apiKey) {
+        return TRACKERS.computeIfAbsent(ProviderRateLimiter.endpointKey(providerId, baseUrl, apiKey),
+                                        k -> new ProviderLatencyTracker());
+    }
+
+    /**
+     * 记录一次成功请求的耗时
+     *
+     * @param latencyMillis 耗时（毫秒）
+     */
+    public synchronized void record(long latencyMillis) {
+        if (latencyMillis < 0) {
+            return;
+        }
+        samples[(int) (count % WINDOW_SIZE)] = latencyMillis;
+        count++;
+    }
+
+    /**
+     * 获取最近样本的 p90 延迟
+     *
+     * @return p90 延迟（毫秒），样本少于 {@value #MIN_SAMPLES} 个时返回 -1
+     */
+    public long percentile90() {
+        return percentile(0.9);
+    }
+
+    /**
+     * 获取最近样本的指定分位数延迟
+     *
+     * @param quantile 分位数，取值 0-1
+     * @return 延迟（毫秒），样本少于 {@value #MIN_SAMPLES} 个时返回 -1
+     */
+    public long percentile(double quantile) {
+        long[] sorted;
+        synchronized (this) {
+            if (count < MIN_SAMPLES) {
+                return -1;
+            }
+            sorted = Arrays.copyOf(samples, (int) Math.min(count, WINDOW_SIZE));
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
@@ -0,0 +1,253 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 提供商运行指标
+ *
+ * <p>每个服务端点（与 {@link ProviderRateLimiter} 一致）共享一份指标，记录请求数、成功与失败数、
+ * 重试与限流（429）次数、正在执行的请求数、输入输出 token 数和成功请求的延迟分布，
+ * 供生成指标工具窗口实时显示，用于调整并发数和发现变慢的提供商。
+ *
+ * <p>所有计数器都是无锁的（{@link LongAdder}、原子变量和 {@link LatencyHistogram}），
+ * 请求线程记录指标不会互相阻塞。token 数由 {@link TokenEstimator} 估算，与限流器和小任务装箱的估算一致。
+ * 提示词缓存命中率则使用服务端在响应中报告的输入 token 数和其中命中缓存的 token 数。
+ *
+ * <p>指标只保存在内存中，IDE 重启或用户在工具窗口中重置后重新积累。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @see AICompatibleProvider
+ * @since 1.0.0
+ */
+public final class ProviderMetrics {
+
+    /** 已创建的指标，key 为端点标识 */
+    private static final Map<String, ProviderMetrics> METRICS = new ConcurrentHashMap<>();
+
+    /** 显示名称 */
+    private volatile String name;
+    /** 服务地址 */
+    private final String baseUrl;
+    /** 已发出的 HTTP 请求数（包括重试） */
+    private final LongAdder requests = new LongAdder();
+    /** 成功的生成数 */
+    private final LongAdder successes = new LongAdder();
+    /** 失败的生成数（重试耗尽或不可重试） */
+    private final LongAdder failures = new LongAdder();
+    /** 重试次数 */
+    private final LongAdder retries = new LongAdder();
+    /** 被限流（HTTP 429）的次数 */
+    private final LongAdder rateLimited = new LongAdder();
+    /** 估算的输入 token 数 */
+    private final LongAdder inputTokens = new LongAdder();
+    /** 估算的输出 token 数 */
+    private final LongAdder outputTokens = new LongAdder();
+    /** 服务端报告的输入 token 数，只统计报告了缓存用量的响应 */
+    private final LongAdder promptTokens = new LongAdder();
+    /** 服务端报告的命中提示词缓存的输入 token 数 */
+    private final LongAdder cachedPromptTokens = new LongAdder();
+    /** 正在执行的 HTTP 请求数 */
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /** 成功生成的耗时分布（包括重试） */
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * 创建指标
+     *
+     * @param name    显示名称
+     * @param baseUrl 服务地址
+     */
+    ProviderMetrics(@NotNull String name, @Nullable String baseUrl) {
+        this.name = name;
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * 获取指定端点共享的指标
+     *
+     * @param providerId 提供商标识
+     * @param baseUrl    服务地址
+     * @param apiKey     API 密钥，可为 null
+     * @param name       显示名称，如提供商名称和模型名称，每次获取时更新
+     * @return 端点共享的指标
+     */
+    @NotNull
+    public static ProviderMetrics forEndpoint(@NotNull String providerId,
+                                              @Nullable String baseUrl,
+                                              @Nullable String apiKey,
+                                              @NotNull String name) {
+        ProviderMetrics metrics = METRICS.computeIfAbsent(ProviderRateLimiter.endpointKey(providerId, baseUrl, apiKey),
+                                                          k -> new ProviderMetrics(name, baseUrl));
+        metrics.name = name;
+        return metrics;
+    }
+
+    /**
+     * 获取所有端点的指标快照
+     *
+     * @return 指标快照，按显示名称排序
+     */
+    @NotNull
+    public static List<Snapshot> snapshotAll() {
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (ProviderMetrics metrics : METRICS.values()) {
+            snapshots.add(metrics.snapshot());
+        }
+        snapshots.sort((a, b) -> a.name().compareTo(b.name()));
+        return snapshots;
+    }
+
+    /**
+     * 重置所有端点的指标，正在执行的请求数保持不变
+     */
+    public static void resetAll() {
+        METRICS.values().forEach(ProviderMetrics::reset);
+    }
+
+    /**
+     * 记录发出一次 HTTP 请求
+     *
+     * @param requestLength 请求体字符数，用于估算输入 token
+     */
+    void requestStarted(int requestLength) {
+        requests.increment();
+        inputTokens.add(TokenEstimator.estimate(requestLength));
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * 记录一次 HTTP 请求结束（无论成功与否）
+     */
+    void requestFinished() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * 记录一次成功的生成
+     *
+     * @param latencyMillis 耗时（毫秒，包括重试）
+     * @param resultLength  生成内容的字符数，用于估算输出 token
+     */
+    void recordSuccess(long latencyMillis, int resultLength) {
+        successes.increment();
+        outputTokens.add(TokenEstimator.estimate(resultLength));
+        latency.record(latencyMillis);
+    }
+
+    /**
+     * 记录服务端报告的提示词缓存用量
+     *
+     * @param tokens       输入 token 数
+     * @param cachedTokens 其中命中缓存的 token 数
+     */
+    void recordPromptCache(long tokens, long cachedTokens) {
+        if (tokens <= 0) {
+            return;
+        }
+        promptTokens.add(tokens);
+        cachedPromptTokens.add(Math.min(tokens, Math.max(0, cachedTokens)));
+    }
+
+    /**
+     * 记录一次失败的生成
+     */
+    void recordFailure() {
+        failures.increment();
+    }
+
+    /**
+     * 记录一次重试
+     */
+    void recordRetry() {
+        retries.increment();
+    }
+
+    /**
+     * 记录一次限流（HTTP 429）
+     */
+    void recordRateLimited() {
+        rateLimited.increment();
+    }
+
+    /**
+     * 获取指标快照
+     *
+     * @return 当前指标的近似快照
+     */
+    @NotNull
+    public Snapshot snapshot() {
+        return new Snapshot(name, baseUrl, requests.sum(), successes.sum(), failures.sum(), retries.sum(),
+                            rateLimited.sum(), Math.max(0, inFlight.get()), inputTokens.sum(), outputTokens.sum(),
+                            promptTokens.sum(), cachedPromptTokens.sum(), latency.percentile(0.5), latency.percentile(0.95), latency.percentile(0.99));
+    }
+
+    /**
+     * 清空计数和延迟分布
+     */
+    void reset() {
+        requests.reset();
+        successes.reset();
+        failures.reset();
+        retries.reset();
+        rateLimited.reset();
+        inputTokens.reset();
+        outputTokens.reset();
+        promptTokens.reset();
+        cachedPromptTokens.reset();
+        latency.reset();
+    }
+
+    /**
+     * 指标快照
+     *
+     * @param name         显示名称
+     * @param baseUrl      服务地址
+     * @param requests     已发出的 HTTP 请求数（包括重试）
+     * @param successes    成功的生成数
+     * @param failures     失败的生成数
+     * @param retries      重试次数
+     * @param rateLimited  被限流（HTTP 429）的次数
+     * @param inFlight     正在执行的 HTTP 请求数
+     * @param inputTokens  估算的输入 token 数
+     * @param outputTokens 估算的输出 token 数
+     * @param promptTokens 服务端报告了缓存用量的输入 token 数
+     * @param cachedTokens 其中命中提示词缓存的 token 数
+     * @param p50          p50 延迟（毫秒），没有样本时为 -1
+     * @param p95          p95 延迟（毫秒），没有样本时为 -1
+     * @param p99          p99 延迟（毫秒），没有样本时为 -1
+     */
+    public record Snapshot(String name,
+                           String baseUrl,
+                           long requests,
+                           long successes,
+                           long failures,
+                           long retries,
+                           long rateLimited,
+                           int inFlight,
+                           long inputTokens,
+                           long outputTokens,
+                           long promptTokens,
+                           long cachedTokens,
+                           long p50,
+                           long p95,
+                           long p99) {
+
+        /**
+         * 计算提示词缓存命中率
+         *
+         * @return 命中缓存的输入 token 比例（0 到 1），服务端没有报告缓存用量时为 -1
+         */
+        public double cacheHitRate() {
+            return promptTokens > 0 ? (double) cachedTokens / promptTokens : -1;
+        }
+    }
+}
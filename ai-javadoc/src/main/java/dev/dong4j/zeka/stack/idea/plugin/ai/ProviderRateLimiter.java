@@ -0,0 +1,359 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 提供商客户端限流器
+ *
+ * <p>每个服务端点（提供商、服务地址和 API Key，与 {@code ProviderConfig} 的相等性一致）共享一个限流器，
+ * 同一端点的所有工作线程和并发请求在发送前都从这里申请额度，使整个批量任务的请求速率保持在配额以内，
+ * 而不是各自撞上 429 后再独立退避。
+ *
+ * <p>限流方式：
+ * <ul>
+ *   <li>每分钟请求数和每分钟 token 数各使用一个令牌桶，额度不足时返回需要等待的时间，申请按顺序排队</li>
+ *   <li>配额上限取用户配置与服务端 {@code x-ratelimit-limit-*} 响应头中较小的值，两者都没有时不限制</li>
+ *   <li>服务端 {@code x-ratelimit-remaining-*} 响应头用于校正本地剩余额度，额度耗尽时暂停到
+ *       {@code x-ratelimit-reset-*} 指定的时间</li>
+ *   <li>收到 429 时按 {@code Retry-After}（或 {@code retry-after-ms}）暂停整个端点的请求</li>
+ * </ul>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @see AICompatibleProvider
+ * @since 1.0.0
+ */
+public final class ProviderRateLimiter {
+
+    /** 已创建的限流器，key 为端点标识 */
+    private static final Map<String, ProviderRateLimiter> LIMITERS = new ConcurrentHashMap<>();
+    /** 一分钟的毫秒数 */
+    private static final long MINUTE_MILLIS = 60_000L;
+    /** 被限流但服务端未指定等待时间时的暂停时间（毫秒） */
+    static final long DEFAULT_PAUSE_MILLIS = 1_000L;
+    /** OpenAI 风格的时长，如 1s、6m0s、20ms */
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+
+    /** 时钟，返回当前毫秒时间 */
+    private final LongSupplier clock;
+    /** 每分钟请求数令牌桶 */
+    private final Bucket requests = new Bucket();
+    /** 每分钟 token 数令牌桶 */
+    private final Bucket tokens = new Bucket();
+    /** 暂停截止时间，在此之前不发送请求 */
+    private long pausedUntil;
+
+    /**
+     * 创建限流器
+     *
+     * @param clock 时钟，返回当前毫秒时间
+     */
+    ProviderRateLimiter(@NotNull LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * 获取指定端点共享的限流器
+     *
+     * @param providerId 提供商标识
+     * @param baseUrl    服务地址
+     * @param apiKey     API 密钥，可为 null
+     * @return 端点共享的限流器
+     */
+    @NotNull
+    public static ProviderRateLimiter forEndpoint(@NotNull String providerId,
+                                                  @Nullable String baseUrl,
+                                                  @Nullable String apiKey) {
+        return LIMITERS.computeIfAbsent(endpointKey(providerId, baseUrl, apiKey),
+                                        k -> new ProviderRateLimiter(System::currentTimeMillis));
+    }
+
+    /**
+     * 生成服务端点标识
+     *
+     * <p>与 {@code ProviderConfig} 的相等性一致，API Key 只参与哈希，不以明文保存。
+     *
+     * @param providerId 提供商标识
+     * @param baseUrl    服务地址
+     * @param apiKey     API 密钥，可为 null
+     * @return 端点标识
+     */
+    @NotNull
+    static String endpointKey(@NotNull String providerId, @Nullable String baseUrl, @Nullable String apiKey) {
+        return providerId + "\n" + baseUrl + "\n" + Objects.hashCode(apiKey);
+    }
+
+    /**
+     * 设置用户配置的配额上限
+     *
+     * @param requestsPerMinute 每分钟请求数上限，0 表示只使用服务端返回的上限
+     * @param tokensPerMinute   每分钟 token 数上限，0 表示只使用服务端返回的上限
+     */
+    public synchronized void configure(int requestsPerMinute, int tokensPerMinute) {
+        long now = clock.getAsLong();
+        requests.setConfiguredLimit(requestsPerMinute, now);
+        tokens.setConfiguredLimit(tokensPerMinute, now);
+    }
+
+    /**
+     * 为一次请求申请额度
+     *
+     * <p>额度立即扣除（可以为负数），返回调用方发送请求前需要等待的时间。
+     * 多个调用方依次申请时，等待时间依次递增，请求被均匀地分散开。
+     *
+     * @param estimatedTokens 请求预计消耗的 token 数
+     * @return 需要等待的毫秒数，0 表示可以立即发送
+     */
+    public synchronized long reserve(int estimatedTokens) {
+        long now = clock.getAsLong();
+        long delay = Math.max(0, pausedUntil - now);
+        delay = Math.max(delay, requests.reserve(1, now));
+        delay = Math.max(delay, tokens.reserve(estimatedTokens, now));
+        return delay;
+    }
+
+    /**
+     * 根据响应头更新配额状态
+     *
+     * <p>读取 {@code x-ratelimit-limit-requests}、{@code x-ratelimit-limit-tokens}、
+     * {@code x-ratelimit-remaining-*} 和 {@code x-ratelimit-reset-*}，响应头不存在时忽略。
+     *
+     * @param headers 按名称读取响应头的函数，不存在时返回 null
+     */
+    public synchronized void onResponse(@NotNull Function<String, String> headers) {
+        long now = clock.getAsLong();
+        observe(requests, headers, "requests", now);
+        observe(tokens, headers, "tokens", now);
+    }
+
+    /**
+     * 记录被限流（429）
+     *
+     * <p>在等待时间内暂停该端点的所有请求，所有工作线程共同等待，避免各自重试继续触发限流。
+     *
+     * @param retryAfterMillis 服务端要求的等待时间，未指定时传入负数
+     */
+    public synchronized void onRateLimited(long retryAfterMillis) {
+        long pause = retryAfterMillis > 0 ? retryAfterMillis : DEFAULT_PAUSE_MILLIS;
+        pausedUntil = Math.max(pausedUntil, clock.getAsLong() + pause);
+    }
+
+    /**
+     * 解析响应要求的重试等待时间
+     *
+     * <p>依次读取 {@code retry-after-ms}（毫秒）和 {@code Retry-After}（秒数或 HTTP 日期）。
+     *
+     * @param headers 按名称读取响应头的函数，不存在时返回 null
+     * @param now     当前毫秒时间，用于计算 HTTP 日期的间隔
+     * @return 等待的毫秒数，未指定或无法解析时返回 -1
+     */
+    public static long parseRetryAfter(@NotNull Function<String, String> headers, long now) {
+        String millis = headers.apply("retry-after-ms");
+        if (millis != null) {
+            try {
+                return Math.max(0, (long) Double.parseDouble(millis.trim()));
+            } catch (NumberFormatException ignored) {
+                // 继续尝试 Retry-After
+            }
+        }
+
+        String value = headers.apply("Retry-After");
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        try {
+            return Math.max(0, (long) (Double.parseDouble(value.trim()) * 1000));
+        } catch (NumberFormatException ignored) {
+            // 不是秒数，按 HTTP 日期解析
+        }
+        try {
+            long at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return Math.max(0, at - now);
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 解析 OpenAI 风格的时长
+     *
+     * <p>支持 {@code 1s}、{@code 6m0s}、{@code 20ms}、{@code 1h2m3.5s} 以及不带单位的秒数。
+     *
+     * @param value 时长文本
+     * @return 毫秒数，无法解析时返回 -1
+     */
+    static long parseDuration(@Nullable String value) {
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        String text = value.trim();
+        try {
+            return (long) (Double.parseDouble(text) * 1000);
+        } catch (NumberFormatException ignored) {
+            // 带单位的时长
+        }
+
+        Matcher matcher = DURATION_PART.matcher(text);
+        double millis = 0;
+        int end = 0;
+        while (matcher.find()) {
+            if (matcher.start() != end) {
+                return -1;
+            }
+            double amount = Double.parseDouble(matcher.group(1));
+            millis += switch (matcher.group(2)) {
+                case "h" -> amount * 3_600_000;
+                case "m" -> amount * 60_000;
+                case "s" -> amount * 1_000;
+                default -> amount;
+            };
+            end = matcher.end();
+        }
+        return end == text.length() && end > 0 ? (long) millis : -1;
+    }
+
+    /**
+     * 读取一类配额的响应头并更新令牌桶
+     */
+    private void observe(@NotNull Bucket bucket,
+                         @NotNull Function<String, String> headers,
+                         @NotNull String kind,
+                         long now) {
+        int limit = parseInt(headers.apply("x-ratelimit-limit-" + kind));
+        if (limit > 0) {
+            bucket.setServerLimit(limit, now);
+        }
+        int remaining = parseInt(headers.apply("x-ratelimit-remaining-" + kind));
+        if (remaining < 0) {
+            return;
+        }
+        bucket.observeRemaining(remaining, now);
+        if (remaining == 0) {
+            long reset = parseDuration(headers.apply("x-ratelimit-reset-" + kind));
+            if (reset > 0) {
+                pausedUntil = Math.max(pausedUntil, now + reset);
+            }
+        }
+    }
+
+    /**
+     * 解析非负整数，无法解析时返回 -1
+     */
+    private static int parseInt(@Nullable String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Math.max(0, (int) Math.min(Integer.MAX_VALUE, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 每分钟配额的令牌桶
+     *
+     * <p>容量为每分钟上限，按上限均匀补充。上限未知（为 0）时不限制。
+     */
+    private static final class Bucket {
+
+        /** 用户配置的上限，0 表示未配置 */
+        private int configuredLimit;
+        /** 服务端返回的上限，0 表示未知 */
+        private int serverLimit;
+        /** 当前可用额度，可以为负数（已预约的额度） */
+        private double available;
+        /** 上次补充的时间 */
+        private long lastRefill;
+
+        /**
+         * 当前生效的上限
+         */
+        int limit() {
+            if (configuredLimit > 0 && serverLimit > 0) {
+                return Math.min(configuredLimit, serverLimit);
+            }
+            return Math.max(configuredLimit, serverLimit);
+        }
+
+        /**
+         * 设置用户配置的上限
+         */
+        void setConfiguredLimit(int limit, long now) {
+            updateLimit(() -> configuredLimit = Math.max(0, limit), now);
+        }
+
+        /**
+         * 设置服务端返回的上限
+         */
+        void setServerLimit(int limit, long now) {
+            updateLimit(() -> serverLimit = limit, now);
+        }
+
+        /**
+         * 更新上限，上限从未知变为已知时桶为满，降低时剩余额度不超过新上限
+         */
+        private void updateLimit(@NotNull Runnable update, long now) {
+            int previous = limit();
+            refill(now);
+            update.run();
+            int current = limit();
+            if (previous <= 0 && current > 0) {
+                available = current;
+                lastRefill = now;
+            } else {
+                available = Math.min(available, current);
+            }
+        }
+
+        /**
+         * 预约额度
+         *
+         * @return 额度补足前需要等待的毫秒数
+         */
+        long reserve(int amount, long now) {
+            int limit = limit();
+            if (limit <= 0) {
+                return 0;
+            }
+            refill(now);
+            // 单次请求超过上限时按上限计算，避免永远等待
+            available -= Math.min(amount, limit);
+            return available >= 0 ? 0 : (long) Math.ceil(-available * MINUTE_MILLIS / limit);
+        }
+
+        /**
+         * 以服务端报告的剩余额度校正本地额度
+         */
+        void observeRemaining(int remaining, long now) {
+            if (limit() <= 0) {
+                return;
+            }
+            refill(now);
+            available = Math.min(available, remaining);
+        }
+
+        /**
+         * 按经过的时间补充额度
+         */
+        private void refill(long now) {
+            int limit = limit();
+            if (limit > 0 && now > lastRefill) {
+                available = Math.min(limit, available + (double) (now - lastRefill) * limit / MINUTE_MILLIS);
+            }
+            lastRefill = Math.max(lastRefill, now);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package dev.dong4j.zeka.stack.idea.plugin.ai;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
@@ -136,5 +139,28 @@ public class QianWenProvider extends AICompatibleProvider {
     public boolean requiresApiKey() {
         return AIProviderType.QIANWEN.requiresApiKey();
     }
-}
 
+    /**
+     * 为提示词前缀附加显式缓存标记
+     * <p>
+     * DashScope 的显式缓存要求以内容数组的形式发送消息，并在需要缓存的位置标记 {@code cache_control}，
+     * 标记位置之前的全部内容（系统提示词和前缀消息）会被缓存，后续前缀相同的请求按命中缓存计费并跳过预填充。
+     *
+     * @param message 前缀的最后一条消息
+     * @see <a href="https://help.aliyun.com/zh/model-studio/context-cache">上下文缓存</a>
+     */
+    @Override
+    protected void markCacheablePrefix(JsonObject message) {
+        JsonObject cacheControl = new JsonObject();
+        cacheControl.addProperty("type", "ephemeral");
+
+        JsonObject part = new JsonObject();
+        part.addProperty("type", "text");
+        part.addProperty("text", message.get("content").getAsString());
+        part.add("cache_control", cacheControl);
+
+        JsonArray content = new JsonArray();
+        content.add(part);
+        message.add("content", content);
+    }
+}
@@ -0,0 +1,58 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 插件级共享的异步 HTTP 客户端
+ *
+ * <p>为 {@link AICompatibleProvider} 的异步请求提供复用的 {@link HttpClient}。
+ * 同一客户端内部维护连接池，连接保持 keep-alive，批量生成时不再为每个请求重新建立连接和 TLS 握手。
+ *
+ * <p>协议选择：
+ * <ul>
+ *   <li>HTTPS 地址：优先使用 HTTP/2（通过 ALPN 协商，服务端不支持时自动降级为 HTTP/1.1），
+ *       多个并发请求复用同一条连接</li>
+ *   <li>HTTP 地址：固定使用 HTTP/1.1，避免明文 h2c 升级请求被部分本地模型服务（Ollama、LM Studio 等）拒绝</li>
+ * </ul>
+ *
+ * <p>客户端按协议和连接超时缓存，设置变更后会创建新的客户端，旧客户端随空闲连接超时自然回收。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class SharedHttpClient {
+
+    /** 已创建的客户端，key 为 "协议:连接超时" */
+    private static final Map<String, HttpClient> CLIENTS = new ConcurrentHashMap<>();
+
+    /**
+     * 工具类不允许实例化
+     */
+    private SharedHttpClient() {
+    }
+
+    /**
+     * 获取适用于指定地址的共享客户端
+     *
+     * @param uri                  请求地址
+     * @param connectTimeoutMillis 连接超时（毫秒）
+     * @return 共享的 HTTP 客户端
+     */
+    @NotNull
+    public static HttpClient get(@NotNull URI uri, int connectTimeoutMillis) {
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int timeout = Math.max(1, connectTimeoutMillis);
+        return CLIENTS.computeIfAbsent((secure ? "h2:" : "h1:") + timeout, key -> HttpClient.newBuilder()
+            .version(secure ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(timeout))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build());
+    }
+}
@@ -0,0 +1,248 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 流式补全（SSE）响应订阅器
+ *
+ * <p>逐行接收 OpenAI 兼容接口的 {@code text/event-stream} 响应，解析每个 {@code data:} 事件中的
+ * {@code choices[0].delta.content}，经 {@link ThinkingStreamFilter} 过滤思考内容后累积结果。
+ *
+ * <p>处理规则：
+ * <ul>
+ *   <li>{@code data: [DONE]} 或响应结束时完成</li>
+ *   <li>注释行（以 {@code :} 开头）、{@code event:}/{@code id:} 等字段和空行忽略</li>
+ *   <li>没有任何 {@code data:} 行时（服务端忽略了 stream 参数或返回错误），保留原始响应体交由调用方解析</li>
+ *   <li>超时按两次数据之间的间隔计算（包括等待响应头的时间），超过空闲超时未收到新数据时取消订阅并以 TIMEOUT 错误结束</li>
+ * </ul>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+final class SseCompletionSubscriber implements Flow.Subscriber<String> {
+
+    /** SSE 数据字段前缀 */
+    private static final String DATA_PREFIX = "data:";
+    /** 流结束标记 */
+    private static final String DONE_MARKER = "[DONE]";
+
+    /** 两次数据之间允许的最大间隔（毫秒） */
+    private final long idleTimeoutMillis;
+    /** 可见内容增量监听器，可为 null */
+    private final Consumer<String> partialListener;
+    /** 思考内容过滤器 */
+    private final ThinkingStreamFilter thinkingFilter = new ThinkingStreamFilter();
+    /** 过滤后的可见内容 */
+    private final StringBuilder content = new StringBuilder();
+    /** 非 SSE 响应的原始内容 */
+    private final StringBuilder rawBody = new StringBuilder();
+    /** 解析结果 */
+    private final CompletableFuture<Result> result = new CompletableFuture<>();
+
+    /** 当前订阅 */
+    private volatile Flow.Subscription subscription;
+    /** 最近一次收到数据的时间（纳秒） */
+    private volatile long lastActivityNanos = System.nanoTime();
+    /** 是否收到过 SSE 数据行 */
+    private boolean streamed;
+
+    /**
+     * 创建订阅器
+     *
+     * @param idleTimeoutMillis 两次数据之间允许的最大间隔（毫秒）
+     * @param partialListener   可见内容增量监听器，可为 null
+     */
+    SseCompletionSubscriber(long idleTimeoutMillis, @Nullable Consumer<String> partialListener) {
+        this.idleTimeoutMillis = Math.max(1, idleTimeoutMillis);
+        this.partialListener = partialListener;
+    }
+
+    /**
+     * 获取解析结果
+     *
+     * @return 响应结束时完成的 Future
+     */
+    @NotNull
+    CompletableFuture<Result> result() {
+        return result;
+    }
+
+    /**
+     * 开始计算空闲超时
+     *
+     * <p>在发送请求时调用，等待响应头的时间同样受空闲超时限制。
+     */
+    void start() {
+        lastActivityNanos = System.nanoTime();
+        scheduleIdleCheck(idleTimeoutMillis);
+    }
+
+    /**
+     * 在收到响应体之前请求已经失败时结束订阅器
+     *
+     * @param error 失败原因
+     */
+    void fail(@NotNull Throwable error) {
+        Flow.Subscription current = subscription;
+        if (current != null) {
+            current.cancel();
+        }
+        result.completeExceptionally(error);
+    }
+
+    @Override
+    public void onSubscribe(@NotNull Flow.Subscription subscription) {
+        this.subscription = subscription;
+        lastActivityNanos = System.nanoTime();
+        if (result.isDone()) {
+            subscription.cancel();
+            return;
+        }
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(@NotNull String line) {
+        lastActivityNanos = System.nanoTime();
+        if (result.isDone()) {
+            return;
+        }
+
+        if (!line.startsWith(DATA_PREFIX)) {
+            if (!streamed) {
+                rawBody.append(line).append('\n');
+            }
+            return;
+        }
+
+        streamed = true;
+        String data = line.substring(DATA_PREFIX.length()).trim();
+        if (DONE_MARKER.equals(data)) {
+            complete();
+            subscription.cancel();
+            return;
+        }
+        if (data.isEmpty()) {
+            return;
+        }
+
+        try {
+            String delta = parseDelta(data);
+            if (delta != null && !delta.isEmpty()) {
+                String visible = thinkingFilter.accept(delta);
+                emit(visible);
+            }
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            result.completeExceptionally(new AIServiceException("Invalid stream chunk from AI service: " + e.getMessage(),
+                                                                AIServiceException.ErrorCode.INVALID_RESPONSE, e));
+        }
+    }
+
+    @Override
+    public void onError(@NotNull Throwable throwable) {
+        result.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        complete();
+    }
+
+    /**
+     * 以当前累积的内容完成结果
+     */
+    private void complete() {
+        if (result.isDone()) {
+            return;
+        }
+        if (streamed) {
+            emit(thinkingFilter.finish());
+            result.complete(new Result(true, content.toString()));
+        } else {
+            result.complete(new Result(false, rawBody.toString()));
+        }
+    }
+
+    /**
+     * 追加可见内容并通知监听器
+     *
+     * @param visible 可见内容
+     */
+    private void emit(String visible) {
+        if (visible.isEmpty()) {
+            return;
+        }
+        content.append(visible);
+        if (partialListener != null) {
+            partialListener.accept(visible);
+        }
+    }
+
+    /**
+     * 解析数据块中的增量内容
+     *
+     * @param data data 字段的 JSON 内容
+     * @return 增量内容，不包含内容时返回 null
+     */
+    @Nullable
+    private static String parseDelta(String data) {
+        JsonObject chunk = JsonParser.parseString(data).getAsJsonObject();
+        JsonArray choices = chunk.getAsJsonArray("choices");
+        if (choices == null || choices.isEmpty()) {
+            return null;
+        }
+        JsonObject delta = choices.get(0).getAsJsonObject().getAsJsonObject("delta");
+        if (delta == null) {
+            return null;
+        }
+        JsonElement deltaContent = delta.get("content");
+        return deltaContent == null || deltaContent.isJsonNull() ? null : deltaContent.getAsString();
+    }
+
+    /**
+     * 安排空闲超时检查
+     *
+     * @param delayMillis 检查延迟（毫秒）
+     */
+    private void scheduleIdleCheck(long delayMillis) {
+        CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS).execute(this::checkIdle);
+    }
+
+    /**
+     * 检查距离上次收到数据的时间，超过空闲超时则结束请求
+     */
+    private void checkIdle() {
+        if (result.isDone()) {
+            return;
+        }
+        long idleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastActivityNanos);
+        if (idleMillis < idleTimeoutMillis) {
+            scheduleIdleCheck(idleTimeoutMillis - idleMillis);
+            return;
+        }
+        fail(new AIServiceException("Stream timed out: no data received for " + idleMillis + "ms",
+                                    AIServiceException.ErrorCode.TIMEOUT));
+    }
+
+    /**
+     * 流式响应解析结果
+     *
+     * @param streamed 是否为 SSE 流式响应
+     * @param body     流式响应为过滤后的可见内容，否则为原始响应体
+     */
+    record Result(boolean streamed, @NotNull String body) {
+    }
+}
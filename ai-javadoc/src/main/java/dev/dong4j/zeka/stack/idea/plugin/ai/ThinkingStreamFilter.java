@@ -0,0 +1,98 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 流式思考内容过滤器
+ *
+ * <p>在流式响应中逐块过滤 {@code <think>...</think>} 思考内容，只输出模型的最终回答。
+ * 标签可能被拆分到多个数据块中，末尾可能构成标签前缀的字符会暂存到下一块再判断。
+ *
+ * <p>非线程安全，每个响应流使用一个实例。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+final class ThinkingStreamFilter {
+
+    /** 思考内容开始标签 */
+    private static final String OPEN_TAG = "<think>";
+    /** 思考内容结束标签 */
+    private static final String CLOSE_TAG = "</think>";
+
+    /** 尚未确定是否属于标签的待处理内容 */
+    private final StringBuilder pending = new StringBuilder();
+    /** 当前是否处于思考内容中 */
+    private boolean thinking;
+
+    /**
+     * 接收一个数据块
+     *
+     * @param chunk 数据块内容
+     * @return 本次可以输出的可见内容，可能为空字符串
+     */
+    @NotNull
+    String accept(@NotNull String chunk) {
+        pending.append(chunk);
+        return drain(false);
+    }
+
+    /**
+     * 结束过滤，输出暂存的剩余内容
+     *
+     * <p>未闭合的思考内容会被丢弃。
+     *
+     * @return 剩余的可见内容
+     */
+    @NotNull
+    String finish() {
+        return drain(true);
+    }
+
+    /**
+     * 处理待处理内容并返回可输出部分
+     *
+     * @param endOfStream 是否已到达流末尾
+     * @return 可输出的可见内容
+     */
+    private String drain(boolean endOfStream) {
+        StringBuilder visible = new StringBuilder();
+        while (true) {
+            String tag = thinking ? CLOSE_TAG : OPEN_TAG;
+            int index = pending.indexOf(tag);
+            if (index >= 0) {
+                if (!thinking) {
+                    visible.append(pending, 0, index);
+                }
+                pending.delete(0, index + tag.length());
+                thinking = !thinking;
+                continue;
+            }
+
+            int keep = endOfStream ? 0 : partialTagLength(tag);
+            int end = pending.length() - keep;
+            if (!thinking) {
+                visible.append(pending, 0, end);
+            }
+            pending.delete(0, end);
+            return visible.toString();
+        }
+    }
+
+    /**
+     * 计算待处理内容末尾与标签前缀重合的最大长度
+     *
+     * @param tag 正在查找的标签
+     * @return 需要暂存的字符数
+     */
+    private int partialTagLength(String tag) {
+        int max = Math.min(tag.length() - 1, pending.length());
+        for (int length = max; length > 0; length--) {
+            if (pending.indexOf(tag.substring(0, length), pending.length() - length) >= 0) {
+                return length;
+            }
+        }
+        return 0;
+    }
+}
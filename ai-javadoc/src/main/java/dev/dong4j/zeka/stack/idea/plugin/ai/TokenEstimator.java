@@ -0,0 +1,36 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+/**
+ * token 数估算
+ *
+ * <p>不依赖具体模型的分词器，按平均每 {@value #CHARS_PER_TOKEN} 个字符一个 token 粗略估算，
+ * 兼顾英文代码和中文注释。限流预扣额度、运行指标和小任务装箱使用同一个估算，
+ * 三者的数字可以互相对照。估算偏差由限流器按响应头中的剩余额度校正。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @see ProviderRateLimiter
+ * @see ProviderMetrics
+ * @since 1.0.0
+ */
+public final class TokenEstimator {
+
+    /** 每个 token 对应的平均字符数 */
+    public static final int CHARS_PER_TOKEN = 3;
+
+    /**
+     * 工具类不允许实例化
+     */
+    private TokenEstimator() {
+    }
+
+    /**
+     * 估算文本的 token 数
+     *
+     * @param chars 文本字符数
+     * @return 估算的 token 数，向上取整，非空文本至少为 1
+     */
+    public static int estimate(int chars) {
+        return chars <= 0 ? 0 : (chars - 1) / CHARS_PER_TOKEN + 1;
+    }
+}
@@ -0,0 +1,80 @@
+package dev.dong4j.zeka.stack.idea.plugin.component;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import dev.dong4j.zeka.stack.idea.plugin.ai.AIServiceFactory;
+import dev.dong4j.zeka.stack.idea.plugin.ai.AIServiceProvider;
+import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 在项目打开时预热 AI 服务连接
+ * <p>
+ * 启用 {@link SettingsState#warmUpOnProjectOpen} 后，项目打开时在后台线程中请求一次模型列表，
+ * 由此完成 DNS 解析和 TLS 握手，并在共享 HTTP 客户端中留下可复用的连接（文档生成请求同样经由该客户端发送）；
+ * 同时检查配置的模型是否可用，并调用 {@link AIServiceProvider#preload()} 让本地服务预先加载模型。
+ * 第一次生成文档时不再承担这些开销。
+ * <p>
+ * 模型列表按端点缓存（见 {@link dev.dong4j.zeka.stack.idea.plugin.ai.ModelCatalog}），预热时忽略有效期，
+ * 始终发送请求以建立连接；已有缓存时为条件请求，列表未变化时服务端只返回 304。
+ * 预热不发送生成请求，失败只记录日志。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Slf4j
+public class ProviderWarmUpActivity implements StartupActivity.DumbAware {
+
+    /**
+     * 在项目启动时运行，配置已验证且启用预热时在后台预热连接
+     *
+     * @param project 启动的项目
+     */
+    @Override
+    public void runActivity(@NotNull Project project) {
+        SettingsState settings = SettingsState.getInstance();
+        if (!settings.warmUpOnProjectOpen || !settings.configurationVerified
+            || ApplicationManager.getApplication().isUnitTestMode()) {
+            return;
+        }
+        ApplicationManager.getApplication().executeOnPooledThread(() -> warmUp(settings));
+    }
+
+    /**
+     * 预热当前配置的 AI 服务
+     *
+     * @param settings 配置
+     */
+    static void warmUp(@NotNull SettingsState settings) {
+        try {
+            AIServiceProvider provider = AIServiceFactory.createProvider(settings);
+            if (provider == null) {
+                return;
+            }
+            long start = System.nanoTime();
+            // 模型加载较慢，先发出预加载请求，与获取模型列表并行进行
+            provider.preload();
+            // 即使缓存的列表仍在有效期内也发送请求，否则不会建立任何连接
+            List<String> models = provider.getAvailableModels(true);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            if (models.isEmpty()) {
+                log.warn("预热失败：未能从 {} 获取模型列表，请检查服务地址和 API Key", settings.baseUrl);
+            } else if (!models.contains(settings.modelName)) {
+                log.warn("配置的模型 {} 不在 {} 的可用模型列表中", settings.modelName, provider.getProviderName());
+            } else {
+                log.info("已预热 {} 的连接，耗时 {} ms", provider.getProviderName(), elapsed);
+            }
+        } catch (Exception e) {
+            log.debug("预热 AI 服务连接失败", e);
+        }
+    }
+}
@@ -1,17 +1,24 @@
 package dev.dong4j.zeka.stack.idea.plugin.service;
 
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
 
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
+import dev.dong4j.zeka.stack.idea.plugin.ai.AIServiceFactory;
+import dev.dong4j.zeka.stack.idea.plugin.ai.AIServiceProvider;
+import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
 import dev.dong4j.zeka.stack.idea.plugin.task.DocumentationTask;
+import dev.dong4j.zeka.stack.idea.plugin.task.TaskCollector;
 import dev.dong4j.zeka.stack.idea.plugin.task.TaskExecutor;
 import dev.dong4j.zeka.stack.idea.plugin.util.JavaDocBundle;
 import dev.dong4j.zeka.stack.idea.plugin.util.NotificationUtil;
@@ -34,6 +41,10 @@ import lombok.extern.slf4j.Slf4j;
  * <p>使用示例：
  * <pre>
  * DocumentationGenerationService service = new DocumentationGenerationService();
+ * service.collectAndGenerate(project, "目标描述", collector -&gt; collector.collectFromFile(psiFile),
+ *                            JavaDocBundle.message("notification.no.task.default"), stats -&gt; { ... });
+ *
+ * // 已经收集好任务时直接生成
  * service.generateDocumentation(project, tasks, "目标描述", (stats) -> {
  *     // 处理完成回调
  *     NotificationUtil.notifyCompletion(project, stats.completed(), stats.failed(), stats.skipped());
@@ -47,6 +58,130 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class DocumentationGenerationService {
 
+    /** 任务数超过该值时，生成前需要用户确认 */
+    private static final int CONFIRMATION_THRESHOLD = 50;
+
+    /**
+     * 在后台收集任务并生成文档
+     *
+     * <p>供所有 Action 共用：任务收集（遍历文件、构建 PSI、复制元素代码）不在事件调度线程上执行，
+     * 而是在带进度的后台任务中以非阻塞读操作运行。读操作期间发生写操作时自动取消并重新开始，
+     * 不会阻塞编辑；用户也可以随时取消收集。
+     *
+     * <p>开始收集前通过 {@link AIServiceProvider#preload()} 通知本地服务预先加载模型，与收集并行进行。
+     *
+     * <p>收集完成后回到事件调度线程：没有任务时显示提示，任务数超过 {@value #CONFIRMATION_THRESHOLD}
+     * 时先请求用户确认，然后调用 {@link #generateDocumentation(Project, List, String, Consumer)}。
+     *
+     * @param project           项目对象
+     * @param targetDescription 目标描述（用于进度显示）
+     * @param collect           收集任务的函数，在读操作中调用，可能因写操作而多次调用
+     * @param emptyMessage      没有任务时的提示消息
+     * @param onComplete        完成回调，接收任务统计信息
+     */
+    public void collectAndGenerate(@NotNull Project project,
+                                   @NotNull String targetDescription,
+                                   @NotNull Function<TaskCollector, List<DocumentationTask>> collect,
+                                   @NotNull String emptyMessage,
+                                   @NotNull Consumer<TaskExecutor.TaskStatistics> onComplete) {
+        ProgressManager.getInstance().run(
+            new Task.Backgroundable(project, JavaDocBundle.message("progress.collecting.tasks"), true) {
+                /**
+                 * 以非阻塞读操作收集任务，完成后在事件调度线程上确认并开始生成
+                 *
+                 * @param indicator 进度指示器，用于显示收集进度和响应取消
+                 */
+                @Override
+                public void run(@NotNull ProgressIndicator indicator) {
+                    indicator.setIndeterminate(true);
+                    // 收集任务期间由服务端并行加载模型
+                    preloadModel();
+                    List<DocumentationTask> tasks = ReadAction
+                        .nonBlocking(() -> collect.apply(new TaskCollector(project)))
+                        .inSmartMode(project)
+                        .wrapProgress(indicator)
+                        .executeSynchronously();
+                    log.info("收集到 {} 个任务，目标: {}", tasks.size(), targetDescription);
+
+                    ApplicationManager.getApplication().invokeLater(() -> {
+                        if (!project.isDisposed()) {
+                            confirmAndGenerate(project, tasks, targetDescription, emptyMessage, onComplete);
+                        }
+                    });
+                }
+            }
+                                         );
+    }
+
+    /**
+     * 通知当前的 AI 服务提供商预先加载模型
+     *
+     * <p>只发出请求而不等待结果，配置无效或加载失败时不影响之后的生成。
+     */
+    private static void preloadModel() {
+        try {
+            AIServiceProvider provider = AIServiceFactory.createProvider(SettingsState.getInstance());
+            if (provider != null) {
+                provider.preload();
+            }
+        } catch (Exception e) {
+            log.debug("预加载模型失败", e);
+        }
+    }
+
+    /**
+     * 在后台收集任务并生成文档（使用标准的完成通知）
+     *
+     * @param project           项目对象
+     * @param targetDescription 目标描述
+     * @param collect           收集任务的函数，在读操作中调用
+     * @param emptyMessage      没有任务时的提示消息
+     * @see #collectAndGenerate(Project, String, Function, String, Consumer)
+     */
+    public void collectAndGenerate(@NotNull Project project,
+                                   @NotNull String targetDescription,
+                                   @NotNull Function<TaskCollector, List<DocumentationTask>> collect,
+                                   @NotNull String emptyMessage) {
+        collectAndGenerate(project, targetDescription, collect, emptyMessage, stats -> {
+            NotificationUtil.notifyCompletion(project, stats.completed(), stats.failed(), stats.skipped());
+        });
+    }
+
+    /**
+     * 检查收集结果，任务较多时请求确认，然后开始生成
+     *
+     * @param project           项目对象
+     * @param tasks             收集到的任务
+     * @param targetDescription 目标描述
+     * @param emptyMessage      没有任务时的提示消息
+     * @param onComplete        完成回调
+     */
+    private void confirmAndGenerate(@NotNull Project project,
+                                    @NotNull List<DocumentationTask> tasks,
+                                    @NotNull String targetDescription,
+                                    @NotNull String emptyMessage,
+                                    @NotNull Consumer<TaskExecutor.TaskStatistics> onComplete) {
+        if (checkEmptyTasks(project, tasks, emptyMessage)) {
+            return;
+        }
+
+        // 确认是否继续（如果任务很多）
+        if (tasks.size() > CONFIRMATION_THRESHOLD) {
+            int result = Messages.showYesNoDialog(
+                project,
+                JavaDocBundle.message("confirmation.batch.generation.message", tasks.size()),
+                JavaDocBundle.message("confirmation.batch.generation.title"),
+                Messages.getQuestionIcon()
+                                                 );
+
+            if (result != Messages.YES) {
+                return;
+            }
+        }
+
+        generateDocumentation(project, tasks, targetDescription, onComplete);
+    }
+
     /**
      * 生成文档
      *
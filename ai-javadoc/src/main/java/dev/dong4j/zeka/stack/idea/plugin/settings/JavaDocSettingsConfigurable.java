@@ -166,6 +166,9 @@ public class JavaDocSettingsConfigurable implements Configurable {
         if (!currentSettings.modelName.equals(panelSettings.modelName)) {
             return true;
         }
+        if (!currentSettings.changesBaseRevision.equals(panelSettings.changesBaseRevision)) {
+            return true;
+        }
         if (!currentSettings.baseUrl.equals(panelSettings.baseUrl)) {
             return true;
         }
@@ -188,6 +191,15 @@ public class JavaDocSettingsConfigurable implements Configurable {
         if (currentSettings.skipExisting != panelSettings.skipExisting) {
             return true;
         }
+        if (currentSettings.classSkeleton != panelSettings.classSkeleton) {
+            return true;
+        }
+        if (currentSettings.includeTestSources != panelSettings.includeTestSources) {
+            return true;
+        }
+        if (!currentSettings.excludedPathPatterns.equals(panelSettings.excludedPathPatterns)) {
+            return true;
+        }
 
         if (currentSettings.maxRetries != panelSettings.maxRetries) {
             return true;
@@ -201,9 +213,51 @@ public class JavaDocSettingsConfigurable implements Configurable {
         if (currentSettings.maxTokens != panelSettings.maxTokens) {
             return true;
         }
+        if (currentSettings.ollamaNativeApi != panelSettings.ollamaNativeApi) {
+            return true;
+        }
+        if (!currentSettings.ollamaKeepAlive.equals(panelSettings.ollamaKeepAlive)) {
+            return true;
+        }
+        if (currentSettings.ollamaNumCtx != panelSettings.ollamaNumCtx) {
+            return true;
+        }
+        if (currentSettings.ollamaNumPredict != panelSettings.ollamaNumPredict) {
+            return true;
+        }
         if (currentSettings.performanceMode != panelSettings.performanceMode) {
             return true;
         }
+        if (currentSettings.concurrency != panelSettings.concurrency) {
+            return true;
+        }
+        if (currentSettings.requestsPerMinute != panelSettings.requestsPerMinute) {
+            return true;
+        }
+        if (currentSettings.tokensPerMinute != panelSettings.tokensPerMinute) {
+            return true;
+        }
+        if (currentSettings.virtualThreads != panelSettings.virtualThreads) {
+            return true;
+        }
+        if (currentSettings.streaming != panelSettings.streaming) {
+            return true;
+        }
+        if (currentSettings.packedPrompts != panelSettings.packedPrompts) {
+            return true;
+        }
+        if (currentSettings.documentationCache != panelSettings.documentationCache) {
+            return true;
+        }
+        if (currentSettings.hedgedRequests != panelSettings.hedgedRequests) {
+            return true;
+        }
+        if (currentSettings.promptPrefixCaching != panelSettings.promptPrefixCaching) {
+            return true;
+        }
+        if (currentSettings.warmUpOnProjectOpen != panelSettings.warmUpOnProjectOpen) {
+            return true;
+        }
 
         // 比较 Prompt 模板配置
         if (!currentSettings.systemPromptTemplate.equals(panelSettings.systemPromptTemplate)) {
@@ -266,6 +320,7 @@ public class JavaDocSettingsConfigurable implements Configurable {
         currentSettings.aiProvider = panelSettings.aiProvider;
         currentSettings.modelName = panelSettings.modelName;
         currentSettings.baseUrl = panelSettings.baseUrl;
+        currentSettings.changesBaseRevision = panelSettings.changesBaseRevision;
         currentSettings.apiKey = panelSettings.apiKey;
         currentSettings.configurationVerified = panelSettings.configurationVerified;
 
@@ -273,12 +328,29 @@ public class JavaDocSettingsConfigurable implements Configurable {
         currentSettings.generateForMethod = panelSettings.generateForMethod;
         currentSettings.generateForField = panelSettings.generateForField;
         currentSettings.skipExisting = panelSettings.skipExisting;
+        currentSettings.classSkeleton = panelSettings.classSkeleton;
+        currentSettings.includeTestSources = panelSettings.includeTestSources;
+        currentSettings.excludedPathPatterns = panelSettings.excludedPathPatterns;
 
         currentSettings.maxRetries = panelSettings.maxRetries;
         currentSettings.timeout = panelSettings.timeout;
         currentSettings.temperature = panelSettings.temperature;
         currentSettings.maxTokens = panelSettings.maxTokens;
+        currentSettings.ollamaNativeApi = panelSettings.ollamaNativeApi;
+        currentSettings.ollamaKeepAlive = panelSettings.ollamaKeepAlive;
+        currentSettings.ollamaNumCtx = panelSettings.ollamaNumCtx;
+        currentSettings.ollamaNumPredict = panelSettings.ollamaNumPredict;
         currentSettings.performanceMode = panelSettings.performanceMode;
+        currentSettings.concurrency = panelSettings.concurrency;
+        currentSettings.requestsPerMinute = panelSettings.requestsPerMinute;
+        currentSettings.tokensPerMinute = panelSettings.tokensPerMinute;
+        currentSettings.virtualThreads = panelSettings.virtualThreads;
+        currentSettings.streaming = panelSettings.streaming;
+        currentSettings.packedPrompts = panelSettings.packedPrompts;
+        currentSettings.documentationCache = panelSettings.documentationCache;
+        currentSettings.hedgedRequests = panelSettings.hedgedRequests;
+        currentSettings.promptPrefixCaching = panelSettings.promptPrefixCaching;
+        currentSettings.warmUpOnProjectOpen = panelSettings.warmUpOnProjectOpen;
 
         // 保存 Prompt 模板配置
         currentSettings.systemPromptTemplate = panelSettings.systemPromptTemplate;
@@ -357,6 +429,7 @@ public class JavaDocSettingsConfigurable implements Configurable {
      *   <li>超时时间：1000-300000 毫秒</li>
      *   <li>温度参数：0.0-2.0</li>
      *   <li>最大 Token：100-10000</li>
+     *   <li>并发请求数：1-10</li>
      * </ul>
      *
      * @param settings 面板中的配置
@@ -397,6 +470,10 @@ public class JavaDocSettingsConfigurable implements Configurable {
             return false;
         }
 
+        if (settings.concurrency < 1 || settings.concurrency > 10) {
+            return false;
+        }
+
         return settings.maxTokens >= 100 && settings.maxTokens <= 10000;
     }
 }
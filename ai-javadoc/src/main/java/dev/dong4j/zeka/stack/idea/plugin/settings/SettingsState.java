@@ -247,6 +247,49 @@ public class SettingsState implements PersistentStateComponent<SettingsState> {
      */
     public int maxClassCodeLines = 1000;
 
+    /**
+     * 是否将类代码压缩为类骨架
+     *
+     * <p>启用后，类级别的任务只发送类声明、字段、方法签名和成员已有注释的首句，省略方法体。
+     * 生成类概述通常不需要方法实现，大类可以节省大部分 token。仅在启用类代码优化时生效。
+     *
+     * <p>默认值: false
+     *
+     * @see dev.dong4j.zeka.stack.idea.plugin.task.ClassSkeletonBuilder
+     */
+    public boolean classSkeleton = false;
+
+    /**
+     * 增量模式的基准版本
+     *
+     * <p>"为变更的代码生成 JavaDoc" 时与之比较的版本，可以是分支名（如 origin/main）、标签或提交哈希。
+     * 为空时使用 VCS 变更列表中的本地修改（与已提交版本比较）。
+     *
+     * <p>默认值: ""（本地修改）
+     *
+     * @see dev.dong4j.zeka.stack.idea.plugin.task.ChangedCodeDetector
+     */
+    public String changesBaseRevision = "";
+
+    /**
+     * 目录生成时是否包含测试源码
+     *
+     * <p>为目录生成文档时是否处理测试源码目录中的文件。直接选中的文件不受影响。
+     *
+     * <p>默认值: true
+     */
+    public boolean includeTestSources = true;
+
+    /**
+     * 目录生成时排除的文件
+     *
+     * <p>以逗号或换行分隔的 glob，相对于内容根目录匹配，如 <code>**&#47;dto/**</code>、<code>**&#47;*Test.java</code>。
+     * 生成代码目录和排除目录始终会被跳过，不需要在这里配置。
+     *
+     * <p>默认值: ""（不排除）
+     */
+    public String excludedPathPatterns = "";
+
     // ==================== 高级配置 ====================
 
     /**
@@ -339,6 +382,48 @@ public class SettingsState implements PersistentStateComponent<SettingsState> {
      */
     public double presencePenalty = 0.0;
 
+    /**
+     * Ollama 是否使用原生接口
+     *
+     * <p>启用后 Ollama 的文档生成请求发送到原生的 {@code /api/chat} 接口（Base URL 去掉 {@code /v1}），
+     * 请求中携带 {@link #ollamaKeepAlive}、{@link #ollamaNumCtx} 和 {@link #ollamaNumPredict}；
+     * 配置验证和模型列表仍使用 OpenAI 兼容接口。原生接口的结果整体返回，不推送增量内容。
+     *
+     * <p>默认值: false
+     *
+     * @see dev.dong4j.zeka.stack.idea.plugin.ai.OllamaProvider
+     */
+    public boolean ollamaNativeApi = false;
+
+    /**
+     * Ollama 模型在最后一次请求后保留在内存中的时长
+     *
+     * <p>Ollama 的 {@code keep_alive} 参数，如 {@code 30m}、{@code 1h}，{@code -1} 表示一直保留。
+     * 同时用于开始生成时的模型预加载，避免批量生成中途模型被卸载后重新加载。为空时使用服务端默认值（5 分钟）。
+     *
+     * <p>默认值: 30m
+     */
+    public String ollamaKeepAlive = "30m";
+
+    /**
+     * Ollama 上下文窗口大小
+     *
+     * <p>Ollama 的 {@code num_ctx} 选项，需要容纳系统提示词、模板和代码。
+     * 预加载使用相同的值，避免第一个请求因上下文大小不同而重新加载模型。0 表示使用模型默认值。
+     *
+     * <p>默认值: 0
+     */
+    public int ollamaNumCtx = 0;
+
+    /**
+     * Ollama 最多生成的 token 数
+     *
+     * <p>Ollama 的 {@code num_predict} 选项。0 表示使用 {@link #maxTokens}。
+     *
+     * <p>默认值: 0
+     */
+    public int ollamaNumPredict = 0;
+
     /**
      * 可用的服务提供商列表
      *
@@ -439,6 +524,129 @@ public class SettingsState implements PersistentStateComponent<SettingsState> {
      */
     public boolean performanceMode = false;
 
+    /**
+     * 单个提供商的并发请求数
+     *
+     * <p>批量处理时每个服务提供商同时保持的在途请求数量。
+     * 大于 1 时，即使只配置了一个提供商也会以流水线方式处理任务，
+     * 文档插入在事件调度线程上异步执行，与后续请求的网络等待相互重叠。
+     * 性能模式下该值对每个可用提供商分别生效。
+     *
+     * <p>默认值: 1（逐个请求）
+     * <p>取值范围: 1-10
+     */
+    public int concurrency = 1;
+
+    /**
+     * 每个服务端点每分钟的请求数上限
+     *
+     * <p>同一端点（提供商、服务地址和 API Key）的所有并发请求共享该配额，
+     * 发送前在客户端排队等待，使批量任务保持在配额以内，而不是频繁触发 429 后退避重试。
+     * 服务端通过 {@code x-ratelimit-limit-requests} 响应头返回更小的上限时以服务端为准。
+     *
+     * <p>默认值: 0（不配置，只使用服务端响应头中的上限）
+     *
+     * @see dev.dong4j.zeka.stack.idea.plugin.ai.ProviderRateLimiter
+     */
+    public int requestsPerMinute = 0;
+
+    /**
+     * 每个服务端点每分钟的 token 数上限
+     *
+     * <p>按请求体长度和 max_tokens 估算每个请求的 token 消耗，与请求数上限一起限制发送速率。
+     * 服务端通过 {@code x-ratelimit-limit-tokens} 响应头返回更小的上限时以服务端为准。
+     *
+     * <p>默认值: 0（不配置，只使用服务端响应头中的上限）
+     *
+     * @see dev.dong4j.zeka.stack.idea.plugin.ai.ProviderRateLimiter
+     */
+    public int tokensPerMinute = 0;
+
+    /**
+     * 是否使用虚拟线程执行批量请求
+     *
+     * <p>IDE 运行在 JDK 21+ 时，每个在途请求使用一个虚拟线程，阻塞等待不占用平台线程。
+     * 运行时不支持虚拟线程时自动回退到本次运行专用的有界线程池，线程数等于本次运行的工作任务数。
+     *
+     * <p>默认值: true
+     *
+     * @see dev.dong4j.zeka.stack.idea.plugin.task.WorkerExecutors
+     */
+    public boolean virtualThreads = true;
+
+    /**
+     * 是否使用流式（SSE）响应
+     *
+     * <p>启用后请求以 {@code "stream": true} 发送，逐块解析 {@code delta.content} 并实时过滤思考内容，
+     * 超时改为限制两次数据块之间的间隔，而不是整个响应的生成时间。
+     *
+     * <p>默认值: false
+     */
+    public boolean streaming = false;
+
+    /**
+     * 是否将小成员打包为一次请求
+     *
+     * <p>启用后同一个类中的字段和短方法按 token 预算合并为一次请求，共用系统提示词和模板，
+     * 响应按编号拆分回各个成员；未能拆分出注释的成员会单独重新生成。
+     *
+     * <p>默认值: false
+     *
+     * @see dev.dong4j.zeka.stack.idea.plugin.task.TaskPacker
+     */
+    public boolean packedPrompts = false;
+
+    /**
+     * 是否缓存生成结果
+     *
+     * <p>启用后按代码和请求配置（模板、系统提示词、模型和采样参数）缓存生成的文档，
+     * 再次生成未变化的元素时直接使用缓存结果，不再发送请求。
+     *
+     * <p>默认值: true
+     *
+     * @see dev.dong4j.zeka.stack.idea.plugin.task.DocumentationCache
+     */
+    public boolean documentationCache = true;
+
+    /**
+     * 是否启用对冲请求
+     *
+     * <p>启用后，任务数不超过 3 个的交互式生成（快捷键、意图动作等）中，请求超过当前提供商最近的 p90 延迟
+     * 仍未返回时，向其他已验证的提供商中最快的一个发出相同的请求，先返回的结果生效，另一个请求被取消。
+     * 批量生成不对冲，避免成倍增加请求开销。
+     *
+     * <p>默认值: false
+     *
+     * @see dev.dong4j.zeka.stack.idea.plugin.ai.ProviderLatencyTracker
+     */
+    public boolean hedgedRequests = false;
+
+    /**
+     * 是否按可缓存的前缀组织提示词
+     *
+     * <p>启用后，提示词模板中代码之前的说明和所在类的声明作为独立的消息放在系统提示词之后、成员代码之前，
+     * 同一个类的成员请求拥有字节相同的前缀，服务端（OpenAI 兼容服务、Ollama、LM Studio 等）可以复用
+     * 已计算的前缀缓存，减少预填充耗时；支持显式缓存标记的提供商（如通义千问）会同时附加缓存标记。
+     *
+     * <p>默认值: false
+     *
+     * @see AICompatibleProvider#buildPromptPrefix
+     */
+    public boolean promptPrefixCaching = false;
+
+    /**
+     * 是否在打开项目时预热 AI 服务连接
+     *
+     * <p>启用后，项目打开时在后台请求一次模型列表：完成 DNS 解析、TLS 握手并建立共享 HTTP 客户端的连接，
+     * 同时确认服务地址和 API Key 可用、配置的模型在列表中，并让本地服务（如 Ollama）预先加载模型。
+     * 第一次生成文档时不再承担这些建立连接的开销。预热不发送生成请求，不消耗 token。
+     *
+     * <p>默认值: false
+     *
+     * @see dev.dong4j.zeka.stack.idea.plugin.component.ProviderWarmUpActivity
+     */
+    public boolean warmUpOnProjectOpen = false;
+
     /**
      * 是否启用详细日志
      *
@@ -457,7 +665,8 @@ public class SettingsState implements PersistentStateComponent<SettingsState> {
      * 类的 Prompt 模板
      *
      * <p>为类元素生成文档时使用的 Prompt 模板。
-     * 使用 %s 作为代码占位符。
+     * 使用 {code}（或 %s）作为代码占位符，还可以使用 {className}、{signature}、
+     * {packageName}、{existingDoc} 上下文变量，模板在设置变化后预编译一次。
      * 用户可在设置界面自定义。
      *
      * <p>默认值: getDefaultClassPromptTemplate()
@@ -470,7 +679,8 @@ public class SettingsState implements PersistentStateComponent<SettingsState> {
      * 方法的 Prompt 模板
      *
      * <p>为方法元素生成文档时使用的 Prompt 模板。
-     * 使用 %s 作为代码占位符。
+     * 使用 {code}（或 %s）作为代码占位符，还可以使用 {className}、{signature}、
+     * {packageName}、{existingDoc} 上下文变量，模板在设置变化后预编译一次。
      * 用户可在设置界面自定义。
      *
      * <p>默认值: getDefaultMethodPromptTemplate()
@@ -483,7 +693,8 @@ public class SettingsState implements PersistentStateComponent<SettingsState> {
      * 字段的 Prompt 模板
      *
      * <p>为字段元素生成文档时使用的 Prompt 模板。
-     * 使用 %s 作为代码占位符。
+     * 使用 {code}（或 %s）作为代码占位符，还可以使用 {className}、{signature}、
+     * {packageName}、{existingDoc} 上下文变量，模板在设置变化后预编译一次。
      * 用户可在设置界面自定义。
      *
      * <p>默认值: getDefaultFieldPromptTemplate()
@@ -496,7 +707,8 @@ public class SettingsState implements PersistentStateComponent<SettingsState> {
      * 测试方法的 Prompt 模板
      *
      * <p>为测试方法生成文档时使用的 Prompt 模板。
-     * 使用 %s 作为代码占位符。
+     * 使用 {code}（或 %s）作为代码占位符，还可以使用 {className}、{signature}、
+     * {packageName}、{existingDoc} 上下文变量，模板在设置变化后预编译一次。
      * 用户可在设置界面自定义。
      *
      * <p>默认值: getDefaultTestPromptTemplate()
@@ -990,6 +1202,10 @@ public class SettingsState implements PersistentStateComponent<SettingsState> {
         skipExisting = true;
         optimizeClassCode = true;
         maxClassCodeLines = 1000;
+        classSkeleton = false;
+        changesBaseRevision = "";
+        includeTestSources = true;
+        excludedPathPatterns = "";
 
         maxRetries = 2;
         timeout = 10000;
@@ -999,7 +1215,21 @@ public class SettingsState implements PersistentStateComponent<SettingsState> {
         topP = 0.9;
         topK = 50;
         presencePenalty = 0.0;
+        ollamaNativeApi = false;
+        ollamaKeepAlive = "30m";
+        ollamaNumCtx = 0;
+        ollamaNumPredict = 0;
         performanceMode = false;
+        concurrency = 1;
+        requestsPerMinute = 0;
+        tokensPerMinute = 0;
+        virtualThreads = true;
+        streaming = false;
+        packedPrompts = false;
+        documentationCache = true;
+        hedgedRequests = false;
+        promptPrefixCaching = false;
+        warmUpOnProjectOpen = false;
         verboseLogging = false;
 
         classPromptTemplate = getDefaultClassPromptTemplate();
@@ -11,6 +11,7 @@ import com.intellij.util.ui.FormBuilder;
 import com.intellij.util.ui.JBUI;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.awt.BorderLayout;
 import java.awt.Dimension;
@@ -18,6 +19,7 @@ import java.util.HashSet;
 import java.util.List;
 
 import javax.swing.JButton;
+import javax.swing.JComponent;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
@@ -33,6 +35,7 @@ import dev.dong4j.zeka.stack.idea.plugin.ai.AIServiceFactory;
 import dev.dong4j.zeka.stack.idea.plugin.ai.AIServiceProvider;
 import dev.dong4j.zeka.stack.idea.plugin.ai.ValidationResult;
 import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
+import dev.dong4j.zeka.stack.idea.plugin.task.DocumentationCache;
 import dev.dong4j.zeka.stack.idea.plugin.util.JavaDocBundle;
 
 /**
@@ -80,6 +83,14 @@ public class JavaDocSettingsPanel {
     private JBCheckBox optimizeClassCodeCheckBox;
     /** 最大类代码行数设置控件 */
     private JSpinner maxClassCodeLinesSpinner;
+    /** 类骨架压缩复选框，用于启用或禁用类代码骨架压缩 */
+    private JBCheckBox classSkeletonCheckBox;
+    /** 增量模式基准版本输入框 */
+    private JBTextField changesBaseRevisionField;
+    /** 目录生成时包含测试源码的复选框 */
+    private JBCheckBox includeTestSourcesCheckBox;
+    /** 目录生成时排除文件的 glob 输入框 */
+    private JBTextField excludedPathPatternsField;
 
     // 语言支持
     /** Java 语言支持选项框 */
@@ -102,10 +113,39 @@ public class JavaDocSettingsPanel {
     private JSpinner topKSpinner;
     /** 偏差惩罚系数调节器，用于设置生成文本时的偏差惩罚值 */
     private JSpinner presencePenaltySpinner;
+    /** Ollama 原生接口复选框，仅在选择 Ollama 时可用 */
+    private JBCheckBox ollamaNativeApiCheckBox;
+    /** Ollama 模型保留时长输入框 */
+    private JBTextField ollamaKeepAliveField;
+    /** Ollama 上下文窗口大小调节器 */
+    private JSpinner ollamaNumCtxSpinner;
+    /** Ollama 最大生成 token 数调节器 */
+    private JSpinner ollamaNumPredictSpinner;
     /** 日志详细模式复选框，用于控制是否输出详细日志信息 */
     private JBCheckBox verboseLoggingCheckBox;
     /** 性能模式复选框，用于启用或禁用性能优化模式 */
     private JBCheckBox performanceModeCheckBox;
+    /** 并发请求数选择器，用于设置每个提供商同时进行的请求数量 */
+    private JSpinner concurrencySpinner;
+    /** 每分钟请求数上限选择器，0 表示只使用服务端返回的上限 */
+    private JSpinner requestsPerMinuteSpinner;
+    /** 每分钟 token 数上限选择器，0 表示只使用服务端返回的上限 */
+    private JSpinner tokensPerMinuteSpinner;
+    /** 虚拟线程复选框，用于启用或禁用虚拟线程执行模式 */
+    private JBCheckBox virtualThreadsCheckBox;
+    /** 流式响应复选框，用于启用或禁用 SSE 流式输出 */
+    private JBCheckBox streamingCheckBox;
+    /** 打包请求复选框，用于启用或禁用小成员合并请求 */
+    private JBCheckBox packedPromptsCheckBox;
+    /** 文档缓存复选框，用于启用或禁用生成结果缓存 */
+    private JBCheckBox documentationCacheCheckBox;
+    /** 对冲请求复选框，用于启用或禁用交互式生成的对冲请求 */
+    private JBCheckBox hedgedRequestsCheckBox;
+    /** 提示词前缀缓存复选框，用于启用或禁用按可缓存前缀组织提示词 */
+    private JBCheckBox promptPrefixCachingCheckBox;
+    private JBCheckBox warmUpOnProjectOpenCheckBox;
+    /** 清除文档缓存按钮 */
+    private JButton clearCacheButton;
 
     /** 系统提示文本区域，用于显示或编辑系统提示内容 */
     public JTextArea systemPromptTextArea;
@@ -165,6 +205,10 @@ public class JavaDocSettingsPanel {
         skipExistingCheckBox = new JBCheckBox(JavaDocBundle.message("settings.skip.existing"));
         optimizeClassCodeCheckBox = new JBCheckBox(JavaDocBundle.message("settings.optimize.class.code"));
         maxClassCodeLinesSpinner = new JSpinner(new SpinnerNumberModel(1000, 100, 5000, 100));
+        classSkeletonCheckBox = new JBCheckBox(JavaDocBundle.message("settings.class.skeleton"));
+        changesBaseRevisionField = new JBTextField();
+        includeTestSourcesCheckBox = new JBCheckBox(JavaDocBundle.message("settings.include.test.sources"));
+        excludedPathPatternsField = new JBTextField();
 
         // 语言支持
         javaCheckBox = new JBCheckBox(JavaDocBundle.message("settings.language.java"));
@@ -180,8 +224,24 @@ public class JavaDocSettingsPanel {
         topPSpinner = new JSpinner(new SpinnerNumberModel(0.9, 0.0, 1.0, 0.1));
         topKSpinner = new JSpinner(new SpinnerNumberModel(50, 1, 100, 1));
         presencePenaltySpinner = new JSpinner(new SpinnerNumberModel(0.1, -2.0, 2.0, 0.1));
+        ollamaNativeApiCheckBox = new JBCheckBox(JavaDocBundle.message("settings.ollama.native.api"));
+        ollamaKeepAliveField = new JBTextField();
+        ollamaNumCtxSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 1_048_576, 1024));
+        ollamaNumPredictSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 100_000, 100));
         verboseLoggingCheckBox = new JBCheckBox(JavaDocBundle.message("settings.verbose.logging"));
         performanceModeCheckBox = new JBCheckBox(JavaDocBundle.message("settings.performance.mode"));
+        concurrencySpinner = new JSpinner(new SpinnerNumberModel(1, 1, 10, 1));
+        requestsPerMinuteSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 100_000, 10));
+        tokensPerMinuteSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 100_000_000, 1000));
+        virtualThreadsCheckBox = new JBCheckBox(JavaDocBundle.message("settings.virtual.threads"));
+        streamingCheckBox = new JBCheckBox(JavaDocBundle.message("settings.streaming"));
+        packedPromptsCheckBox = new JBCheckBox(JavaDocBundle.message("settings.packed.prompts"));
+        documentationCacheCheckBox = new JBCheckBox(JavaDocBundle.message("settings.documentation.cache"));
+        hedgedRequestsCheckBox = new JBCheckBox(JavaDocBundle.message("settings.hedged.requests"));
+        promptPrefixCachingCheckBox = new JBCheckBox(JavaDocBundle.message("settings.prompt.prefix.caching"));
+        warmUpOnProjectOpenCheckBox = new JBCheckBox(JavaDocBundle.message("settings.warm.up"));
+        clearCacheButton = new JButton(JavaDocBundle.message("settings.documentation.cache.clear"));
+        clearCacheButton.addActionListener(e -> clearDocumentationCache());
 
         // Prompt 配置 - 创建文本区域（将在 Tab 页中使用）
         systemPromptTextArea = new JTextArea(10, 50);
@@ -202,6 +262,14 @@ public class JavaDocSettingsPanel {
             .addComponent(createGenerationOptionsPanel())
 
             .addLabeledComponent(new JBLabel(JavaDocBundle.message("settings.max.class.code.lines")), maxClassCodeLinesSpinner)
+            .addComponent(createCheckBoxWithHint(classSkeletonCheckBox, "settings.class.skeleton.hint"))
+            .addLabeledComponent(new JBLabel(JavaDocBundle.message("settings.changes.base.revision")),
+                                 createAdvancedConfigPanel(changesBaseRevisionField,
+                                                           "settings.changes.base.revision.hint"))
+            .addComponent(createCheckBoxWithHint(includeTestSourcesCheckBox, "settings.include.test.sources.hint"))
+            .addLabeledComponent(new JBLabel(JavaDocBundle.message("settings.excluded.path.patterns")),
+                                 createAdvancedConfigPanel(excludedPathPatternsField,
+                                                           "settings.excluded.path.patterns.hint"))
             .addSeparator(10)
 
             .addComponent(new JBLabel(JavaDocBundle.message("settings.language.support")))
@@ -227,6 +295,19 @@ public class JavaDocSettingsPanel {
                                                            "settings.presence.penalty.hint"))
             .addSeparator(10)
 
+            .addComponent(new JBLabel(JavaDocBundle.message("settings.ollama.config")))
+            .addComponent(createCheckBoxWithHint(ollamaNativeApiCheckBox, "settings.ollama.native.api.hint"))
+            .addLabeledComponent(new JBLabel(JavaDocBundle.message("settings.ollama.keep.alive")),
+                                 createAdvancedConfigPanel(ollamaKeepAliveField,
+                                                           "settings.ollama.keep.alive.hint"))
+            .addLabeledComponent(new JBLabel(JavaDocBundle.message("settings.ollama.num.ctx")),
+                                 createAdvancedConfigPanel(ollamaNumCtxSpinner,
+                                                           "settings.ollama.num.ctx.hint"))
+            .addLabeledComponent(new JBLabel(JavaDocBundle.message("settings.ollama.num.predict")),
+                                 createAdvancedConfigPanel(ollamaNumPredictSpinner,
+                                                           "settings.ollama.num.predict.hint"))
+            .addSeparator(10)
+
             .addComponent(new JBLabel(JavaDocBundle.message("settings.advanced.config")))
             .addLabeledComponent(new JBLabel(JavaDocBundle.message("settings.max.retries")),
                                  createAdvancedConfigPanel(maxRetriesSpinner,
@@ -234,8 +315,24 @@ public class JavaDocSettingsPanel {
             .addLabeledComponent(new JBLabel(JavaDocBundle.message("settings.timeout")),
                                  createAdvancedConfigPanel(timeoutSpinner,
                                                            "settings.timeout.hint"))
+            .addLabeledComponent(new JBLabel(JavaDocBundle.message("settings.concurrency")),
+                                 createAdvancedConfigPanel(concurrencySpinner,
+                                                           "settings.concurrency.hint"))
+            .addLabeledComponent(new JBLabel(JavaDocBundle.message("settings.requests.per.minute")),
+                                 createAdvancedConfigPanel(requestsPerMinuteSpinner,
+                                                           "settings.requests.per.minute.hint"))
+            .addLabeledComponent(new JBLabel(JavaDocBundle.message("settings.tokens.per.minute")),
+                                 createAdvancedConfigPanel(tokensPerMinuteSpinner,
+                                                           "settings.tokens.per.minute.hint"))
             .addComponent(verboseLoggingCheckBox)
             .addComponent(createCheckBoxWithHint(performanceModeCheckBox, "settings.performance.mode.hint"))
+            .addComponent(createCheckBoxWithHint(virtualThreadsCheckBox, "settings.virtual.threads.hint"))
+            .addComponent(createCheckBoxWithHint(streamingCheckBox, "settings.streaming.hint"))
+            .addComponent(createCheckBoxWithHint(packedPromptsCheckBox, "settings.packed.prompts.hint"))
+            .addComponent(createDocumentationCachePanel())
+            .addComponent(createCheckBoxWithHint(hedgedRequestsCheckBox, "settings.hedged.requests.hint"))
+            .addComponent(createCheckBoxWithHint(promptPrefixCachingCheckBox, "settings.prompt.prefix.caching.hint"))
+            .addComponent(createCheckBoxWithHint(warmUpOnProjectOpenCheckBox, "settings.warm.up.hint"))
             .addSeparator(10)
 
             .addComponent(new JBLabel(JavaDocBundle.message("settings.prompt.templates")))
@@ -338,21 +435,21 @@ public class JavaDocSettingsPanel {
     }
 
     /**
-     * 创建高级配置面板，包含一个带宽度限制的 JSpinner 和提示标签
+     * 创建高级配置面板，包含一个带宽度限制的输入控件和提示标签
      * <p>
-     * 该方法用于构建一个布局面板，左侧放置一个设置宽度的 JSpinner 控件，右侧放置一个带有提示信息的标签。
+     * 该方法用于构建一个布局面板，左侧放置一个设置宽度的输入控件（JSpinner 或文本框），右侧放置一个带有提示信息的标签。
      * 提示标签的字体大小和颜色会根据系统 UI 设置进行调整。
      *
-     * @param spinner 用于配置的 JSpinner 控件
+     * @param input   用于配置的输入控件
      * @param hintKey 提示信息的键，用于从资源文件中获取对应的提示文本
-     * @return 包含 JSpinner 和提示标签的面板
+     * @return 包含输入控件和提示标签的面板
      */
-    private JPanel createAdvancedConfigPanel(JSpinner spinner, String hintKey) {
+    private JPanel createAdvancedConfigPanel(JComponent input, String hintKey) {
         JPanel panel = new JPanel(new BorderLayout(5, 0));
 
         // 固定输入框宽度
-        spinner.setPreferredSize(new Dimension(120, spinner.getPreferredSize().height));
-        panel.add(spinner, BorderLayout.WEST);
+        input.setPreferredSize(new Dimension(120, input.getPreferredSize().height));
+        panel.add(input, BorderLayout.WEST);
 
         // 提示文本放在右侧，但限制宽度
         JBLabel hintLabel = new JBLabel(JavaDocBundle.message(hintKey));
@@ -389,6 +486,35 @@ public class JavaDocSettingsPanel {
         return panel;
     }
 
+    /**
+     * 创建文档缓存配置面板
+     *
+     * <p>缓存复选框及提示文本，右侧为清除缓存按钮。
+     *
+     * @return 文档缓存配置面板
+     */
+    private JPanel createDocumentationCachePanel() {
+        JPanel panel = new JPanel(new BorderLayout(5, 0));
+        panel.add(createCheckBoxWithHint(documentationCacheCheckBox, "settings.documentation.cache.hint"), BorderLayout.CENTER);
+        panel.add(clearCacheButton, BorderLayout.EAST);
+        return panel;
+    }
+
+    /**
+     * 清除文档缓存
+     */
+    private void clearDocumentationCache() {
+        DocumentationCache cache = DocumentationCache.getInstance();
+        int size = cache.size();
+        cache.clear();
+        JOptionPane.showMessageDialog(
+            mainPanel,
+            JavaDocBundle.message("settings.documentation.cache.cleared", size),
+            JavaDocBundle.message("notification.title"),
+            JOptionPane.INFORMATION_MESSAGE
+                                     );
+    }
+
     /**
      * 创建水平排列的复选框面板
      *
@@ -553,6 +679,7 @@ public class JavaDocSettingsPanel {
         optimizeClassCodeCheckBox.addActionListener(e -> {
             // 当启用/禁用代码优化时，可以更新最大行数输入框的可用性
             maxClassCodeLinesSpinner.setEnabled(optimizeClassCodeCheckBox.isSelected());
+            classSkeletonCheckBox.setEnabled(optimizeClassCodeCheckBox.isSelected());
         });
     }
 
@@ -673,7 +800,7 @@ public class JavaDocSettingsPanel {
                     return;
                 }
 
-                List<String> availableModels = provider.getAvailableModels();
+                List<String> availableModels = provider.getAvailableModels(true);
 
                 // 在 UI 线程中更新下拉框
                 SwingUtilities.invokeLater(() -> {
@@ -935,6 +1062,7 @@ public class JavaDocSettingsPanel {
         if (displayName == null) {
             apiKeyField.setEnabled(false);
             testConnectionButton.setEnabled(false);
+            updateOllamaOptions(null);
             return;
         }
 
@@ -944,6 +1072,20 @@ public class JavaDocSettingsPanel {
         boolean requiresKey = providerType != null && providerType.requiresApiKey();
         apiKeyField.setEnabled(requiresKey);
         testConnectionButton.setEnabled(true);
+        updateOllamaOptions(providerType);
+    }
+
+    /**
+     * 根据选择的提供商启用或禁用 Ollama 专用选项
+     *
+     * @param providerType 选择的提供商类型，可为 null
+     */
+    private void updateOllamaOptions(@Nullable AIProviderType providerType) {
+        boolean ollama = providerType == AIProviderType.OLLAMA;
+        ollamaNativeApiCheckBox.setEnabled(ollama);
+        ollamaKeepAliveField.setEnabled(ollama);
+        ollamaNumCtxSpinner.setEnabled(ollama);
+        ollamaNumPredictSpinner.setEnabled(ollama);
     }
 
     /**
@@ -1102,6 +1244,10 @@ public class JavaDocSettingsPanel {
         settings.skipExisting = skipExistingCheckBox.isSelected();
         settings.optimizeClassCode = optimizeClassCodeCheckBox.isSelected();
         settings.maxClassCodeLines = (Integer) maxClassCodeLinesSpinner.getValue();
+        settings.classSkeleton = classSkeletonCheckBox.isSelected();
+        settings.changesBaseRevision = changesBaseRevisionField.getText().trim();
+        settings.includeTestSources = includeTestSourcesCheckBox.isSelected();
+        settings.excludedPathPatterns = excludedPathPatternsField.getText().trim();
 
         // 语言支持
         settings.supportedLanguages = new HashSet<>();
@@ -1120,8 +1266,22 @@ public class JavaDocSettingsPanel {
         settings.topP = (Double) topPSpinner.getValue();
         settings.topK = (Integer) topKSpinner.getValue();
         settings.presencePenalty = (Double) presencePenaltySpinner.getValue();
+        settings.ollamaNativeApi = ollamaNativeApiCheckBox.isSelected();
+        settings.ollamaKeepAlive = ollamaKeepAliveField.getText().trim();
+        settings.ollamaNumCtx = (Integer) ollamaNumCtxSpinner.getValue();
+        settings.ollamaNumPredict = (Integer) ollamaNumPredictSpinner.getValue();
         settings.verboseLogging = verboseLoggingCheckBox.isSelected();
         settings.performanceMode = performanceModeCheckBox.isSelected();
+        settings.concurrency = (Integer) concurrencySpinner.getValue();
+        settings.requestsPerMinute = (Integer) requestsPerMinuteSpinner.getValue();
+        settings.tokensPerMinute = (Integer) tokensPerMinuteSpinner.getValue();
+        settings.virtualThreads = virtualThreadsCheckBox.isSelected();
+        settings.streaming = streamingCheckBox.isSelected();
+        settings.packedPrompts = packedPromptsCheckBox.isSelected();
+        settings.documentationCache = documentationCacheCheckBox.isSelected();
+        settings.hedgedRequests = hedgedRequestsCheckBox.isSelected();
+        settings.promptPrefixCaching = promptPrefixCachingCheckBox.isSelected();
+        settings.warmUpOnProjectOpen = warmUpOnProjectOpenCheckBox.isSelected();
 
         // Prompt 配置 - 从 Tab 页获取
         settings.systemPromptTemplate = systemPromptTextArea.getText().trim();
@@ -1161,9 +1321,14 @@ public class JavaDocSettingsPanel {
         skipExistingCheckBox.setSelected(settings.skipExisting);
         optimizeClassCodeCheckBox.setSelected(settings.optimizeClassCode);
         maxClassCodeLinesSpinner.setValue(settings.maxClassCodeLines);
+        classSkeletonCheckBox.setSelected(settings.classSkeleton);
+        changesBaseRevisionField.setText(settings.changesBaseRevision);
+        includeTestSourcesCheckBox.setSelected(settings.includeTestSources);
+        excludedPathPatternsField.setText(settings.excludedPathPatterns);
 
         // 根据代码优化设置更新最大行数输入框的可用性
         maxClassCodeLinesSpinner.setEnabled(settings.optimizeClassCode);
+        classSkeletonCheckBox.setEnabled(settings.optimizeClassCode);
 
         // 语言支持
         javaCheckBox.setSelected(settings.supportedLanguages.contains("java"));
@@ -1177,8 +1342,22 @@ public class JavaDocSettingsPanel {
         topPSpinner.setValue(settings.topP);
         topKSpinner.setValue(settings.topK);
         presencePenaltySpinner.setValue(settings.presencePenalty);
+        ollamaNativeApiCheckBox.setSelected(settings.ollamaNativeApi);
+        ollamaKeepAliveField.setText(settings.ollamaKeepAlive);
+        ollamaNumCtxSpinner.setValue(settings.ollamaNumCtx);
+        ollamaNumPredictSpinner.setValue(settings.ollamaNumPredict);
         verboseLoggingCheckBox.setSelected(settings.verboseLogging);
         performanceModeCheckBox.setSelected(settings.performanceMode);
+        concurrencySpinner.setValue(settings.concurrency);
+        requestsPerMinuteSpinner.setValue(settings.requestsPerMinute);
+        tokensPerMinuteSpinner.setValue(settings.tokensPerMinute);
+        virtualThreadsCheckBox.setSelected(settings.virtualThreads);
+        streamingCheckBox.setSelected(settings.streaming);
+        packedPromptsCheckBox.setSelected(settings.packedPrompts);
+        documentationCacheCheckBox.setSelected(settings.documentationCache);
+        hedgedRequestsCheckBox.setSelected(settings.hedgedRequests);
+        promptPrefixCachingCheckBox.setSelected(settings.promptPrefixCaching);
+        warmUpOnProjectOpenCheckBox.setSelected(settings.warmUpOnProjectOpen);
 
         // Prompt 配置 - 加载到 Tab 页
         systemPromptTextArea.setText(settings.systemPromptTemplate);
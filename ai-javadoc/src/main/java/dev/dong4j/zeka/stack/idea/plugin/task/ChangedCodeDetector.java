@@ -0,0 +1,376 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import com.intellij.diff.comparison.ComparisonManager;
+import com.intellij.diff.comparison.ComparisonPolicy;
+import com.intellij.diff.fragments.LineFragment;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.GeneratedSourcesFilter;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.vcs.AbstractVcs;
+import com.intellij.openapi.vcs.FilePath;
+import com.intellij.openapi.vcs.ProjectLevelVcsManager;
+import com.intellij.openapi.vcs.VcsException;
+import com.intellij.openapi.vcs.VcsRoot;
+import com.intellij.openapi.vcs.changes.Change;
+import com.intellij.openapi.vcs.changes.ChangeListManager;
+import com.intellij.openapi.vcs.changes.ContentRevision;
+import com.intellij.openapi.vcs.diff.DiffProvider;
+import com.intellij.openapi.vcs.history.VcsRevisionNumber;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 变更代码检测器
+ *
+ * <p>为增量文档生成模式找出选中范围内发生变更的 Java 文件及其变更行。
+ *
+ * <p>基准选择：
+ * <ul>
+ *   <li>未配置基准版本：使用 VCS 变更列表中的本地修改，与各文件的已提交版本比较</li>
+ *   <li>配置了基准版本（如 {@code origin/main}、提交哈希）：将范围内受版本控制的文件与该版本的内容比较，
+ *       包括已提交和未提交的修改，适合在功能分支上只处理分支内改动的代码。Git 仓库由 {@link GitChanges}
+ *       一次列出有变更的文件，其他 VCS 逐个读取范围内源码文件的基准内容</li>
+ * </ul>
+ *
+ * <p>比较使用当前编辑器中的文档内容（包括未保存的修改），忽略空白差异。
+ * 基准中不存在的文件视为整个文件都有变更。
+ *
+ * <p>需要在后台线程中调用，读取基准版本内容可能会执行 VCS 命令。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @see ChangedLines
+ * @see TaskCollector#collectFromChanges(Map)
+ * @since 1.0.0
+ */
+@Slf4j
+public class ChangedCodeDetector {
+
+    /** 项目对象 */
+    private final Project project;
+
+    /**
+     * 创建变更代码检测器
+     *
+     * @param project 项目对象
+     */
+    public ChangedCodeDetector(@NotNull Project project) {
+        this.project = project;
+    }
+
+    /**
+     * 检测指定范围内的变更
+     *
+     * @param roots        检测范围（文件或目录）
+     * @param baseRevision 基准版本，为空时使用本地修改
+     * @param indicator    进度指示器
+     * @return 有变更的文件及其变更行，按检测顺序排列
+     * @throws VcsException 基准版本无法解析时抛出
+     */
+    @NotNull
+    public Map<VirtualFile, ChangedLines> detect(@NotNull List<VirtualFile> roots,
+                                                 @Nullable String baseRevision,
+                                                 @NotNull ProgressIndicator indicator) throws VcsException {
+        return baseRevision == null || baseRevision.isBlank()
+               ? detectLocalChanges(roots, indicator)
+               : detectChangesSince(roots, baseRevision.trim(), indicator);
+    }
+
+    /**
+     * 检测 VCS 变更列表中的本地修改
+     */
+    private Map<VirtualFile, ChangedLines> detectLocalChanges(@NotNull List<VirtualFile> roots,
+                                                              @NotNull ProgressIndicator indicator) throws VcsException {
+        Map<VirtualFile, ChangedLines> result = new LinkedHashMap<>();
+        for (Change change : ChangeListManager.getInstance(project).getAllChanges()) {
+            indicator.checkCanceled();
+            VirtualFile file = change.getVirtualFile();
+            if (file == null || !isJavaFile(file) || !isUnderRoots(file, roots)) {
+                continue;
+            }
+            indicator.setText2(file.getPath());
+
+            ContentRevision before = change.getBeforeRevision();
+            String baseContent = before == null ? null : before.getContent();
+            addIfChanged(result, file, baseContent, indicator);
+        }
+        return result;
+    }
+
+    /**
+     * 检测范围内的文件自基准版本以来的变更
+     *
+     * <p>Git 仓库先列出工作区与基准版本相比有变更的文件，只比较这些文件；
+     * 其他 VCS 没有通用的变更列表接口，按项目文件索引遍历范围内的源码文件并逐个读取基准内容。
+     * 两种方式都只处理项目内容中的非生成代码文件。
+     */
+    private Map<VirtualFile, ChangedLines> detectChangesSince(@NotNull List<VirtualFile> roots,
+                                                              @NotNull String baseRevision,
+                                                              @NotNull ProgressIndicator indicator) throws VcsException {
+        ProjectLevelVcsManager vcsManager = ProjectLevelVcsManager.getInstance(project);
+        Map<VirtualFile, ChangedLines> result = new LinkedHashMap<>();
+        Set<VirtualFile> gitRoots = new HashSet<>();
+        for (VcsRoot vcsRoot : vcsManager.getAllVcsRoots()) {
+            indicator.checkCanceled();
+            AbstractVcs vcs = vcsRoot.getVcs();
+            VirtualFile repository = vcsRoot.getPath();
+            List<VirtualFile> scope = scopeIn(repository, roots);
+            if (vcs == null || scope != null && scope.isEmpty()) {
+                continue;
+            }
+            indicator.setText2(repository.getPath());
+            if (GitChanges.VCS_NAME.equals(vcs.getName())) {
+                gitRoots.add(repository);
+                addGitChanges(result, repository, scope, roots, baseRevision, indicator);
+            } else {
+                addChangesSince(result, vcs, repository, scope, baseRevision, indicator);
+            }
+        }
+
+        // git diff 不包含未纳入版本控制的文件，它们在基准中不存在，整个文件视为变更
+        for (FilePath path : ChangeListManager.getInstance(project).getUnversionedFilesPaths()) {
+            indicator.checkCanceled();
+            VirtualFile file = path.getVirtualFile();
+            if (file != null && !result.containsKey(file) && isUnderRoots(file, roots)
+                && gitRoots.contains(vcsManager.getVcsRootFor(file)) && isProjectSource(file)) {
+                result.put(file, ChangedLines.all());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 比较 Git 仓库中自基准版本以来有变更的文件
+     *
+     * @param result       检测结果
+     * @param repository   仓库根目录
+     * @param scope        仓库中需要检测的路径，为 null 时检测整个仓库
+     * @param roots        检测范围
+     * @param baseRevision 基准版本
+     * @param indicator    进度指示器
+     * @throws VcsException 基准版本无法解析时抛出
+     */
+    private void addGitChanges(@NotNull Map<VirtualFile, ChangedLines> result,
+                               @NotNull VirtualFile repository,
+                               @Nullable List<VirtualFile> scope,
+                               @NotNull List<VirtualFile> roots,
+                               @NotNull String baseRevision,
+                               @NotNull ProgressIndicator indicator) throws VcsException {
+        List<Change> changes = new ArrayList<>(GitChanges.since(project, repository, scope, baseRevision));
+        for (int i = 0; i < changes.size(); i++) {
+            indicator.checkCanceled();
+            Change change = changes.get(i);
+            VirtualFile file = change.getVirtualFile();
+            // 已删除的文件没有当前内容
+            if (file == null || !isUnderRoots(file, roots) || !isProjectSource(file)) {
+                continue;
+            }
+            indicator.setFraction((double) i / changes.size());
+            indicator.setText2(file.getPath());
+
+            String baseContent;
+            try {
+                ContentRevision before = change.getBeforeRevision();
+                baseContent = before == null ? null : before.getContent();
+            } catch (VcsException e) {
+                log.info("读取基准版本内容失败，跳过文件: {} - {}", file.getPath(), e.getMessage());
+                continue;
+            }
+            addIfChanged(result, file, baseContent, indicator);
+        }
+    }
+
+    /**
+     * 逐个比较其他 VCS 仓库中的源码文件与基准版本
+     *
+     * @param result       检测结果
+     * @param vcs          仓库的 VCS
+     * @param repository   仓库根目录
+     * @param scope        仓库中需要检测的路径，为 null 时检测整个仓库
+     * @param baseRevision 基准版本
+     * @param indicator    进度指示器
+     * @throws VcsException 基准版本无法解析时抛出
+     */
+    private void addChangesSince(@NotNull Map<VirtualFile, ChangedLines> result,
+                                 @NotNull AbstractVcs vcs,
+                                 @NotNull VirtualFile repository,
+                                 @Nullable List<VirtualFile> scope,
+                                 @NotNull String baseRevision,
+                                 @NotNull ProgressIndicator indicator) throws VcsException {
+        DiffProvider diffProvider = vcs.getDiffProvider();
+        if (diffProvider == null) {
+            // 无法读取基准内容，不处理
+            return;
+        }
+
+        ProjectLevelVcsManager vcsManager = ProjectLevelVcsManager.getInstance(project);
+        List<VirtualFile> files = ApplicationManager.getApplication().runReadAction((Computable<List<VirtualFile>>) () -> {
+            ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+            List<VirtualFile> sources = new ArrayList<>();
+            for (VirtualFile directory : scope == null ? List.of(repository) : scope) {
+                fileIndex.iterateContentUnderDirectory(directory, file -> {
+                    // 嵌套的其他仓库由各自的 VCS 处理
+                    if (!file.isDirectory() && isProjectSource(fileIndex, file)
+                        && repository.equals(vcsManager.getVcsRootFor(file))) {
+                        sources.add(file);
+                    }
+                    return !indicator.isCanceled();
+                });
+            }
+            return sources;
+        });
+
+        VcsRevisionNumber revision = vcs.parseRevisionNumber(baseRevision);
+        if (revision == null) {
+            throw new VcsException("Unknown revision: " + baseRevision);
+        }
+        for (int i = 0; i < files.size(); i++) {
+            indicator.checkCanceled();
+            VirtualFile file = files.get(i);
+            indicator.setFraction((double) i / files.size());
+            indicator.setText2(file.getPath());
+
+            String baseContent;
+            try {
+                ContentRevision content = diffProvider.createFileContent(revision, file);
+                baseContent = content == null ? null : content.getContent();
+            } catch (VcsException e) {
+                // 单个文件读取失败时保守处理，不把整个文件视为变更
+                log.info("读取基准版本内容失败，跳过文件: {} - {}", file.getPath(), e.getMessage());
+                continue;
+            }
+            addIfChanged(result, file, baseContent, indicator);
+        }
+    }
+
+    /**
+     * 计算仓库中位于检测范围内的路径
+     *
+     * @param repository 仓库根目录
+     * @param roots      检测范围
+     * @return 仓库整体位于某个检测范围内时返回 null，否则返回仓库中的检测范围，与仓库无关时为空列表
+     */
+    @Nullable
+    private static List<VirtualFile> scopeIn(@NotNull VirtualFile repository, @NotNull List<VirtualFile> roots) {
+        List<VirtualFile> scope = new ArrayList<>();
+        for (VirtualFile root : roots) {
+            if (VfsUtilCore.isAncestor(root, repository, false)) {
+                return null;
+            }
+            if (VfsUtilCore.isAncestor(repository, root, true)) {
+                scope.add(root);
+            }
+        }
+        return scope;
+    }
+
+    /**
+     * 比较基准内容与当前内容，有变更时加入结果
+     *
+     * @param result      检测结果
+     * @param file        文件
+     * @param baseContent 基准内容，文件在基准中不存在时为 null
+     * @param indicator   进度指示器
+     */
+    private void addIfChanged(@NotNull Map<VirtualFile, ChangedLines> result,
+                              @NotNull VirtualFile file,
+                              @Nullable String baseContent,
+                              @NotNull ProgressIndicator indicator) {
+        if (baseContent == null) {
+            result.put(file, ChangedLines.all());
+            return;
+        }
+        String currentContent = ApplicationManager.getApplication().runReadAction((Computable<String>) () -> {
+            Document document = FileDocumentManager.getInstance().getDocument(file);
+            return document == null ? null : document.getText();
+        });
+        if (currentContent == null) {
+            return;
+        }
+
+        ChangedLines changedLines = compare(baseContent, currentContent, indicator);
+        if (!changedLines.isEmpty()) {
+            result.put(file, changedLines);
+        }
+    }
+
+    /**
+     * 逐行比较两个版本的内容
+     *
+     * @param baseContent    基准内容
+     * @param currentContent 当前内容
+     * @param indicator      进度指示器
+     * @return 当前内容中的变更行
+     */
+    @NotNull
+    static ChangedLines compare(@NotNull String baseContent,
+                                @NotNull String currentContent,
+                                @NotNull ProgressIndicator indicator) {
+        List<LineFragment> fragments = ComparisonManager.getInstance().compareLines(
+            normalizeLineSeparators(baseContent), currentContent, ComparisonPolicy.IGNORE_WHITESPACES, indicator);
+        List<ChangedLines.Range> ranges = new ArrayList<>(fragments.size());
+        for (LineFragment fragment : fragments) {
+            ranges.add(new ChangedLines.Range(fragment.getStartLine2(), fragment.getEndLine2()));
+        }
+        return ChangedLines.of(ranges);
+    }
+
+    /**
+     * 统一换行符，文档内容始终使用 \n
+     */
+    private static String normalizeLineSeparators(@NotNull String text) {
+        return text.replace("\r\n", "\n").replace('\r', '\n');
+    }
+
+    /**
+     * 判断文件是否为项目内容中的 Java 源码，排除目录和生成代码中的文件不处理
+     */
+    private boolean isProjectSource(@NotNull VirtualFile file) {
+        return ApplicationManager.getApplication().runReadAction(
+            (Computable<Boolean>) () -> isProjectSource(ProjectFileIndex.getInstance(project), file));
+    }
+
+    /**
+     * 判断文件是否为项目内容中的 Java 源码，需要在读操作中调用
+     */
+    private boolean isProjectSource(@NotNull ProjectFileIndex fileIndex, @NotNull VirtualFile file) {
+        return isJavaFile(file) && fileIndex.isInContent(file)
+               && !GeneratedSourcesFilter.isGeneratedSourceByAnyFilter(file, project);
+    }
+
+    /**
+     * 判断文件是否位于检测范围内
+     */
+    private static boolean isUnderRoots(@NotNull VirtualFile file, @NotNull List<VirtualFile> roots) {
+        for (VirtualFile root : roots) {
+            if (VfsUtilCore.isAncestor(root, file, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断是否为 Java 文件
+     */
+    private static boolean isJavaFile(@NotNull VirtualFile file) {
+        return "java".equalsIgnoreCase(file.getExtension());
+    }
+}
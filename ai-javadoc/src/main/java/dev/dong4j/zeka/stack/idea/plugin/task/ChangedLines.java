@@ -0,0 +1,124 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 文件中发生变更的行
+ *
+ * <p>由基准版本与当前内容逐行比较得到，用于增量模式下判断代码元素是否被修改。
+ * 行号从 0 开始，对应当前内容中的行。
+ *
+ * <p>变更区间的含义：
+ * <ul>
+ *   <li>{@code [startLine, endLine)} 非空时表示当前内容中新增或修改的行</li>
+ *   <li>{@code startLine == endLine} 表示在该行之前删除了内容</li>
+ * </ul>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class ChangedLines {
+
+    /** 整个文件都视为变更（新增文件） */
+    private static final ChangedLines ALL = new ChangedLines(List.of(), true);
+
+    /** 按起始行排序的变更区间 */
+    private final List<Range> ranges;
+    /** 是否整个文件都视为变更 */
+    private final boolean all;
+
+    /**
+     * 创建变更行
+     *
+     * @param ranges 变更区间
+     * @param all    是否整个文件都视为变更
+     */
+    private ChangedLines(@NotNull List<Range> ranges, boolean all) {
+        this.ranges = ranges;
+        this.all = all;
+    }
+
+    /**
+     * 整个文件都视为变更
+     *
+     * @return 覆盖所有行的变更
+     */
+    @NotNull
+    public static ChangedLines all() {
+        return ALL;
+    }
+
+    /**
+     * 由变更区间创建
+     *
+     * @param ranges 变更区间
+     * @return 变更行
+     */
+    @NotNull
+    public static ChangedLines of(@NotNull List<Range> ranges) {
+        List<Range> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingInt(Range::startLine));
+        return new ChangedLines(List.copyOf(sorted), false);
+    }
+
+    /**
+     * 是否整个文件都视为变更
+     *
+     * @return 新增文件返回 true
+     */
+    public boolean isAll() {
+        return all;
+    }
+
+    /**
+     * 是否没有任何变更
+     *
+     * @return 没有变更返回 true
+     */
+    public boolean isEmpty() {
+        return !all && ranges.isEmpty();
+    }
+
+    /**
+     * 判断指定的行范围内是否有变更
+     *
+     * <p>删除位置只有落在范围内部（前后两行都属于该范围）时才算作变更，
+     * 紧邻元素边界的删除属于相邻的元素。
+     *
+     * @param firstLine 范围首行（包含）
+     * @param lastLine  范围末行（包含）
+     * @return 有变更返回 true
+     */
+    public boolean intersects(int firstLine, int lastLine) {
+        if (all) {
+            return true;
+        }
+        for (Range range : ranges) {
+            if (range.startLine() > lastLine) {
+                break;
+            }
+            if (range.startLine() == range.endLine()) {
+                if (range.startLine() > firstLine) {
+                    return true;
+                }
+            } else if (range.endLine() > firstLine) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 变更区间
+     *
+     * @param startLine 起始行（包含）
+     * @param endLine   结束行（不包含），与起始行相同时表示删除位置
+     */
+    public record Range(int startLine, int endLine) {
+    }
+}
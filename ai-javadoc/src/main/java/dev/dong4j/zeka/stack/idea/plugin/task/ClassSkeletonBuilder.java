@@ -0,0 +1,254 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiDocCommentOwner;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiEnumConstant;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.javadoc.PsiDocComment;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 类骨架构建器
+ *
+ * <p>为类级别的文档任务生成紧凑的类骨架，代替完整的类代码发送给 AI。
+ * 生成类级别的概述只需要类的结构，不需要方法体，大类可以因此节省大部分 token。
+ *
+ * <p>骨架包含：
+ * <ul>
+ *   <li>类自身的 JavaDoc 和声明（注解、修饰符、泛型、继承和实现）</li>
+ *   <li>枚举常量名</li>
+ *   <li>字段声明，较长的初始化表达式省略为 {@code ...}</li>
+ *   <li>构造方法和方法签名，方法体省略为 <code>{ ... }</code></li>
+ *   <li>内部类声明，类体省略</li>
+ *   <li>成员已有 JavaDoc 的首句</li>
+ * </ul>
+ *
+ * <p>需要在读操作中调用。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @see TaskCollector
+ * @since 1.0.0
+ */
+final class ClassSkeletonBuilder {
+
+    /** 成员缩进 */
+    private static final String INDENT = "    ";
+    /** 保留原文的字段初始化表达式最大长度 */
+    private static final int MAX_INITIALIZER_LENGTH = 80;
+    /** 连续空白 */
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    /** HTML 标签 */
+    private static final Pattern HTML_TAG = Pattern.compile("<[^>]+>");
+    /** 行内标签，如 {@code x}、{@link X} */
+    private static final Pattern INLINE_TAG = Pattern.compile("\\{@\\w+\\s*([^}]*)}");
+
+    /**
+     * 工具类，不允许实例化
+     */
+    private ClassSkeletonBuilder() {
+    }
+
+    /**
+     * 构建类骨架
+     *
+     * @param psiClass 类元素
+     * @return 类骨架，类结构不完整（如缺少左花括号）时返回 null
+     */
+    @Nullable
+    static String build(@NotNull PsiClass psiClass) {
+        PsiElement lBrace = psiClass.getLBrace();
+        if (lBrace == null || lBrace.getTextRange() == null || psiClass.getTextRange() == null) {
+            return null;
+        }
+
+        StringBuilder skeleton = new StringBuilder();
+        PsiDocComment docComment = psiClass.getDocComment();
+        if (docComment != null) {
+            skeleton.append(docComment.getText()).append('\n');
+        }
+        skeleton.append(declaration(psiClass, lBrace.getTextRange().getStartOffset())).append(" {\n");
+
+        List<String> constants = new ArrayList<>();
+        for (PsiField field : psiClass.getFields()) {
+            if (field instanceof PsiEnumConstant) {
+                constants.add(field.getName());
+            }
+        }
+        if (!constants.isEmpty()) {
+            skeleton.append(INDENT).append(String.join(", ", constants)).append(";\n");
+        }
+
+        for (PsiField field : psiClass.getFields()) {
+            if (!(field instanceof PsiEnumConstant)) {
+                appendMember(skeleton, field, fieldSignature(field));
+            }
+        }
+        for (PsiMethod method : psiClass.getMethods()) {
+            appendMember(skeleton, method, methodSignature(method));
+        }
+        for (PsiClass innerClass : psiClass.getInnerClasses()) {
+            appendMember(skeleton, innerClass, innerClassSignature(innerClass));
+        }
+
+        return skeleton.append('}').toString();
+    }
+
+    /**
+     * 提取 JavaDoc 描述的首句
+     *
+     * <p>只读取块标签（如 {@code @param}）和第一个段落之前的描述，去掉 HTML 标签和行内标签标记，
+     * 截取到第一个句号为止。
+     *
+     * @param docText JavaDoc 注释文本
+     * @return 首句，没有描述时返回空字符串
+     */
+    @NotNull
+    static String firstSentence(@NotNull String docText) {
+        String text = docText.trim();
+        if (text.startsWith("/**")) {
+            text = text.substring(3);
+        }
+        if (text.endsWith("*/")) {
+            text = text.substring(0, text.length() - 2);
+        }
+
+        StringBuilder description = new StringBuilder();
+        for (String line : text.split("\n")) {
+            String content = line.strip();
+            if (content.startsWith("*")) {
+                content = content.substring(1).strip();
+            }
+            if (content.startsWith("@")) {
+                break;
+            }
+            if (content.isEmpty() || content.startsWith("<p>")) {
+                if (!description.isEmpty()) {
+                    break;
+                }
+                continue;
+            }
+            description.append(content).append(' ');
+        }
+
+        String sentence = INLINE_TAG.matcher(description).replaceAll("$1");
+        sentence = HTML_TAG.matcher(sentence).replaceAll("");
+        sentence = WHITESPACE.matcher(sentence).replaceAll(" ").trim();
+
+        int end = sentence.indexOf('。');
+        int period = sentence.indexOf(". ");
+        if (period >= 0 && (end < 0 || period < end)) {
+            end = period;
+        }
+        return end >= 0 ? sentence.substring(0, end + 1) : sentence;
+    }
+
+    /**
+     * 将声明文本压缩为一行
+     *
+     * <p>去掉整行的 {@code //} 注释，再合并连续空白。
+     *
+     * @param text 声明文本
+     * @return 单行声明
+     */
+    @NotNull
+    static String collapse(@NotNull String text) {
+        StringBuilder result = new StringBuilder();
+        for (String line : text.split("\n")) {
+            String content = line.strip();
+            if (!content.isEmpty() && !content.startsWith("//")) {
+                result.append(content).append(' ');
+            }
+        }
+        return WHITESPACE.matcher(result).replaceAll(" ").trim();
+    }
+
+    /**
+     * 追加成员的首句注释和签名
+     *
+     * @param skeleton  类骨架
+     * @param member    成员元素
+     * @param signature 成员签名
+     */
+    private static void appendMember(@NotNull StringBuilder skeleton,
+                                     @NotNull PsiDocCommentOwner member,
+                                     @NotNull String signature) {
+        if (signature.isEmpty()) {
+            return;
+        }
+        PsiDocComment docComment = member.getDocComment();
+        if (docComment != null) {
+            String sentence = firstSentence(docComment.getText());
+            if (!sentence.isEmpty()) {
+                skeleton.append(INDENT).append("/** ").append(sentence).append(" */\n");
+            }
+        }
+        skeleton.append(INDENT).append(signature).append('\n');
+    }
+
+    /**
+     * 获取字段签名，较长的初始化表达式省略
+     */
+    @NotNull
+    private static String fieldSignature(@NotNull PsiField field) {
+        PsiExpression initializer = field.getInitializer();
+        if (initializer == null) {
+            return declaration(field, field.getTextRange().getEndOffset());
+        }
+        String value = collapse(initializer.getText());
+        return declaration(field, initializer.getTextRange().getStartOffset()) + " "
+               + (value.length() <= MAX_INITIALIZER_LENGTH ? value : "...") + ";";
+    }
+
+    /**
+     * 获取方法签名，方法体省略
+     */
+    @NotNull
+    private static String methodSignature(@NotNull PsiMethod method) {
+        PsiCodeBlock body = method.getBody();
+        if (body == null) {
+            return declaration(method, method.getTextRange().getEndOffset());
+        }
+        return declaration(method, body.getTextRange().getStartOffset()) + " { ... }";
+    }
+
+    /**
+     * 获取内部类签名，类体省略
+     */
+    @NotNull
+    private static String innerClassSignature(@NotNull PsiClass innerClass) {
+        PsiElement lBrace = innerClass.getLBrace();
+        if (lBrace == null) {
+            return "";
+        }
+        return declaration(innerClass, lBrace.getTextRange().getStartOffset()) + " { ... }";
+    }
+
+    /**
+     * 获取成员从 JavaDoc 之后到指定位置的声明文本
+     *
+     * @param member    成员元素
+     * @param endOffset 声明结束位置（文件中的绝对偏移）
+     * @return 单行声明
+     */
+    @NotNull
+    private static String declaration(@NotNull PsiDocCommentOwner member, int endOffset) {
+        TextRange range = member.getTextRange();
+        int start = range.getStartOffset();
+        PsiDocComment docComment = member.getDocComment();
+        int from = docComment != null ? docComment.getTextRange().getEndOffset() : start;
+        String text = member.getText();
+        return collapse(text.substring(Math.max(0, from - start), Math.min(text.length(), endOffset - start)));
+    }
+}
@@ -0,0 +1,459 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 文档生成结果缓存
+ *
+ * <p>以内容寻址的方式持久化已生成的文档：缓存键是规范化后的元素代码与请求配置指纹
+ * （提示词模板、系统提示词、模型名称和采样参数，见
+ * {@link dev.dong4j.zeka.stack.idea.plugin.ai.AIServiceProvider#getRequestFingerprint}）的 SHA-256 摘要。
+ * 代码或任一请求参数变化都会得到新的键，旧结果自然失效，不需要额外的失效逻辑。
+ * 重复运行、切换分支或还原文件后，未变化的元素直接使用缓存结果，不再发送请求。
+ *
+ * <p>存储格式：IDE 系统目录下的单个追加写入文件，文件头为魔数，之后每条记录依次为
+ * 32 字节的键、压缩后长度、原始长度和 Deflate 压缩的 UTF-8 文档内容。
+ * 启动后首次访问时扫描文件建立内存索引（键到文件偏移），命中时按偏移读取单条记录。
+ * 文件末尾因进程异常退出而不完整的记录会被截断。
+ *
+ * <p>容量控制：文件超过上限后按最近使用顺序压缩，只保留最近使用的记录，压缩后不超过上限的一半。
+ *
+ * <p>所有方法线程安全，IO 错误只记录日志，缓存不可用时按未命中处理。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Slf4j
+public final class DocumentationCache implements Disposable {
+
+    /** 缓存文件名 */
+    static final String FILE_NAME = "documentation-cache.bin";
+    /** 缓存文件魔数（"JDC1"） */
+    private static final int MAGIC = 0x4A444331;
+    /** 文件头长度 */
+    private static final int HEADER_BYTES = Integer.BYTES;
+    /** 键长度（SHA-256 摘要） */
+    private static final int KEY_BYTES = 32;
+    /** 记录头长度：键、压缩后长度、原始长度 */
+    private static final int RECORD_HEADER_BYTES = KEY_BYTES + Integer.BYTES * 2;
+    /** 单条文档的最大长度，超过时视为文件损坏 */
+    private static final int MAX_ENTRY_BYTES = 1024 * 1024;
+    /** 默认的缓存文件大小上限 */
+    private static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+    /** 缓存文件路径 */
+    private final Path file;
+    /** 缓存文件大小上限（字节） */
+    private final long maxBytes;
+    /** 键到记录位置的索引，按访问顺序排列，最早访问的在前 */
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** 缓存文件通道，首次访问时打开 */
+    private FileChannel channel;
+    /** 缓存文件是否不可用 */
+    private boolean broken;
+
+    /**
+     * 创建位于 IDE 系统目录下的缓存
+     */
+    public DocumentationCache() {
+        this(Paths.get(PathManager.getSystemPath(), "ai-javadoc", FILE_NAME), DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * 创建缓存
+     *
+     * @param file     缓存文件路径
+     * @param maxBytes 缓存文件大小上限（字节）
+     */
+    public DocumentationCache(@NotNull Path file, long maxBytes) {
+        this.file = file;
+        this.maxBytes = Math.max(1024, maxBytes);
+    }
+
+    /**
+     * 获取应用级缓存实例
+     *
+     * @return 缓存实例
+     */
+    public static DocumentationCache getInstance() {
+        return ApplicationManager.getApplication().getService(DocumentationCache.class);
+    }
+
+    /**
+     * 计算缓存键
+     *
+     * @param code        元素代码
+     * @param fingerprint 请求配置指纹
+     * @return 十六进制的 SHA-256 摘要
+     */
+    @NotNull
+    public static String key(@NotNull String code, @NotNull String fingerprint) {
+        MessageDigest digest = sha256();
+        digest.update(normalize(code).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(fingerprint.getBytes(StandardCharsets.UTF_8));
+        return toHex(digest.digest());
+    }
+
+    /**
+     * 规范化代码，忽略缩进、行首行尾空白、空行和换行符的差异
+     *
+     * <p>{@code PsiElement#getText()} 的首行不含缩进而其余行含所在类的缩进，
+     * 因此逐行去除首尾空白，而不是只去除公共缩进。
+     *
+     * @param code 元素代码
+     * @return 规范化后的代码
+     */
+    @NotNull
+    static String normalize(@NotNull String code) {
+        return code.lines()
+            .map(String::strip)
+            .filter(line -> !line.isEmpty())
+            .collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * 查询缓存
+     *
+     * @param key 缓存键
+     * @return 缓存的文档，未命中时返回 null
+     */
+    @Nullable
+    public synchronized String get(@NotNull String key) {
+        if (!open()) {
+            return null;
+        }
+        Entry entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(entry.compressedLength());
+            readFully(buffer, entry.offset());
+            return inflate(buffer.array(), entry.length());
+        } catch (IOException | DataFormatException e) {
+            log.warn("读取文档缓存失败: {}", file, e);
+            index.remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * 写入缓存，键已存在时保留原有结果
+     *
+     * @param key           缓存键
+     * @param documentation 文档内容
+     */
+    public synchronized void put(@NotNull String key, @NotNull String documentation) {
+        if (!open() || index.containsKey(key)) {
+            return;
+        }
+        byte[] raw = documentation.getBytes(StandardCharsets.UTF_8);
+        if (raw.length > MAX_ENTRY_BYTES) {
+            return;
+        }
+        byte[] compressed = deflate(raw);
+        try {
+            long position = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_BYTES + compressed.length);
+            buffer.put(fromHex(key)).putInt(compressed.length).putInt(raw.length).put(compressed).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, position + buffer.position());
+            }
+            index.put(key, new Entry(position + RECORD_HEADER_BYTES, compressed.length, raw.length));
+
+            if (channel.size() > maxBytes) {
+                compact();
+            }
+        } catch (IOException e) {
+            log.warn("写入文档缓存失败: {}", file, e);
+        }
+    }
+
+    /**
+     * 获取缓存条目数
+     *
+     * @return 条目数
+     */
+    public synchronized int size() {
+        return open() ? index.size() : 0;
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        close();
+        index.clear();
+        broken = false;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除文档缓存失败: {}", file, e);
+        }
+    }
+
+    @Override
+    public synchronized void dispose() {
+        close();
+    }
+
+    /**
+     * 打开缓存文件并建立索引
+     *
+     * @return 缓存可用返回 true
+     */
+    private boolean open() {
+        if (channel != null) {
+            return true;
+        }
+        if (broken) {
+            return false;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            loadIndex();
+            return true;
+        } catch (IOException e) {
+            log.warn("打开文档缓存失败，本次运行不使用缓存: {}", file, e);
+            close();
+            broken = true;
+            return false;
+        }
+    }
+
+    /**
+     * 扫描缓存文件建立索引，文件头不匹配时清空文件，末尾不完整的记录被截断
+     */
+    private void loadIndex() throws IOException {
+        index.clear();
+        long size = channel.size();
+        boolean valid = false;
+        if (size >= HEADER_BYTES) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(header, 0);
+            valid = header.flip().getInt() == MAGIC;
+        }
+        if (!valid) {
+            channel.truncate(0);
+            channel.write(ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).flip(), 0);
+            return;
+        }
+
+        long position = HEADER_BYTES;
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        byte[] key = new byte[KEY_BYTES];
+        while (position + RECORD_HEADER_BYTES <= size) {
+            recordHeader.clear();
+            readFully(recordHeader, position);
+            recordHeader.flip().get(key);
+            int compressedLength = recordHeader.getInt();
+            int length = recordHeader.getInt();
+            long dataOffset = position + RECORD_HEADER_BYTES;
+            if (compressedLength < 0 || compressedLength > MAX_ENTRY_BYTES
+                || length < 0 || length > MAX_ENTRY_BYTES
+                || dataOffset + compressedLength > size) {
+                break;
+            }
+            index.put(toHex(key), new Entry(dataOffset, compressedLength, length));
+            position = dataOffset + compressedLength;
+        }
+        if (position < size) {
+            log.info("文档缓存末尾存在不完整的记录，截断到 {} 字节: {}", position, file);
+            channel.truncate(position);
+        }
+    }
+
+    /**
+     * 按最近使用顺序压缩缓存文件，只保留最近使用的记录
+     */
+    private void compact() throws IOException {
+        List<Map.Entry<String, Entry>> entries = new ArrayList<>(index.entrySet());
+        long budget = maxBytes / 2 - HEADER_BYTES;
+        int first = entries.size();
+        while (first > 0) {
+            Entry entry = entries.get(first - 1).getValue();
+            long recordBytes = RECORD_HEADER_BYTES + entry.compressedLength();
+            if (recordBytes > budget) {
+                break;
+            }
+            budget -= recordBytes;
+            first--;
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        LinkedHashMap<String, Entry> compacted = new LinkedHashMap<>(16, 0.75f, true);
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).flip());
+            long position = HEADER_BYTES;
+            for (Map.Entry<String, Entry> item : entries.subList(first, entries.size())) {
+                Entry entry = item.getValue();
+                ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + entry.compressedLength());
+                record.put(fromHex(item.getKey())).putInt(entry.compressedLength()).putInt(entry.length());
+                readFully(record, entry.offset());
+                record.flip();
+                while (record.hasRemaining()) {
+                    out.write(record);
+                }
+                compacted.put(item.getKey(), new Entry(position + RECORD_HEADER_BYTES, entry.compressedLength(), entry.length()));
+                position += RECORD_HEADER_BYTES + entry.compressedLength();
+            }
+        }
+
+        close();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index.clear();
+        index.putAll(compacted);
+        log.info("文档缓存已压缩，保留 {} 条记录，淘汰 {} 条", entries.size() - first, first);
+    }
+
+    /**
+     * 从指定位置读满缓冲区
+     *
+     * @throws IOException 文件提前结束或读取失败时抛出
+     */
+    private void readFully(@NotNull ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of cache file");
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * 关闭缓存文件
+     */
+    private void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("关闭文档缓存失败: {}", file, e);
+        }
+        channel = null;
+    }
+
+    /**
+     * 压缩数据
+     */
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 16);
+            byte[] chunk = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 解压数据
+     */
+    private static String inflate(byte[] compressed, int length) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[length];
+            int total = 0;
+            while (total < length && !inflater.finished()) {
+                int read = inflater.inflate(raw, total, length - total);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                total += read;
+            }
+            if (total != length) {
+                throw new DataFormatException("Corrupted cache entry");
+            }
+            return new String(raw, StandardCharsets.UTF_8);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 创建 SHA-256 摘要器
+     */
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * 字节数组转十六进制字符串
+     */
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * 十六进制字符串转字节数组
+     */
+    private static byte[] fromHex(String hex) {
+        byte[] bytes = new byte[KEY_BYTES];
+        for (int i = 0; i < KEY_BYTES && i * 2 + 1 < hex.length(); i++) {
+            bytes[i] = (byte) Integer.parseInt(hex, i * 2, i * 2 + 2, 16);
+        }
+        return bytes;
+    }
+
+    /**
+     * 缓存记录位置
+     *
+     * @param offset           压缩数据在文件中的偏移
+     * @param compressedLength 压缩后长度
+     * @param length           原始长度
+     */
+    private record Entry(long offset, int compressedLength, int length) {
+    }
+}
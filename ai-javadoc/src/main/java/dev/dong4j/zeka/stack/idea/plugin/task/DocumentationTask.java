@@ -1,8 +1,15 @@
 package dev.dong4j.zeka.stack.idea.plugin.task;
 
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.util.Computable;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiNamedElement;
+import com.intellij.psi.SmartPsiElementPointer;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Function;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -26,6 +33,7 @@ import lombok.Setter;
  * <ul>
  *   <li>PSI 元素：需要生成文档的代码元素</li>
  *   <li>代码内容：元素的源代码（包含现有注释）</li>
+ *   <li>提示词上下文：类名、声明、包名和已有注释，填入提示词模板的命名变量</li>
  *   <li>任务类型：决定使用的 Prompt 模板</li>
  *   <li>文件路径：用于进度显示和日志记录</li>
  *   <li>处理状态：任务的当前状态</li>
@@ -33,22 +41,38 @@ import lombok.Setter;
  *   <li>错误信息：处理失败时的错误详情</li>
  * </ul>
  *
+ * <p>内存占用：由 {@link TaskCollector} 创建的任务通过 {@link SmartPsiElementPointer} 引用元素，
+ * 不会阻止 PSI 树被回收；代码在第一次 {@link #getCode()} 时（即发送请求前）才提取。
+ * 文档写入或任务结束后调用 {@link #release()} 释放代码和结果，大批量运行时堆占用保持平稳。
+ *
  * @author dong4j
  * @version 1.0.0
  * @since 1.0.0
  */
 public class DocumentationTask {
 
-    /** 当前 Psi 元素对象，用于表示代码中的语法结构节点 */
+    /** 元素的智能指针，不阻止 PSI 树被回收，文档修改后仍能找回元素 */
+    private final SmartPsiElementPointer<PsiElement> pointer;
+    /** 直接持有的元素，只用于创建时已提取代码的任务 */
     private final PsiElement element;
-    /** 业务操作的唯一标识码 */
-    private final String code;
+    /** 代码提取器，在读操作中从元素提取发送给 AI 的代码；为 null 时代码在创建时已提取 */
+    private final Function<PsiElement, String> codeExtractor;
+    /** 发送给 AI 的代码，延迟提取，释放后再次使用时重新提取 */
+    private volatile String code;
+    /** 发送给 AI 的代码长度（字符数），尚未提取时为 -1，释放代码后仍保留 */
+    private volatile int codeLength;
+    /** 压缩前的原始代码长度（字符数），用于统计类代码压缩节省的 token，尚未提取时为 -1 */
+    private volatile int originalCodeLength;
+    /** 提示词模板的上下文变量，与代码一起提取和释放 */
+    private volatile PromptContext promptContext;
+    /** 元素完整代码的摘要，与代码一起提取，释放代码后仍保留 */
+    private volatile String contentHash;
     /** 任务类型，表示当前任务的类型信息 */
     private final TaskType type;
     /** 文件路径 */
     private final String filePath;
-    /** 任务当前状态 */
-    private TaskStatus status;
+    /** 任务当前状态，在工作线程和请求完成的线程之间读写 */
+    private volatile TaskStatus status;
     /** 结果数据 */
     @Setter
     @Getter
@@ -146,8 +170,78 @@ public class DocumentationTask {
                              @NotNull String code,
                              @NotNull TaskType type,
                              @NotNull String filePath) {
+        this(element, code, type, filePath, code.length());
+    }
+
+    /**
+     * 构造一个代码经过压缩的 DocumentationTask 对象
+     * <p>
+     * 用于类代码优化或骨架压缩后的任务，记录压缩前的代码长度以便统计节省的 token
+     *
+     * @param element            元素对象，表示代码中的某个元素
+     * @param code               压缩后的代码内容字符串
+     * @param type               任务类型，表示任务的类别
+     * @param filePath           文件路径，表示代码所在的文件路径
+     * @param originalCodeLength 压缩前的原始代码长度
+     */
+    public DocumentationTask(@NotNull PsiElement element,
+                             @NotNull String code,
+                             @NotNull TaskType type,
+                             @NotNull String filePath,
+                             int originalCodeLength) {
+        this(element, code, type, filePath, originalCodeLength, PromptContext.EMPTY);
+    }
+
+    /**
+     * 构造一个带有提示词上下文的 DocumentationTask 对象
+     * <p>
+     * 用于创建时已提取代码的任务，上下文由调用方在同一次读操作中从元素提取
+     *
+     * @param element            元素对象，表示代码中的某个元素
+     * @param code               代码内容字符串
+     * @param type               任务类型，表示任务的类别
+     * @param filePath           文件路径，表示代码所在的文件路径
+     * @param originalCodeLength 压缩前的原始代码长度
+     * @param promptContext      提示词模板的上下文变量
+     * @see PromptContext#of(PsiElement)
+     */
+    public DocumentationTask(@NotNull PsiElement element,
+                             @NotNull String code,
+                             @NotNull TaskType type,
+                             @NotNull String filePath,
+                             int originalCodeLength,
+                             @NotNull PromptContext promptContext) {
+        this.pointer = null;
         this.element = element;
+        this.codeExtractor = null;
         this.code = code;
+        this.codeLength = code.length();
+        this.originalCodeLength = originalCodeLength;
+        this.promptContext = promptContext;
+        this.type = type;
+        this.filePath = filePath;
+        this.status = TaskStatus.PENDING;
+    }
+
+    /**
+     * 构造一个延迟提取代码的 DocumentationTask 对象
+     * <p>
+     * 任务只持有元素的智能指针，代码和提示词上下文在第一次使用时由提取器在读操作中提取
+     *
+     * @param pointer       元素的智能指针
+     * @param type          任务类型，表示任务的类别
+     * @param filePath      文件路径，表示代码所在的文件路径
+     * @param codeExtractor 代码提取器，从元素提取发送给 AI 的代码
+     */
+    public DocumentationTask(@NotNull SmartPsiElementPointer<PsiElement> pointer,
+                             @NotNull TaskType type,
+                             @NotNull String filePath,
+                             @NotNull Function<PsiElement, String> codeExtractor) {
+        this.pointer = pointer;
+        this.element = null;
+        this.codeExtractor = codeExtractor;
+        this.codeLength = -1;
+        this.originalCodeLength = -1;
         this.type = type;
         this.filePath = filePath;
         this.status = TaskStatus.PENDING;
@@ -156,25 +250,130 @@ public class DocumentationTask {
     /**
      * 获取当前元素对象
      * <p>
-     * 返回与当前对象关联的 PsiElement 实例，该元素通常表示代码中的某个结构或节点。
+     * 通过智能指针引用的元素在被删除后返回 null，需要在读操作中调用。
      *
-     * @return 当前关联的 PsiElement 对象
+     * @return 当前关联的 PsiElement 对象，元素已不存在时返回 null
      */
-    @NotNull
+    @Nullable
     public PsiElement getElement() {
-        return element;
+        return pointer != null ? pointer.getElement() : element;
     }
 
     /**
-     * 获取验证码
+     * 获取发送给 AI 的代码
      * <p>
-     * 返回当前存储的验证码值
+     * 延迟创建的任务第一次调用时在读操作中提取代码并缓存，直到 {@link #release()}
      *
-     * @return 验证码
+     * @return 代码内容
+     * @throws IllegalStateException 元素已被删除或失效时抛出
      */
     @NotNull
     public String getCode() {
-        return code;
+        String current = code;
+        if (current != null) {
+            return current;
+        }
+        return ApplicationManager.getApplication().runReadAction((Computable<String>) this::extractCode);
+    }
+
+    /**
+     * 从元素提取代码，需要在读操作中调用
+     *
+     * @return 代码内容
+     */
+    @NotNull
+    private String extractCode() {
+        PsiElement target = getElement();
+        if (target == null || !target.isValid()) {
+            throw new IllegalStateException("代码元素已失效: " + filePath);
+        }
+        String extracted = codeExtractor.apply(target);
+        originalCodeLength = target.getTextLength();
+        codeLength = extracted.length();
+        promptContext = PromptContext.of(target);
+        contentHash = JobJournal.contentHash(target.getText());
+        code = extracted;
+        return extracted;
+    }
+
+    /**
+     * 获取元素完整代码的摘要
+     * <p>
+     * 延迟创建的任务在提取代码时一并计算，不再单独读取元素文本；创建时已提取代码的任务第一次调用时在读操作中计算
+     *
+     * @return 代码摘要，元素已被删除或失效时返回 null
+     * @see JobJournal#contentHash(String)
+     */
+    @Nullable
+    public String getContentHash() {
+        String current = contentHash;
+        if (current != null) {
+            return current;
+        }
+        return ApplicationManager.getApplication().runReadAction((Computable<String>) () -> {
+            PsiElement target = getElement();
+            if (target == null || !target.isValid()) {
+                return null;
+            }
+            String hash = JobJournal.contentHash(target.getText());
+            contentHash = hash;
+            return hash;
+        });
+    }
+
+    /**
+     * 获取提示词模板的上下文变量
+     * <p>
+     * 延迟创建的任务与代码一起提取，尚未提取时先提取代码
+     *
+     * @return 上下文变量
+     * @throws IllegalStateException 元素已被删除或失效时抛出
+     */
+    @NotNull
+    public PromptContext getPromptContext() {
+        PromptContext current = promptContext;
+        if (current != null) {
+            return current;
+        }
+        getCode();
+        current = promptContext;
+        return current != null ? current : PromptContext.EMPTY;
+    }
+
+    /**
+     * 获取发送给 AI 的代码长度
+     * <p>
+     * 释放代码后仍返回提取时记录的长度
+     *
+     * @return 代码长度（字符数），代码尚未提取时返回 -1
+     */
+    public int getCodeLength() {
+        return codeLength;
+    }
+
+    /**
+     * 获取压缩前的原始代码长度
+     * <p>
+     * 未经压缩的任务与 {@link #getCodeLength()} 相同
+     *
+     * @return 原始代码长度（字符数），代码尚未提取时返回 -1
+     */
+    public int getOriginalCodeLength() {
+        return originalCodeLength;
+    }
+
+    /**
+     * 释放代码和生成结果
+     * <p>
+     * 在文档写入或任务结束后调用。延迟提取的任务再次需要代码时会重新提取（上下文随之重新提取），
+     * 创建时已提取代码的任务只释放结果。
+     */
+    public void release() {
+        result = null;
+        if (codeExtractor != null) {
+            code = null;
+            promptContext = null;
+        }
     }
 
     /**
@@ -227,22 +426,18 @@ public class DocumentationTask {
     /**
      * 获取元素的显示名称
      *
-     * <p>返回元素文本的前50个字符作为显示名称，
-     * 用于日志记录和调试信息显示。
-     * 如果元素文本超过50个字符，会添加省略号。
-     *
-     * <p>设计考虑：
-     * <ul>
-     *   <li>限制长度避免日志过长</li>
-     *   <li>提供足够的信息用于识别元素</li>
-     *   <li>处理边界情况（短文本）</li>
-     * </ul>
+     * <p>在读操作中返回元素的名称（类名、方法名或字段名），用于日志记录和调试信息显示。
+     * 不提取代码，代码已释放的任务也不会因此重新提取。
      *
-     * @return 元素的显示名称（前50个字符+省略号）
+     * @return 元素名称，元素已被删除、失效或没有名称时返回文件路径
      */
     @NotNull
     public String getElementName() {
-        return element.getText().substring(0, Math.min(50, element.getText().length())) + "...";
+        String name = ApplicationManager.getApplication().runReadAction((Computable<String>) () -> {
+            PsiElement target = getElement();
+            return target instanceof PsiNamedElement named && target.isValid() ? named.getName() : null;
+        });
+        return name != null ? name : filePath;
     }
 
     /**
@@ -0,0 +1,497 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.command.CommandProcessor;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.RangeMarker;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDocCommentOwner;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.javadoc.PsiDocComment;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 按文件合并写入的文档写入器
+ *
+ * <p>缓存生成的 JavaDoc，按文件批量写回源代码，替代每个任务单独提交一次写操作。
+ * 当某个文件的所有任务都产生结果后，该文件的全部文档在一个命令中写入。
+ *
+ * <p>每个文件的写入流程：
+ * <ol>
+ *   <li>基于已提交的 PSI 一次性计算所有元素的删除范围（旧注释）和插入位置</li>
+ *   <li>按偏移量降序应用所有编辑，前面的编辑不会影响后面待编辑的偏移量</li>
+ *   <li>只提交一次文档</li>
+ *   <li>对所有插入范围执行一次代码格式化</li>
+ * </ol>
+ *
+ * <p>线程模型：
+ * <ul>
+ *   <li>{@link #add} 与 {@link #resolve} 可在任意线程调用</li>
+ *   <li>文件写入通过 invokeLater 调度到事件调度线程，在命令和写入操作中执行</li>
+ * </ul>
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Slf4j
+public class DocumentationWriter {
+
+    /** 项目对象 */
+    private final Project project;
+    /** 用户设置 */
+    private final SettingsState settings;
+    /** 每个文件尚未产生结果的任务数 */
+    private final Map<String, Integer> remaining = new HashMap<>();
+    /** 每个文件已缓存、等待写入的文档 */
+    private final Map<String, List<PendingDoc>> buffered = new HashMap<>();
+    /** 已产生结果的任务，保证每个任务只计数一次 */
+    private final Set<DocumentationTask> resolved = Collections.newSetFromMap(new IdentityHashMap<>());
+    /** 任务日志，写入成功后记录，为 null 时不记录 */
+    private final JobJournal journal;
+
+    /**
+     * 创建文档写入器
+     *
+     * @param project  项目对象
+     * @param settings 用户设置
+     * @param tasks    本次运行的全部任务，用于统计每个文件的任务数
+     */
+    public DocumentationWriter(@NotNull Project project,
+                               @NotNull SettingsState settings,
+                               @NotNull List<DocumentationTask> tasks) {
+        this(project, settings, tasks, null);
+    }
+
+    /**
+     * 创建记录任务日志的文档写入器
+     *
+     * @param project  项目对象
+     * @param settings 用户设置
+     * @param tasks    本次运行的全部任务，用于统计每个文件的任务数
+     * @param journal  任务日志，为 null 时不记录
+     */
+    public DocumentationWriter(@NotNull Project project,
+                               @NotNull SettingsState settings,
+                               @NotNull List<DocumentationTask> tasks,
+                               @Nullable JobJournal journal) {
+        this.project = project;
+        this.settings = settings;
+        this.journal = journal;
+        for (DocumentationTask task : tasks) {
+            remaining.merge(task.getFilePath(), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * 缓存任务生成的文档
+     *
+     * <p>该文件的所有任务都产生结果后，自动调度写入。
+     *
+     * @param task          文档生成任务
+     * @param documentation 生成的文档内容
+     */
+    public void add(@NotNull DocumentationTask task, @NotNull String documentation) {
+        List<PendingDoc> ready;
+        synchronized (this) {
+            if (!resolved.add(task)) {
+                return;
+            }
+            buffered.computeIfAbsent(task.getFilePath(), k -> new ArrayList<>())
+                .add(new PendingDoc(task, documentation));
+            ready = countDown(task.getFilePath());
+        }
+        schedule(ready);
+    }
+
+    /**
+     * 标记任务已产生结果但无需写入（跳过或失败）
+     *
+     * <p>重复调用或对已缓存文档的任务调用不会产生影响。
+     *
+     * @param task 文档生成任务
+     */
+    public void resolve(@NotNull DocumentationTask task) {
+        List<PendingDoc> ready;
+        synchronized (this) {
+            if (!resolved.add(task)) {
+                return;
+            }
+            ready = countDown(task.getFilePath());
+        }
+        // 跳过或失败的任务不再需要代码
+        task.release();
+        schedule(ready);
+    }
+
+    /**
+     * 写入所有仍在缓存中的文档
+     *
+     * <p>在运行结束（包括用户取消）时调用，保证已生成的文档不会丢失。
+     */
+    public void flushAll() {
+        List<List<PendingDoc>> all;
+        synchronized (this) {
+            all = new ArrayList<>(buffered.values());
+            buffered.clear();
+        }
+        all.forEach(this::schedule);
+    }
+
+    /**
+     * 减少文件的剩余任务数，归零时取出该文件的缓存
+     *
+     * @param filePath 文件路径
+     * @return 可以写入的文档列表，文件还有未完成任务时返回 null
+     */
+    @Nullable
+    private List<PendingDoc> countDown(@NotNull String filePath) {
+        Integer left = remaining.merge(filePath, -1, Integer::sum);
+        if (left != null && left > 0) {
+            return null;
+        }
+        remaining.remove(filePath);
+        return buffered.remove(filePath);
+    }
+
+    /**
+     * 调度文件写入到事件调度线程
+     *
+     * @param docs 同一文件的待写入文档
+     */
+    private void schedule(@Nullable List<PendingDoc> docs) {
+        if (docs == null || docs.isEmpty()) {
+            return;
+        }
+        ApplicationManager.getApplication().invokeLater(() -> writeFile(docs));
+    }
+
+    /**
+     * 在一个命令中写入同一文件的全部文档
+     *
+     * @param docs 同一文件的待写入文档
+     */
+    private void writeFile(@NotNull List<PendingDoc> docs) {
+        try {
+            if (!project.isDisposed()) {
+                writeFileInCommand(docs);
+            }
+        } finally {
+            // 文档已写入或放弃写入，释放任务持有的代码和结果
+            docs.forEach(doc -> doc.task().release());
+        }
+    }
+
+    /**
+     * 在命令中写入同一文件的文档
+     *
+     * @param docs 同一文件的待写入文档
+     */
+    private void writeFileInCommand(@NotNull List<PendingDoc> docs) {
+        PsiElement first = null;
+        for (PendingDoc doc : docs) {
+            PsiElement element = doc.task().getElement();
+            if (element != null && element.isValid()) {
+                first = element;
+                break;
+            }
+        }
+        if (first == null) {
+            log.info("文件已失效，放弃写入 {} 条文档: {}", docs.size(), docs.get(0).task().getFilePath());
+            return;
+        }
+
+        PsiFile psiFile = first.getContainingFile();
+        VirtualFile virtualFile = psiFile.getVirtualFile();
+        Document document = virtualFile == null ? null : FileDocumentManager.getInstance().getDocument(virtualFile);
+        if (document == null) {
+            return;
+        }
+
+        PsiDocumentManager psiDocumentManager = PsiDocumentManager.getInstance(project);
+        psiDocumentManager.doPostponedOperationsAndUnblockDocument(document);
+        psiDocumentManager.commitDocument(document);
+
+        CommandProcessor.getInstance().executeCommand(
+            project,
+            () -> ApplicationManager.getApplication().runWriteAction(() -> {
+                try {
+                    List<DocumentationTask> written = applyEdits(psiFile, document, docs);
+                    if (journal != null) {
+                        journal.recordInserted(written);
+                    }
+                } catch (Exception e) {
+                    log.info("插入文档失败: {}", docs.get(0).task().getFilePath(), e);
+                }
+            }),
+            "Insert JavaDoc",
+            "AI Javadoc"
+        );
+    }
+
+    /**
+     * 计算并应用同一文件的所有编辑
+     *
+     * <p>所有偏移量都在修改文档前基于同一份 PSI 计算，然后按偏移量降序应用。
+     * 插入的范围使用 RangeMarker 跟踪，最后一次提交、一次格式化。
+     *
+     * @param psiFile  PSI 文件
+     * @param document 文档对象
+     * @param docs     待写入文档
+     * @return 文档已写入的任务
+     */
+    private List<DocumentationTask> applyEdits(@NotNull PsiFile psiFile,
+                                               @NotNull Document document,
+                                               @NotNull List<PendingDoc> docs) {
+        List<Edit> edits = new ArrayList<>();
+        List<DocumentationTask> written = new ArrayList<>();
+        for (PendingDoc doc : docs) {
+            PsiElement element = doc.task().getElement();
+            if (element == null || !element.isValid()) {
+                continue;
+            }
+            collectEdits(element, document, normalizeJavadoc(doc.documentation()), edits);
+            written.add(doc.task());
+        }
+
+        // 按起始偏移量降序；同一偏移量时范围较大的（删除）先执行，避免删掉刚插入的文本
+        edits.sort(Comparator.comparingInt(Edit::start).reversed()
+                       .thenComparing(Comparator.comparingInt(Edit::end).reversed()));
+
+        List<RangeMarker> insertedRanges = new ArrayList<>();
+        for (Edit edit : edits) {
+            if (edit.text().isEmpty()) {
+                document.deleteString(edit.start(), edit.end());
+            } else {
+                document.insertString(edit.start(), edit.text());
+                insertedRanges.add(document.createRangeMarker(edit.start(), edit.start() + edit.text().length()));
+            }
+        }
+
+        PsiDocumentManager.getInstance(project).commitDocument(document);
+
+        List<TextRange> ranges = new ArrayList<>();
+        for (RangeMarker marker : insertedRanges) {
+            if (marker.isValid()) {
+                ranges.add(new TextRange(marker.getStartOffset(), marker.getEndOffset()));
+            }
+            marker.dispose();
+        }
+        if (!ranges.isEmpty()) {
+            CodeStyleManager.getInstance(project).reformatText(psiFile, ranges);
+        }
+
+        if (settings.verboseLogging) {
+            log.debug("合并写入 {} 条文档，共 {} 个编辑: {}", docs.size(), edits.size(), psiFile.getName());
+        }
+        return written;
+    }
+
+    /**
+     * 计算单个元素的编辑：删除旧注释并在声明所在行首插入新注释
+     *
+     * <p>插入位置与逐个写入时一致：旧注释之后的声明行首；
+     * 若声明与旧注释位于同一行，则插入到旧注释被删除的位置。
+     *
+     * @param element 目标元素
+     * @param document 文档对象
+     * @param javadoc 规范化后的 JavaDoc
+     * @param edits   编辑列表
+     */
+    private static void collectEdits(@NotNull PsiElement element,
+                                     @NotNull Document document,
+                                     @NotNull String javadoc,
+                                     @NotNull List<Edit> edits) {
+        int lineStart = document.getLineStartOffset(document.getLineNumber(getInsertPosition(element)));
+        int insertOffset = lineStart;
+
+        TextRange deleteRange = computeDeleteRange(element, document);
+        if (deleteRange != null) {
+            edits.add(new Edit(deleteRange.getStartOffset(), deleteRange.getEndOffset(), ""));
+            if (lineStart < deleteRange.getEndOffset()) {
+                insertOffset = Math.min(lineStart, deleteRange.getStartOffset());
+            }
+        }
+
+        edits.add(new Edit(insertOffset, insertOffset, javadoc + "\n"));
+    }
+
+    /**
+     * 确保文档以 /** 开头、以 *&#47; 结尾
+     *
+     * @param documentation 生成的文档内容
+     * @return 规范化后的 JavaDoc
+     */
+    @NotNull
+    private static String normalizeJavadoc(@NotNull String documentation) {
+        String javadoc = documentation.trim();
+        if (!javadoc.startsWith("/**")) {
+            javadoc = "/**\n" + javadoc;
+        }
+        if (!javadoc.endsWith("*/")) {
+            javadoc = javadoc + "\n */";
+        }
+        return javadoc;
+    }
+
+    /**
+     * 计算元素旧 JavaDoc 注释的删除范围
+     *
+     * <p>删除策略：
+     * <ul>
+     *   <li>删除注释本身</li>
+     *   <li>删除注释后面的一个换行符（如果有）</li>
+     *   <li>删除注释前面的所有空白行（防止空行累积）</li>
+     * </ul>
+     *
+     * @param element  目标元素
+     * @param document 文档对象
+     * @return 删除范围，元素没有旧注释时返回 null
+     */
+    @Nullable
+    @SuppressWarnings("D")
+    static TextRange computeDeleteRange(@NotNull PsiElement element, @NotNull Document document) {
+        if (!(element instanceof PsiDocCommentOwner)) {
+            return null;
+        }
+
+        PsiDocComment oldComment = ((PsiDocCommentOwner) element).getDocComment();
+        if (oldComment == null) {
+            return null;
+        }
+
+        int startOffset = oldComment.getTextRange().getStartOffset();
+        int endOffset = oldComment.getTextRange().getEndOffset();
+        CharSequence text = document.getCharsSequence();
+
+        int deleteStart = startOffset;
+        int deleteEnd = getDeleteEnd(document, endOffset);
+
+        // 向前扩展：删除注释前面同一行的空白字符（空格、制表符），保留换行符
+        int lineStart = document.getLineStartOffset(document.getLineNumber(startOffset));
+        while (deleteStart > lineStart) {
+            char prevChar = text.charAt(deleteStart - 1);
+            if (prevChar == ' ' || prevChar == '\t') {
+                deleteStart--;
+            } else {
+                break;
+            }
+        }
+
+        // 如果注释前面只有空白字符，继续向前删除空行，这是防止空行累积的关键
+        if (deleteStart == lineStart) {
+            while (lineStart > 0) {
+                int prevLineEnd = lineStart - 1;
+                if (text.charAt(prevLineEnd) != '\n') {
+                    break;
+                }
+
+                int prevLineStart = document.getLineStartOffset(document.getLineNumber(prevLineEnd));
+                boolean isEmptyLine = true;
+                for (int i = prevLineStart; i < prevLineEnd; i++) {
+                    char c = text.charAt(i);
+                    if (c != ' ' && c != '\t' && c != '\r') {
+                        isEmptyLine = false;
+                        break;
+                    }
+                }
+
+                if (!isEmptyLine) {
+                    break;
+                }
+                deleteStart = prevLineStart;
+                lineStart = prevLineStart;
+            }
+        }
+
+        return new TextRange(deleteStart, deleteEnd);
+    }
+
+    /**
+     * 计算删除操作的结束位置
+     * <p>
+     * 删除注释后面的一个换行符（如果有），包括 Windows 风格的 \r\n 换行符。
+     *
+     * @param document  文档对象，用于获取文本内容和长度
+     * @param endOffset 初始的结束偏移量
+     * @return 调整后的删除结束位置
+     */
+    private static int getDeleteEnd(@NotNull Document document, int endOffset) {
+        int deleteEnd = endOffset;
+
+        if (deleteEnd < document.getTextLength()) {
+            char nextChar = document.getCharsSequence().charAt(deleteEnd);
+            if (nextChar == '\n') {
+                deleteEnd++;
+            } else if (nextChar == '\r' && deleteEnd + 1 < document.getTextLength()) {
+                if (document.getCharsSequence().charAt(deleteEnd + 1) == '\n') {
+                    deleteEnd += 2;
+                } else {
+                    deleteEnd++;
+                }
+            }
+        }
+        return deleteEnd;
+    }
+
+    /**
+     * 获取文档插入位置
+     *
+     * <p>方法、类、字段插入在修饰符列表之前，其他元素插入在元素起始位置。
+     *
+     * @param element PSI 元素
+     * @return 文档插入位置的偏移量
+     */
+    private static int getInsertPosition(@NotNull PsiElement element) {
+        if (element instanceof PsiMethod) {
+            return ((PsiMethod) element).getModifierList().getTextRange().getStartOffset();
+        } else if (element instanceof PsiClass) {
+            return ((PsiClass) element).getModifierList().getTextRange().getStartOffset();
+        } else if (element instanceof PsiField) {
+            return ((PsiField) element).getModifierList().getTextRange().getStartOffset();
+        }
+        return element.getTextRange().getStartOffset();
+    }
+
+    /**
+     * 待写入的文档
+     *
+     * @param task          文档生成任务
+     * @param documentation 生成的文档内容
+     */
+    private record PendingDoc(DocumentationTask task, String documentation) {
+    }
+
+    /**
+     * 文档编辑，text 为空时表示删除 [start, end)，否则表示在 start 处插入
+     *
+     * @param start 起始偏移量
+     * @param end   结束偏移量
+     * @param text  插入文本
+     */
+    private record Edit(int start, int end, String text) {
+    }
+}
@@ -0,0 +1,133 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameter;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.StringJoiner;
+
+/**
+ * 代码元素的持久标识
+ *
+ * <p>用于在 IDE 重启后重新定位任务元素，PSI 元素和智能指针都不能跨进程保存。格式：
+ * <ul>
+ *   <li>类：<code>C:全限定类名</code></li>
+ *   <li>方法：<code>M:全限定类名#方法名(参数类型,...)</code>，参数类型为规范文本，区分重载方法</li>
+ *   <li>字段：<code>F:全限定类名#字段名</code></li>
+ * </ul>
+ *
+ * <p>局部类、匿名类及其成员没有稳定的全限定名，不生成标识。需要在读操作中调用。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @see JobJournal
+ * @since 1.0.0
+ */
+final class ElementKey {
+
+    /**
+     * 工具类，不允许实例化
+     */
+    private ElementKey() {
+    }
+
+    /**
+     * 计算元素的标识
+     *
+     * @param element 代码元素
+     * @return 元素标识，元素不是类、方法或字段，或者没有全限定名时返回 null
+     */
+    @Nullable
+    static String of(@NotNull PsiElement element) {
+        if (element instanceof PsiClass psiClass) {
+            String qualifiedName = psiClass.getQualifiedName();
+            return qualifiedName == null ? null : "C:" + qualifiedName;
+        }
+        if (element instanceof PsiMethod method) {
+            String owner = ownerName(method.getContainingClass());
+            if (owner == null) {
+                return null;
+            }
+            StringJoiner parameters = new StringJoiner(",", "(", ")");
+            for (PsiParameter parameter : method.getParameterList().getParameters()) {
+                parameters.add(parameter.getType().getCanonicalText());
+            }
+            return "M:" + owner + "#" + method.getName() + parameters;
+        }
+        if (element instanceof PsiField field) {
+            String owner = ownerName(field.getContainingClass());
+            return owner == null ? null : "F:" + owner + "#" + field.getName();
+        }
+        return null;
+    }
+
+    /**
+     * 在文件中查找标识对应的元素
+     *
+     * @param file 元素所在的文件
+     * @param key  元素标识
+     * @return 找到的元素，文件中已没有该元素时返回 null
+     */
+    @Nullable
+    static PsiElement find(@NotNull PsiFile file, @NotNull String key) {
+        if (!(file instanceof PsiJavaFile javaFile)) {
+            return null;
+        }
+        for (PsiClass psiClass : javaFile.getClasses()) {
+            PsiElement found = find(psiClass, key);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 在类及其内部类中查找标识对应的元素
+     */
+    @Nullable
+    private static PsiElement find(@NotNull PsiClass psiClass, @NotNull String key) {
+        if (key.equals(of(psiClass))) {
+            return psiClass;
+        }
+        String owner = psiClass.getQualifiedName();
+        if (owner == null) {
+            return null;
+        }
+        if (key.startsWith("M:" + owner + "#")) {
+            for (PsiMethod method : psiClass.getMethods()) {
+                if (key.equals(of(method))) {
+                    return method;
+                }
+            }
+        } else if (key.startsWith("F:" + owner + "#")) {
+            for (PsiField field : psiClass.getFields()) {
+                if (key.equals(of(field))) {
+                    return field;
+                }
+            }
+        }
+        for (PsiClass innerClass : psiClass.getInnerClasses()) {
+            PsiElement found = find(innerClass, key);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取成员所在类的全限定名
+     */
+    @Nullable
+    private static String ownerName(@Nullable PsiClass owner) {
+        return owner == null ? null : owner.getQualifiedName();
+    }
+}
@@ -0,0 +1,140 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import com.intellij.openapi.project.Project;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 项目的文档生成运行指标
+ *
+ * <p>记录项目当前（或最近一次）运行的任务总数、开始和结束时间，以及读取 {@link TaskExecutor}
+ * 计数器的方式，供生成指标工具窗口实时显示进度、队列深度和预计剩余时间。
+ * 各提供商的延迟、token 和重试统计见 {@link dev.dong4j.zeka.stack.idea.plugin.ai.ProviderMetrics}。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class GenerationMetrics {
+
+    /** 当前或最近一次运行，尚未运行过时为 null */
+    private volatile Run current;
+
+    /**
+     * 获取项目的运行指标
+     *
+     * @param project 项目对象
+     * @return 运行指标，项目没有该服务时返回 null
+     */
+    @Nullable
+    public static GenerationMetrics getInstance(@NotNull Project project) {
+        return project.getService(GenerationMetrics.class);
+    }
+
+    /**
+     * 开始记录一次运行
+     *
+     * @param totalTasks 任务总数
+     * @param statistics 读取执行器实时计数的方式
+     * @return 本次运行
+     */
+    @NotNull
+    public Run startRun(int totalTasks, @NotNull Supplier<TaskExecutor.TaskStatistics> statistics) {
+        Run run = new Run(totalTasks, statistics, System::currentTimeMillis);
+        current = run;
+        return run;
+    }
+
+    /**
+     * 获取当前或最近一次运行
+     *
+     * @return 运行，尚未运行过时返回 null
+     */
+    @Nullable
+    public Run getCurrentRun() {
+        return current;
+    }
+
+    /**
+     * 一次文档生成运行
+     */
+    public static final class Run {
+
+        /** 任务总数 */
+        private final int totalTasks;
+        /** 读取执行器实时计数的方式 */
+        private final Supplier<TaskExecutor.TaskStatistics> statistics;
+        /** 时钟 */
+        private final LongSupplier clock;
+        /** 开始时间（毫秒） */
+        private final long startedAt;
+        /** 结束时间（毫秒），运行中为 -1 */
+        private volatile long finishedAt = -1;
+
+        /**
+         * 创建运行
+         *
+         * @param totalTasks 任务总数
+         * @param statistics 读取执行器实时计数的方式
+         * @param clock      时钟，返回当前毫秒时间
+         */
+        Run(int totalTasks, @NotNull Supplier<TaskExecutor.TaskStatistics> statistics, @NotNull LongSupplier clock) {
+            this.totalTasks = totalTasks;
+            this.statistics = statistics;
+            this.clock = clock;
+            this.startedAt = clock.getAsLong();
+        }
+
+        /**
+         * 标记运行结束
+         */
+        public void finish() {
+            finishedAt = clock.getAsLong();
+        }
+
+        /**
+         * 获取运行快照
+         *
+         * @param inFlight 正在执行的请求数，用于计算排队中的任务数
+         * @return 运行快照
+         */
+        @NotNull
+        public Snapshot snapshot(int inFlight) {
+            TaskExecutor.TaskStatistics stats = statistics.get();
+            boolean running = finishedAt < 0;
+            long elapsed = (running ? clock.getAsLong() : finishedAt) - startedAt;
+            int done = stats.getTotal();
+            int remaining = Math.max(0, totalTasks - done);
+            int queued = running ? Math.max(0, remaining - inFlight) : 0;
+            long eta = running && done > 0 ? elapsed * remaining / done : -1;
+            return new Snapshot(totalTasks, stats.completed(), stats.failed(), stats.skipped(),
+                                queued, running, elapsed, eta);
+        }
+    }
+
+    /**
+     * 运行快照
+     *
+     * @param totalTasks    任务总数
+     * @param completed     完成数
+     * @param failed        失败数
+     * @param skipped       跳过数
+     * @param queued        排队中的任务数
+     * @param running       是否正在运行
+     * @param elapsedMillis 已用时间（毫秒）
+     * @param etaMillis     预计剩余时间（毫秒），无法估计或已结束时为 -1
+     */
+    public record Snapshot(int totalTasks,
+                           int completed,
+                           int failed,
+                           int skipped,
+                           int queued,
+                           boolean running,
+                           long elapsedMillis,
+                           long etaMillis) {
+    }
+}
@@ -0,0 +1,69 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vcs.FilePath;
+import com.intellij.openapi.vcs.VcsException;
+import com.intellij.openapi.vcs.changes.Change;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.vcsUtil.VcsUtil;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import git4idea.changes.GitChangeUtils;
+
+/**
+ * Git 仓库相对基准版本的变更
+ *
+ * <p>通过 Git 插件一次取得工作区与基准版本之间的全部变更（相当于 {@code git diff <base> -- <paths>}），
+ * 变更的 before 版本即基准版本中的内容，不需要逐个文件读取。不包含未纳入版本控制的文件。
+ *
+ * <p>引用了 Git 插件的类，只应在文件所属的 VCS 为 Git 时调用，此时 Git 插件必然已加载；
+ * 插件通过可选依赖声明 Git 插件，未安装 Git 插件时不会加载此类。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @see ChangedCodeDetector
+ * @since 1.0.0
+ */
+final class GitChanges {
+
+    /** Git 的 VCS 名称，与 {@code GitVcs.NAME} 相同 */
+    static final String VCS_NAME = "Git";
+
+    /**
+     * 工具类
+     */
+    private GitChanges() {
+    }
+
+    /**
+     * 列出仓库中的路径自基准版本以来的变更
+     *
+     * @param project      项目对象
+     * @param root         仓库根目录
+     * @param paths        限定的路径（文件或目录），为 null 时列出整个仓库的变更
+     * @param baseRevision 基准版本，如 {@code origin/main} 或提交哈希
+     * @return 变更列表，before 为基准版本中的内容（新增的文件为 null），after 为工作区中的内容
+     * @throws VcsException 基准版本无法解析或 git 命令执行失败时抛出
+     */
+    @NotNull
+    static Collection<Change> since(@NotNull Project project,
+                                    @NotNull VirtualFile root,
+                                    @Nullable List<VirtualFile> paths,
+                                    @NotNull String baseRevision) throws VcsException {
+        List<FilePath> filePaths = null;
+        if (paths != null) {
+            filePaths = new ArrayList<>(paths.size());
+            for (VirtualFile path : paths) {
+                filePaths.add(VcsUtil.getFilePath(path));
+            }
+        }
+        Collection<Change> changes = GitChangeUtils.getDiffWithWorkingTree(project, root, baseRevision, filePaths, false);
+        return changes == null ? List.of() : changes;
+    }
+}
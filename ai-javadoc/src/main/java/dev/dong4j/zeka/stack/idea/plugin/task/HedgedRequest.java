@@ -0,0 +1,176 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 对冲请求
+ *
+ * <p>先发出主请求，超过指定时间仍未返回时向备用提供商再发出一个相同的请求，
+ * 两者中先成功返回的结果生效，另一个请求随即取消。用于交互式生成时削减偶发的长尾延迟。
+ * 调用方需要知道结果由哪个请求返回时（例如按实际应答的提供商写入缓存），可以传入对冲请求胜出时的回调。
+ *
+ * <p>失败处理：
+ * <ul>
+ *   <li>主请求在对冲之前失败时直接失败，不再发出对冲请求</li>
+ *   <li>已发出对冲请求时，只有两个请求都失败才失败，异常取最先失败的请求的异常</li>
+ * </ul>
+ *
+ * <p>最终结果完成（包括被调用方取消）后，仍在执行的请求都会被取消。请求需要支持取消传递，
+ * 例如 {@link dev.dong4j.zeka.stack.idea.plugin.ai.AIServiceProvider#generateDocumentationAsync} 在取消时
+ * 中止 HTTP 请求和尚未开始的重试，落后的一方不再消耗 token 和限流额度，也不计入延迟统计。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @see TaskExecutor
+ * @since 1.0.0
+ */
+final class HedgedRequest {
+
+    /** 最终结果 */
+    private final CompletableFuture<String> result = new CompletableFuture<>();
+    /** 已发出的请求，第一个为主请求 */
+    private final List<CompletableFuture<String>> attempts = new ArrayList<>(2);
+    /** 已发出或即将发出的请求数 */
+    private int launched;
+    /** 已失败的请求数 */
+    private int failures;
+    /** 第一个失败的异常 */
+    private Throwable firstError;
+    /** 对冲请求的结果生效时调用，在最终结果完成之前执行 */
+    private Runnable onHedgeWon;
+
+    /**
+     * 工具类，通过 {@link #start} 创建
+     */
+    private HedgedRequest() {
+    }
+
+    /**
+     * 发出对冲请求
+     *
+     * @param primary     发出主请求
+     * @param hedge       发出对冲请求
+     * @param delayMillis 主请求超过该时间仍未返回时发出对冲请求
+     * @return 先成功返回的结果，失败时以对应的异常完成
+     */
+    @NotNull
+    static CompletableFuture<String> start(@NotNull Supplier<CompletableFuture<String>> primary,
+                                           @NotNull Supplier<CompletableFuture<String>> hedge,
+                                           long delayMillis) {
+        return start(primary, hedge, delayMillis, () -> { });
+    }
+
+    /**
+     * 发出对冲请求，对冲请求的结果生效时通知调用方
+     *
+     * @param primary     发出主请求
+     * @param hedge       发出对冲请求
+     * @param delayMillis 主请求超过该时间仍未返回时发出对冲请求
+     * @param onHedgeWon  对冲请求先成功返回时调用，调用发生在最终结果完成之前
+     * @return 先成功返回的结果，失败时以对应的异常完成
+     */
+    @NotNull
+    static CompletableFuture<String> start(@NotNull Supplier<CompletableFuture<String>> primary,
+                                           @NotNull Supplier<CompletableFuture<String>> hedge,
+                                           long delayMillis,
+                                           @NotNull Runnable onHedgeWon) {
+        HedgedRequest request = new HedgedRequest();
+        request.onHedgeWon = onHedgeWon;
+        request.launched = 1;
+        request.result.whenComplete((documentation, error) -> request.cancelPending());
+        request.launch(primary);
+        CompletableFuture.delayedExecutor(Math.max(0, delayMillis), TimeUnit.MILLISECONDS)
+            .execute(() -> request.launchHedge(hedge));
+        return request.result;
+    }
+
+    /**
+     * 主请求仍未返回时发出对冲请求
+     */
+    private void launchHedge(@NotNull Supplier<CompletableFuture<String>> hedge) {
+        synchronized (this) {
+            if (result.isDone()) {
+                return;
+            }
+            launched++;
+        }
+        launch(hedge);
+    }
+
+    /**
+     * 发出一个请求并在完成时汇总结果
+     */
+    private void launch(@NotNull Supplier<CompletableFuture<String>> request) {
+        CompletableFuture<String> attempt;
+        try {
+            attempt = request.get();
+        } catch (Exception e) {
+            attempt = CompletableFuture.failedFuture(e);
+        }
+        boolean finished;
+        boolean hedged;
+        synchronized (this) {
+            hedged = !attempts.isEmpty();
+            attempts.add(attempt);
+            finished = result.isDone();
+        }
+        if (finished) {
+            // 发出期间其他请求已经成功
+            attempt.cancel(true);
+            return;
+        }
+        attempt.whenComplete((documentation, error) -> onComplete(hedged, documentation, error));
+    }
+
+    /**
+     * 处理单个请求的结果
+     *
+     * @param hedged 是否为对冲请求
+     */
+    private void onComplete(boolean hedged, String documentation, Throwable error) {
+        synchronized (this) {
+            if (result.isDone()) {
+                return;
+            }
+            if (error != null) {
+                failures++;
+                if (firstError == null) {
+                    firstError = error instanceof CompletionException && error.getCause() != null
+                                 ? error.getCause() : error;
+                }
+                // 仍有请求在执行时等待其结果
+                if (failures < launched) {
+                    return;
+                }
+                result.completeExceptionally(firstError);
+                return;
+            }
+            if (hedged) {
+                onHedgeWon.run();
+            }
+            result.complete(documentation);
+        }
+    }
+
+    /**
+     * 取消仍在执行的请求
+     */
+    private void cancelPending() {
+        List<CompletableFuture<String>> pending;
+        synchronized (this) {
+            pending = new ArrayList<>(attempts);
+        }
+        for (CompletableFuture<String> attempt : pending) {
+            if (!attempt.isDone()) {
+                attempt.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.GeneratedSourcesFilter;
+import com.intellij.openapi.roots.JavaProjectRootsUtil;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.FileSystems;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Java 文件枚举器
+ *
+ * <p>为目录收集列出其中需要生成文档的 Java 文件。优先使用项目文件索引遍历，
+ * 排除目录、被忽略的文件和构建输出不会被访问，也不需要为大目录加载全部子文件。
+ *
+ * <p>过滤规则：
+ * <ul>
+ *   <li>只保留源码目录中的 Java 文件，可选择是否包含测试源码目录</li>
+ *   <li>跳过生成代码目录（标记为 generated 的源码目录和注解处理器等生成的源码）</li>
+ *   <li>跳过匹配用户排除规则的文件，规则为相对于内容根目录的 glob，如 <code>**&#47;generated/**</code></li>
+ * </ul>
+ *
+ * <p>目录不在项目内容中（或项目没有文件索引）时，退回到直接遍历目录，只应用扩展名和排除规则。
+ *
+ * <p>结果按模块分组，不同模块的文件可以并发处理。需要在读操作中调用。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @see TaskCollector#collectFromDirectory(VirtualFile)
+ * @since 1.0.0
+ */
+@Slf4j
+final class JavaFileEnumerator {
+
+    /** 项目对象 */
+    private final Project project;
+    /** 是否包含测试源码目录 */
+    private final boolean includeTestSources;
+    /** 排除规则 */
+    private final List<PathMatcher> exclusions;
+
+    /**
+     * 创建 Java 文件枚举器
+     *
+     * @param project              项目对象
+     * @param includeTestSources   是否包含测试源码目录
+     * @param excludedPathPatterns 排除规则，以逗号或换行分隔的 glob
+     */
+    JavaFileEnumerator(@NotNull Project project, boolean includeTestSources, @Nullable String excludedPathPatterns) {
+        this.project = project;
+        this.includeTestSources = includeTestSources;
+        this.exclusions = parsePatterns(excludedPathPatterns);
+    }
+
+    /**
+     * 列出目录下需要处理的 Java 文件，按模块分组
+     *
+     * @param directory 目录
+     * @return 各模块的文件列表，按首次遇到的顺序排列；没有文件时返回空列表
+     */
+    @NotNull
+    List<List<VirtualFile>> enumerate(@NotNull VirtualFile directory) {
+        if (!directory.isDirectory()) {
+            return new ArrayList<>();
+        }
+
+        ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+        if (fileIndex == null || !fileIndex.isInContent(directory)) {
+            List<VirtualFile> files = new ArrayList<>();
+            walk(directory, directory, files);
+            List<List<VirtualFile>> groups = new ArrayList<>();
+            if (!files.isEmpty()) {
+                groups.add(files);
+            }
+            return groups;
+        }
+
+        Map<Module, List<VirtualFile>> filesByModule = new LinkedHashMap<>();
+        fileIndex.iterateContentUnderDirectory(directory, file -> {
+            ProgressManager.checkCanceled();
+            if (!file.isDirectory() && accept(fileIndex, file)) {
+                filesByModule.computeIfAbsent(fileIndex.getModuleForFile(file), module -> new ArrayList<>()).add(file);
+            }
+            return true;
+        }, file -> !file.isDirectory() || !JavaProjectRootsUtil.isInGeneratedCode(file, project));
+        return new ArrayList<>(filesByModule.values());
+    }
+
+    /**
+     * 判断索引中的文件是否需要处理
+     *
+     * @param fileIndex 项目文件索引
+     * @param file      文件
+     * @return 需要处理时返回 true
+     */
+    private boolean accept(@NotNull ProjectFileIndex fileIndex, @NotNull VirtualFile file) {
+        if (!isJavaFile(file) || !fileIndex.isInSourceContent(file)) {
+            return false;
+        }
+        if (!includeTestSources && fileIndex.isInTestSourceContent(file)) {
+            return false;
+        }
+        if (GeneratedSourcesFilter.isGeneratedSourceByAnyFilter(file, project)) {
+            return false;
+        }
+        VirtualFile contentRoot = fileIndex.getContentRootForFile(file);
+        return !isExcluded(contentRoot == null ? null : VfsUtilCore.getRelativePath(file, contentRoot), file);
+    }
+
+    /**
+     * 直接遍历不在项目内容中的目录
+     *
+     * @param root      遍历的起始目录，排除规则相对于它匹配
+     * @param directory 当前目录
+     * @param files     收集到的文件
+     */
+    private void walk(@NotNull VirtualFile root, @NotNull VirtualFile directory, @NotNull List<VirtualFile> files) {
+        for (VirtualFile child : directory.getChildren()) {
+            ProgressManager.checkCanceled();
+            if (child.isDirectory()) {
+                walk(root, child, files);
+            } else if (isJavaFile(child) && !isExcluded(VfsUtilCore.getRelativePath(child, root), child)) {
+                files.add(child);
+            }
+        }
+    }
+
+    /**
+     * 判断文件是否匹配排除规则
+     *
+     * @param relativePath 相对于内容根目录的路径，无法确定时为 null
+     * @param file         文件
+     * @return 匹配任一排除规则时返回 true
+     */
+    private boolean isExcluded(@Nullable String relativePath, @NotNull VirtualFile file) {
+        if (exclusions.isEmpty()) {
+            return false;
+        }
+        return matches(exclusions, relativePath != null ? relativePath : file.getPath());
+    }
+
+    /**
+     * 判断路径是否匹配任一规则
+     *
+     * @param matchers 规则
+     * @param path     以 {@code /} 分隔的路径
+     * @return 匹配时返回 true
+     */
+    static boolean matches(@NotNull List<PathMatcher> matchers, @NotNull String path) {
+        Path candidate;
+        try {
+            candidate = Path.of(path);
+        } catch (InvalidPathException e) {
+            return false;
+        }
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 解析排除规则
+     *
+     * <p>规则以逗号或换行分隔，忽略空白规则和语法错误的规则。
+     *
+     * @param patterns 排除规则文本
+     * @return 规则列表
+     */
+    @NotNull
+    static List<PathMatcher> parsePatterns(@Nullable String patterns) {
+        List<PathMatcher> matchers = new ArrayList<>();
+        if (patterns == null || patterns.isBlank()) {
+            return matchers;
+        }
+        for (String pattern : patterns.split("[,\\n]")) {
+            String glob = pattern.trim();
+            if (glob.isEmpty()) {
+                continue;
+            }
+            try {
+                matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + glob));
+            } catch (PatternSyntaxException e) {
+                log.warn("忽略无效的排除规则: {} - {}", glob, e.getMessage());
+            }
+        }
+        return matchers;
+    }
+
+    /**
+     * 判断是否为 Java 文件
+     */
+    private static boolean isJavaFile(@NotNull VirtualFile file) {
+        return "java".equalsIgnoreCase(file.getExtension());
+    }
+}
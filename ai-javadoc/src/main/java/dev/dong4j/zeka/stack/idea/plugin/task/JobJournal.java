@@ -0,0 +1,469 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.psi.PsiElement;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 文档生成任务日志
+ *
+ * <p>每次运行在 IDE 系统目录下按项目记录一个只追加写入的日志文件，记录每个任务的元素标识、
+ * 代码摘要、状态和生成的文档。IDE 重启或用户中途取消后，"继续上次运行"从最近一次的日志恢复：
+ * 已写入或跳过的任务不再处理，已生成但尚未写入的文档直接写入，不再请求 AI 服务。
+ *
+ * <p>日志格式（UTF-8 文本，每行一条记录，字段以空格分隔，文本字段为 Base64 编码）：
+ * <ul>
+ *   <li><code>AIJ1 时间戳</code>：文件头</li>
+ *   <li><code>T 编号 任务类型 文件路径 元素标识</code>：任务登记</li>
+ *   <li><code>G 编号 代码摘要 文档</code>：文档已生成，代码摘要为生成时元素代码的摘要</li>
+ *   <li><code>I 编号</code>：文档已写入源代码</li>
+ *   <li><code>S 编号 FAILED|SKIPPED</code>：任务失败或跳过</li>
+ * </ul>
+ *
+ * <p>每条记录写入后立即刷新，进程异常退出最多丢失最后一条不完整的记录，读取时忽略格式错误的行。
+ * 每个项目只保留最近 {@value #KEEP_RUNS} 次运行的日志。
+ *
+ * <p>所有方法线程安全，IO 错误只记录日志，日志不可用时不影响文档生成。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @see TaskCollector#collectFromJournal(List)
+ * @since 1.0.0
+ */
+@Slf4j
+public final class JobJournal {
+
+    /** 日志文件头 */
+    static final String HEADER = "AIJ1";
+    /** 日志文件扩展名 */
+    static final String EXTENSION = ".journal";
+    /** 每个项目保留的运行日志数 */
+    static final int KEEP_RUNS = 3;
+    /** 登记任务时每个读操作处理的任务数 */
+    static final int REGISTER_BATCH = 100;
+
+    /** 日志文件路径 */
+    private final Path file;
+    /** 已登记任务的编号 */
+    private final Map<DocumentationTask, Integer> ids = new IdentityHashMap<>();
+    /** 日志输出，未打开、已关闭或不可用时为 null */
+    private BufferedWriter out;
+
+    /**
+     * 任务状态
+     */
+    public enum State {
+        /** 已登记，尚未生成文档 */
+        PENDING,
+        /** 文档已生成，尚未写入 */
+        GENERATED,
+        /** 文档已写入源代码 */
+        INSERTED,
+        /** 生成失败 */
+        FAILED,
+        /** 任务被跳过 */
+        SKIPPED
+    }
+
+    /**
+     * 日志中的任务记录
+     *
+     * @param type          任务类型
+     * @param filePath      文件路径
+     * @param elementKey    元素标识，见 {@link ElementKey}
+     * @param contentHash   生成文档时元素代码的摘要，尚未生成时为 null
+     * @param documentation 已生成的文档，尚未生成时为 null
+     * @param state         任务状态
+     */
+    public record Entry(DocumentationTask.TaskType type,
+                        String filePath,
+                        String elementKey,
+                        String contentHash,
+                        String documentation,
+                        State state) {
+
+        /**
+         * 返回状态和文档更新后的记录
+         */
+        Entry with(@NotNull State newState, @Nullable String newDocumentation) {
+            return with(newState, contentHash, newDocumentation);
+        }
+
+        /**
+         * 返回状态、代码摘要和文档更新后的记录
+         */
+        Entry with(@NotNull State newState, @Nullable String newContentHash, @Nullable String newDocumentation) {
+            return new Entry(type, filePath, elementKey, newContentHash, newDocumentation, newState);
+        }
+    }
+
+    /**
+     * 创建日志
+     *
+     * @param file 日志文件路径
+     */
+    JobJournal(@NotNull Path file) {
+        this.file = file;
+    }
+
+    /**
+     * 为一次运行创建日志并登记全部任务
+     *
+     * <p>每 {@value #REGISTER_BATCH} 个任务在一个较短的读操作中计算元素标识，期间不会长时间阻塞写操作；
+     * 没有稳定标识的任务不登记，也不会被恢复。代码摘要不在登记时计算，而是在提取代码时一并计算
+     * （见 {@link DocumentationTask#getContentHash()}），随生成的文档一起记录。
+     *
+     * @param project 项目对象
+     * @param tasks   本次运行的全部任务
+     * @return 日志，无法创建时返回 null
+     */
+    @Nullable
+    public static JobJournal start(@NotNull Project project, @NotNull List<DocumentationTask> tasks) {
+        Path directory = directory(project);
+        if (directory == null) {
+            return null;
+        }
+        JobJournal journal = new JobJournal(directory.resolve("run-" + System.currentTimeMillis() + EXTENSION));
+        if (!journal.open()) {
+            return null;
+        }
+        for (int from = 0; from < tasks.size(); from += REGISTER_BATCH) {
+            List<DocumentationTask> batch = tasks.subList(from, Math.min(tasks.size(), from + REGISTER_BATCH));
+            ApplicationManager.getApplication().runReadAction((Computable<Void>) () -> {
+                for (DocumentationTask task : batch) {
+                    PsiElement element = task.getElement();
+                    if (element == null || !element.isValid()) {
+                        continue;
+                    }
+                    String key = ElementKey.of(element);
+                    if (key != null) {
+                        journal.register(task, key);
+                    }
+                }
+                return null;
+            });
+        }
+        prune(directory);
+        return journal;
+    }
+
+    /**
+     * 读取项目最近一次运行的日志
+     *
+     * @param project 项目对象
+     * @return 日志中的任务记录，按登记顺序排列；没有日志时返回空列表
+     */
+    @NotNull
+    public static List<Entry> loadLatest(@NotNull Project project) {
+        Path directory = directory(project);
+        if (directory == null) {
+            return new ArrayList<>();
+        }
+        List<Path> runs = listRuns(directory);
+        return runs.isEmpty() ? new ArrayList<>() : load(runs.get(0));
+    }
+
+    /**
+     * 计算元素代码的摘要
+     *
+     * <p>与文档缓存键使用相同的规范化，忽略缩进和换行符的差异。
+     *
+     * @param code 元素代码
+     * @return 十六进制的 SHA-256 摘要
+     */
+    @NotNull
+    public static String contentHash(@NotNull String code) {
+        return DocumentationCache.key(code, "");
+    }
+
+    /**
+     * 打开日志文件并写入文件头
+     *
+     * @return 打开成功时返回 true
+     */
+    synchronized boolean open() {
+        try {
+            Files.createDirectories(file.getParent());
+            out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                                          StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                          StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            log.warn("无法创建任务日志: {}", file, e);
+            return false;
+        }
+        write(HEADER + " " + System.currentTimeMillis());
+        return out != null;
+    }
+
+    /**
+     * 登记任务
+     *
+     * @param task       文档生成任务
+     * @param elementKey 元素标识
+     */
+    synchronized void register(@NotNull DocumentationTask task, @NotNull String elementKey) {
+        int id = ids.size();
+        ids.put(task, id);
+        write("T " + id + " " + task.getType().name() + " " + encode(task.getFilePath()) + " " + encode(elementKey));
+    }
+
+    /**
+     * 记录任务已生成的文档
+     *
+     * <p>代码摘要取自任务提取代码时计算的结果，元素已失效、无法计算摘要时不记录。
+     *
+     * @param task          文档生成任务
+     * @param documentation 生成的文档内容
+     */
+    public void recordGenerated(@NotNull DocumentationTask task, @NotNull String documentation) {
+        synchronized (this) {
+            if (!ids.containsKey(task)) {
+                return;
+            }
+        }
+        // 摘要尚未计算时需要进入读操作，不在持有锁时调用
+        String contentHash = task.getContentHash();
+        if (contentHash != null) {
+            recordGenerated(task, contentHash, documentation);
+        }
+    }
+
+    /**
+     * 记录任务已生成的文档
+     *
+     * @param task          文档生成任务
+     * @param contentHash   生成文档时元素代码的摘要
+     * @param documentation 生成的文档内容
+     */
+    synchronized void recordGenerated(@NotNull DocumentationTask task, @NotNull String contentHash,
+                                      @NotNull String documentation) {
+        Integer id = ids.get(task);
+        if (id != null) {
+            write("G " + id + " " + contentHash + " " + encode(documentation));
+        }
+    }
+
+    /**
+     * 记录任务的文档已写入源代码
+     *
+     * @param tasks 文档已写入的任务
+     */
+    public synchronized void recordInserted(@NotNull List<DocumentationTask> tasks) {
+        for (DocumentationTask task : tasks) {
+            Integer id = ids.get(task);
+            if (id != null) {
+                write("I " + id);
+            }
+        }
+    }
+
+    /**
+     * 记录运行结束时失败和跳过的任务
+     *
+     * <p>文档写入在事件调度线程中排队执行，日志在已排队的写入之后关闭，写入结果仍会被记录。
+     *
+     * @param tasks 本次运行的全部任务
+     */
+    public void finish(@NotNull List<DocumentationTask> tasks) {
+        synchronized (this) {
+            for (DocumentationTask task : tasks) {
+                Integer id = ids.get(task);
+                DocumentationTask.TaskStatus status = task.getStatus();
+                if (id != null && (status == DocumentationTask.TaskStatus.FAILED
+                                   || status == DocumentationTask.TaskStatus.SKIPPED)) {
+                    write("S " + id + " " + status.name());
+                }
+            }
+        }
+        ApplicationManager.getApplication().invokeLater(this::close);
+    }
+
+    /**
+     * 关闭日志文件
+     */
+    synchronized void close() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.debug("关闭任务日志失败: {}", file, e);
+        }
+        out = null;
+    }
+
+    /**
+     * 写入一条记录并立即刷新
+     *
+     * @param record 记录内容
+     */
+    private void write(@NotNull String record) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.write(record);
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            log.warn("写入任务日志失败，本次运行不再记录: {}", file, e);
+            close();
+        }
+    }
+
+    /**
+     * 读取日志文件
+     *
+     * @param file 日志文件路径
+     * @return 日志中的任务记录，按登记顺序排列
+     */
+    @NotNull
+    static List<Entry> load(@NotNull Path file) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("读取任务日志失败: {}", file, e);
+            return new ArrayList<>();
+        }
+        if (lines.isEmpty() || !lines.get(0).startsWith(HEADER + " ")) {
+            log.info("忽略无法识别的任务日志: {}", file);
+            return new ArrayList<>();
+        }
+
+        Map<Integer, Entry> entries = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            try {
+                apply(entries, line.split(" "));
+            } catch (IllegalArgumentException e) {
+                // 进程异常退出时最后一行可能不完整
+                log.debug("忽略格式错误的任务日志记录: {}", line);
+            }
+        }
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * 将一条记录应用到任务记录上
+     *
+     * @param entries 按编号索引的任务记录
+     * @param fields  记录的字段
+     * @throws IllegalArgumentException 记录格式错误时抛出
+     */
+    private static void apply(@NotNull Map<Integer, Entry> entries, @NotNull String[] fields) {
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("record too short");
+        }
+        int id = Integer.parseInt(fields[1]);
+        if ("T".equals(fields[0]) && fields.length == 5) {
+            entries.put(id, new Entry(DocumentationTask.TaskType.valueOf(fields[2]), decode(fields[3]),
+                                      decode(fields[4]), null, null, State.PENDING));
+            return;
+        }
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            throw new IllegalArgumentException("unknown task " + id);
+        }
+        if ("G".equals(fields[0]) && fields.length == 4) {
+            entries.put(id, entry.with(State.GENERATED, fields[2], decode(fields[3])));
+        } else if ("I".equals(fields[0]) && fields.length == 2) {
+            entries.put(id, entry.with(State.INSERTED, null));
+        } else if ("S".equals(fields[0]) && fields.length == 3) {
+            entries.put(id, entry.with(State.valueOf(fields[2]), null));
+        } else {
+            throw new IllegalArgumentException("unknown record " + fields[0]);
+        }
+    }
+
+    /**
+     * 获取项目的日志目录
+     *
+     * @param project 项目对象
+     * @return 日志目录，无法确定项目标识时返回 null
+     */
+    @Nullable
+    private static Path directory(@NotNull Project project) {
+        String locationHash = project.getLocationHash();
+        if (locationHash == null || PathManager.getSystemPath() == null) {
+            return null;
+        }
+        return Paths.get(PathManager.getSystemPath(), "ai-javadoc", "jobs", locationHash);
+    }
+
+    /**
+     * 列出目录中的运行日志，最近的在前
+     *
+     * @param directory 日志目录
+     * @return 日志文件列表
+     */
+    @NotNull
+    static List<Path> listRuns(@NotNull Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            // 文件名中的时间戳位数相同，按文件名倒序即为时间倒序
+            return files.filter(path -> path.getFileName().toString().endsWith(EXTENSION))
+                .sorted((a, b) -> b.getFileName().toString().compareTo(a.getFileName().toString()))
+                .toList();
+        } catch (IOException e) {
+            log.debug("列出任务日志失败: {}", directory, e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * 删除超出保留数量的旧日志
+     *
+     * @param directory 日志目录
+     */
+    static void prune(@NotNull Path directory) {
+        List<Path> runs = listRuns(directory);
+        for (Path run : runs.subList(Math.min(KEEP_RUNS, runs.size()), runs.size())) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException e) {
+                log.debug("删除旧任务日志失败: {}", run, e);
+            }
+        }
+    }
+
+    /**
+     * Base64 编码文本字段
+     */
+    private static String encode(@NotNull String text) {
+        return Base64.getEncoder().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码 Base64 文本字段
+     *
+     * @throws IllegalArgumentException 不是合法的 Base64 时抛出
+     */
+    private static String decode(@NotNull String text) {
+        return new String(Base64.getDecoder().decode(text), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,136 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDocCommentOwner;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMember;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.javadoc.PsiDocComment;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * 提示词模板的上下文变量
+ *
+ * <p>在收集任务时从 PSI 提取，与代码一起填入提示词模板中的命名变量：
+ * <ul>
+ *   <li>{@code {className}}：元素所在类的简单名称，类本身为其名称</li>
+ *   <li>{@code {signature}}：元素的声明（方法签名、字段声明或类声明），不含注释和方法体</li>
+ *   <li>{@code {packageName}}：所在文件的包名</li>
+ *   <li>{@code {existingDoc}}：元素已有的 JavaDoc 注释，没有时为空字符串</li>
+ * </ul>
+ *
+ * <p>另外记录成员所在类的声明 {@link #classDeclaration()}，按可缓存前缀组织提示词时作为类上下文，
+ * 放在同一个类的所有成员请求共享的前缀中。
+ *
+ * @param className        所在类的简单名称
+ * @param signature        元素声明
+ * @param packageName      包名
+ * @param existingDoc      已有的 JavaDoc 注释
+ * @param classDeclaration 成员所在类的声明，类本身为外部类的声明，顶层类为空字符串
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public record PromptContext(@NotNull String className,
+                            @NotNull String signature,
+                            @NotNull String packageName,
+                            @NotNull String existingDoc,
+                            @NotNull String classDeclaration) {
+
+    /** 没有上下文信息时使用的空上下文，所有变量均为空字符串 */
+    public static final PromptContext EMPTY = new PromptContext("", "", "", "", "");
+
+    /**
+     * 创建不含所在类声明的上下文
+     *
+     * @param className   所在类的简单名称
+     * @param signature   元素声明
+     * @param packageName 包名
+     * @param existingDoc 已有的 JavaDoc 注释
+     */
+    public PromptContext(@NotNull String className,
+                         @NotNull String signature,
+                         @NotNull String packageName,
+                         @NotNull String existingDoc) {
+        this(className, signature, packageName, existingDoc, "");
+    }
+
+    /**
+     * 从 PSI 元素提取上下文，需要在读操作中调用
+     *
+     * @param element PSI 元素，为 null 时返回 {@link #EMPTY}
+     * @return 上下文
+     */
+    @NotNull
+    public static PromptContext of(@Nullable PsiElement element) {
+        if (element == null) {
+            return EMPTY;
+        }
+        PsiFile file = element.getContainingFile();
+        String packageName = file instanceof PsiJavaFile javaFile ? javaFile.getPackageName() : null;
+
+        PsiClass owner = element instanceof PsiClass psiClass ? psiClass
+                         : element instanceof PsiMember member ? member.getContainingClass() : null;
+        String className = owner != null ? owner.getName() : null;
+
+        PsiDocComment docComment = element instanceof PsiDocCommentOwner docOwner ? docOwner.getDocComment() : null;
+        String existingDoc = docComment != null ? docComment.getText() : null;
+
+        PsiClass enclosing = element instanceof PsiMember member ? member.getContainingClass() : null;
+        String classDeclaration = enclosing != null ? signature(enclosing, enclosing.getDocComment()) : null;
+
+        return new PromptContext(nonNull(className), signature(element, docComment), nonNull(packageName),
+                                 nonNull(existingDoc), nonNull(classDeclaration));
+    }
+
+    /**
+     * 提取元素的声明
+     *
+     * <p>截取注释之后到方法体、类的左花括号或字段名为止的文本，并把连续空白合并为一个空格。
+     *
+     * @param element    PSI 元素
+     * @param docComment 元素的 JavaDoc 注释，可为 null
+     * @return 元素声明，无法确定时为空字符串
+     */
+    @NotNull
+    private static String signature(@NotNull PsiElement element, @Nullable PsiDocComment docComment) {
+        String text = element.getText();
+        TextRange range = element.getTextRange();
+        if (text == null || range == null) {
+            return "";
+        }
+        // 声明结束位置（绝对偏移），无法确定时取整个元素
+        int end = range.getEndOffset();
+        if (element instanceof PsiMethod method && method.getBody() != null) {
+            end = method.getBody().getTextRange().getStartOffset();
+        } else if (element instanceof PsiClass psiClass && psiClass.getLBrace() != null) {
+            end = psiClass.getLBrace().getTextRange().getStartOffset();
+        } else if (element instanceof PsiField field && field.getNameIdentifier() != null) {
+            end = field.getNameIdentifier().getTextRange().getEndOffset();
+        }
+        int from = docComment != null ? docComment.getTextRange().getEndOffset() - range.getStartOffset() : 0;
+        int to = end - range.getStartOffset();
+        if (from < 0 || to > text.length() || from > to) {
+            return "";
+        }
+        String declaration = text.substring(from, to).trim().replaceAll("\\s+", " ");
+        return declaration.endsWith(";") ? declaration.substring(0, declaration.length() - 1).trim() : declaration;
+    }
+
+    /**
+     * 将 null 转换为空字符串
+     *
+     * @param value 字符串，可为 null
+     * @return 原字符串，为 null 时返回空字符串
+     */
+    @NotNull
+    private static String nonNull(@Nullable String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,551 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import dev.dong4j.zeka.stack.idea.plugin.ai.AIServiceProvider;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 性能模式下的任务分发器
+ *
+ * <p>根据每个提供商观测到的延迟和错误率决定其可同时持有的在途任务数，
+ * 替代所有提供商从同一个索引无差别领取任务的方式。
+ *
+ * <p>分发策略：
+ * <ul>
+ *   <li>使用指数加权移动平均（EWMA）记录每个提供商的请求延迟和错误率</li>
+ *   <li>最快提供商可持有全部并发额度，较慢的提供商按延迟比例缩减，错误率越高额度越少</li>
+ *   <li>任务队列领取完毕后，空闲的提供商会接管明显超时的在途任务（落后任务），
+ *       同一任务最多同时存在两个副本</li>
+ *   <li>同一任务的多个副本中，最先成功返回的结果生效，其余结果被丢弃</li>
+ * </ul>
+ *
+ * <p>熔断与任务转移：
+ * <ul>
+ *   <li>每个提供商有一个熔断器，连续失败 {@value #FAILURE_THRESHOLD} 次后打开，打开期间不再领取任务；
+ *       只剩最后一个可用提供商时不会打开，保证任务始终有人处理</li>
+ *   <li>熔断器打开后，该提供商的在途任务立即允许被其他提供商接管，不必等待其重试耗尽</li>
+ *   <li>失败的任务如果还有未尝试过、且有工作线程在领取任务的可用提供商，重新入队由这些提供商处理，
+ *       而不是直接标记为失败；没有工作线程的提供商不会接收重新入队的任务，避免任务无人领取</li>
+ *   <li>打开一段时间后进入半开状态，只放行一个探测任务：成功则关闭熔断器，失败则重新打开并延长等待时间</li>
+ * </ul>
+ *
+ * <p>线程安全：所有状态变更在分发器锁内完成，锁内不执行任何网络或 PSI 操作。
+ * 使用 {@link ReentrantLock} 而不是对象监视器等待，避免虚拟线程在等待期间固定载体线程。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Slf4j
+public class ProviderDispatcher {
+
+    /** EWMA 平滑系数，越大越偏向最近的样本 */
+    private static final double EWMA_ALPHA = 0.3;
+    /** 在途时间超过所属提供商平均延迟的倍数后视为落后任务 */
+    private static final double STRAGGLER_FACTOR = 2.0;
+    /** 空闲工作线程等待新任务或落后任务的轮询间隔（毫秒） */
+    private static final long POLL_INTERVAL_MILLIS = 200;
+    /** 熔断器打开前允许的连续失败次数 */
+    static final int FAILURE_THRESHOLD = 3;
+    /** 熔断器首次打开的时长（毫秒），探测失败后逐次翻倍 */
+    private static final long OPEN_MILLIS = 10_000;
+    /** 熔断器打开的最长时长（毫秒） */
+    private static final long MAX_OPEN_MILLIS = 120_000;
+
+    /** 待分发的任务列表 */
+    private final List<DocumentationTask> tasks;
+    /** 每个提供商允许的最大在途任务数 */
+    private final int maxInFlight;
+    /** 进度指示器，用于感知用户取消 */
+    private final ProgressIndicator indicator;
+    /** 熔断器首次打开的时长（毫秒） */
+    private final long openMillis;
+    /** 各提供商的负载状态，按实例区分（同类型的多个配置各自统计） */
+    private final Map<AIServiceProvider, ProviderLoad> loads = new IdentityHashMap<>();
+    /** 正在执行的任务及其执行副本 */
+    private final Map<DocumentationTask, Attempt> running = new HashMap<>();
+    /** 已产生最终结果的任务 */
+    private final Set<DocumentationTask> resolved = new HashSet<>();
+    /** 失败后重新入队、等待其他提供商处理的任务 */
+    private final Deque<DocumentationTask> requeued = new ArrayDeque<>();
+    /** 任务已经失败过的提供商 */
+    private final Map<DocumentationTask, Set<ProviderLoad>> failedOn = new HashMap<>();
+    /** 所有任务都产生最终结果时完成 */
+    private final CompletableFuture<Void> allResolved = new CompletableFuture<>();
+    /** 保护分发状态的锁 */
+    private final ReentrantLock lock = new ReentrantLock();
+    /** 在途任务数变化或任务完成时发出信号 */
+    private final Condition changed = lock.newCondition();
+    /** 下一个待领取任务的索引 */
+    private int nextIndex;
+
+    /**
+     * 创建任务分发器
+     *
+     * @param tasks       待分发的任务列表
+     * @param providers   参与处理的提供商
+     * @param maxInFlight 每个提供商允许的最大在途任务数
+     * @param indicator   进度指示器
+     */
+    public ProviderDispatcher(@NotNull List<DocumentationTask> tasks,
+                              @NotNull List<AIServiceProvider> providers,
+                              int maxInFlight,
+                              @NotNull ProgressIndicator indicator) {
+        this(tasks, providers, maxInFlight, indicator, OPEN_MILLIS);
+    }
+
+    /**
+     * 创建任务分发器
+     *
+     * @param tasks       待分发的任务列表
+     * @param providers   参与处理的提供商
+     * @param maxInFlight 每个提供商允许的最大在途任务数
+     * @param indicator   进度指示器
+     * @param openMillis  熔断器首次打开的时长（毫秒）
+     */
+    ProviderDispatcher(@NotNull List<DocumentationTask> tasks,
+                       @NotNull List<AIServiceProvider> providers,
+                       int maxInFlight,
+                       @NotNull ProgressIndicator indicator,
+                       long openMillis) {
+        this.tasks = tasks;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.indicator = indicator;
+        this.openMillis = openMillis;
+        for (AIServiceProvider provider : providers) {
+            loads.put(provider, new ProviderLoad(provider.getProviderName()));
+        }
+        if (tasks.isEmpty()) {
+            allResolved.complete(null);
+        }
+    }
+
+    /**
+     * 登记提供商的一个工作线程开始领取任务
+     *
+     * <p>只有登记了工作线程的提供商才会接收其他提供商失败后重新入队的任务。
+     *
+     * @param provider 工作线程所属的提供商
+     * @see #workerStopped(AIServiceProvider)
+     */
+    public void workerStarted(@NotNull AIServiceProvider provider) {
+        lock.lock();
+        try {
+            loads.get(provider).workers++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 登记提供商的一个工作线程停止领取任务
+     *
+     * @param provider 工作线程所属的提供商
+     * @see #workerStarted(AIServiceProvider)
+     */
+    public void workerStopped(@NotNull AIServiceProvider provider) {
+        lock.lock();
+        try {
+            loads.get(provider).workers--;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 为指定提供商领取下一个任务
+     *
+     * <p>提供商的在途任务数达到其当前额度（熔断器打开时为 0）时阻塞等待；
+     * 优先领取其他提供商失败后重新入队的任务，任务队列领取完毕后尝试接管落后任务。
+     * 所有任务都已产生结果或用户取消时返回 null。
+     *
+     * @param provider 领取任务的提供商
+     * @return 下一个任务，没有更多任务时返回 null
+     */
+    @Nullable
+    public DocumentationTask next(@NotNull AIServiceProvider provider) {
+        lock.lock();
+        try {
+            return nextLocked(loads.get(provider));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 在持有锁的情况下领取下一个任务
+     */
+    @Nullable
+    private DocumentationTask nextLocked(@NotNull ProviderLoad load) {
+        while (!indicator.isCanceled() && resolved.size() < tasks.size()) {
+            if (load.state == BreakerState.OPEN && System.nanoTime() >= load.openUntilNanos) {
+                load.state = BreakerState.HALF_OPEN;
+                log.info("提供商 {} 熔断结束，发送探测请求", load.name);
+            }
+
+            if (load.inFlight < allowedInFlight(load)) {
+                DocumentationTask task = pollRequeued(load);
+                if (task == null && nextIndex < tasks.size()) {
+                    task = tasks.get(nextIndex++);
+                }
+                if (task != null) {
+                    running.put(task, new Attempt(load));
+                    load.inFlight++;
+                    return task;
+                }
+
+                DocumentationTask straggler = findStraggler(load);
+                if (straggler != null) {
+                    Attempt attempt = running.get(straggler);
+                    attempt.copies++;
+                    attempt.duplicated = true;
+                    load.inFlight++;
+                    log.debug("接管落后任务: {} (已耗时 {} ms)", straggler, attempt.elapsedMillis());
+                    return straggler;
+                }
+            }
+
+            try {
+                changed.await(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 上报任务执行结果
+     *
+     * <p>更新提供商的延迟、错误率和熔断器状态，并判断本次结果是否应该生效。
+     * 成功结果只有最先返回的副本生效；失败结果只有在没有其他副本仍在执行、
+     * 且没有其他可用提供商可以重试时才生效，否则任务重新入队。
+     *
+     * @param provider      执行任务的提供商
+     * @param task          任务
+     * @param latencyMillis 请求耗时（毫秒），未发起请求时传入负数
+     * @param success       是否成功
+     * @return 本次结果生效返回 true，调用方负责插入文档和更新计数；否则应丢弃结果
+     */
+    public boolean complete(@NotNull AIServiceProvider provider,
+                            @NotNull DocumentationTask task,
+                            long latencyMillis,
+                            boolean success) {
+        lock.lock();
+        try {
+            ProviderLoad load = loads.get(provider);
+            load.inFlight--;
+            if (latencyMillis >= 0) {
+                load.record(latencyMillis, success);
+                updateBreaker(load, success);
+            }
+            changed.signalAll();
+
+            Attempt attempt = running.get(task);
+            int remaining = attempt == null ? 0 : --attempt.copies;
+            if (resolved.contains(task)) {
+                return false;
+            }
+            if (!success) {
+                failedOn.computeIfAbsent(task, k -> new HashSet<>()).add(load);
+                if (remaining > 0 || requeue(task, load)) {
+                    return false;
+                }
+            }
+
+            resolved.add(task);
+            running.remove(task);
+            failedOn.remove(task);
+            if (resolved.size() >= tasks.size()) {
+                allResolved.complete(null);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取已产生最终结果的任务数
+     *
+     * @return 已完成的任务数
+     */
+    public int getResolvedCount() {
+        lock.lock();
+        try {
+            return resolved.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 所有任务都产生最终结果时完成的 Future
+     *
+     * <p>落后任务被接管后，原副本可能仍阻塞在网络请求中，
+     * 调用方可以据此提前结束整批处理而不必等待这些请求返回。
+     *
+     * @return 完成信号
+     */
+    @NotNull
+    public CompletableFuture<Void> whenAllResolved() {
+        return allResolved;
+    }
+
+    /**
+     * 计算提供商当前允许的在途任务数
+     *
+     * <p>额度 = 最大并发数 × (最快提供商延迟 / 本提供商延迟) × (1 - 错误率)，
+     * 结果限定在 [1, 最大并发数] 范围内。尚无延迟样本的提供商使用完整额度。
+     */
+    private int allowedInFlight(@NotNull ProviderLoad load) {
+        if (load.state == BreakerState.OPEN) {
+            return 0;
+        }
+        if (load.state == BreakerState.HALF_OPEN) {
+            return 1;
+        }
+        if (load.ewmaLatency <= 0) {
+            return maxInFlight;
+        }
+
+        double fastest = load.ewmaLatency;
+        for (ProviderLoad other : loads.values()) {
+            if (other.ewmaLatency > 0 && other.ewmaLatency < fastest) {
+                fastest = other.ewmaLatency;
+            }
+        }
+
+        double share = maxInFlight * (fastest / load.ewmaLatency) * (1.0 - load.ewmaErrorRate);
+        return (int) Math.max(1, Math.min(maxInFlight, Math.ceil(share)));
+    }
+
+    /**
+     * 查找可由指定提供商接管的落后任务
+     *
+     * <p>落后任务需满足：尚未被复制、不属于当前提供商、在途时间超过所属提供商平均延迟的
+     * {@value #STRAGGLER_FACTOR} 倍，且超过当前提供商自身的平均延迟。所属提供商熔断器已打开时不受时间限制。
+     * 当前提供商已经处理失败过的任务不会被接管。多个候选时选择在途时间最长的。
+     */
+    @Nullable
+    private DocumentationTask findStraggler(@NotNull ProviderLoad load) {
+        DocumentationTask candidate = null;
+        long longest = 0;
+        for (Map.Entry<DocumentationTask, Attempt> entry : running.entrySet()) {
+            Attempt attempt = entry.getValue();
+            if (attempt.duplicated || attempt.owner == load || hasFailedOn(entry.getKey(), load)) {
+                continue;
+            }
+
+            long elapsed = attempt.elapsedMillis();
+            double ownerLatency = attempt.owner.ewmaLatency > 0 ? attempt.owner.ewmaLatency : load.ewmaLatency;
+            boolean ownerDown = attempt.owner.state == BreakerState.OPEN;
+            if (!ownerDown
+                && (ownerLatency <= 0 || elapsed < STRAGGLER_FACTOR * ownerLatency || elapsed < load.ewmaLatency)) {
+                continue;
+            }
+
+            if (candidate == null || elapsed > longest) {
+                longest = elapsed;
+                candidate = entry.getKey();
+            }
+        }
+        return candidate;
+    }
+
+    /**
+     * 领取一个重新入队的任务
+     *
+     * <p>跳过当前提供商已经处理失败过的任务。
+     */
+    @Nullable
+    private DocumentationTask pollRequeued(@NotNull ProviderLoad load) {
+        Iterator<DocumentationTask> iterator = requeued.iterator();
+        while (iterator.hasNext()) {
+            DocumentationTask task = iterator.next();
+            if (!hasFailedOn(task, load)) {
+                iterator.remove();
+                return task;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 将失败的任务重新入队，交给尚未尝试过、且有工作线程在领取任务的可用提供商
+     *
+     * @param task   失败的任务
+     * @param failed 本次失败的提供商
+     * @return 存在可用提供商并已重新入队返回 true，否则返回 false，任务应标记为失败
+     */
+    private boolean requeue(@NotNull DocumentationTask task, @NotNull ProviderLoad failed) {
+        for (ProviderLoad other : loads.values()) {
+            if (other != failed && other.workers > 0 && other.state != BreakerState.OPEN && !hasFailedOn(task, other)) {
+                running.remove(task);
+                requeued.add(task);
+                log.info("任务在提供商 {} 上失败，重新入队: {}", failed.name, task);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断任务是否已在指定提供商上失败过
+     */
+    private boolean hasFailedOn(@NotNull DocumentationTask task, @NotNull ProviderLoad load) {
+        Set<ProviderLoad> failed = failedOn.get(task);
+        return failed != null && failed.contains(load);
+    }
+
+    /**
+     * 根据请求结果更新熔断器状态
+     *
+     * <p>成功时关闭熔断器；半开状态下探测失败时重新打开；关闭状态下连续失败达到阈值时打开，
+     * 但只剩这一个提供商未熔断时保持关闭。
+     */
+    private void updateBreaker(@NotNull ProviderLoad load, boolean success) {
+        if (success) {
+            if (load.state != BreakerState.CLOSED) {
+                log.info("提供商 {} 探测成功，恢复分发任务", load.name);
+            }
+            load.state = BreakerState.CLOSED;
+            load.consecutiveFailures = 0;
+            load.openCount = 0;
+            return;
+        }
+
+        load.consecutiveFailures++;
+        if (load.state == BreakerState.HALF_OPEN
+            || (load.state == BreakerState.CLOSED && load.consecutiveFailures >= FAILURE_THRESHOLD && hasOtherClosed(load))) {
+            long duration = Math.min(MAX_OPEN_MILLIS, openMillis << Math.min(load.openCount, 16));
+            load.openCount++;
+            load.openUntilNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(duration);
+            load.state = BreakerState.OPEN;
+            log.info("提供商 {} 连续失败 {} 次，暂停分发 {} ms", load.name, load.consecutiveFailures, duration);
+        }
+    }
+
+    /**
+     * 判断是否还有其他熔断器关闭的提供商
+     */
+    private boolean hasOtherClosed(@NotNull ProviderLoad load) {
+        for (ProviderLoad other : loads.values()) {
+            if (other != load && other.state == BreakerState.CLOSED) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 熔断器状态
+     */
+    private enum BreakerState {
+        /** 关闭，正常分发任务 */
+        CLOSED,
+        /** 打开，暂停分发任务 */
+        OPEN,
+        /** 半开，只放行一个探测任务 */
+        HALF_OPEN
+    }
+
+    /**
+     * 单个提供商的负载状态
+     */
+    private static final class ProviderLoad {
+        /** 提供商名称，用于日志 */
+        private final String name;
+        /** 熔断器状态 */
+        private BreakerState state = BreakerState.CLOSED;
+        /** 连续失败次数 */
+        private int consecutiveFailures;
+        /** 熔断器连续打开的次数，用于延长打开时长 */
+        private int openCount;
+        /** 熔断器打开的截止时间（纳秒） */
+        private long openUntilNanos;
+        /** 当前在途任务数 */
+        private int inFlight;
+        /** 正在领取任务的工作线程数 */
+        private int workers;
+        /** 请求延迟的 EWMA（毫秒），无样本时为 0 */
+        private double ewmaLatency;
+        /** 错误率的 EWMA，取值 0-1 */
+        private double ewmaErrorRate;
+
+        /**
+         * 创建负载状态
+         *
+         * @param name 提供商名称
+         */
+        private ProviderLoad(String name) {
+            this.name = name;
+        }
+
+        /**
+         * 记录一次请求结果
+         *
+         * @param latencyMillis 请求耗时
+         * @param success       是否成功
+         */
+        private void record(long latencyMillis, boolean success) {
+            if (success) {
+                ewmaLatency = ewmaLatency <= 0
+                              ? latencyMillis
+                              : EWMA_ALPHA * latencyMillis + (1 - EWMA_ALPHA) * ewmaLatency;
+            }
+            ewmaErrorRate = EWMA_ALPHA * (success ? 0.0 : 1.0) + (1 - EWMA_ALPHA) * ewmaErrorRate;
+        }
+    }
+
+    /**
+     * 任务的一次执行记录
+     */
+    private static final class Attempt {
+        /** 最初领取该任务的提供商 */
+        private final ProviderLoad owner;
+        /** 开始时间（纳秒） */
+        private final long startNanos = System.nanoTime();
+        /** 仍在执行的副本数 */
+        private int copies = 1;
+        /** 是否已被其他提供商复制执行 */
+        private boolean duplicated;
+
+        /**
+         * 创建执行记录
+         *
+         * @param owner 领取任务的提供商
+         */
+        private Attempt(@NotNull ProviderLoad owner) {
+            this.owner = owner;
+        }
+
+        /**
+         * 获取已在途的时间
+         *
+         * @return 在途时间（毫秒）
+         */
+        private long elapsedMillis() {
+            return (System.nanoTime() - startNanos) / 1_000_000;
+        }
+    }
+}
@@ -1,23 +1,35 @@
 package dev.dong4j.zeka.stack.idea.plugin.task;
 
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.JavaRecursiveElementVisitor;
 import com.intellij.psi.PsiAnnotation;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiDocCommentOwner;
+import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiJavaFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.PsiMethod;
+import com.intellij.psi.SmartPointerManager;
 import com.intellij.psi.javadoc.PsiDocComment;
 
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
 
@@ -41,9 +53,14 @@ import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
  *   <li>单个元素：只处理指定的元素</li>
  *   <li>类：处理类及其所有成员</li>
  *   <li>文件：处理文件中的所有类、方法、字段</li>
- *   <li>目录：递归处理目录中的所有 Java 文件</li>
+ *   <li>目录：处理目录中源码目录下的 Java 文件，跳过生成代码和排除的文件</li>
+ *   <li>变更：只处理与变更行相交的元素（增量模式）</li>
+ *   <li>任务日志：继续上次运行中尚未写入的元素</li>
  * </ul>
  *
+ * <p>需要在读操作中调用。每处理一个文件都会检查取消状态，在非阻塞读操作中运行时，
+ * 写操作可以随时打断收集。
+ *
  * @author dong4j
  * @version 1.0.0
  * @since 1.0.0
@@ -204,6 +221,19 @@ public class TaskCollector {
      */
     @NotNull
     public List<DocumentationTask> collectFromFile(@NotNull PsiFile psiFile) {
+        return collectFromFile(psiFile, element -> true);
+    }
+
+    /**
+     * 从 PSI 文件收集满足过滤条件的元素的任务
+     *
+     * @param psiFile PSI 文件对象
+     * @param filter  元素过滤条件，在配置检查之后判断
+     * @return 文档生成任务列表
+     * @see #collectFromFile(PsiFile)
+     */
+    @NotNull
+    private List<DocumentationTask> collectFromFile(@NotNull PsiFile psiFile, @NotNull Predicate<PsiElement> filter) {
         List<DocumentationTask> tasks = new ArrayList<>();
 
         if (!(psiFile instanceof PsiJavaFile)) {
@@ -222,7 +252,7 @@ public class TaskCollector {
             public void visitClass(@NotNull PsiClass aClass) {
                 super.visitClass(aClass);
 
-                if (settings.generateForClass && shouldGenerateForElement(aClass)) {
+                if (settings.generateForClass && shouldGenerateForElement(aClass) && filter.test(aClass)) {
                     tasks.add(createTask(aClass, DocumentationTask.TaskType.CLASS));
                 }
             }
@@ -238,7 +268,7 @@ public class TaskCollector {
             public void visitMethod(@NotNull PsiMethod method) {
                 super.visitMethod(method);
 
-                if (settings.generateForMethod && shouldGenerateForElement(method)) {
+                if (settings.generateForMethod && shouldGenerateForElement(method) && filter.test(method)) {
                     DocumentationTask.TaskType type = isTestMethod(method)
                                                       ? DocumentationTask.TaskType.TEST_METHOD
                                                       : DocumentationTask.TaskType.METHOD;
@@ -257,7 +287,7 @@ public class TaskCollector {
             public void visitField(@NotNull PsiField field) {
                 super.visitField(field);
 
-                if (settings.generateForField && shouldGenerateForElement(field)) {
+                if (settings.generateForField && shouldGenerateForElement(field) && filter.test(field)) {
                     tasks.add(createTask(field, DocumentationTask.TaskType.FIELD));
                 }
             }
@@ -289,6 +319,11 @@ public class TaskCollector {
      */
     @NotNull
     public List<DocumentationTask> collectFromVirtualFile(@NotNull VirtualFile virtualFile) {
+        ProgressManager.checkCanceled();
+        ProgressIndicator indicator = ProgressManager.getGlobalProgressIndicator();
+        if (indicator != null) {
+            indicator.setText2(virtualFile.getPath());
+        }
         PsiFile psiFile = PsiManager.getInstance(project).findFile(virtualFile);
         if (psiFile == null) {
             return new ArrayList<>();
@@ -297,50 +332,153 @@ public class TaskCollector {
     }
 
     /**
-     * 从目录递归收集任务
+     * 从目录收集任务
      *
-     * <p>递归遍历目录中的所有文件和子目录，
-     * 为其中的 Java 文件收集文档生成任务。
+     * <p>通过项目文件索引列出目录中需要处理的 Java 文件，为其收集文档生成任务。
      * 主要用于处理项目视图中的目录选择。
      *
      * <p>遍历策略：
      * <ul>
-     *   <li>递归处理子目录</li>
-     *   <li>只处理 Java 文件</li>
-     *   <li>合并所有文件的任务</li>
+     *   <li>只处理源码目录中的 Java 文件，测试源码目录由 {@link SettingsState#includeTestSources} 决定</li>
+     *   <li>跳过排除目录、生成代码目录和匹配 {@link SettingsState#excludedPathPatterns} 的文件</li>
+     *   <li>文件分布在多个模块中时，各模块的文件并发收集</li>
+     *   <li>按模块顺序合并所有文件的任务</li>
      * </ul>
      *
      * @param directory 虚拟目录对象
      * @return 文档生成任务列表
-     * @see #collectFromDirectoryRecursive(VirtualFile, List)
+     * @see JavaFileEnumerator
      */
     @NotNull
     public List<DocumentationTask> collectFromDirectory(@NotNull VirtualFile directory) {
+        JavaFileEnumerator enumerator = new JavaFileEnumerator(project,
+                                                               settings.includeTestSources,
+                                                               settings.excludedPathPatterns);
+        List<List<VirtualFile>> filesByModule = enumerator.enumerate(directory);
+
         List<DocumentationTask> tasks = new ArrayList<>();
-        collectFromDirectoryRecursive(directory, tasks);
+        if (filesByModule.size() <= 1) {
+            for (List<VirtualFile> files : filesByModule) {
+                collectFromVirtualFiles(files, tasks);
+            }
+            return tasks;
+        }
+
+        // 多个模块并发收集，调用线程持有读锁时工作线程同样在读操作中执行
+        AtomicReferenceArray<List<DocumentationTask>> results = new AtomicReferenceArray<>(filesByModule.size());
+        List<Integer> modules = IntStream.range(0, filesByModule.size()).boxed().toList();
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(modules, ProgressManager.getGlobalProgressIndicator(), index -> {
+            List<DocumentationTask> moduleTasks = new ArrayList<>();
+            collectFromVirtualFiles(filesByModule.get(index), moduleTasks);
+            results.set(index, moduleTasks);
+            return true;
+        });
+        for (int i = 0; i < results.length(); i++) {
+            tasks.addAll(results.get(i));
+        }
         return tasks;
     }
 
     /**
-     * 递归收集指定目录下的Java文件对应的文档任务
-     * <p>
-     * 该方法会递归遍历指定目录下的所有子目录和文件，对于每个Java文件，调用
-     * collectFromVirtualFile 方法收集文档任务，并将结果添加到任务列表中。
+     * 从变更的代码收集任务（增量模式）
+     *
+     * <p>只为文本范围与变更行相交的类、方法和字段创建任务，范围包括元素已有的 JavaDoc。
+     * 新增文件中的所有元素都会被收集。
      *
-     * @param directory 要收集的目录对象
-     * @param tasks     用于存储收集到的文档任务的列表
+     * @param changes 有变更的文件及其变更行
+     * @return 文档生成任务列表
+     * @see ChangedCodeDetector
      */
-    private void collectFromDirectoryRecursive(@NotNull VirtualFile directory,
-                                               @NotNull List<DocumentationTask> tasks) {
-        if (!directory.isDirectory()) {
-            return;
+    @NotNull
+    public List<DocumentationTask> collectFromChanges(@NotNull Map<VirtualFile, ChangedLines> changes) {
+        List<DocumentationTask> tasks = new ArrayList<>();
+        for (Map.Entry<VirtualFile, ChangedLines> entry : changes.entrySet()) {
+            ProgressManager.checkCanceled();
+            if (!entry.getKey().isValid()) {
+                continue;
+            }
+            PsiFile psiFile = PsiManager.getInstance(project).findFile(entry.getKey());
+            if (psiFile != null) {
+                tasks.addAll(collectFromChangedFile(psiFile, entry.getValue()));
+            }
         }
+        return tasks;
+    }
 
-        for (VirtualFile child : directory.getChildren()) {
-            if (child.isDirectory()) {
-                collectFromDirectoryRecursive(child, tasks);
-            } else if (isJavaFile(child)) {
-                tasks.addAll(collectFromVirtualFile(child));
+    /**
+     * 从单个文件的变更代码收集任务
+     *
+     * @param psiFile      PSI 文件对象
+     * @param changedLines 文件中的变更行
+     * @return 文档生成任务列表
+     */
+    @NotNull
+    public List<DocumentationTask> collectFromChangedFile(@NotNull PsiFile psiFile, @NotNull ChangedLines changedLines) {
+        if (changedLines.isAll()) {
+            return collectFromFile(psiFile);
+        }
+        Document document = PsiDocumentManager.getInstance(project).getDocument(psiFile);
+        if (document == null || changedLines.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return collectFromFile(psiFile, element -> {
+            TextRange range = element.getTextRange();
+            int firstLine = document.getLineNumber(range.getStartOffset());
+            int lastLine = document.getLineNumber(Math.max(range.getStartOffset(), range.getEndOffset() - 1));
+            return changedLines.intersects(firstLine, lastLine);
+        });
+    }
+
+    /**
+     * 从上次运行的任务日志收集任务
+     *
+     * <p>按元素标识在文件中重新定位元素，继续上次运行中尚未完成的部分：
+     * <ul>
+     *   <li>文档已写入或被跳过的任务不再收集</li>
+     *   <li>文档已生成且元素代码未变化的任务带上生成结果，执行时直接写入，不再请求 AI 服务</li>
+     *   <li>其他任务（未处理、失败或代码已变化）重新生成</li>
+     *   <li>文件或元素已不存在的任务被忽略</li>
+     * </ul>
+     *
+     * @param entries 任务日志中的任务记录
+     * @return 文档生成任务列表
+     * @see JobJournal#loadLatest(Project)
+     */
+    @NotNull
+    public List<DocumentationTask> collectFromJournal(@NotNull List<JobJournal.Entry> entries) {
+        List<DocumentationTask> tasks = new ArrayList<>();
+        for (JobJournal.Entry entry : entries) {
+            ProgressManager.checkCanceled();
+            if (entry.state() == JobJournal.State.INSERTED || entry.state() == JobJournal.State.SKIPPED) {
+                continue;
+            }
+            VirtualFile virtualFile = LocalFileSystem.getInstance().findFileByPath(entry.filePath());
+            PsiFile psiFile = virtualFile == null || !virtualFile.isValid()
+                              ? null : PsiManager.getInstance(project).findFile(virtualFile);
+            PsiElement element = psiFile == null ? null : ElementKey.find(psiFile, entry.elementKey());
+            if (element == null) {
+                continue;
+            }
+            DocumentationTask task = createTask(element, entry.type());
+            if (entry.state() == JobJournal.State.GENERATED
+                && JobJournal.contentHash(element.getText()).equals(entry.contentHash())) {
+                task.setResult(entry.documentation());
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    /**
+     * 依次收集多个文件中的任务
+     *
+     * @param files 虚拟文件列表
+     * @param tasks 用于存储收集到的文档任务的列表
+     */
+    private void collectFromVirtualFiles(@NotNull List<VirtualFile> files, @NotNull List<DocumentationTask> tasks) {
+        for (VirtualFile file : files) {
+            if (file.isValid()) {
+                tasks.addAll(collectFromVirtualFile(file));
             }
         }
     }
@@ -354,8 +492,9 @@ public class TaskCollector {
      *
      * <p>任务包含的信息：
      * <ul>
-     *   <li>PSI 元素：用于后续的文档插入</li>
-     *   <li>代码内容：包含现有注释，供 AI 分析</li>
+     *   <li>PSI 元素的智能指针：用于后续的文档插入，不阻止 PSI 树被回收</li>
+     *   <li>代码提取器：发送请求前才提取包含现有注释的代码，供 AI 分析</li>
+     *   <li>提示词上下文：与代码在同一次读操作中提取，填入提示词模板的命名变量</li>
      *   <li>任务类型：决定使用的 Prompt 模板</li>
      *   <li>文件路径：用于进度显示和日志记录</li>
      * </ul>
@@ -368,10 +507,16 @@ public class TaskCollector {
     @NotNull
     private DocumentationTask createTask(@NotNull PsiElement element,
                                          @NotNull DocumentationTask.TaskType type) {
-        // 获取代码，包含已有的 JavaDoc 注释
-        String code = getCodeWithComment(element);
         String filePath = element.getContainingFile().getVirtualFile().getPath();
-        return new DocumentationTask(element, code, type, filePath);
+        SmartPointerManager pointerManager = SmartPointerManager.getInstance(project);
+        if (pointerManager == null) {
+            // 无法创建智能指针时直接持有元素，并立即获取包含已有 JavaDoc 注释的代码和提示词上下文
+            String originalCode = element.getText();
+            return new DocumentationTask(element, getCodeWithComment(element, originalCode), type, filePath,
+                                         originalCode.length(), PromptContext.of(element));
+        }
+        return new DocumentationTask(pointerManager.createSmartPsiElementPointer(element), type, filePath,
+                                     target -> getCodeWithComment(target, target.getText()));
     }
 
     /**
@@ -383,6 +528,7 @@ public class TaskCollector {
      *
      * <p>对于类级别的代码，会进行优化以减少 token 消耗：
      * <ul>
+     *   <li>启用骨架压缩时，只保留类声明、字段、方法签名和成员注释首句，省略方法体</li>
      *   <li>删除多余的空格、注释和换行</li>
      *   <li>保留必要的空格以维持代码可读性</li>
      *   <li>如果优化后超过 1000 行，会进行截取</li>
@@ -396,16 +542,17 @@ public class TaskCollector {
      *   <li>优化 token 使用效率</li>
      * </ul>
      *
-     * @param element PSI 元素
+     * @param element      PSI 元素
+     * @param originalCode 元素的完整文本
      * @return 包含注释的完整代码
+     * @see ClassSkeletonBuilder
      */
     @NotNull
-    private String getCodeWithComment(@NotNull PsiElement element) {
-        String originalCode = element.getText();
-
+    private String getCodeWithComment(@NotNull PsiElement element, @NotNull String originalCode) {
         // 如果是类级别的代码且启用了优化，进行优化以减少 token 消耗
-        if (element instanceof PsiClass && settings.optimizeClassCode) {
-            return optimizeClassCode(originalCode);
+        if (element instanceof PsiClass psiClass && settings.optimizeClassCode) {
+            String skeleton = settings.classSkeleton ? ClassSkeletonBuilder.build(psiClass) : null;
+            return optimizeClassCode(skeleton != null ? skeleton : originalCode);
         }
 
         // 其他类型的代码直接返回
@@ -523,18 +670,5 @@ public class TaskCollector {
         PsiAnnotation junit5 = method.getModifierList().findAnnotation("org.junit.jupiter.api.Test");
         return junit4 != null || junit5 != null;
     }
-
-    /**
-     * 判断是否为 Java 文件
-     *
-     * <p>通过文件扩展名判断是否为 Java 文件。
-     * 不区分大小写，支持 .java 扩展名。
-     *
-     * @param file 虚拟文件对象
-     * @return 如果是 Java 文件返回 true，否则返回 false
-     */
-    private boolean isJavaFile(@NotNull VirtualFile file) {
-        return "java".equalsIgnoreCase(file.getExtension());
-    }
 }
 
@@ -1,39 +1,42 @@
 package dev.dong4j.zeka.stack.idea.plugin.task;
 
 import com.intellij.openapi.application.ApplicationManager;
-import com.intellij.openapi.command.CommandProcessor;
-import com.intellij.openapi.editor.Document;
-import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Computable;
-import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiDocCommentOwner;
-import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiField;
-import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiMethod;
-import com.intellij.psi.codeStyle.CodeStyleManager;
 import com.intellij.psi.javadoc.PsiDocComment;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import javax.swing.SwingUtilities;
 
 import dev.dong4j.zeka.stack.idea.plugin.ai.AIServiceException;
 import dev.dong4j.zeka.stack.idea.plugin.ai.AIServiceFactory;
 import dev.dong4j.zeka.stack.idea.plugin.ai.AIServiceProvider;
+import dev.dong4j.zeka.stack.idea.plugin.ai.ProviderLatencyTracker;
 import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
 import dev.dong4j.zeka.stack.idea.plugin.util.NotificationUtil;
 import lombok.Getter;
@@ -79,6 +82,9 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class TaskExecutor {
 
+    /** 启用对冲请求的最大任务数，批量生成时不对冲，避免成倍增加请求开销 */
+    static final int HEDGE_MAX_TASKS = 3;
+
     /** 项目对象，用于表示当前操作的项目上下文 */
     private final Project project;
     /** 进度指示器，用于显示任务执行进度 */
@@ -94,6 +100,14 @@ public class TaskExecutor {
     private final AtomicInteger failedCount = new AtomicInteger(0);
     /** 被跳过的记录数量 */
     private final AtomicInteger skippedCount = new AtomicInteger(0);
+    /** 本次运行的文档写入器，按文件合并写入生成结果 */
+    private DocumentationWriter writer;
+    /** 本次运行的任务日志，无法创建时为 null */
+    private JobJournal journal;
+    /** 文档缓存，未启用缓存时为 null */
+    private final DocumentationCache cache;
+    /** 对冲请求使用的备用提供商，本次运行不对冲时为 null */
+    private AIServiceProvider hedgeProvider;
 
     /**
      * 提供商统计信息
@@ -242,6 +256,7 @@ public class TaskExecutor {
         this.indicator = indicator;
         this.settings = SettingsState.getInstance();
         this.aiService = AIServiceFactory.createProvider(settings);
+        this.cache = settings.documentationCache ? DocumentationCache.getInstance() : null;
     }
 
     /**
@@ -288,14 +303,221 @@ public class TaskExecutor {
 
         log.info("开始处理 {} 个文档生成任务", totalTasks);
 
-        // 检查是否启用性能模式且任务数量大于5个
-        if (settings.performanceMode && totalTasks > 5) {
-            return processTasksInParallel(tasks);
-        } else {
-            return processTasksSequentially(tasks);
+        GenerationMetrics metrics = GenerationMetrics.getInstance(project);
+        GenerationMetrics.Run run = metrics == null ? null : metrics.startRun(totalTasks, this::getStatistics);
+        journal = JobJournal.start(project, tasks);
+        writer = new DocumentationWriter(project, settings, tasks, journal);
+        try {
+            // 先写入已有结果（继续上次运行）和缓存结果，打包模式下再合并处理小成员，剩余任务按原有模式处理
+            List<DocumentationTask> remaining = processPresetTasks(tasks);
+            if (cache != null && !remaining.isEmpty()) {
+                remaining = processCachedTasks(remaining);
+            }
+            if (settings.packedPrompts && !remaining.isEmpty()) {
+                remaining = processPackedTasks(remaining);
+            }
+            int remainingTasks = remaining.size();
+            if (remainingTasks == 0) {
+                indicator.setFraction(1.0);
+                indicator.setText("处理完成");
+                return true;
+            }
+            if (settings.hedgedRequests && remainingTasks <= HEDGE_MAX_TASKS) {
+                hedgeProvider = selectHedgeProvider();
+            }
+
+            // 检查是否启用性能模式且任务数量大于5个
+            if (settings.performanceMode && remainingTasks > 5) {
+                return processTasksInParallel(remaining);
+            } else if (getConcurrency() > 1 && remainingTasks > 1) {
+                return processTasksPipelined(remaining);
+            } else {
+                return processTasksSequentially(remaining);
+            }
+        } finally {
+            // 写入因取消等原因仍在缓存中的文档
+            writer.flushAll();
+            if (journal != null) {
+                journal.finish(tasks);
+            }
+            if (run != null) {
+                run.finish();
+            }
+            logClassCodeCompaction(tasks);
+        }
+    }
+
+    /**
+     * 写入已带有生成结果的任务
+     *
+     * <p>继续上次运行时，已生成但尚未写入的文档从任务日志恢复到任务结果中，
+     * 这些任务直接写入并计为完成，不再请求 AI 服务。
+     *
+     * @param tasks 任务列表
+     * @return 没有生成结果的任务，保持原有顺序
+     * @see TaskCollector#collectFromJournal(List)
+     */
+    private List<DocumentationTask> processPresetTasks(@NotNull List<DocumentationTask> tasks) {
+        List<DocumentationTask> remaining = new ArrayList<>();
+        for (DocumentationTask task : tasks) {
+            String documentation = task.getResult();
+            if (documentation == null) {
+                remaining.add(task);
+                continue;
+            }
+            recordGenerated(task, documentation);
+            writer.add(task, documentation);
+            task.setStatus(DocumentationTask.TaskStatus.COMPLETED);
+            completedCount.incrementAndGet();
+        }
+
+        int preset = tasks.size() - remaining.size();
+        if (preset > 0) {
+            log.info("写入上次运行已生成的 {} 条文档，剩余 {} 个任务需要处理", preset, remaining.size());
+        }
+        return remaining;
+    }
+
+    /**
+     * 在任务日志中记录生成的文档
+     *
+     * @param task          文档生成任务
+     * @param documentation 生成的文档内容
+     */
+    private void recordGenerated(@NotNull DocumentationTask task, @NotNull String documentation) {
+        if (journal != null) {
+            journal.recordGenerated(task, documentation);
         }
     }
 
+    /**
+     * 记录本次运行中类代码压缩前后的大小
+     *
+     * <p>统计代码经过优化或骨架压缩的任务，输出压缩前后的字符数和节省比例，
+     * 用于评估每次运行节省的 token。代码在发送请求前才提取，因此在运行结束后统计，
+     * 未提取过代码的任务不计入。
+     *
+     * @param tasks 任务列表
+     * @see DocumentationTask#getOriginalCodeLength()
+     */
+    private void logClassCodeCompaction(@NotNull List<DocumentationTask> tasks) {
+        int compacted = 0;
+        long before = 0;
+        long after = 0;
+        for (DocumentationTask task : tasks) {
+            if (task.getCodeLength() >= 0 && task.getOriginalCodeLength() > task.getCodeLength()) {
+                compacted++;
+                before += task.getOriginalCodeLength();
+                after += task.getCodeLength();
+            }
+        }
+        if (compacted > 0) {
+            log.info("类代码压缩：{} 个任务，{} 字符 → {} 字符，节省 {}%",
+                     compacted, before, after, (before - after) * 100 / before);
+        }
+    }
+
+    /**
+     * 使用缓存结果处理任务
+     *
+     * <p>以当前提供商的请求配置指纹查询 {@link DocumentationCache}，命中的任务直接写入缓存的文档并计为完成。
+     * 需要跳过的任务留给后续流程按原有逻辑处理。
+     *
+     * @param tasks 任务列表
+     * @return 未命中缓存的任务，保持原有顺序
+     * @see SettingsState#documentationCache
+     */
+    private List<DocumentationTask> processCachedTasks(@NotNull List<DocumentationTask> tasks) {
+        List<DocumentationTask> remaining = new ArrayList<>();
+        for (DocumentationTask task : tasks) {
+            if (indicator.isCanceled()) {
+                remaining.add(task);
+                continue;
+            }
+            String documentation = null;
+            try {
+                if (!shouldSkip(task)) {
+                    documentation = lookupCache(task, aiService);
+                }
+            } catch (Exception e) {
+                log.debug("查询文档缓存失败: {}", task, e);
+            }
+            if (documentation == null) {
+                // 计算缓存键提取的代码在发送请求前重新提取，避免所有任务的代码同时驻留
+                task.release();
+                remaining.add(task);
+                continue;
+            }
+            task.setResult(documentation);
+            recordGenerated(task, documentation);
+            writer.add(task, documentation);
+            task.setStatus(DocumentationTask.TaskStatus.COMPLETED);
+            completedCount.incrementAndGet();
+            writer.resolve(task);
+        }
+
+        int hits = tasks.size() - remaining.size();
+        if (hits > 0) {
+            log.info("文档缓存命中 {} 个任务，剩余 {} 个任务需要生成", hits, remaining.size());
+        }
+        return remaining;
+    }
+
+    /**
+     * 查询任务的缓存结果
+     *
+     * @param task     文档生成任务
+     * @param provider 生成文档使用的提供商
+     * @return 缓存的文档，未启用缓存、提供商不支持缓存或未命中时返回 null
+     */
+    private String lookupCache(@NotNull DocumentationTask task, @NotNull AIServiceProvider provider) {
+        String key = cacheKey(task, provider);
+        return key == null ? null : cache.get(key);
+    }
+
+    /**
+     * 缓存生成的文档
+     *
+     * @param task          文档生成任务
+     * @param provider      生成文档使用的提供商
+     * @param documentation 生成的文档内容
+     */
+    private void storeCache(@NotNull DocumentationTask task, @NotNull AIServiceProvider provider, @NotNull String documentation) {
+        try {
+            String key = cacheKey(task, provider);
+            if (key != null) {
+                cache.put(key, documentation);
+            }
+        } catch (Exception e) {
+            log.debug("写入文档缓存失败: {}", task, e);
+        }
+    }
+
+    /**
+     * 计算任务的缓存键
+     *
+     * @param task     文档生成任务
+     * @param provider 生成文档使用的提供商
+     * @return 缓存键，未启用缓存或提供商不支持缓存时返回 null
+     */
+    private String cacheKey(@NotNull DocumentationTask task, @NotNull AIServiceProvider provider) {
+        if (cache == null) {
+            return null;
+        }
+        String fingerprint = provider.getRequestFingerprint(task.getType(), "java", task.getPromptContext());
+        return fingerprint == null ? null : DocumentationCache.key(task.getCode(), fingerprint);
+    }
+
+    /**
+     * 获取单个提供商的并发请求数
+     *
+     * @return 并发请求数，最小为 1
+     * @see SettingsState#concurrency
+     */
+    private int getConcurrency() {
+        return Math.max(1, settings.concurrency);
+    }
+
     /**
      * 顺序处理任务（原有逻辑）
      */
@@ -328,8 +550,211 @@ public class TaskExecutor {
         return true;
     }
 
+    /**
+     * 流水线处理任务（单提供商并发）
+     *
+     * <p>通过 {@link AIServiceProvider#generateDocumentationAsync} 同时保持 {@link SettingsState#concurrency} 个
+     * 在途请求，在途请求不占用线程，由信号量限制数量。生成结果交给 {@link DocumentationWriter} 按文件合并后
+     * 异步写入事件调度线程，PSI 写入与网络等待因此相互重叠。
+     *
+     * @param tasks 任务列表
+     * @return 处理完成返回 true
+     */
+    private boolean processTasksPipelined(@NotNull List<DocumentationTask> tasks) {
+        int totalTasks = tasks.size();
+        int permits = Math.min(getConcurrency(), totalTasks);
+
+        log.info("流水线模式：使用 {} 个并发请求处理 {} 个任务", permits, totalTasks);
+
+        Semaphore inFlight = new Semaphore(permits);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        List<CompletableFuture<String>> generations = new ArrayList<>();
+
+        for (int i = 0; i < totalTasks && acquirePermit(inFlight); i++) {
+            DocumentationTask task = tasks.get(i);
+            updateProgress(task, i, totalTasks);
+            futures.add(processTaskAsync(task, generations::add).whenComplete((ignored, error) -> inFlight.release()));
+        }
+
+        // 等待已发出的请求全部完成，用户取消时中止在途请求
+        awaitPipeline(CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])), generations);
+
+        indicator.setFraction(1.0);
+        indicator.setText("处理完成");
+
+        log.info("流水线任务处理完成。成功: {}, 失败: {}, 跳过: {}",
+                 completedCount.get(), failedCount.get(), skippedCount.get());
+
+        return true;
+    }
+
+    /**
+     * 打包处理小成员任务
+     *
+     * <p>由 {@link TaskPacker} 把同一个类中的字段和短方法装箱，每个包通过
+     * {@link AIServiceProvider#generateDocumentationBatch} 一次请求生成，最多同时处理
+     * {@link SettingsState#concurrency} 个包。打包请求失败或响应中缺少某个成员的注释时，
+     * 对应成员留给后续的普通模式逐个生成。
+     *
+     * @param tasks 任务列表
+     * @return 仍需逐个处理的任务，保持原有顺序
+     * @see SettingsState#packedPrompts
+     */
+    private List<DocumentationTask> processPackedTasks(@NotNull List<DocumentationTask> tasks) {
+        List<List<DocumentationTask>> packs = TaskPacker.pack(tasks, settings.maxTokens);
+        if (packs.isEmpty()) {
+            return tasks;
+        }
+
+        Set<DocumentationTask> packed = Collections.newSetFromMap(new IdentityHashMap<>());
+        packs.forEach(packed::addAll);
+        log.info("打包模式：{} 个成员合并为 {} 个请求", packed.size(), packs.size());
+
+        Set<DocumentationTask> retry = ConcurrentHashMap.newKeySet();
+        int workers = Math.min(getConcurrency(), packs.size());
+        ExecutorService executor = WorkerExecutors.newRunExecutor(settings.virtualThreads, workers);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            AtomicInteger packIndex = new AtomicInteger(0);
+            for (int i = 0; i < workers; i++) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    int currentIndex;
+                    while (!indicator.isCanceled() && (currentIndex = packIndex.getAndIncrement()) < packs.size()) {
+                        List<DocumentationTask> pack = packs.get(currentIndex);
+                        updateProgress(pack.get(0), currentIndex, packs.size());
+                        retry.addAll(processPack(pack));
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } finally {
+            shutdownExecutor(executor);
+        }
+
+        List<DocumentationTask> remaining = new ArrayList<>();
+        for (DocumentationTask task : tasks) {
+            if (!packed.contains(task) || retry.contains(task)) {
+                remaining.add(task);
+            }
+        }
+        if (!retry.isEmpty()) {
+            log.info("打包请求中有 {} 个成员未生成注释，改为逐个生成", retry.size());
+        }
+        return remaining;
+    }
+
+    /**
+     * 处理一个打包的任务组
+     *
+     * @param pack 同一个类中的多个小成员任务
+     * @return 需要逐个重新生成的任务
+     */
+    private List<DocumentationTask> processPack(@NotNull List<DocumentationTask> pack) {
+        List<DocumentationTask> pending = new ArrayList<>();
+        for (DocumentationTask task : pack) {
+            try {
+                task.setStatus(DocumentationTask.TaskStatus.PROCESSING);
+                if (shouldSkip(task)) {
+                    task.setStatus(DocumentationTask.TaskStatus.SKIPPED);
+                    skippedCount.incrementAndGet();
+                    writer.resolve(task);
+                    continue;
+                }
+            } catch (Exception e) {
+                log.debug("检查任务是否跳过失败: {}", task, e);
+            }
+            pending.add(task);
+        }
+
+        List<String> results = List.of();
+        if (pending.size() > 1) {
+            try {
+                results = aiService.generateDocumentationBatch(pending, "java");
+            } catch (Exception e) {
+                log.info("打包请求失败，改为逐个生成 {} 个成员: {}", pending.size(), e.getMessage());
+            }
+        }
+
+        List<DocumentationTask> retry = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i++) {
+            DocumentationTask task = pending.get(i);
+            String documentation = i < results.size() ? results.get(i) : null;
+            if (documentation == null || documentation.trim().isEmpty()) {
+                task.setStatus(DocumentationTask.TaskStatus.PENDING);
+                retry.add(task);
+                continue;
+            }
+            try {
+                // 打包请求的提示词与单成员请求不同，结果不写入缓存
+                applyDocumentation(task, documentation, null);
+            } catch (Exception e) {
+                handleTaskFailure(task, e);
+            } finally {
+                writer.resolve(task);
+            }
+        }
+        return retry;
+    }
+
+    /**
+     * 等待流水线中已发出的任务全部处理完成，等待期间响应用户取消
+     *
+     * <p>用户取消时取消所有在途的生成请求（连同其重试和流式响应），被取消的任务立即按失败处理并交给
+     * {@link DocumentationWriter}，此后只需等待这些收尾回调完成，不再等待请求返回。
+     *
+     * @param all         所有任务处理完成时完成的 Future
+     * @param generations 已发出的生成请求
+     */
+    private void awaitPipeline(@NotNull CompletableFuture<Void> all, @NotNull List<CompletableFuture<String>> generations) {
+        try {
+            while (!indicator.isCanceled()) {
+                try {
+                    all.get(200, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (TimeoutException ignored) {
+                    // 继续等待，同时检查取消状态
+                }
+            }
+        } catch (ExecutionException e) {
+            // processTaskAsync 返回的 Future 不会以异常完成
+            log.debug("流水线任务异常结束", e);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        log.info("用户取消，中止 {} 个在途请求", generations.stream().filter(f -> !f.isDone()).count());
+        generations.forEach(generation -> generation.cancel(true));
+        all.join();
+    }
+
+    /**
+     * 获取一个在途请求许可，等待期间响应用户取消
+     *
+     * @param inFlight 在途请求信号量
+     * @return 获取成功返回 true，用户取消或线程被中断时返回 false
+     */
+    private boolean acquirePermit(@NotNull Semaphore inFlight) {
+        try {
+            while (!indicator.isCanceled()) {
+                if (inFlight.tryAcquire(200, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
     /**
      * 并行处理任务（性能模式）
+     *
+     * <p>每个可用提供商分配 {@link SettingsState#concurrency} 个工作线程，
+     * 由 {@link ProviderDispatcher} 根据各提供商的延迟和错误率控制其在途任务数，
+     * 并在队列领取完毕后把落后任务交给空闲的提供商重新执行。
+     * 连续失败的提供商会被熔断，其失败和在途的任务转移到其他可用提供商。
+     * 所有任务产生结果后立即结束，不再等待已被接管的原始请求返回。
      */
     private boolean processTasksInParallel(@NotNull List<DocumentationTask> tasks) {
         List<AIServiceProvider> availableProviders = AIServiceFactory.getAvailableProviders();
@@ -339,10 +764,13 @@ public class TaskExecutor {
             return processTasksSequentially(tasks);
         }
 
-        log.info("性能模式：使用 {} 个提供商并行处理 {} 个任务", availableProviders.size(), tasks.size());
+        int concurrency = getConcurrency();
+        log.info("性能模式：使用 {} 个提供商并行处理 {} 个任务，每个提供商并发数 {}",
+                 availableProviders.size(), tasks.size(), concurrency);
 
-        // 创建线程池
-        ExecutorService executor = Executors.newFixedThreadPool(availableProviders.size());
+        // 创建执行器（虚拟线程或本次运行专用的线程池），每个工作线程都能立即开始
+        ExecutorService executor = WorkerExecutors.newRunExecutor(settings.virtualThreads,
+                                                                  availableProviders.size() * concurrency);
 
         // 为每个提供商创建统计对象
         Map<String, ProviderStatistics> providerStats = new ConcurrentHashMap<>();
@@ -352,23 +780,29 @@ public class TaskExecutor {
             providerStats.put(providerName, new ProviderStatistics(providerName));
         }
 
+        ProviderDispatcher dispatcher = new ProviderDispatcher(tasks, availableProviders, concurrency, indicator);
+        boolean workersFinished = false;
+
         try {
             // 将任务分配给不同的提供商
             List<CompletableFuture<Void>> futures = new ArrayList<>();
-            AtomicInteger taskIndex = new AtomicInteger(0);
 
             for (AIServiceProvider provider : availableProviders) {
                 String providerName = provider.getProviderName();
                 ProviderStatistics stats = providerStats.get(providerName);
 
-                CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
-                    processTasksWithProvider(tasks, provider, taskIndex, stats);
-                }, executor);
-                futures.add(future);
+                for (int i = 0; i < concurrency; i++) {
+                    CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+                        processTasksWithProvider(tasks.size(), provider, dispatcher, stats);
+                    }, executor);
+                    futures.add(future);
+                }
             }
 
-            // 等待所有任务完成
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            // 等待所有任务产生结果（或所有工作线程因取消而退出）
+            CompletableFuture<Void> workers = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+            CompletableFuture.anyOf(workers, dispatcher.whenAllResolved()).join();
+            workersFinished = workers.isDone();
 
             // 完成所有统计
             providerStats.values().forEach(ProviderStatistics::finish);
@@ -376,8 +810,8 @@ public class TaskExecutor {
             indicator.setFraction(1.0);
             indicator.setText("处理完成");
 
-            // 显示每个提供商的统计信息
-            showProviderStatistics(providerStats);
+            // 记录每个提供商的统计信息
+            logProviderStatistics(providerStats);
 
             log.info("并行任务处理完成。成功: {}, 失败: {}, 跳过: {}",
                      completedCount.get(), failedCount.get(), skippedCount.get());
@@ -385,163 +819,199 @@ public class TaskExecutor {
             return true;
 
         } finally {
-            executor.shutdown();
-            try {
-                if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
-                    executor.shutdownNow();
-                }
-            } catch (InterruptedException e) {
+            if (workersFinished) {
+                shutdownExecutor(executor);
+            } else {
+                // 被接管的原始请求结果会被丢弃，中断其线程即可
                 executor.shutdownNow();
-                Thread.currentThread().interrupt();
             }
         }
     }
 
+    /**
+     * 关闭线程池并等待已提交的任务结束
+     *
+     * @param executor 线程池
+     */
+    private static void shutdownExecutor(@NotNull ExecutorService executor) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 在事件调度线程上更新进度指示器
+     *
+     * @param task         当前任务
+     * @param currentIndex 当前任务索引
+     * @param totalTasks   任务总数
+     */
+    private void updateProgress(@NotNull DocumentationTask task, int currentIndex, int totalTasks) {
+        SwingUtilities.invokeLater(() -> {
+            double fraction = (double) currentIndex / totalTasks;
+            indicator.setFraction(fraction);
+            indicator.setText(String.format("正在处理 (%d/%d): %s",
+                                            currentIndex + 1, totalTasks, task.getFilePath()));
+            indicator.setText2(String.format("完成: %d, 失败: %d, 跳过: %d",
+                                             completedCount.get(), failedCount.get(), skippedCount.get()));
+        });
+    }
+
     /**
      * 使用指定提供商处理任务
+     *
+     * <p>从分发器领取任务直到没有剩余任务或用户取消。
      */
-    private void processTasksWithProvider(@NotNull List<DocumentationTask> tasks,
+    private void processTasksWithProvider(int totalTasks,
                                           @NotNull AIServiceProvider provider,
-                                          @NotNull AtomicInteger taskIndex,
+                                          @NotNull ProviderDispatcher dispatcher,
                                           @NotNull ProviderStatistics stats) {
-        int totalTasks = tasks.size();
+        dispatcher.workerStarted(provider);
+        try {
+            DocumentationTask task;
+            while (!indicator.isCanceled() && (task = dispatcher.next(provider)) != null) {
+                // 更新进度
+                updateProgress(task, dispatcher.getResolvedCount(), totalTasks);
 
-        while (taskIndex.get() < totalTasks && !indicator.isCanceled()) {
-            int currentIndex = taskIndex.getAndIncrement();
-            if (currentIndex >= totalTasks) {
-                break;
+                // 处理任务
+                processTaskWithProvider(task, provider, dispatcher, stats);
             }
-
-            DocumentationTask task = tasks.get(currentIndex);
-
-            // 更新进度
-            SwingUtilities.invokeLater(() -> {
-                double fraction = (double) currentIndex / totalTasks;
-                indicator.setFraction(fraction);
-                indicator.setText(String.format("正在处理 (%d/%d): %s",
-                                                currentIndex + 1, totalTasks, task.getFilePath()));
-                indicator.setText2(String.format("完成: %d, 失败: %d, 跳过: %d",
-                                                 completedCount.get(), failedCount.get(), skippedCount.get()));
-            });
-
-            // 处理任务
-            processTaskWithProvider(task, provider, stats);
+        } finally {
+            dispatcher.workerStopped(provider);
         }
     }
 
     /**
      * 使用指定提供商处理单个任务
+     *
+     * <p>同一任务可能因落后被多个提供商同时执行，只有分发器确认生效的结果才会插入文档并计入统计。
+     * 失败的任务可能被分发器重新入队交给其他提供商，此时不计入失败统计。
      */
     private void processTaskWithProvider(@NotNull DocumentationTask task,
                                          @NotNull AIServiceProvider provider,
+                                         @NotNull ProviderDispatcher dispatcher,
                                          @NotNull ProviderStatistics stats) {
+        long startTime = -1;
+        String documentation;
+        long latency;
         try {
             task.setStatus(DocumentationTask.TaskStatus.PROCESSING);
 
             // 检查是否应该跳过
             if (shouldSkip(task)) {
-                task.setStatus(DocumentationTask.TaskStatus.SKIPPED);
-                skippedCount.incrementAndGet();
-                stats.incrementSkipped();
+                if (dispatcher.complete(provider, task, -1, true)) {
+                    writer.resolve(task);
+                    task.setStatus(DocumentationTask.TaskStatus.SKIPPED);
+                    skippedCount.incrementAndGet();
+                    stats.incrementSkipped();
+                }
                 return;
             }
 
-            // 生成文档
-            String documentation = provider.generateDocumentation(task.getCode(), task.getType(), "java");
+            // 生成文档，该提供商已有缓存结果时直接使用
+            startTime = System.currentTimeMillis();
+            String cached = lookupCache(task, provider);
+            documentation = cached != null ? cached
+                            : provider.generateDocumentation(task.getCode(), task.getType(), "java", task.getPromptContext());
+            // 缓存命中不代表提供商的响应速度，不计入延迟统计
+            latency = cached != null ? -1 : System.currentTimeMillis() - startTime;
+        } catch (AIServiceException e) {
+            if (dispatcher.complete(provider, task, elapsedSince(startTime), false)) {
+                writer.resolve(task);
+                String errorMessage = getAIServiceErrorMessage(e);
+                log.info("AI 服务调用失败: {} - {}", task, errorMessage, e);
+                task.setStatus(DocumentationTask.TaskStatus.FAILED);
+                task.setErrorMessage(errorMessage);
+                failedCount.incrementAndGet();
+                stats.incrementFailed();
+            }
+            return;
+        } catch (Exception e) {
+            if (dispatcher.complete(provider, task, elapsedSince(startTime), false)) {
+                writer.resolve(task);
+                log.info("处理任务失败: {}", task, e);
+                task.setStatus(DocumentationTask.TaskStatus.FAILED);
+                task.setErrorMessage(e.getMessage());
+                failedCount.incrementAndGet();
+                stats.incrementFailed();
+            }
+            return;
+        }
 
-            if (documentation.trim().isEmpty()) {
+        if (documentation.trim().isEmpty()) {
+            if (dispatcher.complete(provider, task, latency, false)) {
+                writer.resolve(task);
                 task.setStatus(DocumentationTask.TaskStatus.FAILED);
                 task.setErrorMessage("生成的文档为空");
                 failedCount.incrementAndGet();
                 stats.incrementFailed();
-                return;
             }
+            return;
+        }
+
+        if (!dispatcher.complete(provider, task, latency, true)) {
+            log.debug("任务已由其他提供商完成，丢弃结果: {}", task);
+            return;
+        }
 
-            // 插入文档
-            insertDocumentation(task, documentation);
+        try {
+            // 缓存文档，按文件合并写入
+            storeCache(task, provider, documentation);
+            task.setResult(documentation);
+            recordGenerated(task, documentation);
+            writer.add(task, documentation);
 
             task.setStatus(DocumentationTask.TaskStatus.COMPLETED);
-            task.setResult(documentation);
             completedCount.incrementAndGet();
             stats.incrementCompleted();
-
-        } catch (AIServiceException e) {
-            String errorMessage = getAIServiceErrorMessage(e);
-            log.info("AI 服务调用失败: {} - {}", task, errorMessage, e);
-            task.setStatus(DocumentationTask.TaskStatus.FAILED);
-            task.setErrorMessage(errorMessage);
-            failedCount.incrementAndGet();
-            stats.incrementFailed();
         } catch (Exception e) {
             log.info("处理任务失败: {}", task, e);
             task.setStatus(DocumentationTask.TaskStatus.FAILED);
             task.setErrorMessage(e.getMessage());
             failedCount.incrementAndGet();
             stats.incrementFailed();
+        } finally {
+            writer.resolve(task);
         }
     }
 
     /**
-     * 显示提供商统计信息
+     * 计算从指定时间到现在的耗时
+     *
+     * @param startTime 开始时间（毫秒），负数表示尚未开始
+     * @return 耗时（毫秒），未开始时返回 -1
      */
-    private void showProviderStatistics(@NotNull Map<String, ProviderStatistics> providerStats) {
-        // 创建HTML格式的统计信息
-        StringBuilder htmlContent = new StringBuilder();
-        htmlContent.append("<html><head><style>");
-        htmlContent.append("body { font-family: 'Segoe UI', Arial, sans-serif; margin: 10px; font-size: 12px; }");
-        htmlContent.append("h2 { color: #2E7D32; margin-bottom: 15px; font-size: 16px; }");
-        htmlContent.append("h3 { color: #1976D2; margin-bottom: 10px; font-size: 14px; }");
-        htmlContent.append("table { border-collapse: collapse; width: 100%; margin-bottom: 20px; font-size: 11px; border: 1px solid #ddd;" +
-                           " }");
-        htmlContent.append("th { background-color: #6c757d; color: white; padding: 8px; text-align: center; font-weight: bold; font-size:" +
-                           " 11px; border: 1px solid #ddd; }");
-        htmlContent.append("td { padding: 8px; text-align: center; font-size: 11px; border: 1px solid #ddd; }");
-        htmlContent.append("td.provider-name { text-align: left; }");
-        htmlContent.append("tr:nth-child(even) { background-color: #f8f9fa; }");
-        htmlContent.append("tr:hover { background-color: #e3f2fd; }");
-        htmlContent.append(".summary-row { background-color: #495057; color: white; font-weight: bold; }");
-        htmlContent.append(".summary-row td { border: 1px solid #ddd; }");
-        htmlContent.append("</style></head><body>");
-
-        // 添加标题
-        htmlContent.append("<h2>🚀 性能模式处理完成</h2>");
-
-        // 创建提供商统计表格
-        htmlContent.append("<table>");
-        htmlContent.append("<tr><th>服务商名称</th><th>完成数量</th><th>失败数量</th><th>跳过数量</th><th>耗时</th></tr>");
+    private static long elapsedSince(long startTime) {
+        return startTime < 0 ? -1 : System.currentTimeMillis() - startTime;
+    }
 
+    /**
+     * 记录提供商统计信息
+     *
+     * <p>运行中的延迟、吞吐和重试等实时指标在生成指标工具窗口中查看，运行结束后只在日志中输出汇总。
+     *
+     * @param providerStats 各提供商的统计信息
+     * @see GenerationMetrics
+     */
+    private void logProviderStatistics(@NotNull Map<String, ProviderStatistics> providerStats) {
         int totalCompleted = 0;
         int totalFailed = 0;
         int totalSkipped = 0;
         long totalDuration = 0;
 
         for (ProviderStatistics stats : providerStats.values()) {
-            htmlContent.append("<tr>");
-            htmlContent.append("<td class='provider-name'>").append(stats.getProviderName()).append("</td>");
-            htmlContent.append("<td>").append(stats.getCompletedCount()).append("</td>");
-            htmlContent.append("<td>").append(stats.getFailedCount()).append("</td>");
-            htmlContent.append("<td>").append(stats.getSkippedCount()).append("</td>");
-            htmlContent.append("<td>").append(String.format("%.1fs", stats.getDuration() / 1000.0)).append("</td>");
-            htmlContent.append("</tr>");
-
             totalCompleted += stats.getCompletedCount();
             totalFailed += stats.getFailedCount();
             totalSkipped += stats.getSkippedCount();
             totalDuration += stats.getDuration();
         }
 
-        // 添加总体统计行
-        htmlContent.append("<tr class='summary-row'>");
-        htmlContent.append("<td>📊 总体统计</td>");
-        htmlContent.append("<td>").append(totalCompleted).append("</td>");
-        htmlContent.append("<td>").append(totalFailed).append("</td>");
-        htmlContent.append("<td>").append(totalSkipped).append("</td>");
-        htmlContent.append("<td>").append(String.format("%.1fs", totalDuration / 1000.0)).append("</td>");
-        htmlContent.append("</tr>");
-
-        htmlContent.append("</table>");
-        htmlContent.append("</body></html>");
-
         // 在日志中记录详细信息
         StringBuilder logMessage = new StringBuilder();
         logMessage.append("性能模式统计详情：\n");
@@ -564,59 +1034,6 @@ public class TaskExecutor {
         }
 
         log.info("{}", logMessage);
-
-        // 显示HTML格式的通知给用户
-        SwingUtilities.invokeLater(() -> {
-            // 创建自定义对话框
-            javax.swing.JDialog dialog = new javax.swing.JDialog((java.awt.Frame) null, "性能模式处理完成", true);
-            dialog.setDefaultCloseOperation(javax.swing.JDialog.DISPOSE_ON_CLOSE);
-
-            // 创建HTML内容面板
-            javax.swing.JEditorPane editorPane = new javax.swing.JEditorPane();
-            editorPane.setContentType("text/html");
-            editorPane.setText(htmlContent.toString());
-            editorPane.setEditable(false);
-            editorPane.setBackground(javax.swing.UIManager.getColor("Panel.background"));
-
-            // 计算动态高度
-            int providerCount = providerStats.size();
-            int totalRows = providerCount + 2; // 提供商行数 + 表头 + 总体统计行
-
-            // 每行高度约30px，表头高度约35px，总体统计行高度约35px, 在加上标题和一定的冗余量
-            int calculatedHeight = 35 + (providerCount * 30) + 35 + 50;
-
-            // 设置最小和最大高度阈值
-            int minHeight = 200;  // 最小高度
-            int maxHeight = 600;  // 最大高度
-
-            // 应用阈值限制
-            int finalHeight = Math.max(minHeight, Math.min(maxHeight, calculatedHeight));
-
-            // 记录高度计算信息
-            log.debug("动态高度计算: 提供商数量={}, 计算高度={}, 最终高度={}",
-                      providerCount, calculatedHeight, finalHeight);
-
-            // 设置滚动面板
-            javax.swing.JScrollPane scrollPane = new javax.swing.JScrollPane(editorPane);
-            scrollPane.setPreferredSize(new java.awt.Dimension(800, finalHeight));
-
-            // 添加确定按钮
-            javax.swing.JButton okButton = new javax.swing.JButton("确定");
-            okButton.addActionListener(e -> dialog.dispose());
-
-            javax.swing.JPanel buttonPanel = new javax.swing.JPanel();
-            buttonPanel.add(okButton);
-
-            // 设置布局
-            dialog.setLayout(new java.awt.BorderLayout());
-            dialog.add(scrollPane, java.awt.BorderLayout.CENTER);
-            dialog.add(buttonPanel, java.awt.BorderLayout.SOUTH);
-
-            // 设置对话框属性
-            dialog.pack();
-            dialog.setLocationRelativeTo(null);
-            dialog.setVisible(true);
-        });
     }
 
     /**
@@ -639,44 +1056,129 @@ public class TaskExecutor {
                 return;
             }
 
-            // 生成文档
-            String documentation = generateDocumentation(task);
+            // 生成文档，按实际返回结果的提供商缓存
+            AtomicReference<AIServiceProvider> answeredBy = new AtomicReference<>(aiService);
+            applyDocumentation(task, generateDocumentation(task, answeredBy), answeredBy.get());
+        } catch (Exception e) {
+            handleTaskFailure(task, e);
+        } finally {
+            // 跳过或失败的任务同样需要计入所在文件，以便该文件的文档及时写入
+            writer.resolve(task);
+        }
+    }
 
-            if (documentation.trim().isEmpty()) {
-                task.setStatus(DocumentationTask.TaskStatus.FAILED);
-                task.setErrorMessage("生成的文档为空");
-                failedCount.incrementAndGet();
-                return;
+    /**
+     * 异步处理文档生成任务
+     * <p>
+     * 跳过检查在调用线程上完成，文档生成通过 {@link AIServiceProvider#generateDocumentationAsync} 发出，
+     * 结果在请求完成的线程上处理，处理逻辑与 {@link #processTask(DocumentationTask)} 一致。
+     *
+     * @param task         要处理的文档生成任务对象
+     * @param onGeneration 接收发出的生成请求，用于取消时中止请求
+     * @return 任务处理完成时完成的 Future，不会以异常完成
+     */
+    private CompletableFuture<Void> processTaskAsync(@NotNull DocumentationTask task,
+                                                     @NotNull Consumer<CompletableFuture<String>> onGeneration) {
+        AtomicReference<AIServiceProvider> answeredBy = new AtomicReference<>(aiService);
+        CompletableFuture<String> generation;
+        try {
+            task.setStatus(DocumentationTask.TaskStatus.PROCESSING);
+
+            // 检查是否应该跳过
+            if (shouldSkip(task)) {
+                task.setStatus(DocumentationTask.TaskStatus.SKIPPED);
+                skippedCount.incrementAndGet();
+                writer.resolve(task);
+                return CompletableFuture.completedFuture(null);
             }
 
-            // 插入文档
-            insertDocumentation(task, documentation);
+            generation = generateDocumentationHedged(task, null, answeredBy);
+            onGeneration.accept(generation);
+        } catch (Exception e) {
+            handleTaskFailure(task, e);
+            writer.resolve(task);
+            return CompletableFuture.completedFuture(null);
+        }
 
-            task.setStatus(DocumentationTask.TaskStatus.COMPLETED);
-            task.setResult(documentation);
-            completedCount.incrementAndGet();
+        return generation.handle((documentation, error) -> {
+            try {
+                if (error == null) {
+                    applyDocumentation(task, documentation, answeredBy.get());
+                } else {
+                    handleTaskFailure(task, error instanceof CompletionException && error.getCause() != null
+                                            ? error.getCause() : error);
+                }
+            } catch (Exception e) {
+                handleTaskFailure(task, e);
+            } finally {
+                writer.resolve(task);
+            }
+            return null;
+        });
+    }
 
-        } catch (AIServiceException e) {
+    /**
+     * 应用生成的文档
+     * <p>
+     * 生成结果为空时标记任务失败，否则交给 {@link DocumentationWriter} 缓存并标记任务完成。
+     * 文档缓存在生成该结果的提供商的请求指纹下；不是由单成员提示词生成的结果（如打包请求）不缓存，
+     * 避免以后的普通请求命中由不同提示词生成的内容。
+     *
+     * @param task          文档生成任务
+     * @param documentation 生成的文档内容
+     * @param provider      以单成员提示词生成该文档的提供商，为 null 时不缓存
+     */
+    private void applyDocumentation(@NotNull DocumentationTask task, @NotNull String documentation,
+                                    @Nullable AIServiceProvider provider) {
+        if (documentation.trim().isEmpty()) {
+            task.setStatus(DocumentationTask.TaskStatus.FAILED);
+            task.setErrorMessage("生成的文档为空");
+            failedCount.incrementAndGet();
+            return;
+        }
+
+        // 缓存文档，按文件合并写入
+        if (provider != null) {
+            storeCache(task, provider, documentation);
+        }
+        task.setResult(documentation);
+        recordGenerated(task, documentation);
+        writer.add(task, documentation);
+
+        task.setStatus(DocumentationTask.TaskStatus.COMPLETED);
+        completedCount.incrementAndGet();
+    }
+
+    /**
+     * 处理任务失败
+     * <p>
+     * AI 服务异常转换为友好的错误提示，并只在第一次失败时显示通知；其他异常记录原始错误信息。
+     *
+     * @param task  失败的任务
+     * @param error 失败原因
+     */
+    private void handleTaskFailure(@NotNull DocumentationTask task, @NotNull Throwable error) {
+        if (error instanceof AIServiceException) {
             // AI 服务异常 - 提供友好的错误提示
-            String errorMessage = getAIServiceErrorMessage(e);
-            log.info("AI 服务调用失败: {} - {}", task, errorMessage, e);
+            String errorMessage = getAIServiceErrorMessage((AIServiceException) error);
+            log.info("AI 服务调用失败: {} - {}", task, errorMessage, error);
             task.setStatus(DocumentationTask.TaskStatus.FAILED);
             task.setErrorMessage(errorMessage);
-            failedCount.incrementAndGet();
 
-            // 只在第一次失败时显示通知，避免过多通知
-            if (failedCount.get() == 1) {
+            // 只在第一次失败时显示通知，避免过多通知（并发处理时以自增结果判断）
+            if (failedCount.incrementAndGet() == 1) {
                 NotificationUtil.notifyErrorMessage(
                     project,
                     errorMessage
                                                    );
             }
-        } catch (Exception e) {
-            log.info("处理任务失败: {}", task, e);
-            task.setStatus(DocumentationTask.TaskStatus.FAILED);
-            task.setErrorMessage(e.getMessage());
-            failedCount.incrementAndGet();
+            return;
         }
+
+        log.info("处理任务失败: {}", task, error);
+        task.setStatus(DocumentationTask.TaskStatus.FAILED);
+        task.setErrorMessage(error.getMessage());
+        failedCount.incrementAndGet();
     }
 
     /**
@@ -736,6 +1238,10 @@ public class TaskExecutor {
         // PSI 访问必须在 read-action 中
         return ApplicationManager.getApplication().runReadAction((Computable<Boolean>) () -> {
             PsiElement element = task.getElement();
+            if (element == null) {
+                // 元素已被删除，无需生成
+                return true;
+            }
 
             // 检查是否已有文档
             if (element instanceof PsiDocCommentOwner) {
@@ -752,6 +1258,8 @@ public class TaskExecutor {
      *
      * <p>调用 AI 服务提供商生成文档内容。
      * 将任务类型转换为文档类型，然后调用 AI 服务。
+     * 请求通过 {@link AIServiceProvider#generateDocumentationAsync} 经由共享 HTTP 客户端发送，
+     * 复用项目打开时预热的连接，等待期间响应用户取消。
      *
      * <p>处理流程：
      * <ol>
@@ -766,259 +1274,144 @@ public class TaskExecutor {
      *   <li>由调用方统一处理</li>
      * </ul>
      *
-     * @param task 文档生成任务
+     * @param task       文档生成任务
+     * @param answeredBy 接收实际返回结果的提供商
      * @return 生成的文档内容
      * @throws AIServiceException 当 AI 服务调用失败时抛出
-     * @see AIServiceProvider#generateDocumentation(String, DocumentationTask.TaskType, String)
+     * @see AIServiceProvider#generateDocumentationAsync(String, DocumentationTask.TaskType, String, PromptContext, Consumer)
      */
-    private String generateDocumentation(@NotNull DocumentationTask task) throws AIServiceException {
-        return aiService.generateDocumentation(task.getCode(), task.getType(), "java");
+    private String generateDocumentation(@NotNull DocumentationTask task,
+                                         @NotNull AtomicReference<AIServiceProvider> answeredBy) throws AIServiceException {
+        if (settings.streaming) {
+            return generateDocumentationStreaming(task, answeredBy);
+        }
+        return awaitGeneration(generateDocumentationHedged(task, null, answeredBy));
     }
 
     /**
-     * 插入文档到代码中
-     *
-     * <p>将生成的文档注释插入到源代码的适当位置。
-     * 如果元素已有注释，会先删除旧注释，再插入新注释。
-     * 整个操作在 IntelliJ 的命令和写入操作上下文中执行。
+     * 以流式方式生成文档
      *
-     * <p>插入流程：
-     * <ol>
-     *   <li>获取元素对应的文档对象</li>
-     *   <li>删除已有的旧注释</li>
-     *   <li>确定插入位置</li>
-     *   <li>格式化并插入新注释</li>
-     *   <li>应用代码格式化</li>
-     * </ol>
-     *
-     * <p>线程模型：
-     * <ul>
-     *   <li>使用 invokeLater 调度到事件调度线程</li>
-     *   <li>在命令上下文中执行</li>
-     *   <li>在写入操作中执行</li>
-     * </ul>
+     * <p>收到首段内容后即在进度指示器上显示已接收的字符数，等待期间响应用户取消。
      *
-     * @param task          文档生成任务
-     * @param documentation 生成的文档内容
-     * @see #deleteOldDocComment(PsiElement, Document)
-     * @see #getInsertPosition(PsiElement)
+     * @param task       文档生成任务
+     * @param answeredBy 接收实际返回结果的提供商
+     * @return 生成的文档内容
+     * @throws AIServiceException 当 AI 服务调用失败或用户取消时抛出
+     * @see SettingsState#streaming
      */
-    @SuppressWarnings("D")
-    private void insertDocumentation(@NotNull DocumentationTask task, @NotNull String documentation) {
-        ApplicationManager.getApplication().invokeLater(() -> {
-            PsiElement element = task.getElement();
-            Document document = FileDocumentManager.getInstance()
-                .getDocument(element.getContainingFile().getVirtualFile());
-
-            if (document == null) {
-                return;
-            }
-
-            PsiDocumentManager.getInstance(project)
-                .doPostponedOperationsAndUnblockDocument(document);
-
-            CommandProcessor.getInstance().executeCommand(
-                project,
-                () -> ApplicationManager.getApplication().runWriteAction(() -> {
-                    try {
-                        // 1. 先删除旧注释（如果存在）
-                        deleteOldDocComment(element, document);
-
-                        // 2. 提交删除操作
-                        PsiDocumentManager.getInstance(project).commitDocument(document);
-
-                        // 3. 获取插入位置（删除后需要重新获取）
-                        int startPosition = getInsertPosition(element);
-                        int lineNumber = document.getLineNumber(startPosition);
-                        int lineStartPosition = document.getLineStartOffset(lineNumber);
-
-                        // 4. 确保文档以 /** 开头
-                        String javadoc = documentation.trim();
-                        if (!javadoc.startsWith("/**")) {
-                            javadoc = "/**\n" + javadoc;
-                        }
-                        if (!javadoc.endsWith("*/")) {
-                            javadoc = javadoc + "\n */";
-                        }
-
-                        // 5. 插入新 JavaDoc
-                        document.insertString(lineStartPosition, javadoc + "\n");
-                        PsiDocumentManager.getInstance(project).commitDocument(document);
-
-                        // 6. 格式化插入的 JavaDoc
-                        PsiFile psiFile = element.getContainingFile();
-                        if (psiFile != null) {
-                            int endPosition = lineStartPosition + javadoc.length() + 1;
-                            CodeStyleManager.getInstance(project)
-                                .reformatText(psiFile, lineStartPosition, endPosition);
-                        }
-
-                    } catch (Exception e) {
-                        log.info("插入文档失败", e);
-                    }
-                }),
-                "Insert JavaDoc",
-                "AI Javadoc"
-                                                         );
-        });
+    private String generateDocumentationStreaming(@NotNull DocumentationTask task,
+                                                  @NotNull AtomicReference<AIServiceProvider> answeredBy)
+        throws AIServiceException {
+        AtomicInteger received = new AtomicInteger(0);
+        return awaitGeneration(generateDocumentationHedged(
+            task, partial -> indicator.setText2(String.format("正在接收: %d 字符", received.addAndGet(partial.length()))),
+            answeredBy));
     }
 
     /**
-     * 删除元素的旧 JavaDoc 注释
-     *
-     * <p>删除元素已有的 JavaDoc 注释，为新注释腾出空间。
-     * 同时删除注释前后的空白行，防止空行累积。
+     * 等待异步生成的结果，等待期间响应用户取消
      *
-     * <p>删除策略：
-     * <ul>
-     *   <li>删除注释本身</li>
-     *   <li>删除注释后面的一个换行符（如果有）</li>
-     *   <li>删除注释前面的所有空白行（防止累积）</li>
-     * </ul>
-     *
-     * <p>安全措施：
-     * <ul>
-     *   <li>检查元素是否支持文档</li>
-     *   <li>检查是否已有注释</li>
-     *   <li>捕获异常防止中断操作</li>
-     *   <li>边界检查防止越界</li>
-     * </ul>
-     *
-     * @param element  目标元素
-     * @param document 文档对象
+     * @param future 生成结果的 Future
+     * @return 生成的文档内容
+     * @throws AIServiceException 当 AI 服务调用失败或用户取消时抛出
      */
-    @SuppressWarnings("D")
-    private void deleteOldDocComment(@NotNull PsiElement element, @NotNull Document document) {
-        if (!(element instanceof PsiDocCommentOwner)) {
-            return;
-        }
-
-        PsiDocComment oldComment = ((PsiDocCommentOwner) element).getDocComment();
-        if (oldComment == null) {
-            return;
-        }
-
+    private String awaitGeneration(@NotNull CompletableFuture<String> future) throws AIServiceException {
         try {
-            int startOffset = oldComment.getTextRange().getStartOffset();
-            int endOffset = oldComment.getTextRange().getEndOffset();
-
-            // 计算实际删除范围
-            int deleteStart = startOffset;
-            final int deleteEnd = getDeleteEnd(document, endOffset);
-
-            // 2. 向前扩展：删除注释前面的所有空白行（包括空格、制表符）
-            // 这是防止空行累积的关键！
-            int lineStart = document.getLineStartOffset(document.getLineNumber(startOffset));
-            while (deleteStart > lineStart) {
-                char prevChar = document.getCharsSequence().charAt(deleteStart - 1);
-                // 只删除空白字符（空格和制表符），但保留换行符
-                if (prevChar == ' ' || prevChar == '\t') {
-                    deleteStart--;
-                } else {
-                    break;
+            while (true) {
+                if (indicator.isCanceled()) {
+                    future.cancel(true);
+                    throw new AIServiceException("Generation canceled");
                 }
-            }
-
-            // 如果注释前面只有空白字符，则从行首开始删除
-            if (deleteStart == lineStart) {
-                // 检查是否可以继续向前删除空行
-                while (lineStart > 0) {
-                    int prevLineEnd = lineStart - 1;
-                    // 跳过换行符
-                    if (document.getCharsSequence().charAt(prevLineEnd) == '\n') {
-                        int prevLineStart = document.getLineStartOffset(document.getLineNumber(prevLineEnd));
-                        // 检查前一行是否为空行（只包含空白字符）
-                        boolean isEmptyLine = true;
-                        for (int i = prevLineStart; i < prevLineEnd; i++) {
-                            char c = document.getCharsSequence().charAt(i);
-                            if (c != ' ' && c != '\t' && c != '\r') {
-                                isEmptyLine = false;
-                                break;
-                            }
-                        }
-
-                        if (isEmptyLine) {
-                            // 是空行，继续向前删除
-                            deleteStart = prevLineStart;
-                            lineStart = prevLineStart;
-                        } else {
-                            // 不是空行，停止向前扩展
-                            break;
-                        }
-                    } else {
-                        break;
-                    }
+                try {
+                    return future.get(200, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException ignored) {
+                    // 继续等待，同时检查取消状态
                 }
             }
-
-            // 执行删除
-            document.deleteString(deleteStart, deleteEnd);
-
-            if (settings.verboseLogging) {
-                log.debug("删除旧注释: 从 {} 到 {} (原注释: {} 到 {})",
-                          deleteStart, deleteEnd, startOffset, endOffset);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AIServiceException) {
+                throw (AIServiceException) cause;
             }
-
-        } catch (Exception e) {
-            log.warn("删除旧注释失败", e);
+            throw new AIServiceException("AI 服务调用失败: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AIServiceException("Generation interrupted", e);
         }
     }
 
     /**
-     * 计算删除操作的结束位置
-     * <p>
-     * 根据给定的文档对象和结束偏移量，计算删除操作的实际结束位置。该方法会处理换行符，包括Windows风格的\r\n换行符。
+     * 异步生成文档，本次运行启用对冲时使用对冲请求
+     *
+     * <p>主提供商的请求超过其最近的 p90 延迟仍未返回时，向备用提供商发出相同的请求，
+     * 先成功返回的结果生效。主提供商的延迟样本不足时不对冲。对冲请求胜出时将备用提供商写入
+     * {@code answeredBy}，调用方据此把结果缓存在实际应答的提供商的请求指纹下。
      *
-     * @param document  文档对象，用于获取文本内容和长度
-     * @param endOffset 初始的结束偏移量
-     * @return 调整后的删除结束位置
+     * @param task            文档生成任务
+     * @param partialListener 主请求的增量内容监听器，可为 null
+     * @param answeredBy      接收实际返回结果的提供商，初始值为主提供商
+     * @return 生成结果的 Future
+     * @see HedgedRequest
+     * @see SettingsState#hedgedRequests
      */
-    private static int getDeleteEnd(@NotNull Document document, int endOffset) {
-        int deleteEnd = endOffset;
-
-        // 1. 向后扩展：删除注释后面的一个换行符（如果有）
-        if (deleteEnd < document.getTextLength()) {
-            char nextChar = document.getCharsSequence().charAt(deleteEnd);
-            if (nextChar == '\n') {
-                deleteEnd++;
-            } else if (nextChar == '\r' && deleteEnd + 1 < document.getTextLength()) {
-                // 处理 Windows 风格的换行符 \r\n
-                if (document.getCharsSequence().charAt(deleteEnd + 1) == '\n') {
-                    deleteEnd += 2;
-                } else {
-                    deleteEnd++;
-                }
-            }
+    private CompletableFuture<String> generateDocumentationHedged(@NotNull DocumentationTask task,
+                                                                  @Nullable Consumer<String> partialListener,
+                                                                  @NotNull AtomicReference<AIServiceProvider> answeredBy) {
+        Supplier<CompletableFuture<String>> primary = () -> aiService.generateDocumentationAsync(
+            task.getCode(), task.getType(), "java", task.getPromptContext(), partialListener);
+        AIServiceProvider hedge = hedgeProvider;
+        ProviderLatencyTracker tracker = aiService.getLatencyTracker();
+        long delay = tracker == null ? -1 : tracker.percentile90();
+        if (hedge == null || delay < 0) {
+            return primary.get();
         }
-        return deleteEnd;
+
+        return HedgedRequest.start(
+            primary,
+            () -> {
+                log.info("请求超过 p90 延迟 {} ms 仍未返回，向 {} 发出对冲请求: {}", delay, hedge.getProviderName(), task);
+                return hedge.generateDocumentationAsync(task.getCode(), task.getType(), "java", task.getPromptContext(),
+                                                        null);
+            },
+            delay,
+            () -> answeredBy.set(hedge));
     }
 
     /**
-     * 获取文档插入位置
+     * 选择对冲请求使用的备用提供商
      *
-     * <p>确定新文档注释应该插入的位置。
-     * 通常插入在元素修饰符列表之前，确保注释位置正确。
+     * <p>从已验证的提供商配置中排除当前提供商，选择最近 p90 延迟最低的一个；
+     * 没有延迟样本的提供商排在有样本的之后，按配置顺序选择。
      *
-     * <p>位置规则：
-     * <ul>
-     *   <li>PsiMethod：方法修饰符列表之前</li>
-     *   <li>PsiClass：类修饰符列表之前</li>
-     *   <li>PsiField：字段修饰符列表之前</li>
-     *   <li>其他：元素起始位置</li>
-     * </ul>
-     *
-     * @param element PSI 元素
-     * @return 文档插入位置的偏移量
+     * @return 备用提供商，没有其他可用提供商时返回 null
      */
-    private int getInsertPosition(@NotNull PsiElement element) {
-        if (element instanceof PsiMethod) {
-            return ((PsiMethod) element).getModifierList().getTextRange().getStartOffset();
-        } else if (element instanceof PsiClass) {
-            return ((PsiClass) element).getModifierList().getTextRange().getStartOffset();
-        } else if (element instanceof PsiField) {
-            return ((PsiField) element).getModifierList().getTextRange().getStartOffset();
+    @Nullable
+    private AIServiceProvider selectHedgeProvider() {
+        AIServiceProvider best = null;
+        long bestLatency = Long.MAX_VALUE;
+        for (SettingsState.ProviderConfig config : settings.getAvailableProviders()) {
+            if (Objects.equals(config.providerId, settings.aiProvider)
+                && Objects.equals(config.baseUrl, settings.baseUrl)
+                && Objects.equals(config.apiKey, settings.apiKey)) {
+                continue;
+            }
+            AIServiceProvider candidate = AIServiceFactory.createProvider(config);
+            if (candidate == null) {
+                continue;
+            }
+            ProviderLatencyTracker tracker = candidate.getLatencyTracker();
+            long latency = tracker == null ? -1 : tracker.percentile90();
+            latency = latency < 0 ? Long.MAX_VALUE : latency;
+            if (best == null || latency < bestLatency) {
+                best = candidate;
+                bestLatency = latency;
+            }
+        }
+        if (best != null) {
+            log.info("对冲请求已启用，备用提供商: {}", best.getProviderName());
         }
-        return element.getTextRange().getStartOffset();
+        return best;
     }
 
     /**
@@ -0,0 +1,160 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.util.Computable;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.PsiTreeUtil;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import dev.dong4j.zeka.stack.idea.plugin.ai.TokenEstimator;
+
+/**
+ * 小任务打包器
+ *
+ * <p>把同一个类中的字段和短方法按 token 预算装箱，合并为一次请求处理，
+ * 避免每个小成员都单独发送一次完整的系统提示词和模板。
+ *
+ * <p>装箱规则：
+ * <ul>
+ *   <li>只打包字段、方法和测试方法，类/接口/枚举始终单独处理</li>
+ *   <li>方法代码超过 {@value #MAX_PACKABLE_CHARS} 个字符时视为大任务，单独处理</li>
+ *   <li>只有同一个类（不含嵌套类）中的成员才会装入同一个包</li>
+ *   <li>每个包的代码输入不超过 {@value #INPUT_TOKEN_BUDGET} 个 token（按 {@link TokenEstimator} 估算），
+ *       估算输出不超过单次请求的 maxTokens，且最多 {@value #MAX_PACK_SIZE} 个成员</li>
+ *   <li>装箱后只剩一个成员的包不再打包，按普通任务处理</li>
+ * </ul>
+ *
+ * <p>装箱不提取任务的代码：尚未提取代码的任务以元素的文本长度作为代码长度，
+ * 发送请求前才提取代码，打包模式下仍然保持延迟提取，不会一次性持有所有成员的代码。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class TaskPacker {
+
+    /** 可打包成员的最大代码长度（字符） */
+    static final int MAX_PACKABLE_CHARS = 800;
+    /** 每个包的代码输入 token 预算 */
+    static final int INPUT_TOKEN_BUDGET = 2000;
+    /** 每个包的最大成员数 */
+    static final int MAX_PACK_SIZE = 16;
+    /** 字段注释的估算输出 token 数 */
+    private static final int FIELD_OUTPUT_TOKENS = 60;
+    /** 方法注释的估算输出 token 数 */
+    private static final int METHOD_OUTPUT_TOKENS = 180;
+
+    /**
+     * 工具类不允许实例化
+     */
+    private TaskPacker() {
+    }
+
+    /**
+     * 将任务装箱为多成员请求
+     *
+     * @param tasks           任务列表
+     * @param maxOutputTokens 单次请求允许的最大输出 token 数
+     * @return 包含两个及以上成员的包，未装入任何包的任务不在结果中
+     */
+    @NotNull
+    public static List<List<DocumentationTask>> pack(@NotNull List<DocumentationTask> tasks, int maxOutputTokens) {
+        Map<DocumentationTask, Integer> sizes = new IdentityHashMap<>();
+        Map<PsiClass, List<DocumentationTask>> byOwner = ApplicationManager.getApplication().runReadAction(
+            (Computable<Map<PsiClass, List<DocumentationTask>>>) () -> groupByOwner(tasks, sizes));
+
+        List<List<DocumentationTask>> packs = new ArrayList<>();
+        for (List<DocumentationTask> members : byOwner.values()) {
+            List<DocumentationTask> current = new ArrayList<>();
+            int inputTokens = 0;
+            int outputTokens = 0;
+            for (DocumentationTask task : members) {
+                int taskInput = TokenEstimator.estimate(sizes.get(task));
+                int taskOutput = estimateOutputTokens(task);
+                if (!current.isEmpty()
+                    && (current.size() >= MAX_PACK_SIZE
+                        || inputTokens + taskInput > INPUT_TOKEN_BUDGET
+                        || outputTokens + taskOutput > maxOutputTokens)) {
+                    addPack(packs, current);
+                    current = new ArrayList<>();
+                    inputTokens = 0;
+                    outputTokens = 0;
+                }
+                current.add(task);
+                inputTokens += taskInput;
+                outputTokens += taskOutput;
+            }
+            addPack(packs, current);
+        }
+        return packs;
+    }
+
+    /**
+     * 判断任务是否可以打包
+     *
+     * @param task  任务
+     * @param chars 任务的代码长度（字符数）
+     * @return 可以打包返回 true
+     */
+    static boolean isPackable(@NotNull DocumentationTask task, int chars) {
+        return switch (task.getType()) {
+            case FIELD -> true;
+            case METHOD, TEST_METHOD -> chars <= MAX_PACKABLE_CHARS;
+            default -> false;
+        };
+    }
+
+    /**
+     * 按所属类对可打包任务分组，保持任务原有顺序，需要在读操作中调用
+     *
+     * @param tasks 任务列表
+     * @param sizes 输出参数，记录每个可打包任务的代码长度
+     * @return 按所属类分组的可打包任务
+     */
+    private static Map<PsiClass, List<DocumentationTask>> groupByOwner(@NotNull List<DocumentationTask> tasks,
+                                                                      @NotNull Map<DocumentationTask, Integer> sizes) {
+        Map<PsiClass, List<DocumentationTask>> byOwner = new LinkedHashMap<>();
+        for (DocumentationTask task : tasks) {
+            PsiElement element = task.getElement();
+            if (element == null || !element.isValid()) {
+                continue;
+            }
+            // 已提取代码时使用实际长度，否则以元素文本长度估计，不为装箱提前提取代码
+            int chars = task.getCodeLength() >= 0 ? task.getCodeLength() : element.getTextLength();
+            if (!isPackable(task, chars)) {
+                continue;
+            }
+            PsiClass owner = PsiTreeUtil.getParentOfType(element, PsiClass.class);
+            if (owner == null) {
+                continue;
+            }
+            sizes.put(task, chars);
+            byOwner.computeIfAbsent(owner, ignored -> new ArrayList<>()).add(task);
+        }
+        return byOwner;
+    }
+
+    /**
+     * 估算任务的输出 token 数
+     */
+    private static int estimateOutputTokens(@NotNull DocumentationTask task) {
+        return task.getType() == DocumentationTask.TaskType.FIELD ? FIELD_OUTPUT_TOKENS : METHOD_OUTPUT_TOKENS;
+    }
+
+    /**
+     * 只保留包含两个及以上成员的包
+     */
+    private static void addPack(@NotNull List<List<DocumentationTask>> packs, @NotNull List<DocumentationTask> pack) {
+        if (pack.size() > 1) {
+            packs.add(pack);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 文档生成工作线程执行器工厂
+ *
+ * <p>为每次批量处理提供执行器，工作线程几乎全部时间阻塞在 HTTP 请求或任务分发器的等待上。
+ *
+ * <p>执行模式：
+ * <ul>
+ *   <li>虚拟线程：运行在 JDK 21+ 时，每个工作任务使用一个虚拟线程，阻塞等待不占用平台线程</li>
+ *   <li>本次运行专用的有界线程池：旧版运行时回退到线程数等于本次工作任务数的线程池，
+ *       每个工作任务都能立即开始，线程空闲 {@value #KEEP_ALIVE_SECONDS} 秒或执行器关闭后回收</li>
+ * </ul>
+ *
+ * <p>工作任务在等待任务分发时一直占用线程，因此回退模式不与其他运行或项目共享线程池：
+ * 共享线程被占满时，部分提供商的工作任务无法开始，分给它们的任务将一直无人处理。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Slf4j
+public final class WorkerExecutors {
+
+    /** 线程池空闲线程的存活时间（秒） */
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    /** JDK 21+ 的 Executors#newVirtualThreadPerTaskExecutor，运行时不支持时为 null */
+    private static final Method VIRTUAL_EXECUTOR_FACTORY = findVirtualExecutorFactory();
+    /** 工作线程编号 */
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger(0);
+
+    /**
+     * 工具类不允许实例化
+     */
+    private WorkerExecutors() {
+    }
+
+    /**
+     * 当前运行时是否支持虚拟线程
+     *
+     * @return 支持返回 true
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_EXECUTOR_FACTORY != null;
+    }
+
+    /**
+     * 创建本次运行使用的执行器
+     *
+     * <p>请求使用虚拟线程且运行时支持时返回虚拟线程执行器，否则返回线程数为 {@code workers} 的线程池。
+     *
+     * @param preferVirtualThreads 是否优先使用虚拟线程
+     * @param workers              本次运行同时提交的工作任务数
+     * @return 本次运行的执行器，使用完毕后需要关闭
+     * @see dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState#virtualThreads
+     */
+    @NotNull
+    public static ExecutorService newRunExecutor(boolean preferVirtualThreads, int workers) {
+        if (preferVirtualThreads && VIRTUAL_EXECUTOR_FACTORY != null) {
+            try {
+                return (ExecutorService) VIRTUAL_EXECUTOR_FACTORY.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                log.warn("创建虚拟线程执行器失败，回退到线程池", e);
+            }
+        }
+        return newBoundedPool(Math.max(1, workers));
+    }
+
+    /**
+     * 创建线程数固定的线程池
+     *
+     * <p>核心线程允许超时回收，空闲时不保留线程。
+     *
+     * @param threads 线程数
+     * @return 线程池
+     */
+    private static ExecutorService newBoundedPool(int threads) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            threads, threads,
+            KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "AI-Javadoc-Worker-" + THREAD_COUNTER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * 查找虚拟线程执行器工厂方法
+     *
+     * <p>插件以 Java 17 编译，通过反射调用以兼容运行在 JDK 21+ 上的 IDE。
+     *
+     * @return 工厂方法，运行时不支持时返回 null
+     */
+    private static Method findVirtualExecutorFactory() {
+        try {
+            return java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
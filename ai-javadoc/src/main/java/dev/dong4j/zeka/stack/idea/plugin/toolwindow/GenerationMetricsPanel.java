@@ -0,0 +1,285 @@
+package dev.dong4j.zeka.stack.idea.plugin.toolwindow;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.util.ui.JBUI;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.JButton;
+import javax.swing.JEditorPane;
+import javax.swing.JPanel;
+import javax.swing.Timer;
+import javax.swing.UIManager;
+
+import dev.dong4j.zeka.stack.idea.plugin.ai.ProviderMetrics;
+import dev.dong4j.zeka.stack.idea.plugin.task.GenerationMetrics;
+import dev.dong4j.zeka.stack.idea.plugin.util.JavaDocBundle;
+
+/**
+ * 生成指标面板
+ *
+ * <p>每秒刷新一次（面板不可见时跳过），显示：
+ * <ul>
+ *   <li>当前运行：完成、失败、跳过、排队和执行中的任务数，已用时间和预计剩余时间</li>
+ *   <li>各提供商：请求数、成功与失败数、重试与限流（429）次数、执行中的请求数、
+ *       p50/p95/p99 延迟，以及最近 {@value #RATE_WINDOW_MILLIS} 毫秒内的输入输出 token 速率</li>
+ * </ul>
+ *
+ * <p>指标由无锁计数器提供，刷新只读取快照，不会影响正在执行的请求。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @see GenerationMetrics
+ * @see ProviderMetrics
+ * @since 1.0.0
+ */
+class GenerationMetricsPanel extends JPanel implements Disposable {
+
+    /** 刷新间隔（毫秒） */
+    private static final int REFRESH_MILLIS = 1000;
+    /** 计算 token 速率的时间窗口（毫秒） */
+    static final long RATE_WINDOW_MILLIS = 10_000L;
+
+    /** 项目对象 */
+    private final Project project;
+    /** 指标内容 */
+    private final JEditorPane content = new JEditorPane();
+    /** 刷新定时器 */
+    private final Timer timer;
+    /** 各提供商最近的 token 计数样本，用于计算速率 */
+    private final Map<String, Deque<long[]>> tokenSamples = new HashMap<>();
+
+    /**
+     * 创建生成指标面板
+     *
+     * @param project 项目对象
+     */
+    GenerationMetricsPanel(@NotNull Project project) {
+        super(new BorderLayout());
+        this.project = project;
+
+        content.setContentType("text/html");
+        content.setEditable(false);
+        content.setBackground(UIManager.getColor("Panel.background"));
+        content.setBorder(JBUI.Borders.empty(5));
+
+        JButton resetButton = new JButton(JavaDocBundle.message("metrics.reset"));
+        resetButton.addActionListener(e -> {
+            ProviderMetrics.resetAll();
+            tokenSamples.clear();
+            refresh();
+        });
+        JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        toolbar.add(resetButton);
+
+        add(toolbar, BorderLayout.NORTH);
+        add(new JBScrollPane(content), BorderLayout.CENTER);
+
+        timer = new Timer(REFRESH_MILLIS, e -> {
+            if (isShowing()) {
+                refresh();
+            }
+        });
+        timer.start();
+        refresh();
+    }
+
+    /**
+     * 读取最新指标并刷新显示
+     */
+    private void refresh() {
+        if (project.isDisposed()) {
+            return;
+        }
+        List<ProviderMetrics.Snapshot> providers = ProviderMetrics.snapshotAll();
+        int inFlight = 0;
+        for (ProviderMetrics.Snapshot provider : providers) {
+            inFlight += provider.inFlight();
+        }
+        GenerationMetrics metrics = GenerationMetrics.getInstance(project);
+        GenerationMetrics.Run run = metrics == null ? null : metrics.getCurrentRun();
+        GenerationMetrics.Snapshot runSnapshot = run == null ? null : run.snapshot(inFlight);
+
+        long now = System.currentTimeMillis();
+        StringBuilder html = new StringBuilder();
+        html.append("<html><head><style>");
+        html.append("body { font-family: sans-serif; font-size: 11px; }");
+        html.append("h3 { margin-top: 8px; margin-bottom: 4px; font-size: 12px; }");
+        html.append("td, th { padding: 3px 8px; text-align: right; }");
+        html.append("td.name, th.name { text-align: left; }");
+        html.append(".hint { color: gray; }");
+        html.append("</style></head><body>");
+        appendRun(html, runSnapshot, inFlight);
+        appendProviders(html, providers, now);
+        html.append("</body></html>");
+        content.setText(html.toString());
+    }
+
+    /**
+     * 输出当前运行的指标
+     */
+    private static void appendRun(@NotNull StringBuilder html, @Nullable GenerationMetrics.Snapshot run, int inFlight) {
+        html.append("<h3>").append(JavaDocBundle.message("metrics.run.title")).append("</h3>");
+        if (run == null) {
+            html.append("<p class='hint'>").append(JavaDocBundle.message("metrics.run.none")).append("</p>");
+            return;
+        }
+        html.append("<table>");
+        appendRow(html, "metrics.run.status",
+                  JavaDocBundle.message(run.running() ? "metrics.run.running" : "metrics.run.finished"));
+        appendRow(html, "metrics.run.progress", JavaDocBundle.message("metrics.run.progress.format",
+                                                                      run.completed() + run.failed() + run.skipped(),
+                                                                      run.totalTasks(), run.completed(),
+                                                                      run.failed(), run.skipped()));
+        appendRow(html, "metrics.run.queued", String.valueOf(run.queued()));
+        appendRow(html, "metrics.run.in.flight", String.valueOf(run.running() ? inFlight : 0));
+        appendRow(html, "metrics.run.elapsed", formatDuration(run.elapsedMillis()));
+        appendRow(html, "metrics.run.eta", formatDuration(run.etaMillis()));
+        html.append("</table>");
+    }
+
+    /**
+     * 输出一行名称和值
+     */
+    private static void appendRow(@NotNull StringBuilder html, @NotNull String key, @NotNull String value) {
+        html.append("<tr><td class='name'>").append(JavaDocBundle.message(key)).append("</td><td class='name'>")
+            .append(value).append("</td></tr>");
+    }
+
+    /**
+     * 输出各提供商的指标
+     */
+    private void appendProviders(@NotNull StringBuilder html, @NotNull List<ProviderMetrics.Snapshot> providers, long now) {
+        html.append("<h3>").append(JavaDocBundle.message("metrics.providers.title")).append("</h3>");
+        if (providers.isEmpty()) {
+            html.append("<p class='hint'>").append(JavaDocBundle.message("metrics.providers.none")).append("</p>");
+            return;
+        }
+        html.append("<table><tr>");
+        html.append("<th class='name'>").append(JavaDocBundle.message("metrics.column.provider")).append("</th>");
+        for (String column : new String[] {"requests", "success", "failed", "retries", "rate.limited", "in.flight",
+                                           "latency", "tokens.in", "tokens.out", "cache.hit"}) {
+            html.append("<th>").append(JavaDocBundle.message("metrics.column." + column)).append("</th>");
+        }
+        html.append("</tr>");
+        for (ProviderMetrics.Snapshot provider : providers) {
+            double[] rates = tokenRates(provider, now);
+            html.append("<tr><td class='name'>").append(escape(provider.name())).append("</td>");
+            html.append("<td>").append(provider.requests()).append("</td>");
+            html.append("<td>").append(provider.successes()).append("</td>");
+            html.append("<td>").append(provider.failures()).append("</td>");
+            html.append("<td>").append(provider.retries()).append("</td>");
+            html.append("<td>").append(provider.rateLimited()).append("</td>");
+            html.append("<td>").append(provider.inFlight()).append("</td>");
+            html.append("<td>").append(formatLatency(provider.p50())).append(" / ")
+                .append(formatLatency(provider.p95())).append(" / ")
+                .append(formatLatency(provider.p99())).append("</td>");
+            html.append("<td>").append(String.format("%.1f/s", rates[0])).append("</td>");
+            html.append("<td>").append(String.format("%.1f/s", rates[1])).append("</td>");
+            html.append("<td>").append(formatCacheHitRate(provider.cacheHitRate())).append("</td>");
+            html.append("</tr>");
+        }
+        html.append("</table>");
+        html.append("<p class='hint'>").append(JavaDocBundle.message("metrics.tokens.hint")).append("</p>");
+        html.append("<p class='hint'>").append(JavaDocBundle.message("metrics.cache.hint")).append("</p>");
+    }
+
+    /**
+     * 计算提供商最近时间窗口内的输入和输出 token 速率
+     *
+     * @param provider 提供商指标快照
+     * @param now      当前时间（毫秒）
+     * @return 输入和输出 token 每秒速率
+     */
+    @NotNull
+    private double[] tokenRates(@NotNull ProviderMetrics.Snapshot provider, long now) {
+        Deque<long[]> samples = tokenSamples.computeIfAbsent(provider.name(), k -> new ArrayDeque<>());
+        samples.addLast(new long[] {now, provider.inputTokens(), provider.outputTokens()});
+        while (samples.size() > 2 && now - samples.peekFirst()[0] > RATE_WINDOW_MILLIS) {
+            samples.removeFirst();
+        }
+        long[] first = samples.peekFirst();
+        long elapsed = now - first[0];
+        if (elapsed <= 0) {
+            return new double[] {0, 0};
+        }
+        return new double[] {
+            Math.max(0, provider.inputTokens() - first[1]) * 1000.0 / elapsed,
+            Math.max(0, provider.outputTokens() - first[2]) * 1000.0 / elapsed
+        };
+    }
+
+    /**
+     * 格式化提示词缓存命中率
+     *
+     * @param rate 命中率（0 到 1），负数表示服务端没有报告缓存用量
+     * @return 显示文本
+     */
+    @NotNull
+    static String formatCacheHitRate(double rate) {
+        return rate < 0 ? "-" : String.format("%.0f%%", rate * 100);
+    }
+
+    /**
+     * 格式化延迟
+     *
+     * @param millis 延迟（毫秒），负数表示没有样本
+     * @return 显示文本
+     */
+    @NotNull
+    static String formatLatency(long millis) {
+        if (millis < 0) {
+            return "-";
+        }
+        return millis < 1000 ? millis + "ms" : String.format("%.1fs", millis / 1000.0);
+    }
+
+    /**
+     * 格式化时长
+     *
+     * @param millis 时长（毫秒），负数表示未知
+     * @return 显示文本，如 {@code 1:05:09} 或 {@code 3:07}
+     */
+    @NotNull
+    static String formatDuration(long millis) {
+        if (millis < 0) {
+            return "-";
+        }
+        long seconds = millis / 1000;
+        long hours = seconds / 3600;
+        long minutes = seconds % 3600 / 60;
+        return hours > 0
+               ? String.format("%d:%02d:%02d", hours, minutes, seconds % 60)
+               : String.format("%d:%02d", minutes, seconds % 60);
+    }
+
+    /**
+     * 转义 HTML 特殊字符
+     */
+    @NotNull
+    private static String escape(@Nullable String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    /**
+     * 停止刷新
+     */
+    @Override
+    public void dispose() {
+        timer.stop();
+    }
+}
@@ -0,0 +1,37 @@
+package dev.dong4j.zeka.stack.idea.plugin.toolwindow;
+
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 生成指标工具窗口
+ *
+ * <p>替代性能模式运行结束后弹出的模态统计对话框，在运行过程中实时显示进度和各提供商的指标。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @see GenerationMetricsPanel
+ * @since 1.0.0
+ */
+public class GenerationMetricsToolWindowFactory implements ToolWindowFactory, DumbAware {
+
+    /**
+     * 创建工具窗口内容
+     *
+     * @param project    项目对象
+     * @param toolWindow 工具窗口
+     */
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        GenerationMetricsPanel panel = new GenerationMetricsPanel(project);
+        Content content = ContentFactory.getInstance().createContent(panel, "", false);
+        content.setDisposer(panel);
+        toolWindow.getContentManager().addContent(content);
+    }
+}
@@ -7,9 +7,29 @@ import org.junit.platform.suite.api.SuiteDisplayName;
 import dev.dong4j.zeka.stack.idea.plugin.ai.AIProviderHttpIntegrationTest;
 import dev.dong4j.zeka.stack.idea.plugin.ai.AIServiceFactoryTest;
 import dev.dong4j.zeka.stack.idea.plugin.ai.AIServiceProviderTest;
+import dev.dong4j.zeka.stack.idea.plugin.ai.ChatRequestBodyTest;
+import dev.dong4j.zeka.stack.idea.plugin.ai.ModelCatalogTest;
+import dev.dong4j.zeka.stack.idea.plugin.ai.PackedPromptTest;
+import dev.dong4j.zeka.stack.idea.plugin.ai.PromptTemplateTest;
+import dev.dong4j.zeka.stack.idea.plugin.ai.ProviderLatencyTrackerTest;
+import dev.dong4j.zeka.stack.idea.plugin.ai.ProviderMetricsTest;
+import dev.dong4j.zeka.stack.idea.plugin.ai.ProviderRateLimiterTest;
+import dev.dong4j.zeka.stack.idea.plugin.ai.SseCompletionSubscriberTest;
+import dev.dong4j.zeka.stack.idea.plugin.ai.ThinkingStreamFilterTest;
+import dev.dong4j.zeka.stack.idea.plugin.benchmark.SimulatedProviderTest;
 import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsStateTest;
+import dev.dong4j.zeka.stack.idea.plugin.task.ChangedLinesTest;
+import dev.dong4j.zeka.stack.idea.plugin.task.ClassSkeletonBuilderTest;
+import dev.dong4j.zeka.stack.idea.plugin.task.DocumentationCacheTest;
 import dev.dong4j.zeka.stack.idea.plugin.task.DocumentationTaskTest;
+import dev.dong4j.zeka.stack.idea.plugin.task.HedgedRequestTest;
+import dev.dong4j.zeka.stack.idea.plugin.task.JavaFileEnumeratorTest;
+import dev.dong4j.zeka.stack.idea.plugin.task.GenerationMetricsTest;
+import dev.dong4j.zeka.stack.idea.plugin.task.JobJournalTest;
+import dev.dong4j.zeka.stack.idea.plugin.task.ProviderDispatcherTest;
 import dev.dong4j.zeka.stack.idea.plugin.task.TaskCollectorTest;
+import dev.dong4j.zeka.stack.idea.plugin.task.TaskPackerTest;
+import dev.dong4j.zeka.stack.idea.plugin.task.WorkerExecutorsTest;
 import dev.dong4j.zeka.stack.idea.plugin.util.NotificationUtilTest;
 import dev.dong4j.zeka.stack.idea.plugin.util.PsiElementLocatorTest;
 
@@ -29,12 +49,35 @@ import dev.dong4j.zeka.stack.idea.plugin.util.PsiElementLocatorTest;
     // Task 模块
     DocumentationTaskTest.class,
     TaskCollectorTest.class,
+    ProviderDispatcherTest.class,
+    WorkerExecutorsTest.class,
+    DocumentationCacheTest.class,
+    ChangedLinesTest.class,
+    ClassSkeletonBuilderTest.class,
+    HedgedRequestTest.class,
+    JavaFileEnumeratorTest.class,
+    JobJournalTest.class,
+    GenerationMetricsTest.class,
+    TaskPackerTest.class,
     // TaskExecutorIntegrationTest.class, // 需要 IntelliJ Platform 环境，单独运行
 
     // AI 模块
     AIServiceFactoryTest.class,
     AIServiceProviderTest.class,
     AIProviderHttpIntegrationTest.class, // HTTP 集成测试
+    ThinkingStreamFilterTest.class,
+    SseCompletionSubscriberTest.class,
+    PackedPromptTest.class,
+    ProviderRateLimiterTest.class,
+    ProviderLatencyTrackerTest.class,
+    ProviderMetricsTest.class,
+    ModelCatalogTest.class,
+    ChatRequestBodyTest.class,
+    PromptTemplateTest.class,
+
+    // 基准测试支持
+    SimulatedProviderTest.class,
+    // TaskExecutorThroughputHarness.class, // 吞吐量基准，需要 IntelliJ Platform 环境，按需单独运行
 
     // Util 模块
     NotificationUtilTest.class,
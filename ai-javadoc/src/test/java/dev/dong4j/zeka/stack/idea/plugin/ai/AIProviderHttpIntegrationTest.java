@@ -9,6 +9,11 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
@@ -17,6 +22,7 @@ import okhttp3.Headers;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -546,5 +552,395 @@ public class AIProviderHttpIntegrationTest {
             .get("content").getAsString();
         assertThat(messageContent).contains("UserService");
     }
-}
 
+    @Test
+    @DisplayName("测试异步文档生成 - 非阻塞请求返回 Future")
+    void testAsyncDocumentationGeneration() throws Exception {
+        mockServer.enqueue(new MockResponse()
+                               .setResponseCode(200)
+                               .setBody("{\"choices\": [{\"message\": {\"content\": \"/** 异步生成的文档 */\"}}]}")
+                               .addHeader("Content-Type", "application/json"));
+
+        CompletableFuture<String> future = provider.generateDocumentationAsync(
+            "public void test() {}",
+            DocumentationTask.TaskType.METHOD,
+            "java"
+                                                                              );
+
+        assertThat(future.get(5, TimeUnit.SECONDS)).contains("异步生成的文档");
+
+        RecordedRequest request = mockServer.takeRequest();
+        assertThat(request.getMethod()).isEqualTo("POST");
+        assertThat(request.getPath()).isEqualTo("/chat/completions");
+        assertThat(request.getHeader("Authorization")).isEqualTo("Bearer test-api-key");
+        JsonObject requestJson = JsonParser.parseString(request.getBody().readUtf8()).getAsJsonObject();
+        assertThat(requestJson.get("model").getAsString()).isEqualTo("qwen-max");
+    }
+
+    @Test
+    @DisplayName("测试异步重试机制 - 第二次请求成功")
+    void testAsyncRetryMechanism() throws Exception {
+        mockServer.enqueue(new MockResponse()
+                               .setResponseCode(500)
+                               .setBody("{\"error\": {\"message\": \"Temporary error\"}}"));
+        mockServer.enqueue(new MockResponse()
+                               .setResponseCode(200)
+                               .setBody("{\"choices\": [{\"message\": {\"content\": \"/** 成功的文档 */\"}}]}")
+                               .addHeader("Content-Type", "application/json"));
+
+        String result = provider.generateDocumentationAsync(
+            "public void test() {}",
+            DocumentationTask.TaskType.METHOD,
+            "java"
+                                                           ).get(5, TimeUnit.SECONDS);
+
+        assertThat(result).contains("成功的文档");
+        assertThat(mockServer.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("测试取消异步生成 - 中止进行中的 HTTP 请求并关闭连接")
+    void testAsyncCancelAbortsRequest() throws Exception {
+        for (boolean streaming : new boolean[] {false, true}) {
+            RecordingServerSocketFactory sockets = new RecordingServerSocketFactory();
+            MockWebServer server = new MockWebServer();
+            server.setServerSocketFactory(sockets);
+            server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+            server.start();
+            try {
+                settings.baseUrl = server.url("/").toString().replaceAll("/$", "");
+                settings.timeout = 30_000;
+                settings.streaming = streaming;
+                CompletableFuture<String> future = new QianWenProvider(settings).generateDocumentationAsync(
+                    "public void test() {}", DocumentationTask.TaskType.METHOD, "java");
+                assertThat(server.takeRequest(5, TimeUnit.SECONDS)).isNotNull();
+
+                future.cancel(true);
+
+                assertThat(sockets.awaitAllClosed(Duration.ofSeconds(5))).as("streaming=" + streaming).isTrue();
+                assertThat(server.getRequestCount()).isEqualTo(1);
+            } finally {
+                server.shutdown();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("测试取消异步生成 - 退避等待中取消时不再重试")
+    void testAsyncCancelStopsRetry() throws Exception {
+        settings.waitDuration = 500;
+        mockServer.enqueue(new MockResponse()
+                               .setResponseCode(500)
+                               .setBody("{\"error\": {\"message\": \"Temporary error\"}}"));
+        mockServer.enqueue(new MockResponse()
+                               .setResponseCode(200)
+                               .setBody("{\"choices\": [{\"message\": {\"content\": \"/** 不应发出 */\"}}]}"));
+
+        CompletableFuture<String> future = provider.generateDocumentationAsync(
+            "public void test() {}",
+            DocumentationTask.TaskType.METHOD,
+            "java"
+                                                                              );
+        assertThat(mockServer.takeRequest(5, TimeUnit.SECONDS)).isNotNull();
+        Thread.sleep(100);
+        future.cancel(true);
+
+        Thread.sleep(1000);
+        assertThat(future).isCancelled();
+        assertThat(mockServer.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("测试异步并发请求")
+    void testAsyncConcurrentRequests() throws Exception {
+        int count = 5;
+        for (int i = 0; i < count; i++) {
+            mockServer.enqueue(new MockResponse()
+                                   .setResponseCode(200)
+                                   .setBody("{\"choices\": [{\"message\": {\"content\": \"/** 文档 */\"}}]}")
+                                   .addHeader("Content-Type", "application/json"));
+        }
+
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(provider.generateDocumentationAsync("public void test" + i + "() {}",
+                                                            DocumentationTask.TaskType.METHOD, "java"));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        assertThat(futures).allSatisfy(future -> assertThat(future.join()).contains("文档"));
+        assertThat(mockServer.getRequestCount()).isEqualTo(count);
+    }
+
+    @Test
+    @DisplayName("测试异步请求缺少 API Key 时以配置错误完成")
+    void testAsyncMissingApiKey() {
+        settings.apiKey = "";
+
+        CompletableFuture<String> future = provider.generateDocumentationAsync(
+            "public void test() {}",
+            DocumentationTask.TaskType.METHOD,
+            "java"
+                                                                              );
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .cause()
+            .isInstanceOf(AIServiceException.class)
+            .extracting(e -> ((AIServiceException) e).getErrorCode())
+            .isEqualTo(AIServiceException.ErrorCode.CONFIGURATION_ERROR);
+        assertThat(mockServer.getRequestCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("测试 Ollama 原生接口 - 请求 /api/chat 并携带 keep_alive 和 options")
+    void testOllamaNativeApi() throws Exception {
+        settings.aiProvider = AIProviderType.OLLAMA.getProviderId();
+        settings.modelName = "qwen:7b";
+        settings.apiKey = "";
+        settings.baseUrl = mockServer.url("/v1").toString();
+        settings.ollamaNativeApi = true;
+        settings.ollamaKeepAlive = "-1";
+        settings.ollamaNumCtx = 8192;
+        // 原生接口整体返回结果，流式模式下按普通响应解析
+        settings.streaming = true;
+        AIServiceProvider ollamaProvider = new OllamaProvider(settings);
+
+        mockServer.enqueue(new MockResponse()
+                               .setResponseCode(200)
+                               .setBody("{\"model\":\"qwen:7b\",\"message\":{\"role\":\"assistant\","
+                                        + "\"content\":\"/** 原生接口文档 */\"},\"done\":true}")
+                               .addHeader("Content-Type", "application/json"));
+        mockServer.enqueue(new MockResponse().setResponseCode(200).setBody("{\"done\":true}"));
+
+        String result = ollamaProvider.generateDocumentationAsync(
+            "public void test() {}",
+            DocumentationTask.TaskType.METHOD,
+            "java"
+                                                                 ).get(5, TimeUnit.SECONDS);
+        assertThat(result).isEqualTo("/** 原生接口文档 */");
+
+        RecordedRequest request = mockServer.takeRequest();
+        assertThat(request.getPath()).isEqualTo("/api/chat");
+        JsonObject requestJson = JsonParser.parseString(request.getBody().readUtf8()).getAsJsonObject();
+        assertThat(requestJson.get("stream").getAsBoolean()).isFalse();
+        assertThat(requestJson.get("keep_alive").getAsInt()).isEqualTo(-1);
+        assertThat(requestJson.has("max_tokens")).isFalse();
+        JsonObject options = requestJson.getAsJsonObject("options");
+        assertThat(options.get("num_ctx").getAsInt()).isEqualTo(8192);
+        assertThat(options.get("num_predict").getAsInt()).isEqualTo(settings.maxTokens);
+        assertThat(options.get("temperature").getAsDouble()).isEqualTo(settings.temperature);
+
+        // 预加载只发送模型、常驻时间和上下文长度
+        assertThat(ollamaProvider.preload().get(5, TimeUnit.SECONDS)).isTrue();
+        RecordedRequest preload = mockServer.takeRequest();
+        assertThat(preload.getPath()).isEqualTo("/api/generate");
+        JsonObject preloadJson = JsonParser.parseString(preload.getBody().readUtf8()).getAsJsonObject();
+        assertThat(preloadJson.get("model").getAsString()).isEqualTo("qwen:7b");
+        assertThat(preloadJson.has("prompt")).isFalse();
+        assertThat(preloadJson.getAsJsonObject("options").get("num_ctx").getAsInt()).isEqualTo(8192);
+    }
+
+    @Test
+    @DisplayName("测试 Ollama 关闭原生接口时仍使用 OpenAI 兼容接口，预加载失败返回 false")
+    void testOllamaCompatibleApiAndPreloadFailure() throws Exception {
+        settings.aiProvider = AIProviderType.OLLAMA.getProviderId();
+        settings.modelName = "qwen:7b";
+        settings.apiKey = "";
+        OllamaProvider ollamaProvider = new OllamaProvider(settings);
+
+        JsonObject body = ollamaProvider.buildRequestBody("prompt");
+        assertThat(body.has("options")).isFalse();
+        assertThat(body.get("max_tokens").getAsInt()).isEqualTo(settings.maxTokens);
+        assertThat(ollamaProvider.getCompletionsUrl()).isEqualTo(settings.baseUrl + "/chat/completions");
+
+        settings.baseUrl = mockServer.url("/v1/").toString();
+        assertThat(ollamaProvider.getNativeBaseUrl()).isEqualTo(mockServer.url("/").toString().replaceAll("/$", ""));
+
+        mockServer.enqueue(new MockResponse().setResponseCode(404).setBody("{\"error\":\"model not found\"}"));
+        assertThat(ollamaProvider.preload().get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(JsonParser.parseString(mockServer.takeRequest().getBody().readUtf8()).getAsJsonObject()
+                       .get("keep_alive").getAsString()).isEqualTo("30m");
+    }
+
+    @Test
+    @DisplayName("测试模型列表缓存 - 有效期内复用，刷新时发送条件请求")
+    void testAvailableModelsCache() throws Exception {
+        ModelCatalog.clearAll();
+        mockServer.enqueue(new MockResponse()
+                               .setResponseCode(200)
+                               .setBody("{\"data\": [{\"id\": \"qwen-max\"}, {\"id\": \"qwen-plus\"}]}")
+                               .addHeader("ETag", "\"models-v1\""));
+        mockServer.enqueue(new MockResponse().setResponseCode(304));
+
+        assertThat(provider.getAvailableModels()).containsExactly("qwen-max", "qwen-plus");
+        assertThat(provider.getAvailableModels()).containsExactly("qwen-max", "qwen-plus");
+        assertThat(mockServer.getRequestCount()).isEqualTo(1);
+        RecordedRequest first = mockServer.takeRequest();
+        assertThat(first.getPath()).isEqualTo("/models");
+        assertThat(first.getHeader("Authorization")).isEqualTo("Bearer test-api-key");
+        assertThat(first.getHeader("If-None-Match")).isNull();
+
+        assertThat(provider.getAvailableModels(true)).containsExactly("qwen-max", "qwen-plus");
+        assertThat(mockServer.takeRequest().getHeader("If-None-Match")).isEqualTo("\"models-v1\"");
+    }
+
+    @Test
+    @DisplayName("测试流式响应 - 解析 delta.content 并过滤思考内容")
+    void testStreamingResponse() throws Exception {
+        settings.streaming = true;
+        String sse = """
+            : keep-alive
+
+            data: {"choices":[{"delta":{"role":"assistant"}}]}
+
+            data: {"choices":[{"delta":{"content":"<th"}}]}
+
+            data: {"choices":[{"delta":{"content":"ink>分析</think>"}}]}
+
+            data: {"choices":[{"delta":{"content":"/** 流式"}}]}
+
+            data: {"choices":[{"delta":{"content":"文档 */"},"finish_reason":"stop"}]}
+
+            data: [DONE]
+
+            """;
+        mockServer.enqueue(new MockResponse()
+                               .setResponseCode(200)
+                               .setBody(sse)
+                               .addHeader("Content-Type", "text/event-stream"));
+
+        List<String> partials = new ArrayList<>();
+        String result = provider.generateDocumentationAsync(
+            "public void test() {}",
+            DocumentationTask.TaskType.METHOD,
+            "java",
+            partials::add
+                                                           ).get(5, TimeUnit.SECONDS);
+
+        assertThat(result).isEqualTo("/** 流式文档 */");
+        assertThat(String.join("", partials)).isEqualTo("/** 流式文档 */");
+
+        RecordedRequest request = mockServer.takeRequest();
+        assertThat(request.getHeader("Accept")).isEqualTo("text/event-stream");
+        JsonObject requestJson = JsonParser.parseString(request.getBody().readUtf8()).getAsJsonObject();
+        assertThat(requestJson.get("stream").getAsBoolean()).isTrue();
+    }
+
+    @Test
+    @DisplayName("测试流式模式下服务端返回普通 JSON 时回退解析")
+    void testStreamingFallbackToJson() throws Exception {
+        settings.streaming = true;
+        mockServer.enqueue(new MockResponse()
+                               .setResponseCode(200)
+                               .setBody("{\"choices\": [{\"message\": {\"content\": \"/** 非流式文档 */\"}}]}")
+                               .addHeader("Content-Type", "application/json"));
+
+        String result = provider.generateDocumentationAsync(
+            "public void test() {}",
+            DocumentationTask.TaskType.METHOD,
+            "java"
+                                                           ).get(5, TimeUnit.SECONDS);
+
+        assertThat(result).contains("非流式文档");
+    }
+
+    @Test
+    @DisplayName("测试流式响应的空闲超时 - 按数据块间隔计算")
+    void testStreamingIdleTimeout() {
+        settings.streaming = true;
+        settings.timeout = 200;
+        settings.maxRetries = 1;
+        mockServer.enqueue(new MockResponse()
+                               .setResponseCode(200)
+                               .setBody("data: {\"choices\":[{\"delta\":{\"content\":\"/** 部分\"}}]}\n\n"
+                                        + "data: [DONE]\n\n")
+                               .addHeader("Content-Type", "text/event-stream")
+                               .setBodyDelay(2, TimeUnit.SECONDS));
+
+        CompletableFuture<String> future = provider.generateDocumentationAsync(
+            "public void test() {}",
+            DocumentationTask.TaskType.METHOD,
+            "java"
+                                                                              );
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .cause()
+            .isInstanceOf(AIServiceException.class)
+            .extracting(e -> ((AIServiceException) e).getErrorCode())
+            .isEqualTo(AIServiceException.ErrorCode.TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("测试异步 401 映射为 API Key 无效且不重试")
+    void testAsyncUnauthorizedError() {
+        mockServer.enqueue(new MockResponse()
+                               .setResponseCode(401)
+                               .setBody("{\"error\": {\"message\": \"Invalid API key\"}}"));
+
+        CompletableFuture<String> future = provider.generateDocumentationAsync(
+            "public void test() {}",
+            DocumentationTask.TaskType.METHOD,
+            "java"
+                                                                              );
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .cause()
+            .isInstanceOf(AIServiceException.class)
+            .hasMessageContaining("Invalid API Key")
+            .extracting(e -> ((AIServiceException) e).getErrorCode())
+            .isEqualTo(AIServiceException.ErrorCode.INVALID_API_KEY);
+        assertThat(mockServer.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("测试异步 429 按 Retry-After 暂停后重试")
+    void testAsyncRateLimitRetryAfter() throws Exception {
+        settings.waitDuration = 0;
+        mockServer.enqueue(new MockResponse()
+                               .setResponseCode(429)
+                               .addHeader("Retry-After", "1")
+                               .setBody("{\"error\": {\"message\": \"Rate limit exceeded\"}}"));
+        mockServer.enqueue(new MockResponse()
+                               .setResponseCode(200)
+                               .setBody("{\"choices\": [{\"message\": {\"content\": \"/** 限流后的文档 */\"}}]}")
+                               .addHeader("Content-Type", "application/json"));
+
+        long start = System.nanoTime();
+        String result = provider.generateDocumentationAsync(
+            "public void test() {}",
+            DocumentationTask.TaskType.METHOD,
+            "java"
+                                                           ).get(5, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(result).contains("限流后的文档");
+        assertThat(mockServer.getRequestCount()).isEqualTo(2);
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(900L);
+    }
+
+    @Test
+    @DisplayName("测试异步 500 映射为服务不可用")
+    void testAsyncServerError() {
+        settings.maxRetries = 1;
+        mockServer.enqueue(new MockResponse()
+                               .setResponseCode(500)
+                               .setBody("{\"error\": {\"message\": \"Internal server error\"}}"));
+
+        CompletableFuture<String> future = provider.generateDocumentationAsync(
+            "public void test() {}",
+            DocumentationTask.TaskType.METHOD,
+            "java"
+                                                                              );
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .cause()
+            .isInstanceOf(AIServiceException.class)
+            .hasMessageContaining("Server error")
+            .extracting(e -> ((AIServiceException) e).getErrorCode())
+            .isEqualTo(AIServiceException.ErrorCode.SERVICE_UNAVAILABLE);
+    }
+}
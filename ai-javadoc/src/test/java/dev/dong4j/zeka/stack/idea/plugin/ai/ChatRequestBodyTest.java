@@ -0,0 +1,268 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 请求体流式编码与响应流式解析测试
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@DisplayName("请求体流式编码与响应流式解析测试")
+class ChatRequestBodyTest {
+
+    private SettingsState settings;
+    private CustomProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        settings = new SettingsState();
+        settings.aiProvider = AIProviderType.CUSTOM.getProviderId();
+        settings.baseUrl = "http://localhost:8080/v1";
+        settings.apiKey = "test-api-key";
+        settings.modelName = "qwen-max";
+        provider = new CustomProvider(settings);
+    }
+
+    @Test
+    @DisplayName("编码结果与 JSON 树序列化的字节一致")
+    void testEncodingMatchesJsonTree() throws IOException {
+        List<String> prompts = List.of(
+            "",
+            "public class A { String s = \"a\\\\b\"; }",
+            "tab\there\nline\r\nform\fback\b",
+            "\u0000\u0001\u001f\u007f <html>&'=",
+            "行分隔\u2028段分隔\u2029",
+            "中文注释 é ß 😀 emoji",
+            "lone \uD800 high and \uDC00 low surrogate\uD83D",
+            "x".repeat(8191) + "\"" + "中".repeat(5000));
+        for (String prompt : prompts) {
+            assertEncoded(prompt);
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            char[] chars = new char[random.nextInt(20_000)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = (char) (random.nextBoolean() ? random.nextInt(0x80) : random.nextInt(0x10000));
+            }
+            assertEncoded(new String(chars));
+        }
+    }
+
+    @Test
+    @DisplayName("模板在设置不变时复用，设置变化后重建")
+    void testTemplateFollowsSettings() throws IOException {
+        assertEncoded("first");
+
+        settings.systemPromptTemplate = "自定义系统提示词 \"quoted\"";
+        settings.temperature = 0.7;
+        settings.streaming = !settings.streaming;
+        assertEncoded("second");
+
+        // 系统提示词包含占位内容时退回整体编码
+        settings.systemPromptTemplate = ChatRequestBody.PROMPT_PLACEHOLDER;
+        assertEncoded("third");
+    }
+
+    @Test
+    @DisplayName("带前缀消息的请求体与 JSON 树序列化一致，前缀变化后重建模板")
+    void testEncodingWithPrefix() throws IOException {
+        for (List<String> prefix : List.of(List.of("说明 \"一\""), List.of("说明", "class A"),
+                                           List.of("说明", "class B"), List.<String>of())) {
+            String json = provider.buildRequestBody(prefix, "代码").toString();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            provider.encodeRequestBody(prefix, "代码").writeTo(out);
+
+            assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(json);
+        }
+    }
+
+    @Test
+    @DisplayName("交替处理不同类的成员时各自的模板都被复用")
+    void testTemplatesKeptPerPrefix() throws IOException {
+        AtomicInteger builds = new AtomicInteger();
+        CustomProvider counting = new CustomProvider(settings) {
+            @Override
+            protected JsonObject buildRequestBody(List<String> prefix, String prompt) {
+                if (ChatRequestBody.PROMPT_PLACEHOLDER.equals(prompt)) {
+                    builds.incrementAndGet();
+                }
+                return super.buildRequestBody(prefix, prompt);
+            }
+        };
+        List<List<String>> prefixes = List.of(List.of("说明", "class A"), List.of("说明", "class B"),
+                                              List.of("说明", "class C"));
+
+        for (int i = 0; i < 30; i++) {
+            List<String> prefix = prefixes.get(i % prefixes.size());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            counting.encodeRequestBody(prefix, "代码 " + i).writeTo(out);
+            assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo(counting.buildRequestBody(prefix, "代码 " + i).toString());
+        }
+
+        assertThat(builds).hasValue(prefixes.size());
+    }
+
+    @Test
+    @DisplayName("分块迭代和发布器输出完整请求体并声明长度")
+    void testChunksAndPublisher() throws Exception {
+        String prompt = "注释".repeat(20_000);
+        ChatRequestBody body = provider.encodeRequestBody(prompt);
+        byte[] expected = provider.buildRequestBody(prompt).toString().getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream chunks = new ByteArrayOutputStream();
+        int count = 0;
+        for (Iterator<byte[]> iterator = body.chunks(); iterator.hasNext(); count++) {
+            chunks.write(iterator.next());
+        }
+        assertThat(chunks.toByteArray()).isEqualTo(expected);
+        assertThat(count).isGreaterThan(3);
+
+        assertThat(body.publisher().contentLength()).isEqualTo(expected.length);
+        assertThat(publish(body)).isEqualTo(expected);
+        // 重试时发布器需要能再次从头发送
+        assertThat(publish(body)).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("读到消息内容即返回，跳过其他字段")
+    void testReadContent() throws IOException {
+        String response = "{\"id\":\"1\",\"object\":\"chat.completion\",\"usage\":{\"total_tokens\":3},"
+                          + "\"choices\":[{\"index\":0,\"logprobs\":null,\"message\":{\"role\":\"assistant\","
+                          + "\"tool_calls\":[{\"a\":[1,2,{}]}],\"content\":\"  /** 文档 \\u2028 */\\n\"}}],"
+                          + "\"trailing\": this is not json";
+
+        assertThat(ChatResponseReader.readCompletion(new StringReader(response)).content())
+            .isEqualTo("  /** 文档 \u2028 */\n");
+    }
+
+    @Test
+    @DisplayName("读取消息内容和服务端报告的提示词缓存用量")
+    void testReadCompletionUsage() throws IOException {
+        String openAi = "{\"usage\":{\"prompt_tokens\":1200,\"prompt_tokens_details\":{\"cached_tokens\":1024}},"
+                        + "\"choices\":[{\"message\":{\"content\":\"/** a */\",\"role\":\"assistant\"},"
+                        + "\"finish_reason\":\"stop\"},{\"message\":{}}]}";
+        String deepSeek = "{\"choices\":[{\"message\":{\"content\":\"/** b */\"}}],"
+                          + "\"usage\":{\"prompt_tokens\":500,\"prompt_cache_hit_tokens\":128}}";
+        String llamaCpp = "{\"choices\":[{\"message\":{\"content\":\"/** c */\"}}],"
+                          + "\"usage\":{\"prompt_tokens\":40},\"timings\":{\"prompt_n\":40,\"cache_n\":960}}";
+
+        assertThat(ChatResponseReader.readCompletion(new StringReader(openAi)))
+            .isEqualTo(new ChatResponseReader.Completion("/** a */", 1200, 1024));
+        assertThat(ChatResponseReader.readCompletion(new StringReader(deepSeek)))
+            .isEqualTo(new ChatResponseReader.Completion("/** b */", 500, 128));
+        assertThat(ChatResponseReader.readCompletion(new StringReader(llamaCpp)))
+            .isEqualTo(new ChatResponseReader.Completion("/** c */", 1000, 960));
+
+        // Ollama 原生接口的消息位于顶层
+        assertThat(ChatResponseReader.readCompletion(new StringReader(
+            "{\"model\":\"qwen:7b\",\"message\":{\"role\":\"assistant\",\"content\":\"/** e */\"},\"done\":true}")))
+            .isEqualTo(new ChatResponseReader.Completion("/** e */", -1, -1));
+
+        // 没有用量或内容之后的部分被截断时只返回内容
+        assertThat(ChatResponseReader.readCompletion(
+            new StringReader("{\"choices\":[{\"message\":{\"content\":\"/** d */\"}}],\"usage\":{\"prompt_")))
+            .isEqualTo(new ChatResponseReader.Completion("/** d */", -1, -1));
+    }
+
+    @Test
+    @DisplayName("内容缺失或响应格式不符时报错")
+    void testReadContentFailures() {
+        assertThatThrownBy(() -> ChatResponseReader.readCompletion(new StringReader("{\"choices\":[]}")))
+            .isInstanceOf(JsonParseException.class);
+        assertThatThrownBy(() -> ChatResponseReader.readCompletion(
+            new StringReader("{\"choices\":[{\"message\":{\"content\":null}}]}")))
+            .isInstanceOf(JsonParseException.class);
+        assertThatThrownBy(() -> ChatResponseReader.readCompletion(new StringReader("[]")))
+            .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> ChatResponseReader.readCompletion(new StringReader("")))
+            .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    @DisplayName("流式解析与字符串解析结果一致，无效响应映射为 INVALID_RESPONSE")
+    void testParseResponseFromReader() throws Exception {
+        String response = "{\"choices\":[{\"message\":{\"content\":\"<think>推理</think>\\n/** 文档 */\"}}]}";
+
+        assertThat(provider.parseResponse(new StringReader(response))).isEqualTo(provider.parseResponse(response))
+            .isEqualTo("/** 文档 */");
+
+        for (String invalid : List.of("", "{\"choices\":[{\"message\":{", "{\"error\":\"x\"}", "<html>")) {
+            assertThatThrownBy(() -> provider.parseResponse(new StringReader(invalid)))
+                .isInstanceOfSatisfying(AIServiceException.class, e -> assertThat(e.getErrorCode())
+                    .isEqualTo(AIServiceException.ErrorCode.INVALID_RESPONSE));
+        }
+    }
+
+    /**
+     * 校验流式编码的请求体与 JSON 树序列化的结果一致
+     */
+    private void assertEncoded(String prompt) throws IOException {
+        String json = provider.buildRequestBody(prompt).toString();
+        ChatRequestBody body = provider.encodeRequestBody(prompt);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        assertThat(out.toByteArray()).isEqualTo(json.getBytes(StandardCharsets.UTF_8));
+        assertThat(body.byteLength()).isEqualTo(out.size());
+        assertThat(body.length()).isEqualTo(json.length());
+    }
+
+    /**
+     * 订阅发布器并收集全部字节
+     */
+    private static byte[] publish(ChatRequestBody body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompletableFuture<byte[]> done = new CompletableFuture<>();
+        body.publisher().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] bytes = new byte[item.remaining()];
+                item.get(bytes);
+                out.writeBytes(bytes);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(out.toByteArray());
+            }
+        });
+        return done.get(5, TimeUnit.SECONDS);
+    }
+}
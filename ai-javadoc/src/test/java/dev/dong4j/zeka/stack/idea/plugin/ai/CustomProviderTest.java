@@ -4,9 +4,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
+import dev.dong4j.zeka.stack.idea.plugin.task.DocumentationTask;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -140,4 +142,31 @@ class CustomProviderTest {
         assertFalse(result.isSuccess());
         assertTrue(result.getMessage().contains("模型名称不能为空"));
     }
+
+    @Test
+    void testRequestFingerprint() {
+        String fingerprint = provider.getRequestFingerprint(DocumentationTask.TaskType.METHOD, "java");
+        assertNotNull(fingerprint);
+        assertEquals(fingerprint, provider.getRequestFingerprint(DocumentationTask.TaskType.METHOD, "java"));
+        assertNotEquals(fingerprint, provider.getRequestFingerprint(DocumentationTask.TaskType.FIELD, "java"));
+
+        // 流式输出只影响传输方式，不影响指纹
+        settings.streaming = !settings.streaming;
+        assertEquals(fingerprint, provider.getRequestFingerprint(DocumentationTask.TaskType.METHOD, "java"));
+
+        settings.temperature = settings.temperature + 0.5;
+        String temperatureChanged = provider.getRequestFingerprint(DocumentationTask.TaskType.METHOD, "java");
+        assertNotEquals(fingerprint, temperatureChanged);
+
+        settings.modelName = "gpt-4o";
+        String modelChanged = provider.getRequestFingerprint(DocumentationTask.TaskType.METHOD, "java");
+        assertNotEquals(temperatureChanged, modelChanged);
+
+        settings.methodPromptTemplate = "自定义方法模板 %s";
+        String templateChanged = provider.getRequestFingerprint(DocumentationTask.TaskType.METHOD, "java");
+        assertNotEquals(modelChanged, templateChanged);
+
+        settings.systemPromptTemplate = "自定义系统提示词";
+        assertNotEquals(templateChanged, provider.getRequestFingerprint(DocumentationTask.TaskType.METHOD, "java"));
+    }
 }
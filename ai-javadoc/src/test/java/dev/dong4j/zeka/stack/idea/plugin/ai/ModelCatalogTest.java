@@ -0,0 +1,103 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ModelCatalog 单元测试
+ */
+@DisplayName("ModelCatalog 单元测试")
+public class ModelCatalogTest {
+
+    private static final Function<String, List<String>> PARSER =
+        body -> body.isEmpty() ? List.of() : Arrays.asList(body.split(","));
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final List<String> requests = new ArrayList<>();
+    private ModelCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new ModelCatalog(60_000, now::get);
+    }
+
+    @Test
+    @DisplayName("有效期内不重复请求，过期后重新请求")
+    void testTtl() throws Exception {
+        assertThat(catalog.getIfFresh()).isNull();
+        assertThat(catalog.get(false, respond("a,b", "\"v1\""), PARSER)).containsExactly("a", "b");
+
+        now.addAndGet(59_999);
+        assertThat(catalog.get(false, respond("c", "\"v2\""), PARSER)).containsExactly("a", "b");
+        assertThat(catalog.getIfFresh()).containsExactly("a", "b");
+        assertThat(requests).containsExactly("null");
+
+        now.addAndGet(1);
+        assertThat(catalog.getIfFresh()).isNull();
+        assertThat(catalog.get(false, respond("c", "\"v2\""), PARSER)).containsExactly("c");
+        assertThat(requests).containsExactly("null", "\"v1\"");
+    }
+
+    @Test
+    @DisplayName("刷新时发送条件请求，304 沿用缓存并重新计算有效期")
+    void testConditionalRevalidation() throws Exception {
+        catalog.get(false, respond("a", "\"v1\""), PARSER);
+
+        List<String> models = catalog.get(true, (etag, lastModified) -> {
+            requests.add(etag + "|" + lastModified);
+            return new ModelCatalog.Response(true, null, etag, lastModified);
+        }, PARSER);
+
+        assertThat(models).containsExactly("a");
+        assertThat(requests).containsExactly("null", "\"v1\"|Mon, 01 Jan 2024 00:00:00 GMT");
+        now.addAndGet(59_999);
+        assertThat(catalog.getIfFresh()).containsExactly("a");
+    }
+
+    @Test
+    @DisplayName("请求失败或结果为空时返回已有的缓存，空结果不缓存")
+    void testStaleOnError() throws Exception {
+        ModelCatalog.Fetcher failing = (etag, lastModified) -> {
+            throw new IOException("connection refused");
+        };
+        assertThatThrownBy(() -> catalog.get(false, failing, PARSER)).isInstanceOf(IOException.class);
+        assertThat(catalog.get(false, respond("", null), PARSER)).isEmpty();
+        assertThat(catalog.getIfFresh()).isNull();
+
+        catalog.get(false, respond("a", null), PARSER);
+        now.addAndGet(120_000);
+        assertThat(catalog.get(false, failing, PARSER)).containsExactly("a");
+        assertThat(catalog.get(true, respond("", null), PARSER)).containsExactly("a");
+    }
+
+    @Test
+    @DisplayName("同一端点共享缓存，API Key 不同时分开缓存")
+    void testForEndpoint() {
+        ModelCatalog.clearAll();
+        ModelCatalog catalog = ModelCatalog.forEndpoint("ollama", "http://localhost:11434/v1", "");
+
+        assertThat(ModelCatalog.forEndpoint("ollama", "http://localhost:11434/v1", "")).isSameAs(catalog);
+        assertThat(ModelCatalog.forEndpoint("ollama", "http://localhost:11434/v1", "key")).isNotSameAs(catalog);
+    }
+
+    /**
+     * 创建返回固定响应的请求函数，并记录请求携带的 ETag
+     */
+    private ModelCatalog.Fetcher respond(String body, String etag) {
+        return (previousEtag, lastModified) -> {
+            requests.add(String.valueOf(previousEtag));
+            return new ModelCatalog.Response(false, body, etag, "Mon, 01 Jan 2024 00:00:00 GMT");
+        };
+    }
+}
@@ -0,0 +1,133 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import com.intellij.psi.PsiElement;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
+import dev.dong4j.zeka.stack.idea.plugin.task.DocumentationTask;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 多成员打包提示词测试
+ *
+ * <p>测试打包提示词的构建和打包响应的拆分。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@DisplayName("多成员打包提示词测试")
+class PackedPromptTest {
+
+    private CustomProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        SettingsState settings = new SettingsState();
+        settings.aiProvider = AIProviderType.CUSTOM.getProviderId();
+        settings.baseUrl = "https://api.openai.com/v1";
+        settings.apiKey = "test-api-key";
+        settings.modelName = "gpt-3.5-turbo";
+
+        provider = new CustomProvider(settings);
+    }
+
+    @Test
+    @DisplayName("每种类型的模板只出现一次，成员按编号排列")
+    void testBuildPackedPrompt() {
+        List<DocumentationTask> tasks = List.of(
+            task("private String name;", DocumentationTask.TaskType.FIELD),
+            task("private int age;", DocumentationTask.TaskType.FIELD),
+            task("public int add(int a, int b) { return a + b; }", DocumentationTask.TaskType.METHOD));
+
+        String prompt = provider.buildPackedPrompt(tasks, "java");
+
+        assertThat(prompt).containsOnlyOnce("# 字段注释要求");
+        assertThat(prompt).containsOnlyOnce("# 方法注释要求");
+        assertThat(prompt).contains("===CODE 1 (字段)===\nprivate String name;");
+        assertThat(prompt).contains("===CODE 2 (字段)===\nprivate int age;");
+        assertThat(prompt).contains("===CODE 3 (方法)===\npublic int add(int a, int b) { return a + b; }");
+        assertThat(prompt).contains("下面共有 3 个成员");
+    }
+
+    @Test
+    @DisplayName("按分隔标记拆分响应")
+    void testSplitPackedResponse() {
+        String response = """
+            ===DOC 1===
+            /** 用户名 */
+            ===DOC 2===
+            /**
+             * 计算两数之和
+             *
+             * @param a 第一个数
+             * @param b 第二个数
+             * @return 两数之和
+             */
+            """;
+
+        List<String> results = provider.splitPackedResponse(response, 2);
+
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0)).isEqualTo("/** 用户名 */");
+        assertThat(results.get(1)).startsWith("/**").endsWith("*/").contains("@return 两数之和");
+    }
+
+    @Test
+    @DisplayName("容忍代码块标记、空白和乱序")
+    void testSplitPackedResponseWithNoise() {
+        String response = """
+            ```java
+            === DOC 2 ===
+            /** 年龄 */
+            ```
+            ```java
+            ===DOC 1===
+            /** 用户名 */
+            ```
+            """;
+
+        List<String> results = provider.splitPackedResponse(response, 2);
+
+        assertThat(results).containsExactly("/** 用户名 */", "/** 年龄 */");
+    }
+
+    @Test
+    @DisplayName("缺失或越界的成员返回空字符串")
+    void testSplitPackedResponseMissingSection() {
+        String response = """
+            ===DOC 1===
+            /** 用户名 */
+            ===DOC 3===
+            没有注释内容
+            ===DOC 9===
+            /** 越界成员 */
+            """;
+
+        List<String> results = provider.splitPackedResponse(response, 3);
+
+        assertThat(results).containsExactly("/** 用户名 */", "", "");
+    }
+
+    @Test
+    @DisplayName("没有分隔标记时全部返回空字符串")
+    void testSplitPackedResponseWithoutSeparator() {
+        List<String> results = provider.splitPackedResponse("/** 无法对应到成员的注释 */", 2);
+
+        assertThat(results).containsExactly("", "");
+    }
+
+    /**
+     * 创建测试任务
+     */
+    private static DocumentationTask task(String code, DocumentationTask.TaskType type) {
+        return new DocumentationTask(mock(PsiElement.class), code, type, "/path/to/User.java");
+    }
+}
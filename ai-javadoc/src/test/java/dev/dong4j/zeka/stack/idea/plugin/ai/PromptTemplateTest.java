@@ -0,0 +1,195 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.intellij.psi.PsiElement;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
+import dev.dong4j.zeka.stack.idea.plugin.task.DocumentationTask;
+import dev.dong4j.zeka.stack.idea.plugin.task.PromptContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 预编译提示词模板测试
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@DisplayName("预编译提示词模板测试")
+class PromptTemplateTest {
+
+    private static final PromptContext CONTEXT = new PromptContext(
+        "UserService", "public String getUserName(int userId)", "com.example.user", "/** 旧注释 */");
+
+    private SettingsState settings;
+    private CustomProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        settings = new SettingsState();
+        settings.aiProvider = AIProviderType.CUSTOM.getProviderId();
+        settings.baseUrl = "https://api.openai.com/v1";
+        settings.apiKey = "test-api-key";
+        settings.modelName = "gpt-3.5-turbo";
+        provider = new CustomProvider(settings);
+    }
+
+    @Test
+    @DisplayName("默认模板的渲染结果与 String.format 相同")
+    void testDefaultTemplatesMatchFormat() {
+        String code = "public int add(int a, int b) { return a + b; }";
+        for (String source : List.of(SettingsState.getDefaultClassPromptTemplate(),
+                                     SettingsState.getDefaultMethodPromptTemplate(),
+                                     SettingsState.getDefaultFieldPromptTemplate(),
+                                     SettingsState.getDefaultTestPromptTemplate())) {
+            PromptTemplate template = PromptTemplate.compile(source);
+
+            assertThat(template.render(code, CONTEXT)).isEqualTo(String.format(source, code));
+            assertThat(template.length(code, CONTEXT)).isEqualTo(String.format(source, code).length());
+        }
+    }
+
+    @Test
+    @DisplayName("命名变量按上下文填充，未知名称和单独的百分号原样保留")
+    void testNamedVariables() {
+        PromptTemplate template = PromptTemplate.compile(
+            "{packageName}.{className} {signature}\n{existingDoc}\n覆盖率 100% {unknown} { x } {%%}\n{code}|%s");
+
+        assertThat(template.render("CODE", CONTEXT)).isEqualTo(
+            "com.example.user.UserService public String getUserName(int userId)\n/** 旧注释 */\n"
+            + "覆盖率 100% {unknown} { x } {%}\nCODE|CODE");
+        assertThat(template.uses(PromptTemplate.Variable.PACKAGE_NAME)).isTrue();
+        assertThat(PromptTemplate.compile("%s").uses(PromptTemplate.Variable.CLASS_NAME)).isFalse();
+        assertThat(PromptTemplate.compile("末尾 { 和 %").render("x", CONTEXT)).isEqualTo("末尾 { 和 %");
+    }
+
+    @Test
+    @DisplayName("渲染追加到已有的构建器")
+    void testRenderTo() {
+        StringBuilder out = new StringBuilder("前缀:");
+
+        PromptTemplate.compile("[{className}] {code}").renderTo(out, "x", CONTEXT).append(":后缀");
+
+        assertThat(out).hasToString("前缀:[UserService] x:后缀");
+    }
+
+    @Test
+    @DisplayName("用户模板包含百分号时不再报错，模板变化后重新编译")
+    void testBuildPromptWithUserTemplate() {
+        settings.methodPromptTemplate = "为 {className} 的方法生成注释，覆盖率 100%：\n%s";
+        String prompt = provider.buildPrompt("void run() {}", DocumentationTask.TaskType.METHOD, "java", CONTEXT);
+        assertThat(prompt).isEqualTo("为 UserService 的方法生成注释，覆盖率 100%：\nvoid run() {}");
+
+        PromptTemplate compiled = provider.compiledTemplate(DocumentationTask.TaskType.METHOD, "java");
+        assertThat(provider.compiledTemplate(DocumentationTask.TaskType.METHOD, "java")).isSameAs(compiled);
+
+        settings.methodPromptTemplate = "{code}";
+        assertThat(provider.compiledTemplate(DocumentationTask.TaskType.METHOD, "java")).isNotSameAs(compiled);
+        assertThat(provider.buildPrompt("void run() {}", DocumentationTask.TaskType.METHOD, "java"))
+            .isEqualTo("void run() {}");
+    }
+
+    @Test
+    @DisplayName("指纹只在模板使用上下文变量时包含其取值")
+    void testFingerprintIncludesUsedVariables() {
+        String base = provider.getRequestFingerprint(DocumentationTask.TaskType.METHOD, "java");
+        assertThat(provider.getRequestFingerprint(DocumentationTask.TaskType.METHOD, "java", CONTEXT)).isEqualTo(base);
+
+        settings.methodPromptTemplate = "包 {packageName}\n{code}";
+        PromptContext other = new PromptContext("UserService", "", "com.example.order", "");
+        assertThat(provider.getRequestFingerprint(DocumentationTask.TaskType.METHOD, "java", CONTEXT))
+            .isNotEqualTo(provider.getRequestFingerprint(DocumentationTask.TaskType.METHOD, "java", other))
+            .contains("packageName=com.example.user");
+    }
+
+    @Test
+    @DisplayName("打包提示词只填入同类型成员共同的上下文")
+    void testPackedPromptUsesSharedContext() {
+        settings.fieldPromptTemplate = "{packageName}.{className} 的字段 [{signature}]：%s";
+        List<DocumentationTask> tasks = List.of(
+            task("private String name;", new PromptContext("User", "private String name", "com.example", "")),
+            task("private int age;", new PromptContext("User", "private int age", "com.example", "")));
+
+        String prompt = provider.buildPackedPrompt(tasks, "java");
+
+        assertThat(prompt).contains("com.example.User 的字段 []：（见下方“待处理的成员”中类型为字段的代码）");
+    }
+
+    @Test
+    @DisplayName("模板在第一个随成员变化的变量处拆分为前缀和其余部分")
+    void testSplitAtMemberVariable() {
+        PromptTemplate template = PromptTemplate.compile("{packageName} 包 {className} 的说明\n{signature}\n%s 结尾");
+
+        assertThat(template.hasPrefix()).isTrue();
+        assertThat(template.renderPrefix(CONTEXT)).isEqualTo("com.example.user 包 UserService 的说明\n");
+        assertThat(template.renderPrefix(CONTEXT) + template.renderAfterPrefix("CODE", CONTEXT))
+            .isEqualTo(template.render("CODE", CONTEXT));
+
+        assertThat(PromptTemplate.compile("  \n%s").hasPrefix()).isFalse();
+        assertThat(PromptTemplate.compile("没有代码占位符").hasPrefix()).isFalse();
+        for (String source : List.of(SettingsState.getDefaultClassPromptTemplate(),
+                                     SettingsState.getDefaultMethodPromptTemplate())) {
+            assertThat(PromptTemplate.compile(source).hasPrefix()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("启用前缀缓存后同一个类的成员请求共享字节相同的前缀消息")
+    void testPromptPrefixLayout() {
+        settings.promptPrefixCaching = true;
+        PromptContext first = new PromptContext("UserService", "void a()", "com.example", "",
+                                                "public class UserService");
+        PromptContext second = new PromptContext("UserService", "void b()", "com.example", "/** 旧 */",
+                                                 "public class UserService");
+
+        List<String> prefix = provider.buildPromptPrefix(DocumentationTask.TaskType.METHOD, "java", first);
+        assertThat(prefix).hasSize(2)
+            .isEqualTo(provider.buildPromptPrefix(DocumentationTask.TaskType.METHOD, "java", second));
+        assertThat(prefix.get(1)).contains("package com.example;").endsWith("public class UserService");
+        assertThat(provider.buildPrompt("void a() {}", DocumentationTask.TaskType.METHOD, "java", first))
+            .startsWith(prefix.get(0) + "void a() {}");
+
+        JsonArray messages = provider.buildRequestBody(prefix, "void a() {}").getAsJsonArray("messages");
+        assertThat(messages).hasSize(4);
+        assertThat(messages.get(1).getAsJsonObject().get("content").getAsString()).isEqualTo(prefix.get(0));
+        assertThat(messages.get(3).getAsJsonObject().get("content").getAsString()).isEqualTo("void a() {}");
+
+        assertThat(provider.getRequestFingerprint(DocumentationTask.TaskType.METHOD, "java", first))
+            .isEqualTo(provider.getRequestFingerprint(DocumentationTask.TaskType.METHOD, "java", second))
+            .contains("promptPrefixCaching");
+
+        settings.promptPrefixCaching = false;
+        assertThat(provider.buildPromptPrefix(DocumentationTask.TaskType.METHOD, "java", first)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("通义千问在前缀的最后一条消息上附加缓存标记")
+    void testQianWenCacheControl() {
+        QianWenProvider qianWen = new QianWenProvider(settings);
+
+        JsonArray messages = qianWen.buildRequestBody(List.of("说明", "类声明"), "代码").getAsJsonArray("messages");
+
+        assertThat(messages.get(1).getAsJsonObject().get("content").isJsonPrimitive()).isTrue();
+        JsonObject marked = messages.get(2).getAsJsonObject().getAsJsonArray("content").get(0).getAsJsonObject();
+        assertThat(marked.get("text").getAsString()).isEqualTo("类声明");
+        assertThat(marked.getAsJsonObject("cache_control").get("type").getAsString()).isEqualTo("ephemeral");
+        assertThat(messages.get(3).getAsJsonObject().get("content").getAsString()).isEqualTo("代码");
+    }
+
+    /**
+     * 创建带有上下文的字段任务
+     */
+    private static DocumentationTask task(String code, PromptContext context) {
+        return new DocumentationTask(mock(PsiElement.class), code, DocumentationTask.TaskType.FIELD,
+                                     "/path/to/User.java", code.length(), context);
+    }
+}
@@ -0,0 +1,55 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ProviderLatencyTracker 单元测试
+ */
+@DisplayName("ProviderLatencyTracker 单元测试")
+public class ProviderLatencyTrackerTest {
+
+    @Test
+    @DisplayName("样本不足时没有分位数")
+    void testTooFewSamples() {
+        ProviderLatencyTracker tracker = new ProviderLatencyTracker();
+        for (int i = 1; i < ProviderLatencyTracker.MIN_SAMPLES; i++) {
+            tracker.record(i * 100L);
+        }
+        assertThat(tracker.percentile90()).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("按最近的样本计算 p90")
+    void testPercentile90() {
+        ProviderLatencyTracker tracker = new ProviderLatencyTracker();
+        for (int i = 1; i <= 10; i++) {
+            tracker.record(i * 100L);
+        }
+        assertThat(tracker.percentile90()).isEqualTo(900);
+        assertThat(tracker.percentile(0.5)).isEqualTo(500);
+    }
+
+    @Test
+    @DisplayName("只保留最近的样本")
+    void testSlidingWindow() {
+        ProviderLatencyTracker tracker = new ProviderLatencyTracker();
+        for (int i = 0; i < ProviderLatencyTracker.WINDOW_SIZE; i++) {
+            tracker.record(10_000);
+        }
+        for (int i = 0; i < ProviderLatencyTracker.WINDOW_SIZE; i++) {
+            tracker.record(100);
+        }
+        assertThat(tracker.percentile90()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("同一端点共享统计")
+    void testSharedPerEndpoint() {
+        ProviderLatencyTracker a = ProviderLatencyTracker.forEndpoint("test-latency", "http://a", "key");
+        assertThat(ProviderLatencyTracker.forEndpoint("test-latency", "http://a", "key")).isSameAs(a);
+        assertThat(ProviderLatencyTracker.forEndpoint("test-latency", "http://b", "key")).isNotSameAs(a);
+    }
+}
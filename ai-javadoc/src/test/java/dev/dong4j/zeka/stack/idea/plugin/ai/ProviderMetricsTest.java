@@ -0,0 +1,130 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ProviderMetrics 与 LatencyHistogram 单元测试
+ */
+@DisplayName("ProviderMetrics 单元测试")
+public class ProviderMetricsTest {
+
+    @Test
+    @DisplayName("桶的上界覆盖桶中的所有值")
+    void testBuckets() {
+        for (long value = 0; value < 100_000; value++) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertThat(LatencyHistogram.upperBound(bucket)).isGreaterThanOrEqualTo(value);
+            if (bucket > 0) {
+                assertThat(LatencyHistogram.upperBound(bucket - 1)).isLessThan(value);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("分位数的相对误差不超过 12.5%")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.percentile(0.5)).isEqualTo(-1);
+
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 10);
+        }
+
+        assertThat(histogram.percentile(0.5)).isBetween(5000L, 5625L);
+        assertThat(histogram.percentile(0.95)).isBetween(9500L, 10_688L);
+        assertThat(histogram.percentile(0.99)).isBetween(9900L, 11_138L);
+    }
+
+    @Test
+    @DisplayName("超出范围的值计入最后一个桶，负数被忽略")
+    void testOutOfRange() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(LatencyHistogram.MAX_VALUE * 10);
+
+        assertThat(histogram.percentile(1.0)).isGreaterThanOrEqualTo(LatencyHistogram.MAX_VALUE);
+    }
+
+    @Test
+    @DisplayName("记录请求、重试、限流和 token")
+    void testCounters() {
+        ProviderMetrics metrics = new ProviderMetrics("qianwen / qwen-max", "https://example.com");
+        metrics.requestStarted(300);
+        metrics.recordRateLimited();
+        metrics.recordRetry();
+        metrics.requestFinished();
+        metrics.requestStarted(300);
+        metrics.recordSuccess(1200, 90);
+
+        ProviderMetrics.Snapshot snapshot = metrics.snapshot();
+
+        assertThat(snapshot.name()).isEqualTo("qianwen / qwen-max");
+        assertThat(snapshot.requests()).isEqualTo(2);
+        assertThat(snapshot.successes()).isEqualTo(1);
+        assertThat(snapshot.retries()).isEqualTo(1);
+        assertThat(snapshot.rateLimited()).isEqualTo(1);
+        assertThat(snapshot.inFlight()).isEqualTo(1);
+        assertThat(snapshot.inputTokens()).isEqualTo(200);
+        assertThat(snapshot.outputTokens()).isEqualTo(30);
+        assertThat(snapshot.p50()).isBetween(1200L, 1350L);
+
+        metrics.reset();
+        snapshot = metrics.snapshot();
+        assertThat(snapshot.requests()).isZero();
+        assertThat(snapshot.p99()).isEqualTo(-1);
+        assertThat(snapshot.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("按服务端报告的用量计算提示词缓存命中率")
+    void testPromptCacheHitRate() {
+        ProviderMetrics metrics = new ProviderMetrics("qianwen / qwen-max", "https://example.com");
+        assertThat(metrics.snapshot().cacheHitRate()).isEqualTo(-1);
+
+        metrics.recordPromptCache(1000, 0);
+        metrics.recordPromptCache(1000, 1500);
+        metrics.recordPromptCache(0, 10);
+
+        ProviderMetrics.Snapshot snapshot = metrics.snapshot();
+        assertThat(snapshot.promptTokens()).isEqualTo(2000);
+        assertThat(snapshot.cachedTokens()).isEqualTo(1000);
+        assertThat(snapshot.cacheHitRate()).isEqualTo(0.5);
+
+        metrics.reset();
+        assertThat(metrics.snapshot().cacheHitRate()).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("多线程并发记录不丢失计数")
+    void testConcurrentRecording() throws InterruptedException {
+        ProviderMetrics metrics = new ProviderMetrics("custom", null);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    metrics.requestStarted(3);
+                    metrics.recordSuccess(i % 500, 3);
+                    metrics.requestFinished();
+                }
+                done.countDown();
+            });
+        }
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+
+        ProviderMetrics.Snapshot snapshot = metrics.snapshot();
+        assertThat(snapshot.requests()).isEqualTo(80_000);
+        assertThat(snapshot.successes()).isEqualTo(80_000);
+        assertThat(snapshot.outputTokens()).isEqualTo(80_000);
+        assertThat(snapshot.inFlight()).isZero();
+    }
+}
@@ -0,0 +1,159 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ProviderRateLimiter 单元测试
+ */
+@DisplayName("ProviderRateLimiter 单元测试")
+public class ProviderRateLimiterTest {
+
+    private AtomicLong now;
+    private ProviderRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000_000L);
+        limiter = new ProviderRateLimiter(now::get);
+    }
+
+    private static Function<String, String> headers(Map<String, String> values) {
+        return values::get;
+    }
+
+    @Test
+    @DisplayName("未配置上限时不限制")
+    void testUnlimited() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.reserve(10_000)).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("请求数用完后按补充速率排队")
+    void testRequestsPerMinute() {
+        limiter.configure(60, 0);
+
+        for (int i = 0; i < 60; i++) {
+            assertThat(limiter.reserve(1)).isZero();
+        }
+        // 每秒补充一个请求，后续申请依次排队
+        assertThat(limiter.reserve(1)).isEqualTo(1_000L);
+        assertThat(limiter.reserve(1)).isEqualTo(2_000L);
+
+        now.addAndGet(2_000L);
+        assertThat(limiter.reserve(1)).isEqualTo(1_000L);
+    }
+
+    @Test
+    @DisplayName("token 数上限与请求数上限取较长的等待")
+    void testTokensPerMinute() {
+        limiter.configure(1_000, 6_000);
+
+        assertThat(limiter.reserve(6_000)).isZero();
+        // 需要补充 3000 个 token，每秒补充 100 个
+        assertThat(limiter.reserve(3_000)).isEqualTo(30_000L);
+    }
+
+    @Test
+    @DisplayName("单次请求超过上限时按上限计算")
+    void testOversizedRequest() {
+        limiter.configure(0, 1_000);
+
+        assertThat(limiter.reserve(50_000)).isZero();
+        assertThat(limiter.reserve(50_000)).isEqualTo(60_000L);
+    }
+
+    @Test
+    @DisplayName("使用响应头中的上限和剩余额度")
+    void testServerHeaders() {
+        limiter.onResponse(headers(Map.of(
+            "x-ratelimit-limit-requests", "120",
+            "x-ratelimit-remaining-requests", "1")));
+
+        assertThat(limiter.reserve(1)).isZero();
+        // 剩余额度已用完，每 500ms 补充一个请求
+        assertThat(limiter.reserve(1)).isEqualTo(500L);
+    }
+
+    @Test
+    @DisplayName("配置上限与服务端上限取较小值")
+    void testConfiguredAndServerLimit() {
+        limiter.configure(30, 0);
+        limiter.onResponse(headers(Map.of("x-ratelimit-limit-requests", "600")));
+
+        for (int i = 0; i < 30; i++) {
+            assertThat(limiter.reserve(1)).isZero();
+        }
+        assertThat(limiter.reserve(1)).isEqualTo(2_000L);
+    }
+
+    @Test
+    @DisplayName("剩余额度为 0 时暂停到重置时间")
+    void testRemainingExhausted() {
+        limiter.onResponse(headers(Map.of(
+            "x-ratelimit-remaining-tokens", "0",
+            "x-ratelimit-reset-tokens", "6m0s")));
+
+        assertThat(limiter.reserve(1)).isEqualTo(360_000L);
+    }
+
+    @Test
+    @DisplayName("429 时暂停端点的所有请求")
+    void testRateLimited() {
+        limiter.onRateLimited(3_000L);
+
+        assertThat(limiter.reserve(1)).isEqualTo(3_000L);
+        assertThat(limiter.reserve(1)).isEqualTo(3_000L);
+
+        now.addAndGet(3_000L);
+        assertThat(limiter.reserve(1)).isZero();
+
+        limiter.onRateLimited(-1);
+        assertThat(limiter.reserve(1)).isEqualTo(ProviderRateLimiter.DEFAULT_PAUSE_MILLIS);
+    }
+
+    @Test
+    @DisplayName("解析 Retry-After")
+    void testParseRetryAfter() {
+        long time = 1_700_000_000_000L;
+        assertThat(ProviderRateLimiter.parseRetryAfter(headers(Map.of("Retry-After", "2")), time)).isEqualTo(2_000L);
+        assertThat(ProviderRateLimiter.parseRetryAfter(headers(Map.of("Retry-After", "0.5")), time)).isEqualTo(500L);
+        assertThat(ProviderRateLimiter.parseRetryAfter(headers(Map.of("retry-after-ms", "250", "Retry-After", "1")), time))
+            .isEqualTo(250L);
+        // 1700000000 = Tue, 14 Nov 2023 22:13:20 GMT
+        assertThat(ProviderRateLimiter.parseRetryAfter(headers(Map.of("Retry-After", "Tue, 14 Nov 2023 22:13:30 GMT")), time))
+            .isEqualTo(10_000L);
+        assertThat(ProviderRateLimiter.parseRetryAfter(headers(Map.of("Retry-After", "soon")), time)).isEqualTo(-1L);
+        assertThat(ProviderRateLimiter.parseRetryAfter(headers(Map.of()), time)).isEqualTo(-1L);
+    }
+
+    @Test
+    @DisplayName("解析重置时长")
+    void testParseDuration() {
+        assertThat(ProviderRateLimiter.parseDuration("1s")).isEqualTo(1_000L);
+        assertThat(ProviderRateLimiter.parseDuration("6m0s")).isEqualTo(360_000L);
+        assertThat(ProviderRateLimiter.parseDuration("20ms")).isEqualTo(20L);
+        assertThat(ProviderRateLimiter.parseDuration("1h2m3.5s")).isEqualTo(3_723_500L);
+        assertThat(ProviderRateLimiter.parseDuration("30")).isEqualTo(30_000L);
+        assertThat(ProviderRateLimiter.parseDuration("abc")).isEqualTo(-1L);
+        assertThat(ProviderRateLimiter.parseDuration(null)).isEqualTo(-1L);
+    }
+
+    @Test
+    @DisplayName("同一端点共享限流器")
+    void testForEndpoint() {
+        ProviderRateLimiter a = ProviderRateLimiter.forEndpoint("custom", "https://a.example.com/v1", "key");
+        assertThat(ProviderRateLimiter.forEndpoint("custom", "https://a.example.com/v1", "key")).isSameAs(a);
+        assertThat(ProviderRateLimiter.forEndpoint("custom", "https://a.example.com/v1", "other")).isNotSameAs(a);
+        assertThat(ProviderRateLimiter.forEndpoint("custom", "https://b.example.com/v1", "key")).isNotSameAs(a);
+    }
+}
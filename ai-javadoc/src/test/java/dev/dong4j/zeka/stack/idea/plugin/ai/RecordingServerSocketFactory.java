@@ -0,0 +1,77 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.net.ServerSocketFactory;
+
+/**
+ * 记录已接受连接的服务端套接字工厂
+ * <p>
+ * 通过 {@code MockWebServer.setServerSocketFactory} 使用，测试可以据此判断客户端是否关闭了连接：
+ * 配合 {@code SocketPolicy.NO_RESPONSE}，MockWebServer 在读到客户端关闭后关闭自己一侧的套接字。
+ */
+public final class RecordingServerSocketFactory extends ServerSocketFactory {
+
+    /** 已接受的连接 */
+    private final List<Socket> accepted = new CopyOnWriteArrayList<>();
+
+    @Override
+    public ServerSocket createServerSocket() throws IOException {
+        return new ServerSocket() {
+            @Override
+            public Socket accept() throws IOException {
+                Socket socket = super.accept();
+                accepted.add(socket);
+                return socket;
+            }
+        };
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port, int backlog) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port, int backlog, InetAddress address) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * 获取已接受的连接
+     *
+     * @return 按接受顺序排列的连接
+     */
+    public List<Socket> accepted() {
+        return accepted;
+    }
+
+    /**
+     * 等待所有已接受的连接被关闭
+     *
+     * @param timeout 最长等待时间
+     * @return 在超时之前全部关闭时返回 true
+     * @throws InterruptedException 等待时被中断时抛出
+     */
+    public boolean awaitAllClosed(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!accepted.isEmpty() && accepted.stream().allMatch(Socket::isClosed)) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+}
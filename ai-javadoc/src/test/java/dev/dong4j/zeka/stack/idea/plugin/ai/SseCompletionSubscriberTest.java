@@ -0,0 +1,126 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * SseCompletionSubscriber 单元测试
+ */
+@DisplayName("SseCompletionSubscriber 单元测试")
+public class SseCompletionSubscriberTest {
+
+    private static final String CHUNK = "data: {\"choices\":[{\"delta\":{\"content\":\"x\"}}]}";
+
+    @Test
+    @DisplayName("测试解析增量内容并通知监听器")
+    void testParseDeltas() throws Exception {
+        List<String> partials = new ArrayList<>();
+        SseCompletionSubscriber subscriber = new SseCompletionSubscriber(1000, partials::add);
+        subscriber.start();
+        subscriber.onSubscribe(new TestSubscription());
+
+        subscriber.onNext(": ping");
+        subscriber.onNext("data: {\"choices\":[{\"delta\":{\"content\":\"<think>推理\"}}]}");
+        subscriber.onNext("");
+        subscriber.onNext("data: {\"choices\":[{\"delta\":{\"content\":\"</think>/** A\"}}]}");
+        subscriber.onNext("data: {\"choices\":[{\"delta\":{\"content\":\" */\"}}]}");
+        subscriber.onNext("data: [DONE]");
+
+        SseCompletionSubscriber.Result result = subscriber.result().get(1, TimeUnit.SECONDS);
+        assertThat(result.streamed()).isTrue();
+        assertThat(result.body()).isEqualTo("/** A */");
+        assertThat(partials).containsExactly("/** A", " */");
+    }
+
+    @Test
+    @DisplayName("测试非 SSE 响应保留原始响应体")
+    void testRawBodyFallback() throws Exception {
+        SseCompletionSubscriber subscriber = new SseCompletionSubscriber(1000, null);
+        subscriber.start();
+        subscriber.onSubscribe(new TestSubscription());
+
+        subscriber.onNext("{\"choices\": [");
+        subscriber.onNext("]}");
+        subscriber.onComplete();
+
+        SseCompletionSubscriber.Result result = subscriber.result().get(1, TimeUnit.SECONDS);
+        assertThat(result.streamed()).isFalse();
+        assertThat(result.body()).isEqualTo("{\"choices\": [\n]}\n");
+    }
+
+    @Test
+    @DisplayName("测试持续输出时总耗时可以超过空闲超时")
+    void testSteadyStreamDoesNotTimeOut() throws Exception {
+        SseCompletionSubscriber subscriber = new SseCompletionSubscriber(200, null);
+        subscriber.start();
+        subscriber.onSubscribe(new TestSubscription());
+
+        for (int i = 0; i < 6; i++) {
+            Thread.sleep(100);
+            subscriber.onNext(CHUNK);
+        }
+        subscriber.onNext("data: [DONE]");
+
+        assertThat(subscriber.result().get(1, TimeUnit.SECONDS).body()).isEqualTo("xxxxxx");
+    }
+
+    @Test
+    @DisplayName("测试数据间隔超过空闲超时后取消订阅")
+    void testIdleTimeout() {
+        SseCompletionSubscriber subscriber = new SseCompletionSubscriber(100, null);
+        TestSubscription subscription = new TestSubscription();
+        subscriber.start();
+        subscriber.onSubscribe(subscription);
+        subscriber.onNext(CHUNK);
+
+        assertThatThrownBy(() -> subscriber.result().get(2, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .cause()
+            .isInstanceOf(AIServiceException.class)
+            .extracting(e -> ((AIServiceException) e).getErrorCode())
+            .isEqualTo(AIServiceException.ErrorCode.TIMEOUT);
+        assertThat(subscription.cancelled.get()).isTrue();
+    }
+
+    @Test
+    @DisplayName("测试无效的数据块以响应无效错误结束")
+    void testInvalidChunk() {
+        SseCompletionSubscriber subscriber = new SseCompletionSubscriber(1000, null);
+        subscriber.start();
+        subscriber.onSubscribe(new TestSubscription());
+
+        subscriber.onNext("data: {not json");
+
+        assertThatThrownBy(() -> subscriber.result().get(1, TimeUnit.SECONDS))
+            .cause()
+            .isInstanceOf(AIServiceException.class)
+            .extracting(e -> ((AIServiceException) e).getErrorCode())
+            .isEqualTo(AIServiceException.ErrorCode.INVALID_RESPONSE);
+    }
+
+    /**
+     * 记录取消状态的测试订阅
+     */
+    private static final class TestSubscription implements Flow.Subscription {
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+            cancelled.set(true);
+        }
+    }
+}
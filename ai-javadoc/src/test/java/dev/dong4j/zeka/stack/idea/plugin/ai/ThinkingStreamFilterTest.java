@@ -0,0 +1,65 @@
+package dev.dong4j.zeka.stack.idea.plugin.ai;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ThinkingStreamFilter 单元测试
+ */
+@DisplayName("ThinkingStreamFilter 单元测试")
+public class ThinkingStreamFilterTest {
+
+    @Test
+    @DisplayName("测试没有思考标签时内容直接输出")
+    void testPassThrough() {
+        ThinkingStreamFilter filter = new ThinkingStreamFilter();
+
+        assertThat(filter.accept("/** 用户")).isEqualTo("/** 用户");
+        assertThat(filter.accept("服务 */")).isEqualTo("服务 */");
+        assertThat(filter.finish()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("测试过滤完整的思考块")
+    void testFilterThinkingBlock() {
+        ThinkingStreamFilter filter = new ThinkingStreamFilter();
+
+        String visible = filter.accept("<think>分析代码</think>/** 文档 */");
+
+        assertThat(visible + filter.finish()).isEqualTo("/** 文档 */");
+    }
+
+    @Test
+    @DisplayName("测试标签被拆分到多个数据块")
+    void testTagSplitAcrossChunks() {
+        ThinkingStreamFilter filter = new ThinkingStreamFilter();
+        StringBuilder output = new StringBuilder();
+
+        for (String chunk : new String[] {"<th", "ink>思考", "内容</thi", "nk>\n/**", " 文档 */"}) {
+            output.append(filter.accept(chunk));
+        }
+        output.append(filter.finish());
+
+        assertThat(output.toString()).isEqualTo("\n/** 文档 */");
+    }
+
+    @Test
+    @DisplayName("测试疑似标签前缀在流结束时原样输出")
+    void testPartialTagFlushedAtEnd() {
+        ThinkingStreamFilter filter = new ThinkingStreamFilter();
+
+        assertThat(filter.accept("a < b <th")).isEqualTo("a < b ");
+        assertThat(filter.finish()).isEqualTo("<th");
+    }
+
+    @Test
+    @DisplayName("测试未闭合的思考内容被丢弃")
+    void testUnclosedThinkingDropped() {
+        ThinkingStreamFilter filter = new ThinkingStreamFilter();
+
+        assertThat(filter.accept("<think>还在思考")).isEmpty();
+        assertThat(filter.finish()).isEmpty();
+    }
+}
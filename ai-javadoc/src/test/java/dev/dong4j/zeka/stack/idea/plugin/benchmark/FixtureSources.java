@@ -0,0 +1,91 @@
+package dev.dong4j.zeka.stack.idea.plugin.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 吞吐量基准的测试项目源码
+ *
+ * <p>按成员数量生成若干个没有 JavaDoc 的类，每个类最多包含 1 个类、{@value #FIELDS_PER_CLASS} 个字段和
+ * {@value #METHODS_PER_CLASS} 个方法，每个成员对应一个文档生成任务。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class FixtureSources {
+
+    /** 每个类的字段数 */
+    static final int FIELDS_PER_CLASS = 8;
+    /** 每个类的方法数 */
+    static final int METHODS_PER_CLASS = 15;
+    /** 每个类的成员数（含类本身） */
+    static final int MEMBERS_PER_CLASS = 1 + FIELDS_PER_CLASS + METHODS_PER_CLASS;
+    /** 方法名前缀 */
+    private static final List<String> VERBS = List.of("find", "update", "remove", "count", "merge");
+
+    private FixtureSources() {
+    }
+
+    /**
+     * 生成包含指定成员数量的源码
+     *
+     * @param members     成员数量
+     * @param packageName 包名
+     * @return 文件相对路径到源码的映射，按生成顺序排列
+     */
+    @NotNull
+    public static Map<String, String> generate(int members, @NotNull String packageName) {
+        Map<String, String> files = new LinkedHashMap<>();
+        int remaining = members;
+        for (int index = 0; remaining > 0; index++) {
+            int size = Math.min(remaining, MEMBERS_PER_CLASS);
+            String className = "Service" + index;
+            files.put(packageName.replace('.', '/') + "/" + className + ".java",
+                      classSource(packageName, className, size));
+            remaining -= size;
+        }
+        return files;
+    }
+
+    /**
+     * 生成一个类的源码
+     *
+     * @param packageName 包名
+     * @param className   类名
+     * @param members     成员数量（含类本身），字段分配满之后才有方法
+     * @return 源码
+     */
+    @NotNull
+    static String classSource(@NotNull String packageName, @NotNull String className, int members) {
+        int fields = Math.min(members - 1, FIELDS_PER_CLASS);
+        int methods = members - 1 - fields;
+
+        StringBuilder code = new StringBuilder();
+        code.append("package ").append(packageName).append(";\n\n");
+        code.append("import java.util.ArrayList;\n");
+        code.append("import java.util.List;\n\n");
+        code.append("public class ").append(className).append(" {\n\n");
+        for (int i = 0; i < fields; i++) {
+            code.append("    private final List<String> values").append(i).append(" = new ArrayList<>();\n\n");
+        }
+        for (int i = 0; i < methods; i++) {
+            String name = VERBS.get(i % VERBS.size()) + "Values" + i;
+            code.append("    public int ").append(name).append("(String key, int limit) {\n");
+            code.append("        // 按前缀过滤并截断\n");
+            code.append("        int matched = 0;\n");
+            code.append("        for (String value : values").append(i % FIELDS_PER_CLASS).append(") {\n");
+            code.append("            if (value.startsWith(key) && ++matched >= limit) {\n");
+            code.append("                break;\n");
+            code.append("            }\n");
+            code.append("        }\n");
+            code.append("        return matched;\n");
+            code.append("    }\n\n");
+        }
+        code.append("}\n");
+        return code.toString();
+    }
+}
@@ -0,0 +1,100 @@
+package dev.dong4j.zeka.stack.idea.plugin.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+
+/**
+ * 模拟的响应延迟分布
+ *
+ * <p>支持的写法：
+ * <ul>
+ *   <li>{@code fixed:<毫秒>}：固定延迟</li>
+ *   <li>{@code uniform:<最小>:<最大>}：均匀分布</li>
+ *   <li>{@code lognormal:<中位数>:<p99>}：对数正态分布，接近真实模型服务的长尾延迟</li>
+ * </ul>
+ *
+ * @param kind   分布类型
+ * @param first  固定延迟、最小值或中位数（毫秒）
+ * @param second 最大值或 p99（毫秒），固定延迟时与 first 相同
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public record LatencyDistribution(@NotNull Kind kind, long first, long second) {
+
+    /** 标准正态分布的 99 分位数 */
+    private static final double Z_99 = 2.3263;
+
+    /**
+     * 分布类型
+     */
+    public enum Kind {
+        /** 固定延迟 */
+        FIXED,
+        /** 均匀分布 */
+        UNIFORM,
+        /** 对数正态分布 */
+        LOGNORMAL
+    }
+
+    /**
+     * 解析延迟分布
+     *
+     * @param spec 分布描述，如 {@code lognormal:20:200}
+     * @return 延迟分布
+     * @throws IllegalArgumentException 描述无法解析时抛出
+     */
+    @NotNull
+    public static LatencyDistribution parse(@NotNull String spec) {
+        String[] parts = spec.trim().toLowerCase().split(":");
+        try {
+            LatencyDistribution distribution = switch (parts[0]) {
+                case "fixed" -> parts.length == 2
+                                ? new LatencyDistribution(Kind.FIXED, Long.parseLong(parts[1]), Long.parseLong(parts[1]))
+                                : null;
+                case "uniform" -> parts.length == 3
+                                  ? new LatencyDistribution(Kind.UNIFORM, Long.parseLong(parts[1]), Long.parseLong(parts[2]))
+                                  : null;
+                case "lognormal" -> parts.length == 3
+                                    ? new LatencyDistribution(Kind.LOGNORMAL, Long.parseLong(parts[1]), Long.parseLong(parts[2]))
+                                    : null;
+                default -> null;
+            };
+            if (distribution != null && distribution.first >= 0 && distribution.second >= distribution.first
+                && (distribution.kind != Kind.LOGNORMAL || distribution.first > 0)) {
+                return distribution;
+            }
+        } catch (NumberFormatException ignored) {
+            // 统一在下面抛出
+        }
+        throw new IllegalArgumentException("Invalid latency distribution: " + spec
+                                           + " (expected fixed:<ms>, uniform:<min>:<max> or lognormal:<median>:<p99>)");
+    }
+
+    /**
+     * 抽取一次延迟
+     *
+     * @param random 随机数生成器
+     * @return 延迟（毫秒）
+     */
+    public long sample(@NotNull Random random) {
+        return switch (kind) {
+            case FIXED -> first;
+            case UNIFORM -> first + (long) (random.nextDouble() * (second - first + 1));
+            case LOGNORMAL -> {
+                double sigma = Math.log((double) second / first) / Z_99;
+                yield Math.round(first * Math.exp(sigma * random.nextGaussian()));
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case FIXED -> "fixed:" + first;
+            case UNIFORM -> "uniform:" + first + ":" + second;
+            case LOGNORMAL -> "lognormal:" + first + ":" + second;
+        };
+    }
+}
@@ -0,0 +1,224 @@
+package dev.dong4j.zeka.stack.idea.plugin.benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * 模拟的 OpenAI 兼容服务端点
+ *
+ * <p>基于 MockWebServer，每个 {@code /chat/completions} 请求：
+ * <ol>
+ *   <li>按 {@code rateLimitRate} 的概率返回 429，并带上 {@code retry-after-ms}</li>
+ *   <li>否则按 {@code errorRate} 的概率返回 500</li>
+ *   <li>否则按延迟分布等待后返回一段 JavaDoc，请求体中 {@code stream=true} 时以 SSE 返回</li>
+ * </ol>
+ *
+ * <p>所有随机量来自同一个带种子的随机数生成器，相同配置下注入的错误比例可复现。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class SimulatedProvider implements Closeable {
+
+    /** 返回的 JavaDoc */
+    static final String JAVADOC = "/**\n * 模拟生成的文档\n *\n * @since 1.0.0\n */";
+
+    /** 底层服务器 */
+    private final MockWebServer server = new MockWebServer();
+    /** 延迟分布 */
+    private final LatencyDistribution latency;
+    /** 500 错误比例 */
+    private final double errorRate;
+    /** 429 限流比例 */
+    private final double rateLimitRate;
+    /** 429 响应中的 retry-after-ms */
+    private final long retryAfterMillis;
+    /** 随机数生成器，仅在加锁后使用 */
+    private final Random random;
+
+    /** 收到的请求数 */
+    private final AtomicInteger requests = new AtomicInteger();
+    /** 返回的 500 数 */
+    private final AtomicInteger errors = new AtomicInteger();
+    /** 返回的 429 数 */
+    private final AtomicInteger rateLimited = new AtomicInteger();
+
+    /**
+     * 创建并启动模拟端点
+     *
+     * @param latency          延迟分布
+     * @param errorRate        返回 500 的比例（0 到 1）
+     * @param rateLimitRate    返回 429 的比例（0 到 1）
+     * @param retryAfterMillis 429 响应建议的等待时间（毫秒）
+     * @param seed             随机种子
+     * @throws IOException 服务器启动失败时抛出
+     */
+    public SimulatedProvider(@NotNull LatencyDistribution latency,
+                             double errorRate,
+                             double rateLimitRate,
+                             long retryAfterMillis,
+                             long seed) throws IOException {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.rateLimitRate = rateLimitRate;
+        this.retryAfterMillis = retryAfterMillis;
+        this.random = new Random(seed);
+        server.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) {
+                return respond(request);
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * 获取端点的 Base URL（不带结尾的斜杠）
+     *
+     * @return Base URL
+     */
+    @NotNull
+    public String getBaseUrl() {
+        return server.url("/v1").toString();
+    }
+
+    /**
+     * 获取收到的请求数
+     */
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * 获取返回的 500 数
+     */
+    public int getErrorCount() {
+        return errors.get();
+    }
+
+    /**
+     * 获取返回的 429 数
+     */
+    public int getRateLimitedCount() {
+        return rateLimited.get();
+    }
+
+    /**
+     * 生成一次请求的响应
+     */
+    @NotNull
+    private MockResponse respond(@NotNull RecordedRequest request) {
+        if (!"POST".equals(request.getMethod()) || request.getPath() == null
+            || !request.getPath().endsWith("/chat/completions")) {
+            return new MockResponse().setResponseCode(404);
+        }
+        requests.incrementAndGet();
+
+        double roll;
+        long delay;
+        synchronized (random) {
+            roll = random.nextDouble();
+            delay = latency.sample(random);
+        }
+        if (roll < rateLimitRate) {
+            rateLimited.incrementAndGet();
+            return new MockResponse().setResponseCode(429)
+                .addHeader("retry-after-ms", retryAfterMillis)
+                .setBody("{\"error\":{\"message\":\"Rate limit exceeded\"}}");
+        }
+        if (roll < rateLimitRate + errorRate) {
+            errors.incrementAndGet();
+            return new MockResponse().setResponseCode(500)
+                .setHeadersDelay(delay / 2, TimeUnit.MILLISECONDS)
+                .setBody("{\"error\":{\"message\":\"Internal error\"}}");
+        }
+
+        MockResponse response = new MockResponse().setResponseCode(200)
+            .setHeadersDelay(delay, TimeUnit.MILLISECONDS);
+        if (isStreaming(request)) {
+            return response.addHeader("Content-Type", "text/event-stream")
+                .setBody("data: " + streamChunk(JAVADOC) + "\n\ndata: [DONE]\n\n");
+        }
+        return response.addHeader("Content-Type", "application/json").setBody(completion(JAVADOC));
+    }
+
+    /**
+     * 判断请求是否要求流式输出
+     */
+    private static boolean isStreaming(@NotNull RecordedRequest request) {
+        try {
+            JsonElement stream = JsonParser.parseString(request.getBody().readUtf8()).getAsJsonObject().get("stream");
+            return stream != null && stream.getAsBoolean();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 构建非流式响应体
+     */
+    @NotNull
+    static String completion(@NotNull String content) {
+        JsonObject message = new JsonObject();
+        message.addProperty("role", "assistant");
+        message.addProperty("content", content);
+        JsonObject choice = new JsonObject();
+        choice.addProperty("index", 0);
+        choice.add("message", message);
+        choice.addProperty("finish_reason", "stop");
+        return wrap(choice);
+    }
+
+    /**
+     * 构建流式响应的一个数据块
+     */
+    @NotNull
+    static String streamChunk(@NotNull String content) {
+        JsonObject delta = new JsonObject();
+        delta.addProperty("content", content);
+        JsonObject choice = new JsonObject();
+        choice.addProperty("index", 0);
+        choice.add("delta", delta);
+        return wrap(choice);
+    }
+
+    /**
+     * 包装为完整的响应对象
+     */
+    @NotNull
+    private static String wrap(@NotNull JsonObject choice) {
+        JsonArray choices = new JsonArray();
+        choices.add(choice);
+        JsonObject body = new JsonObject();
+        body.addProperty("id", "chatcmpl-simulated");
+        body.addProperty("object", "chat.completion");
+        body.addProperty("model", "simulated");
+        body.add("choices", choices);
+        return body.toString();
+    }
+
+    /**
+     * 关闭服务器
+     */
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+}
@@ -0,0 +1,126 @@
+package dev.dong4j.zeka.stack.idea.plugin.benchmark;
+
+import com.google.gson.JsonParser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 吞吐量基准的模拟端点、延迟分布和测试项目生成测试
+ */
+@DisplayName("吞吐量基准支持类测试")
+public class SimulatedProviderTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    @DisplayName("解析延迟分布")
+    void testParseLatency() {
+        assertThat(LatencyDistribution.parse("fixed:50").sample(new Random())).isEqualTo(50);
+        assertThat(LatencyDistribution.parse(" Uniform:10:20 ").toString()).isEqualTo("uniform:10:20");
+        assertThat(LatencyDistribution.parse("lognormal:20:200").kind()).isEqualTo(LatencyDistribution.Kind.LOGNORMAL);
+
+        assertThatThrownBy(() -> LatencyDistribution.parse("gaussian:1:2")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LatencyDistribution.parse("uniform:20:10")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LatencyDistribution.parse("lognormal:0:10")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LatencyDistribution.parse("fixed:abc")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("对数正态分布的中位数和 p99 接近配置值")
+    void testLognormalPercentiles() {
+        LatencyDistribution distribution = LatencyDistribution.parse("lognormal:100:1000");
+        Random random = new Random(42);
+        long[] samples = new long[50_000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = distribution.sample(random);
+        }
+        Arrays.sort(samples);
+
+        assertThat(samples[samples.length / 2]).isBetween(95L, 105L);
+        assertThat(samples[(int) (samples.length * 0.99)]).isBetween(900L, 1100L);
+    }
+
+    @Test
+    @DisplayName("返回 OpenAI 兼容的响应，流式请求返回 SSE")
+    void testCompletion() throws Exception {
+        try (SimulatedProvider provider = new SimulatedProvider(LatencyDistribution.parse("fixed:0"), 0, 0, 100, 1)) {
+            HttpResponse<String> response = post(provider, "{\"stream\":false}");
+            assertThat(response.statusCode()).isEqualTo(200);
+            String content = JsonParser.parseString(response.body()).getAsJsonObject()
+                .getAsJsonArray("choices").get(0).getAsJsonObject()
+                .getAsJsonObject("message").get("content").getAsString();
+            assertThat(content).isEqualTo(SimulatedProvider.JAVADOC);
+
+            response = post(provider, "{\"stream\":true}");
+            assertThat(response.headers().firstValue("Content-Type")).hasValue("text/event-stream");
+            assertThat(response.body()).startsWith("data: {").endsWith("data: [DONE]\n\n");
+
+            assertThat(provider.getRequestCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @DisplayName("按比例注入 429 和 500")
+    void testInjectedFailures() throws Exception {
+        try (SimulatedProvider limited = new SimulatedProvider(LatencyDistribution.parse("fixed:0"), 0, 1, 250, 1)) {
+            HttpResponse<String> response = post(limited, "{}");
+            assertThat(response.statusCode()).isEqualTo(429);
+            assertThat(response.headers().firstValue("retry-after-ms")).hasValue("250");
+            assertThat(limited.getRateLimitedCount()).isEqualTo(1);
+        }
+        try (SimulatedProvider failing = new SimulatedProvider(LatencyDistribution.parse("fixed:0"), 0.5, 0, 0, 7)) {
+            for (int i = 0; i < 200; i++) {
+                post(failing, "{}");
+            }
+            assertThat(failing.getRequestCount()).isEqualTo(200);
+            assertThat(failing.getErrorCount()).isBetween(70, 130);
+        }
+    }
+
+    @Test
+    @DisplayName("按成员数量生成测试项目")
+    void testFixtureSources() {
+        Map<String, String> files = FixtureSources.generate(100, "com.example.bench");
+
+        assertThat(files).hasSize(5);
+        assertThat(files.keySet()).first().isEqualTo("com/example/bench/Service0.java");
+        int members = 0;
+        for (String source : files.values()) {
+            members += count(source, "public class ") + count(source, "    private final ") + count(source, "    public int ");
+        }
+        assertThat(members).isEqualTo(100);
+    }
+
+    /**
+     * 发送一次 chat/completions 请求
+     */
+    private HttpResponse<String> post(SimulatedProvider provider, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(provider.getBaseUrl() + "/chat/completions"))
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * 统计子串出现次数
+     */
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int index = text.indexOf(part); index >= 0; index = text.indexOf(part, index + part.length())) {
+            count++;
+        }
+        return count;
+    }
+}
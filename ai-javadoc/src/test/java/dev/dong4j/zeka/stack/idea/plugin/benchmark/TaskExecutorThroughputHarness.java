@@ -0,0 +1,434 @@
+package dev.dong4j.zeka.stack.idea.plugin.benchmark;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.util.xmlb.XmlSerializerUtil;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dev.dong4j.zeka.stack.idea.plugin.MyBasePlatformTestCase;
+import dev.dong4j.zeka.stack.idea.plugin.ai.AIProviderType;
+import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
+import dev.dong4j.zeka.stack.idea.plugin.task.DocumentationTask;
+import dev.dong4j.zeka.stack.idea.plugin.task.TaskCollector;
+import dev.dong4j.zeka.stack.idea.plugin.task.TaskExecutor;
+
+/**
+ * TaskExecutor 端到端吞吐量基准
+ *
+ * <p>为每种成员规模生成测试项目，收集任务后调用 {@link TaskExecutor#processTasks(List)}，
+ * AI 请求发往本地的 {@link SimulatedProvider}（可配置延迟分布、500 错误比例和 429 限流比例）。
+ * 每次运行报告：
+ * <ul>
+ *   <li>任务吞吐量（完成、失败和跳过的任务数除以墙钟时间）</li>
+ *   <li>EDT 线程的 CPU 时间（文档写入等 UI 线程上的开销）</li>
+ *   <li>堆内存峰值（各堆内存池峰值之和，运行前先 GC 并重置峰值）</li>
+ *   <li>线程数峰值以及相对运行前的增量</li>
+ *   <li>模拟端点收到的请求数、500 和 429 次数</li>
+ * </ul>
+ *
+ * <p>该基准默认跳过，需通过系统属性开启（Gradle 会把同名的 {@code -P} 属性转发为系统属性）：
+ * <pre>
+ * ./gradlew test --tests '*TaskExecutorThroughputHarness' \
+ *     -Pai.javadoc.throughput=true \
+ *     -Pai.javadoc.throughput.members=100,1000 \
+ *     -Pai.javadoc.throughput.latency=lognormal:200:1500 \
+ *     -Pai.javadoc.throughput.rateLimitRate=0.05
+ * </pre>
+ *
+ * <p>可用的属性（前缀 {@code ai.javadoc.throughput.}）：
+ * <ul>
+ *   <li>{@code members}：成员规模列表，默认 {@code 100,1000,10000}</li>
+ *   <li>{@code modes}：执行模式列表（sequential、pipelined、performance），默认全部</li>
+ *   <li>{@code latency}：延迟分布，默认 {@code lognormal:20:200}，写法见 {@link LatencyDistribution}</li>
+ *   <li>{@code errorRate}、{@code rateLimitRate}：500 和 429 的比例，默认 0</li>
+ *   <li>{@code retryAfterMs}：429 响应建议的等待时间，默认 200</li>
+ *   <li>{@code providers}：性能模式下的端点数，默认 2</li>
+ *   <li>{@code concurrency}：流水线和性能模式下的并发数，默认 4</li>
+ *   <li>{@code maxRetries}、{@code retryWaitMs}：重试次数和退避基数，默认 2 和 100</li>
+ *   <li>{@code seed}：随机种子，默认 42</li>
+ *   <li>{@code reportDir}：报告目录，默认 {@code build/reports/throughput}</li>
+ * </ul>
+ *
+ * <p>每次运行使用新的端点和新的源码目录，结果缓存关闭，运行结束后恢复原有设置。
+ *
+ * @author dong4j
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class TaskExecutorThroughputHarness extends MyBasePlatformTestCase {
+
+    /** 系统属性前缀，同名属性为 true 时才运行 */
+    static final String PREFIX = "ai.javadoc.throughput";
+
+    /**
+     * 执行模式
+     */
+    enum Mode {
+        /** 顺序执行 */
+        SEQUENTIAL,
+        /** 单提供商流水线并发 */
+        PIPELINED,
+        /** 性能模式：多提供商并行 */
+        PERFORMANCE
+    }
+
+    /**
+     * 一次运行的结果
+     *
+     * @param mode           执行模式
+     * @param members        成员规模
+     * @param stats          任务统计
+     * @param elapsedMillis  墙钟时间（毫秒）
+     * @param edtCpuMillis   EDT 的 CPU 时间（毫秒）
+     * @param heapPeakBytes  堆内存峰值（字节）
+     * @param peakThreads    线程数峰值
+     * @param threadIncrease 线程数峰值相对运行前的增量
+     * @param requests       端点收到的请求数
+     * @param errors         端点返回的 500 数
+     * @param rateLimited    端点返回的 429 数
+     */
+    record Result(Mode mode, int members, TaskExecutor.TaskStatistics stats, long elapsedMillis, long edtCpuMillis,
+                  long heapPeakBytes, int peakThreads, int threadIncrease, int requests, int errors, int rateLimited) {
+
+        /**
+         * 每秒处理的任务数
+         */
+        double tasksPerSecond() {
+            return elapsedMillis <= 0 ? 0 : stats.getTotal() * 1000.0 / elapsedMillis;
+        }
+    }
+
+    /** 运行编号，用于隔离每次运行的源码目录 */
+    private int runIndex;
+
+    /**
+     * 在后台线程执行测试方法，使文档写入在真实的 EDT 上排队执行
+     */
+    @Override
+    protected boolean runInDispatchThread() {
+        return false;
+    }
+
+    /**
+     * 按配置运行所有规模和模式的组合并输出报告
+     */
+    public void testThroughput() throws Exception {
+        if (!Boolean.getBoolean(PREFIX)) {
+            System.out.println("Throughput harness skipped, run with -D" + PREFIX + "=true");
+            return;
+        }
+
+        SettingsState settings = SettingsState.getInstance();
+        SettingsState saved = XmlSerializerUtil.createCopy(settings);
+        List<Result> results = new ArrayList<>();
+        try {
+            for (int members : intList("members", "100,1000,10000")) {
+                for (String mode : stringList("modes", "sequential,pipelined,performance")) {
+                    Result result = runOnce(settings, Mode.valueOf(mode.toUpperCase(Locale.ROOT)), members);
+                    System.out.println(format(result));
+                    results.add(result);
+                }
+            }
+        } finally {
+            settings.loadState(saved);
+        }
+        writeReport(results);
+    }
+
+    /**
+     * 运行一次基准
+     *
+     * @param settings 全局设置
+     * @param mode     执行模式
+     * @param members  成员规模
+     * @return 运行结果
+     */
+    @NotNull
+    private Result runOnce(@NotNull SettingsState settings, @NotNull Mode mode, int members) throws Exception {
+        LatencyDistribution latency = LatencyDistribution.parse(property("latency", "lognormal:20:200"));
+        int endpointCount = mode == Mode.PERFORMANCE ? Math.max(1, intProperty("providers", 2)) : 1;
+        long seed = Long.getLong(PREFIX + ".seed", 42L);
+
+        List<SimulatedProvider> endpoints = new ArrayList<>();
+        String directory = "throughput/run" + (runIndex++);
+        try {
+            for (int i = 0; i < endpointCount; i++) {
+                endpoints.add(new SimulatedProvider(latency,
+                                                    doubleProperty("errorRate", 0),
+                                                    doubleProperty("rateLimitRate", 0),
+                                                    intProperty("retryAfterMs", 200),
+                                                    seed + i));
+            }
+            configure(settings, mode, endpoints);
+
+            List<DocumentationTask> tasks = createTasks(directory, members);
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            long edtThreadId = edtThreadId();
+            System.gc();
+            resetHeapPeak();
+            threads.resetPeakThreadCount();
+            int threadsBefore = threads.getThreadCount();
+            long edtCpuBefore = threads.getThreadCpuTime(edtThreadId);
+
+            TaskExecutor executor = new TaskExecutor(getProject(), new EmptyProgressIndicator());
+            long start = System.nanoTime();
+            executor.processTasks(tasks);
+            flushEdt();
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            long edtCpuMillis = (threads.getThreadCpuTime(edtThreadId) - edtCpuBefore) / 1_000_000;
+            int peakThreads = threads.getPeakThreadCount();
+            int requests = 0;
+            int errors = 0;
+            int rateLimited = 0;
+            for (SimulatedProvider endpoint : endpoints) {
+                requests += endpoint.getRequestCount();
+                errors += endpoint.getErrorCount();
+                rateLimited += endpoint.getRateLimitedCount();
+            }
+            return new Result(mode, members, executor.getStatistics(), elapsedMillis, edtCpuMillis, heapPeak(),
+                              peakThreads, peakThreads - threadsBefore, requests, errors, rateLimited);
+        } finally {
+            for (SimulatedProvider endpoint : endpoints) {
+                endpoint.close();
+            }
+            deleteDirectory(directory);
+        }
+    }
+
+    /**
+     * 将设置指向模拟端点
+     */
+    private static void configure(@NotNull SettingsState settings,
+                                  @NotNull Mode mode,
+                                  @NotNull List<SimulatedProvider> endpoints) {
+        String providerId = AIProviderType.CUSTOM.getProviderId();
+        settings.aiProvider = providerId;
+        settings.modelName = "simulated";
+        settings.baseUrl = endpoints.get(0).getBaseUrl();
+        settings.apiKey = "benchmark";
+        settings.configurationVerified = true;
+        settings.availableProviders = new ArrayList<>();
+        for (SimulatedProvider endpoint : endpoints) {
+            settings.availableProviders.add(new SettingsState.ProviderConfig(providerId, "simulated",
+                                                                             endpoint.getBaseUrl(), "benchmark", true));
+        }
+
+        settings.performanceMode = mode == Mode.PERFORMANCE;
+        settings.concurrency = mode == Mode.SEQUENTIAL ? 1 : Math.max(1, intProperty("concurrency", 4));
+        settings.maxRetries = intProperty("maxRetries", 2);
+        settings.waitDuration = intProperty("retryWaitMs", 100);
+        settings.skipExisting = true;
+        settings.documentationCache = false;
+        settings.packedPrompts = false;
+        settings.hedgedRequests = false;
+        settings.requestsPerMinute = 0;
+        settings.tokensPerMinute = 0;
+        settings.verboseLogging = false;
+    }
+
+    /**
+     * 生成源码并收集任务
+     *
+     * @param directory 源码目录
+     * @param members   成员规模
+     * @return 任务列表
+     */
+    @NotNull
+    private List<DocumentationTask> createTasks(@NotNull String directory, int members) {
+        Map<String, String> sources = FixtureSources.generate(members, "com.example.bench");
+        List<PsiFile> files = new ArrayList<>();
+        ApplicationManager.getApplication().invokeAndWait(() -> {
+            for (Map.Entry<String, String> source : sources.entrySet()) {
+                files.add(myFixture.addFileToProject(directory + "/" + source.getKey(), source.getValue()));
+            }
+        });
+
+        TaskCollector collector = new TaskCollector(getProject());
+        return ReadAction.compute(() -> {
+            List<DocumentationTask> tasks = new ArrayList<>();
+            for (PsiFile file : files) {
+                tasks.addAll(collector.collectFromFile(file));
+            }
+            return tasks;
+        });
+    }
+
+    /**
+     * 等待 EDT 上排队的文档写入和任务日志关闭完成
+     */
+    private void flushEdt() {
+        for (int i = 0; i < 2; i++) {
+            ApplicationManager.getApplication().invokeAndWait(
+                () -> PsiDocumentManager.getInstance(getProject()).commitAllDocuments(),
+                ModalityState.defaultModalityState());
+        }
+    }
+
+    /**
+     * 删除一次运行的源码目录
+     */
+    private void deleteDirectory(@NotNull String directory) {
+        ApplicationManager.getApplication().invokeAndWait(() -> {
+            VirtualFile root = myFixture.getTempDirFixture().getFile(directory);
+            if (root == null) {
+                return;
+            }
+            try {
+                WriteAction.run(() -> root.delete(this));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * 获取 EDT 的线程 ID
+     */
+    private static long edtThreadId() {
+        AtomicLong id = new AtomicLong();
+        ApplicationManager.getApplication().invokeAndWait(() -> id.set(Thread.currentThread().getId()));
+        return id.get();
+    }
+
+    /**
+     * 重置所有堆内存池的峰值
+     */
+    private static void resetHeapPeak() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * 获取各堆内存池峰值之和
+     */
+    private static long heapPeak() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * 将结果写入 Markdown 报告
+     */
+    private static void writeReport(@NotNull List<Result> results) throws IOException {
+        StringBuilder report = new StringBuilder();
+        report.append("# TaskExecutor throughput\n\n");
+        report.append("- latency: ").append(LatencyDistribution.parse(property("latency", "lognormal:20:200"))).append('\n');
+        report.append("- errorRate: ").append(doubleProperty("errorRate", 0))
+            .append(", rateLimitRate: ").append(doubleProperty("rateLimitRate", 0))
+            .append(", retryAfterMs: ").append(intProperty("retryAfterMs", 200)).append('\n');
+        report.append("- concurrency: ").append(intProperty("concurrency", 4))
+            .append(", providers (performance): ").append(intProperty("providers", 2))
+            .append(", seed: ").append(Long.getLong(PREFIX + ".seed", 42L)).append('\n');
+        report.append("- jvm: ").append(System.getProperty("java.vm.name")).append(' ')
+            .append(System.getProperty("java.version")).append(", cpus: ")
+            .append(Runtime.getRuntime().availableProcessors()).append("\n\n");
+        report.append("| mode | members | done/failed/skipped | wall ms | tasks/s | EDT cpu ms | heap peak MB "
+                      + "| peak threads (+new) | requests | 500 | 429 |\n");
+        report.append("|---|---:|---:|---:|---:|---:|---:|---:|---:|---:|---:|\n");
+        for (Result result : results) {
+            report.append(format(result)).append('\n');
+        }
+
+        Path directory = Paths.get(property("reportDir", "build/reports/throughput"));
+        Files.createDirectories(directory);
+        Path file = directory.resolve("throughput-"
+                                      + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))
+                                      + ".md");
+        Files.writeString(file, report, StandardCharsets.UTF_8);
+        System.out.println(report);
+        System.out.println("Throughput report written to " + file.toAbsolutePath());
+    }
+
+    /**
+     * 格式化为报告中的一行
+     */
+    @NotNull
+    static String format(@NotNull Result result) {
+        TaskExecutor.TaskStatistics stats = result.stats();
+        return String.format(Locale.ROOT, "| %s | %d | %d/%d/%d | %d | %.1f | %d | %.1f | %d (+%d) | %d | %d | %d |",
+                             result.mode().name().toLowerCase(Locale.ROOT), result.members(),
+                             stats.completed(), stats.failed(), stats.skipped(),
+                             result.elapsedMillis(), result.tasksPerSecond(), result.edtCpuMillis(),
+                             result.heapPeakBytes() / (1024.0 * 1024.0),
+                             result.peakThreads(), result.threadIncrease(),
+                             result.requests(), result.errors(), result.rateLimited());
+    }
+
+    /**
+     * 读取字符串属性
+     */
+    @NotNull
+    private static String property(@NotNull String name, @NotNull String defaultValue) {
+        String value = System.getProperty(PREFIX + "." + name);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    /**
+     * 读取整数属性
+     */
+    private static int intProperty(@NotNull String name, int defaultValue) {
+        return Integer.parseInt(property(name, String.valueOf(defaultValue)));
+    }
+
+    /**
+     * 读取小数属性
+     */
+    private static double doubleProperty(@NotNull String name, double defaultValue) {
+        return Double.parseDouble(property(name, String.valueOf(defaultValue)));
+    }
+
+    /**
+     * 读取逗号分隔的字符串列表
+     */
+    @NotNull
+    private static List<String> stringList(@NotNull String name, @NotNull String defaultValue) {
+        return Arrays.stream(property(name, defaultValue).split(","))
+            .map(String::trim)
+            .filter(value -> !value.isEmpty())
+            .toList();
+    }
+
+    /**
+     * 读取逗号分隔的整数列表
+     */
+    @NotNull
+    private static List<Integer> intList(@NotNull String name, @NotNull String defaultValue) {
+        return stringList(name, defaultValue).stream().map(Integer::parseInt).toList();
+    }
+}
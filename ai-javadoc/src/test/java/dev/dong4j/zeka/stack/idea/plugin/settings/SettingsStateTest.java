@@ -45,6 +45,17 @@ public class SettingsStateTest {
         assertThat(settings.topK).isEqualTo(50);
         assertThat(settings.presencePenalty).isEqualTo(0.0);
         assertThat(settings.performanceMode).isFalse();
+        assertThat(settings.concurrency).isEqualTo(1);
+        assertThat(settings.requestsPerMinute).isZero();
+        assertThat(settings.tokensPerMinute).isZero();
+        assertThat(settings.streaming).isFalse();
+        assertThat(settings.packedPrompts).isFalse();
+        assertThat(settings.documentationCache).isTrue();
+        assertThat(settings.hedgedRequests).isFalse();
+        assertThat(settings.includeTestSources).isTrue();
+        assertThat(settings.excludedPathPatterns).isEmpty();
+        assertThat(settings.changesBaseRevision).isEmpty();
+        assertThat(settings.classSkeleton).isFalse();
         assertThat(settings.verboseLogging).isFalse();
 
         // 支持的语言
@@ -0,0 +1,62 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ChangedLines 单元测试
+ */
+@DisplayName("ChangedLines 单元测试")
+public class ChangedLinesTest {
+
+    @Test
+    @DisplayName("修改的行与元素范围相交")
+    void testIntersectsModifiedLines() {
+        ChangedLines lines = ChangedLines.of(List.of(new ChangedLines.Range(10, 12)));
+
+        assertThat(lines.intersects(5, 10)).isTrue();
+        assertThat(lines.intersects(11, 20)).isTrue();
+        assertThat(lines.intersects(0, 9)).isFalse();
+        assertThat(lines.intersects(12, 20)).isFalse();
+    }
+
+    @Test
+    @DisplayName("删除位置只在元素内部时算作变更")
+    void testDeletionBoundary() {
+        ChangedLines lines = ChangedLines.of(List.of(new ChangedLines.Range(10, 10)));
+
+        assertThat(lines.intersects(5, 15)).isTrue();
+        assertThat(lines.intersects(5, 10)).isTrue();
+        // 删除发生在元素首行之前，属于上一个元素
+        assertThat(lines.intersects(10, 15)).isFalse();
+        assertThat(lines.intersects(0, 9)).isFalse();
+    }
+
+    @Test
+    @DisplayName("区间无序传入时按起始行排序")
+    void testUnsortedRanges() {
+        ChangedLines lines = ChangedLines.of(List.of(
+            new ChangedLines.Range(40, 41),
+            new ChangedLines.Range(3, 4)));
+
+        assertThat(lines.intersects(0, 5)).isTrue();
+        assertThat(lines.intersects(35, 45)).isTrue();
+        assertThat(lines.intersects(10, 30)).isFalse();
+    }
+
+    @Test
+    @DisplayName("整个文件变更和无变更")
+    void testAllAndEmpty() {
+        assertThat(ChangedLines.all().isAll()).isTrue();
+        assertThat(ChangedLines.all().isEmpty()).isFalse();
+        assertThat(ChangedLines.all().intersects(0, 0)).isTrue();
+
+        ChangedLines empty = ChangedLines.of(List.of());
+        assertThat(empty.isEmpty()).isTrue();
+        assertThat(empty.intersects(0, Integer.MAX_VALUE)).isFalse();
+    }
+}
@@ -0,0 +1,72 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import com.intellij.psi.PsiClass;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * ClassSkeletonBuilder 单元测试
+ */
+@DisplayName("ClassSkeletonBuilder 单元测试")
+public class ClassSkeletonBuilderTest {
+
+    @Test
+    @DisplayName("提取中文注释首句")
+    void testFirstSentence_chinese() {
+        String doc = """
+            /**
+             * 计算两数之和。结果可能溢出
+             *
+             * <p>详细说明
+             *
+             * @param a 第一个数
+             * @return 两数之和
+             */""";
+
+        assertThat(ClassSkeletonBuilder.firstSentence(doc)).isEqualTo("计算两数之和。");
+    }
+
+    @Test
+    @DisplayName("提取英文注释首句并去掉标签")
+    void testFirstSentence_english() {
+        String doc = """
+            /**
+             * Returns the {@code name} of the
+             * <b>current</b> user. Never null.
+             */""";
+
+        assertThat(ClassSkeletonBuilder.firstSentence(doc)).isEqualTo("Returns the name of the current user.");
+    }
+
+    @Test
+    @DisplayName("没有句号时返回整段描述，遇到块标签停止")
+    void testFirstSentence_noPeriod() {
+        assertThat(ClassSkeletonBuilder.firstSentence("/** 用户名称 */")).isEqualTo("用户名称");
+        assertThat(ClassSkeletonBuilder.firstSentence("/**\n * 用户名称\n * @see User\n */")).isEqualTo("用户名称");
+        assertThat(ClassSkeletonBuilder.firstSentence("/**\n * @deprecated\n */")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("声明压缩为一行并去掉整行注释")
+    void testCollapse() {
+        String declaration = """
+            @Override
+            // 旧实现
+            public   String format(String pattern,
+                                   Object... args)
+            """;
+
+        assertThat(ClassSkeletonBuilder.collapse(declaration))
+            .isEqualTo("@Override public String format(String pattern, Object... args)");
+    }
+
+    @Test
+    @DisplayName("类结构不完整时返回 null")
+    void testBuild_incompleteClass() {
+        assertThat(ClassSkeletonBuilder.build(mock(PsiClass.class))).isNull();
+    }
+}
@@ -0,0 +1,185 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * DocumentationCache 单元测试
+ */
+@DisplayName("DocumentationCache 单元测试")
+public class DocumentationCacheTest {
+
+    private static final String FINGERPRINT = "custom\nhttps://api.openai.com/v1\n{\"model\":\"gpt-4o\"}";
+    private static final String METHOD_CODE = """
+        public int add(int a, int b) {
+            return a + b;
+        }""";
+    private static final String METHOD_DOC = """
+        /**
+         * 计算两数之和
+         *
+         * @param a 第一个数
+         * @param b 第二个数
+         * @return 两数之和
+         */""";
+
+    @TempDir
+    Path tempDir;
+
+    private Path cacheFile;
+    private DocumentationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cacheFile = tempDir.resolve("cache").resolve(DocumentationCache.FILE_NAME);
+        cache = new DocumentationCache(cacheFile, 1024 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.dispose();
+    }
+
+    @Test
+    @DisplayName("测试写入和读取")
+    void testPutAndGet() {
+        String key = DocumentationCache.key(METHOD_CODE, FINGERPRINT);
+
+        assertThat(cache.get(key)).isNull();
+        cache.put(key, METHOD_DOC);
+
+        assertThat(cache.get(key)).isEqualTo(METHOD_DOC);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("测试缓存键忽略缩进、换行符和行尾空白")
+    void testKeyNormalization() {
+        String key = DocumentationCache.key(METHOD_CODE, FINGERPRINT);
+        String reformatted = "    public int add(int a, int b) {  \r\n        return a + b;\r\n    }\r\n";
+
+        assertThat(DocumentationCache.key(reformatted, FINGERPRINT)).isEqualTo(key);
+        assertThat(DocumentationCache.key(METHOD_CODE.replace("a + b", "b + a"), FINGERPRINT)).isNotEqualTo(key);
+        assertThat(DocumentationCache.key(METHOD_CODE, FINGERPRINT + " ")).isNotEqualTo(key);
+        assertThat(key).hasSize(64);
+    }
+
+    @Test
+    @DisplayName("测试重新打开后缓存仍然可用")
+    void testPersistence() {
+        String key = DocumentationCache.key(METHOD_CODE, FINGERPRINT);
+        cache.put(key, METHOD_DOC);
+        cache.dispose();
+
+        cache = new DocumentationCache(cacheFile, 1024 * 1024);
+        assertThat(cache.get(key)).isEqualTo(METHOD_DOC);
+    }
+
+    @Test
+    @DisplayName("测试键已存在时保留原有结果")
+    void testPutExistingKey() throws IOException {
+        String key = DocumentationCache.key(METHOD_CODE, FINGERPRINT);
+        cache.put(key, METHOD_DOC);
+        long size = Files.size(cacheFile);
+
+        cache.put(key, "/** 另一个结果 */");
+
+        assertThat(cache.get(key)).isEqualTo(METHOD_DOC);
+        assertThat(Files.size(cacheFile)).isEqualTo(size);
+    }
+
+    @Test
+    @DisplayName("测试截断末尾不完整的记录")
+    void testTruncatedTail() throws IOException {
+        String key = DocumentationCache.key(METHOD_CODE, FINGERPRINT);
+        cache.put(key, METHOD_DOC);
+        cache.dispose();
+        long size = Files.size(cacheFile);
+
+        // 模拟写入记录过程中进程退出
+        Files.write(cacheFile, new byte[] {1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+
+        cache = new DocumentationCache(cacheFile, 1024 * 1024);
+        assertThat(cache.get(key)).isEqualTo(METHOD_DOC);
+        assertThat(Files.size(cacheFile)).isEqualTo(size);
+
+        String otherKey = DocumentationCache.key("private String name;", FINGERPRINT);
+        cache.put(otherKey, "/** 名称 */");
+        assertThat(cache.get(otherKey)).isEqualTo("/** 名称 */");
+    }
+
+    @Test
+    @DisplayName("测试文件头不匹配时重建缓存")
+    void testCorruptedHeader() throws IOException {
+        Files.createDirectories(cacheFile.getParent());
+        Files.write(cacheFile, "not a cache file".getBytes());
+
+        String key = DocumentationCache.key(METHOD_CODE, FINGERPRINT);
+        assertThat(cache.get(key)).isNull();
+        assertThat(cache.size()).isZero();
+
+        cache.put(key, METHOD_DOC);
+        assertThat(cache.get(key)).isEqualTo(METHOD_DOC);
+    }
+
+    @Test
+    @DisplayName("测试超过容量上限后淘汰最久未使用的记录")
+    void testEviction() throws IOException {
+        long maxBytes = 16 * 1024;
+        cache.dispose();
+        cache = new DocumentationCache(cacheFile, maxBytes);
+
+        Random random = new Random(42);
+        String firstKey = DocumentationCache.key("field0", FINGERPRINT);
+        String secondKey = DocumentationCache.key("field1", FINGERPRINT);
+        String lastKey = null;
+        for (int i = 0; i < 100; i++) {
+            lastKey = DocumentationCache.key("field" + i, FINGERPRINT);
+            cache.put(lastKey, randomDoc(random));
+            if (i > 1) {
+                // 保持第一条记录为最近使用
+                assertThat(cache.get(firstKey)).isNotNull();
+            }
+        }
+
+        assertThat(Files.size(cacheFile)).isLessThanOrEqualTo(maxBytes);
+        assertThat(cache.size()).isLessThan(100);
+        assertThat(cache.get(firstKey)).isNotNull();
+        assertThat(cache.get(secondKey)).isNull();
+        assertThat(cache.get(lastKey)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("测试清空缓存")
+    void testClear() {
+        String key = DocumentationCache.key(METHOD_CODE, FINGERPRINT);
+        cache.put(key, METHOD_DOC);
+
+        cache.clear();
+
+        assertThat(cache.get(key)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    /**
+     * 生成难以压缩的随机文档内容
+     */
+    private static String randomDoc(Random random) {
+        StringBuilder doc = new StringBuilder("/**\n * ");
+        for (int i = 0; i < 500; i++) {
+            doc.append((char) ('a' + random.nextInt(26)));
+        }
+        return doc.append("\n */").toString();
+    }
+}
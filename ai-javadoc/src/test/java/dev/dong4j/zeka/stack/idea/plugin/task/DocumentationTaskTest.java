@@ -1,14 +1,26 @@
 package dev.dong4j.zeka.stack.idea.plugin.task;
 
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.util.Computable;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiNamedElement;
+import com.intellij.psi.SmartPsiElementPointer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
+import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.when;
 
 /**
@@ -169,36 +181,68 @@ public class DocumentationTaskTest {
     }
 
     @Test
-    @DisplayName("测试获取元素显示名称 - 短代码")
-    void testGetElementName_shortCode() {
-        DocumentationTask shortTask = new DocumentationTask(
+    @DisplayName("测试原始代码长度")
+    void testOriginalCodeLength() {
+        assertThat(task.getOriginalCodeLength()).isEqualTo(TEST_CODE.length());
+
+        DocumentationTask compactedTask = new DocumentationTask(
             mockElement,
-            "short code",
-            DocumentationTask.TaskType.METHOD,
-            TEST_FILE_PATH
+            "public class Foo { ... }",
+            DocumentationTask.TaskType.CLASS,
+            TEST_FILE_PATH,
+            2048
         );
 
-        String elementName = shortTask.getElementName();
-        assertThat(elementName).isEqualTo("short code...");
+        assertThat(compactedTask.getOriginalCodeLength()).isEqualTo(2048);
     }
 
     @Test
-    @DisplayName("测试获取元素显示名称 - 长代码")
-    void testGetElementName_longCode() {
-        String longCode = "public void veryLongMethodNameThatExceedsFiftyCharactersForTesting() { return; }";
-        when(mockElement.getText()).thenReturn(longCode);
-
-        DocumentationTask longTask = new DocumentationTask(
-            mockElement,
-            longCode,
+    @DisplayName("测试获取元素显示名称 - 元素名称")
+    void testGetElementName_namedElement() {
+        PsiNamedElement method = mock(PsiNamedElement.class);
+        when(method.isValid()).thenReturn(true);
+        when(method.getName()).thenReturn("testMethod");
+        DocumentationTask namedTask = new DocumentationTask(
+            method,
+            TEST_CODE,
             DocumentationTask.TaskType.METHOD,
             TEST_FILE_PATH
         );
 
-        String elementName = longTask.getElementName();
-        assertThat(elementName).hasSize(53); // 50 + "..."
-        assertThat(elementName).endsWith("...");
-        assertThat(elementName).startsWith("public void very");
+        try (MockedStatic<ApplicationManager> ignored = mockReadAction()) {
+            assertThat(namedTask.getElementName()).isEqualTo("testMethod");
+        }
+    }
+
+    @Test
+    @DisplayName("测试获取元素显示名称 - 没有名称时返回文件路径")
+    void testGetElementName_unnamedElement() {
+        when(mockElement.isValid()).thenReturn(true);
+
+        try (MockedStatic<ApplicationManager> ignored = mockReadAction()) {
+            assertThat(task.getElementName()).isEqualTo(TEST_FILE_PATH);
+        }
+    }
+
+    @Test
+    @DisplayName("测试获取元素显示名称 - 不提取代码，元素已删除时返回文件路径")
+    void testGetElementName_lazyTask() {
+        PsiNamedElement method = mock(PsiNamedElement.class);
+        when(method.isValid()).thenReturn(true);
+        when(method.getName()).thenReturn("testMethod");
+        AtomicInteger extractions = new AtomicInteger();
+        DocumentationTask lazyTask = new DocumentationTask(pointerTo(method), DocumentationTask.TaskType.METHOD,
+                                                           TEST_FILE_PATH, element -> "code-" + extractions.incrementAndGet());
+        DocumentationTask deletedTask = new DocumentationTask(pointerTo(null), DocumentationTask.TaskType.METHOD,
+                                                              TEST_FILE_PATH, PsiElement::getText);
+
+        try (MockedStatic<ApplicationManager> ignored = mockReadAction()) {
+            assertThat(lazyTask.getElementName()).isEqualTo("testMethod");
+            assertThat(deletedTask.getElementName()).isEqualTo(TEST_FILE_PATH);
+        }
+
+        assertThat(extractions).hasValue(0);
+        assertThat(lazyTask.getCodeLength()).isEqualTo(-1);
     }
 
     @Test
@@ -291,5 +335,95 @@ public class DocumentationTaskTest {
             DocumentationTask.TaskType.ENUM
                                   );
     }
-}
 
+    @Test
+    @DisplayName("测试延迟提取代码 - 首次使用时提取并缓存")
+    void testLazyCode_extractedOnce() {
+        SmartPsiElementPointer<PsiElement> pointer = pointerTo(mockElement);
+        when(mockElement.isValid()).thenReturn(true);
+        when(mockElement.getTextLength()).thenReturn(TEST_CODE.length());
+        AtomicInteger extractions = new AtomicInteger();
+        DocumentationTask lazyTask = new DocumentationTask(pointer, DocumentationTask.TaskType.METHOD, TEST_FILE_PATH,
+                                                           element -> {
+                                                               extractions.incrementAndGet();
+                                                               return "compact";
+                                                           });
+
+        assertThat(lazyTask.getCodeLength()).isEqualTo(-1);
+        assertThat(lazyTask.getOriginalCodeLength()).isEqualTo(-1);
+
+        try (MockedStatic<ApplicationManager> ignored = mockReadAction()) {
+            assertThat(lazyTask.getCode()).isEqualTo("compact");
+            assertThat(lazyTask.getCode()).isEqualTo("compact");
+        }
+
+        assertThat(extractions).hasValue(1);
+        assertThat(lazyTask.getElement()).isSameAs(mockElement);
+        assertThat(lazyTask.getCodeLength()).isEqualTo("compact".length());
+        assertThat(lazyTask.getOriginalCodeLength()).isEqualTo(TEST_CODE.length());
+        // 摘要与代码一起计算，之后不再进入读操作
+        assertThat(lazyTask.getContentHash()).isEqualTo(JobJournal.contentHash(TEST_CODE));
+    }
+
+    @Test
+    @DisplayName("测试释放 - 释放代码和结果，再次使用时重新提取")
+    void testRelease_lazyTask() {
+        SmartPsiElementPointer<PsiElement> pointer = pointerTo(mockElement);
+        when(mockElement.isValid()).thenReturn(true);
+        AtomicInteger extractions = new AtomicInteger();
+        DocumentationTask lazyTask = new DocumentationTask(pointer, DocumentationTask.TaskType.METHOD, TEST_FILE_PATH,
+                                                           element -> "code-" + extractions.incrementAndGet());
+
+        try (MockedStatic<ApplicationManager> ignored = mockReadAction()) {
+            assertThat(lazyTask.getCode()).isEqualTo("code-1");
+            lazyTask.setResult("/** doc */");
+
+            lazyTask.release();
+
+            assertThat(lazyTask.getResult()).isNull();
+            assertThat(lazyTask.getCodeLength()).isEqualTo("code-1".length());
+            assertThat(lazyTask.getCode()).isEqualTo("code-2");
+        }
+    }
+
+    @Test
+    @DisplayName("测试释放 - 创建时已提取的代码保留")
+    void testRelease_eagerTask() {
+        task.setResult("/** doc */");
+
+        task.release();
+
+        assertThat(task.getResult()).isNull();
+        assertThat(task.getCode()).isEqualTo(TEST_CODE);
+    }
+
+    @Test
+    @DisplayName("测试延迟提取代码 - 元素已删除")
+    void testLazyCode_elementDeleted() {
+        SmartPsiElementPointer<PsiElement> pointer = pointerTo(null);
+        DocumentationTask lazyTask = new DocumentationTask(pointer, DocumentationTask.TaskType.METHOD, TEST_FILE_PATH,
+                                                           PsiElement::getText);
+
+        try (MockedStatic<ApplicationManager> ignored = mockReadAction()) {
+            assertThat(lazyTask.getElement()).isNull();
+            assertThatThrownBy(lazyTask::getCode).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SmartPsiElementPointer<PsiElement> pointerTo(PsiElement element) {
+        SmartPsiElementPointer<PsiElement> pointer = mock(SmartPsiElementPointer.class);
+        when(pointer.getElement()).thenReturn(element);
+        return pointer;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MockedStatic<ApplicationManager> mockReadAction() {
+        Application application = mock(Application.class);
+        when(application.runReadAction(any(Computable.class)))
+            .thenAnswer(invocation -> ((Computable<?>) invocation.getArgument(0)).compute());
+        MockedStatic<ApplicationManager> applicationManager = mockStatic(ApplicationManager.class);
+        applicationManager.when(ApplicationManager::getApplication).thenReturn(application);
+        return applicationManager;
+    }
+}
@@ -0,0 +1,67 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GenerationMetrics 单元测试
+ */
+@DisplayName("GenerationMetrics 单元测试")
+public class GenerationMetricsTest {
+
+    @Test
+    @DisplayName("按已完成任务的平均耗时估计剩余时间")
+    void testRunningSnapshot() {
+        AtomicLong clock = new AtomicLong(1_000);
+        AtomicReference<TaskExecutor.TaskStatistics> stats =
+            new AtomicReference<>(new TaskExecutor.TaskStatistics(0, 0, 0));
+        GenerationMetrics.Run run = new GenerationMetrics.Run(100, stats::get, clock::get);
+
+        GenerationMetrics.Snapshot snapshot = run.snapshot(4);
+        assertThat(snapshot.running()).isTrue();
+        assertThat(snapshot.queued()).isEqualTo(96);
+        assertThat(snapshot.etaMillis()).isEqualTo(-1);
+
+        clock.set(21_000);
+        stats.set(new TaskExecutor.TaskStatistics(15, 3, 2));
+        snapshot = run.snapshot(4);
+
+        assertThat(snapshot.elapsedMillis()).isEqualTo(20_000);
+        assertThat(snapshot.queued()).isEqualTo(76);
+        assertThat(snapshot.etaMillis()).isEqualTo(80_000);
+    }
+
+    @Test
+    @DisplayName("运行结束后停止计时")
+    void testFinishedSnapshot() {
+        AtomicLong clock = new AtomicLong(0);
+        GenerationMetrics.Run run = new GenerationMetrics.Run(10, () -> new TaskExecutor.TaskStatistics(6, 0, 0), clock::get);
+        clock.set(5_000);
+        run.finish();
+        clock.set(60_000);
+
+        GenerationMetrics.Snapshot snapshot = run.snapshot(0);
+
+        assertThat(snapshot.running()).isFalse();
+        assertThat(snapshot.elapsedMillis()).isEqualTo(5_000);
+        assertThat(snapshot.queued()).isZero();
+        assertThat(snapshot.etaMillis()).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("记录最近一次运行")
+    void testCurrentRun() {
+        GenerationMetrics metrics = new GenerationMetrics();
+        assertThat(metrics.getCurrentRun()).isNull();
+
+        GenerationMetrics.Run run = metrics.startRun(3, () -> new TaskExecutor.TaskStatistics(0, 0, 0));
+
+        assertThat(metrics.getCurrentRun()).isSameAs(run);
+        assertThat(run.snapshot(0).totalTasks()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,173 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dev.dong4j.zeka.stack.idea.plugin.ai.AIProviderType;
+import dev.dong4j.zeka.stack.idea.plugin.ai.AIServiceException;
+import dev.dong4j.zeka.stack.idea.plugin.ai.AIServiceProvider;
+import dev.dong4j.zeka.stack.idea.plugin.ai.CustomProvider;
+import dev.dong4j.zeka.stack.idea.plugin.ai.ProviderMetrics;
+import dev.dong4j.zeka.stack.idea.plugin.ai.RecordingServerSocketFactory;
+import dev.dong4j.zeka.stack.idea.plugin.settings.SettingsState;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * HedgedRequest 单元测试
+ */
+@DisplayName("HedgedRequest 单元测试")
+public class HedgedRequestTest {
+
+    @Test
+    @DisplayName("测试主请求及时返回时不发出对冲请求")
+    void testPrimaryWithinDelay() throws Exception {
+        AtomicInteger hedges = new AtomicInteger();
+        CompletableFuture<String> result = HedgedRequest.start(
+            () -> CompletableFuture.completedFuture("primary"),
+            () -> {
+                hedges.incrementAndGet();
+                return CompletableFuture.completedFuture("hedge");
+            },
+            50);
+
+        assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("primary");
+        Thread.sleep(100);
+        assertThat(hedges).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("测试主请求超时后对冲请求先返回，主请求被取消")
+    void testHedgeWins() throws Exception {
+        AtomicInteger hedgeWins = new AtomicInteger();
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        CompletableFuture<String> result = HedgedRequest.start(
+            () -> primary,
+            () -> CompletableFuture.completedFuture("hedge"),
+            20,
+            hedgeWins::incrementAndGet);
+
+        assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("hedge");
+        assertThat(primary).isCancelled();
+        assertThat(hedgeWins).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("测试对冲请求失败时仍等待主请求的结果")
+    void testHedgeFailureWaitsForPrimary() throws Exception {
+        AtomicInteger hedgeWins = new AtomicInteger();
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        CompletableFuture<String> result = HedgedRequest.start(
+            () -> primary,
+            () -> CompletableFuture.failedFuture(new AIServiceException("hedge failed")),
+            10,
+            hedgeWins::incrementAndGet);
+
+        Thread.sleep(100);
+        assertThat(result).isNotDone();
+        primary.complete("primary");
+        assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("primary");
+        assertThat(hedgeWins).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("测试主请求在对冲之前失败时直接失败")
+    void testPrimaryFailsBeforeHedge() {
+        AtomicInteger hedges = new AtomicInteger();
+        CompletableFuture<String> result = HedgedRequest.start(
+            () -> CompletableFuture.failedFuture(new AIServiceException("primary failed")),
+            () -> {
+                hedges.incrementAndGet();
+                return new CompletableFuture<>();
+            },
+            10_000);
+
+        assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(AIServiceException.class)
+            .hasRootCauseMessage("primary failed");
+        assertThat(hedges).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("测试取消最终结果时取消所有请求")
+    void testCancelResult() throws InterruptedException {
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        CompletableFuture<String> hedge = new CompletableFuture<>();
+        CompletableFuture<String> result = HedgedRequest.start(() -> primary, () -> hedge, 10);
+
+        Thread.sleep(100);
+        result.cancel(true);
+
+        assertThat(primary).isCancelled();
+        assertThat(hedge).isCancelled();
+    }
+
+    @Test
+    @DisplayName("测试对冲请求先返回时关闭落后的主请求的连接，且不计入主提供商的指标")
+    void testLoserConnectionClosed() throws Exception {
+        RecordingServerSocketFactory primarySockets = new RecordingServerSocketFactory();
+        MockWebServer primaryServer = new MockWebServer();
+        primaryServer.setServerSocketFactory(primarySockets);
+        primaryServer.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        MockWebServer hedgeServer = new MockWebServer();
+        hedgeServer.enqueue(new MockResponse()
+                                .setResponseCode(200)
+                                .setBody("{\"choices\": [{\"message\": {\"content\": \"/** hedge */\"}}]}")
+                                .addHeader("Content-Type", "application/json"));
+        primaryServer.start();
+        hedgeServer.start();
+        try {
+            SettingsState primarySettings = settings(primaryServer);
+            AIServiceProvider primary = new CustomProvider(primarySettings);
+            AIServiceProvider hedge = new CustomProvider(settings(hedgeServer));
+
+            CompletableFuture<String> result = HedgedRequest.start(
+                () -> primary.generateDocumentationAsync("void a() {}", DocumentationTask.TaskType.METHOD, "java"),
+                () -> hedge.generateDocumentationAsync("void a() {}", DocumentationTask.TaskType.METHOD, "java"),
+                100);
+
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("/** hedge */");
+            assertThat(primaryServer.takeRequest(1, TimeUnit.SECONDS)).isNotNull();
+            assertThat(primarySockets.awaitAllClosed(Duration.ofSeconds(5))).isTrue();
+
+            Thread.sleep(200);
+            ProviderMetrics.Snapshot metrics = ProviderMetrics.forEndpoint(
+                AIProviderType.CUSTOM.getProviderId(), primarySettings.baseUrl, primarySettings.apiKey, "primary")
+                .snapshot();
+            assertThat(metrics.requests()).isEqualTo(1);
+            assertThat(metrics.retries()).isZero();
+            assertThat(metrics.successes()).isZero();
+            assertThat(metrics.failures()).isZero();
+            assertThat(metrics.inFlight()).isZero();
+            assertThat(primaryServer.getRequestCount()).isEqualTo(1);
+        } finally {
+            primaryServer.shutdown();
+            hedgeServer.shutdown();
+        }
+    }
+
+    /**
+     * 创建指向模拟服务器的配置，请求超时足够长，连接只能因取消而关闭
+     */
+    private static SettingsState settings(MockWebServer server) {
+        SettingsState settings = new SettingsState();
+        settings.aiProvider = AIProviderType.CUSTOM.getProviderId();
+        settings.baseUrl = server.url("/").toString().replaceAll("/$", "");
+        settings.apiKey = "test-api-key";
+        settings.modelName = "test-model";
+        settings.timeout = 30_000;
+        settings.maxRetries = 3;
+        return settings;
+    }
+}
@@ -0,0 +1,84 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.PathMatcher;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * JavaFileEnumerator 单元测试
+ */
+@DisplayName("JavaFileEnumerator 单元测试")
+public class JavaFileEnumeratorTest {
+
+    @Test
+    @DisplayName("排除规则以逗号或换行分隔，忽略空白规则")
+    void testParsePatterns() {
+        assertThat(JavaFileEnumerator.parsePatterns(null)).isEmpty();
+        assertThat(JavaFileEnumerator.parsePatterns("  ")).isEmpty();
+        assertThat(JavaFileEnumerator.parsePatterns("**/dto/**, ,**/*Test.java\n**/gen/**")).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("语法错误的排除规则被忽略")
+    void testParsePatterns_invalid() {
+        assertThat(JavaFileEnumerator.parsePatterns("**/[dto/**,**/gen/**")).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("排除规则按相对路径匹配")
+    void testMatches() {
+        List<PathMatcher> matchers = JavaFileEnumerator.parsePatterns("**/dto/**,**/*Test.java");
+
+        assertThat(JavaFileEnumerator.matches(matchers, "src/main/java/a/dto/UserDto.java")).isTrue();
+        assertThat(JavaFileEnumerator.matches(matchers, "src/test/java/a/UserServiceTest.java")).isTrue();
+        assertThat(JavaFileEnumerator.matches(matchers, "src/main/java/a/UserService.java")).isFalse();
+    }
+
+    @Test
+    @DisplayName("不在项目内容中的目录直接遍历，只保留未排除的 Java 文件")
+    void testEnumerate_outsideContent() {
+        VirtualFile kept = file("/outside/A.java", "java");
+        VirtualFile text = file("/outside/readme.txt", "txt");
+        VirtualFile generated = file("/outside/gen/B.java", "java");
+        VirtualFile genDirectory = directory(generated);
+        VirtualFile root = directory(kept, text, genDirectory);
+
+        JavaFileEnumerator enumerator = new JavaFileEnumerator(mock(Project.class), true, "**/gen/**");
+        List<List<VirtualFile>> groups = enumerator.enumerate(root);
+
+        assertThat(groups).containsExactly(List.of(kept));
+    }
+
+    @Test
+    @DisplayName("非目录和空目录没有文件")
+    void testEnumerate_empty() {
+        JavaFileEnumerator enumerator = new JavaFileEnumerator(mock(Project.class), true, "");
+
+        assertThat(enumerator.enumerate(file("/outside/A.java", "java"))).isEmpty();
+        assertThat(enumerator.enumerate(directory())).isEmpty();
+    }
+
+    private static VirtualFile file(String path, String extension) {
+        VirtualFile file = mock(VirtualFile.class);
+        when(file.isDirectory()).thenReturn(false);
+        when(file.getPath()).thenReturn(path);
+        when(file.getExtension()).thenReturn(extension);
+        return file;
+    }
+
+    private static VirtualFile directory(VirtualFile... children) {
+        VirtualFile directory = mock(VirtualFile.class);
+        when(directory.isDirectory()).thenReturn(true);
+        when(directory.getChildren()).thenReturn(children);
+        return directory;
+    }
+}
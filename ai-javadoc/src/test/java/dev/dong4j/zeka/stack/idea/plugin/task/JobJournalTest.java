@@ -0,0 +1,133 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import com.intellij.psi.PsiElement;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * JobJournal 单元测试
+ */
+@DisplayName("JobJournal 单元测试")
+public class JobJournalTest {
+
+    private static final String METHOD_DOC = """
+        /**
+         * 计算两数之和
+         *
+         * @param a 第一个数
+         * @param b 第二个数
+         * @return 两数之和
+         */""";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("测试记录和读取任务状态")
+    void testRoundTrip() {
+        Path file = tempDir.resolve("run-1" + JobJournal.EXTENSION);
+        DocumentationTask pending = task("/src/A.java", DocumentationTask.TaskType.CLASS);
+        DocumentationTask generated = task("/src/A.java", DocumentationTask.TaskType.METHOD);
+        DocumentationTask inserted = task("/src/B.java", DocumentationTask.TaskType.FIELD);
+
+        JobJournal journal = new JobJournal(file);
+        assertThat(journal.open()).isTrue();
+        journal.register(pending, "C:a.A");
+        journal.register(generated, "M:a.A#add(int,int)");
+        journal.register(inserted, "F:a.B#name");
+        journal.recordGenerated(generated, "h2", METHOD_DOC);
+        journal.recordGenerated(inserted, "h3", "/** 名称 */");
+        journal.recordInserted(List.of(inserted));
+        journal.close();
+
+        List<JobJournal.Entry> entries = JobJournal.load(file);
+
+        assertThat(entries).hasSize(3);
+        assertThat(entries.get(0)).isEqualTo(new JobJournal.Entry(
+            DocumentationTask.TaskType.CLASS, "/src/A.java", "C:a.A", null, null, JobJournal.State.PENDING));
+        assertThat(entries.get(1).state()).isEqualTo(JobJournal.State.GENERATED);
+        assertThat(entries.get(1).documentation()).isEqualTo(METHOD_DOC);
+        assertThat(entries.get(1).contentHash()).isEqualTo("h2");
+        assertThat(entries.get(1).elementKey()).isEqualTo("M:a.A#add(int,int)");
+        assertThat(entries.get(2).state()).isEqualTo(JobJournal.State.INSERTED);
+    }
+
+    @Test
+    @DisplayName("测试未登记的任务不记录")
+    void testUnregisteredTask() {
+        Path file = tempDir.resolve("run-1" + JobJournal.EXTENSION);
+        JobJournal journal = new JobJournal(file);
+        journal.open();
+        journal.recordGenerated(task("/src/A.java", DocumentationTask.TaskType.CLASS), METHOD_DOC);
+        journal.close();
+
+        assertThat(JobJournal.load(file)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("测试忽略不完整的最后一行和无法识别的文件")
+    void testMalformedRecords() throws IOException {
+        Path file = tempDir.resolve("run-1" + JobJournal.EXTENSION);
+        DocumentationTask task = task("/src/A.java", DocumentationTask.TaskType.METHOD);
+        JobJournal journal = new JobJournal(file);
+        journal.open();
+        journal.register(task, "M:a.A#run()");
+        journal.recordGenerated(task, "h1", METHOD_DOC);
+        journal.close();
+        // 模拟进程在写入记录时退出
+        Files.writeString(file, "I 0 trailing\nG 7 h7 bm90IGEgdGFzaw==\nG 0 h1 !!!", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        List<JobJournal.Entry> entries = JobJournal.load(file);
+
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0).state()).isEqualTo(JobJournal.State.GENERATED);
+        assertThat(entries.get(0).documentation()).isEqualTo(METHOD_DOC);
+
+        Path unknown = tempDir.resolve("run-2" + JobJournal.EXTENSION);
+        Files.writeString(unknown, "T 0 CLASS x y", StandardCharsets.UTF_8);
+        assertThat(JobJournal.load(unknown)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("测试只保留最近的运行日志")
+    void testPrune() throws IOException {
+        for (long time = 1000; time < 1005; time++) {
+            Files.writeString(tempDir.resolve("run-" + time + JobJournal.EXTENSION), JobJournal.HEADER + " " + time);
+        }
+        Files.writeString(tempDir.resolve("other.txt"), "keep");
+
+        JobJournal.prune(tempDir);
+
+        assertThat(JobJournal.listRuns(tempDir))
+            .extracting(path -> path.getFileName().toString())
+            .containsExactly("run-1004.journal", "run-1003.journal", "run-1002.journal");
+        assertThat(tempDir.resolve("other.txt")).exists();
+    }
+
+    @Test
+    @DisplayName("测试代码摘要忽略缩进和换行符差异")
+    void testContentHash() {
+        String code = "public int add(int a, int b) {\n    return a + b;\n}";
+
+        assertThat(JobJournal.contentHash("    public int add(int a, int b) {\r\n        return a + b;\r\n    }"))
+            .isEqualTo(JobJournal.contentHash(code));
+        assertThat(JobJournal.contentHash(code.replace("a + b", "b + a")))
+            .isNotEqualTo(JobJournal.contentHash(code));
+    }
+
+    private static DocumentationTask task(String filePath, DocumentationTask.TaskType type) {
+        return new DocumentationTask(mock(PsiElement.class), "code", type, filePath);
+    }
+}
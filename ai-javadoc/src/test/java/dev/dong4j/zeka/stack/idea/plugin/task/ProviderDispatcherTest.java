@@ -0,0 +1,220 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.psi.PsiElement;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import dev.dong4j.zeka.stack.idea.plugin.ai.AIServiceProvider;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ProviderDispatcher 单元测试
+ */
+@DisplayName("ProviderDispatcher 单元测试")
+public class ProviderDispatcherTest {
+
+    @Mock
+    private PsiElement mockElement;
+    @Mock
+    private ProgressIndicator mockIndicator;
+    @Mock
+    private AIServiceProvider fastProvider;
+    @Mock
+    private AIServiceProvider slowProvider;
+
+    private DocumentationTask task1;
+    private DocumentationTask task2;
+    private DocumentationTask task3;
+    private DocumentationTask task4;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        task1 = new DocumentationTask(mockElement, "void a() {}", DocumentationTask.TaskType.METHOD, "/A.java");
+        task2 = new DocumentationTask(mockElement, "void b() {}", DocumentationTask.TaskType.METHOD, "/B.java");
+        task3 = new DocumentationTask(mockElement, "void c() {}", DocumentationTask.TaskType.METHOD, "/C.java");
+        task4 = new DocumentationTask(mockElement, "void d() {}", DocumentationTask.TaskType.METHOD, "/D.java");
+    }
+
+    @Test
+    @DisplayName("测试按顺序分发任务并在全部完成后结束")
+    void testDispatchAllTasks() {
+        ProviderDispatcher dispatcher = new ProviderDispatcher(List.of(task1, task2), List.of(fastProvider), 2, mockIndicator);
+
+        assertThat(dispatcher.next(fastProvider)).isSameAs(task1);
+        assertThat(dispatcher.next(fastProvider)).isSameAs(task2);
+
+        assertThat(dispatcher.complete(fastProvider, task1, 100, true)).isTrue();
+        assertThat(dispatcher.whenAllResolved()).isNotDone();
+        assertThat(dispatcher.complete(fastProvider, task2, 100, true)).isTrue();
+
+        assertThat(dispatcher.getResolvedCount()).isEqualTo(2);
+        assertThat(dispatcher.whenAllResolved()).isDone();
+        assertThat(dispatcher.next(fastProvider)).isNull();
+    }
+
+    @Test
+    @DisplayName("测试空闲提供商接管落后任务，只有先返回的结果生效")
+    void testStragglerReassignment() throws InterruptedException {
+        ProviderDispatcher dispatcher = new ProviderDispatcher(List.of(task1, task2),
+                                                               List.of(slowProvider, fastProvider), 1, mockIndicator);
+
+        // 慢提供商先完成一个任务，建立延迟基线
+        assertThat(dispatcher.next(slowProvider)).isSameAs(task1);
+        assertThat(dispatcher.complete(slowProvider, task1, 1, true)).isTrue();
+
+        // 慢提供商领取最后一个任务后长时间未返回
+        assertThat(dispatcher.next(slowProvider)).isSameAs(task2);
+        Thread.sleep(50);
+
+        // 队列已空，快提供商接管落后任务
+        assertThat(dispatcher.next(fastProvider)).isSameAs(task2);
+
+        assertThat(dispatcher.complete(fastProvider, task2, 5, true)).isTrue();
+        assertThat(dispatcher.complete(slowProvider, task2, 60, true)).isFalse();
+        assertThat(dispatcher.whenAllResolved()).isDone();
+    }
+
+    @Test
+    @DisplayName("测试副本仍在执行时，原始请求失败不生效")
+    void testFailureDeferredWhileCopyRunning() throws InterruptedException {
+        ProviderDispatcher dispatcher = new ProviderDispatcher(List.of(task1, task2),
+                                                               List.of(slowProvider, fastProvider), 1, mockIndicator);
+
+        dispatcher.next(slowProvider);
+        dispatcher.complete(slowProvider, task1, 1, true);
+        dispatcher.next(slowProvider);
+        Thread.sleep(50);
+        assertThat(dispatcher.next(fastProvider)).isSameAs(task2);
+
+        assertThat(dispatcher.complete(slowProvider, task2, 60, false)).isFalse();
+        assertThat(dispatcher.whenAllResolved()).isNotDone();
+        assertThat(dispatcher.complete(fastProvider, task2, 5, true)).isTrue();
+        assertThat(dispatcher.whenAllResolved()).isDone();
+    }
+
+    @Test
+    @DisplayName("测试连续失败后熔断，失败任务转移到其他提供商")
+    void testCircuitBreakerRequeuesFailedTasks() throws Exception {
+        ProviderDispatcher dispatcher = new ProviderDispatcher(List.of(task1, task2, task3, task4),
+                                                               List.of(slowProvider, fastProvider), 1, mockIndicator, 60_000);
+        startWorkers(dispatcher, slowProvider, fastProvider);
+
+        // 故障提供商连续失败，任务重新入队而不是标记为失败
+        for (DocumentationTask task : List.of(task1, task2, task3)) {
+            assertThat(dispatcher.next(slowProvider)).isSameAs(task);
+            assertThat(dispatcher.complete(slowProvider, task, 10, false)).isFalse();
+        }
+
+        // 熔断器打开，故障提供商不再领取任务
+        CompletableFuture<DocumentationTask> blocked = CompletableFuture.supplyAsync(() -> dispatcher.next(slowProvider));
+        Thread.sleep(300);
+        assertThat(blocked).isNotDone();
+
+        // 健康提供商先处理重新入队的任务，再处理剩余任务
+        for (DocumentationTask task : List.of(task1, task2, task3, task4)) {
+            assertThat(dispatcher.next(fastProvider)).isSameAs(task);
+            assertThat(dispatcher.complete(fastProvider, task, 10, true)).isTrue();
+        }
+
+        assertThat(dispatcher.whenAllResolved()).isDone();
+        assertThat(blocked.get(1, TimeUnit.SECONDS)).isNull();
+    }
+
+    @Test
+    @DisplayName("测试熔断结束后放行探测任务，探测成功后恢复")
+    void testCircuitBreakerHalfOpenProbe() throws InterruptedException {
+        ProviderDispatcher dispatcher = new ProviderDispatcher(List.of(task1, task2, task3, task4),
+                                                               List.of(slowProvider, fastProvider), 2, mockIndicator, 50);
+        startWorkers(dispatcher, slowProvider, fastProvider);
+
+        for (DocumentationTask task : List.of(task1, task2, task3)) {
+            assertThat(dispatcher.next(slowProvider)).isSameAs(task);
+            dispatcher.complete(slowProvider, task, 10, false);
+        }
+        Thread.sleep(100);
+
+        // 已失败过的任务不会再交给故障提供商，探测使用新任务
+        assertThat(dispatcher.next(slowProvider)).isSameAs(task4);
+        assertThat(dispatcher.complete(slowProvider, task4, 10, true)).isTrue();
+    }
+
+    @Test
+    @DisplayName("测试熔断后在途任务立即由其他提供商接管")
+    void testCircuitBreakerReassignsInFlightTasks() {
+        ProviderDispatcher dispatcher = new ProviderDispatcher(List.of(task1, task2, task3, task4),
+                                                               List.of(slowProvider, fastProvider), 4, mockIndicator, 60_000);
+        startWorkers(dispatcher, slowProvider, fastProvider);
+
+        for (DocumentationTask task : List.of(task1, task2, task3, task4)) {
+            assertThat(dispatcher.next(slowProvider)).isSameAs(task);
+        }
+        for (DocumentationTask task : List.of(task1, task2, task3)) {
+            dispatcher.complete(slowProvider, task, 10, false);
+        }
+
+        for (DocumentationTask task : List.of(task1, task2, task3, task4)) {
+            assertThat(dispatcher.next(fastProvider)).isSameAs(task);
+        }
+        assertThat(dispatcher.complete(fastProvider, task4, 10, true)).isTrue();
+        assertThat(dispatcher.complete(slowProvider, task4, 10, false)).isFalse();
+    }
+
+    @Test
+    @DisplayName("测试只有一个提供商时失败直接生效")
+    void testSingleProviderFailureResolves() {
+        ProviderDispatcher dispatcher = new ProviderDispatcher(List.of(task1, task2, task3, task4),
+                                                               List.of(slowProvider), 1, mockIndicator, 60_000);
+
+        for (DocumentationTask task : List.of(task1, task2, task3, task4)) {
+            assertThat(dispatcher.next(slowProvider)).isSameAs(task);
+            assertThat(dispatcher.complete(slowProvider, task, 10, false)).isTrue();
+        }
+        assertThat(dispatcher.whenAllResolved()).isDone();
+    }
+
+    @Test
+    @DisplayName("测试失败任务不会转移到没有工作线程的提供商")
+    void testRequeueSkipsProviderWithoutWorker() {
+        ProviderDispatcher dispatcher = new ProviderDispatcher(List.of(task1, task2),
+                                                               List.of(slowProvider, fastProvider), 1, mockIndicator, 60_000);
+        // 快提供商的工作线程没有开始（例如线程池已满）
+        startWorkers(dispatcher, slowProvider);
+
+        assertThat(dispatcher.next(slowProvider)).isSameAs(task1);
+        assertThat(dispatcher.complete(slowProvider, task1, 10, false)).isTrue();
+
+        // 快提供商的工作线程开始后，失败任务重新入队交给它
+        startWorkers(dispatcher, fastProvider);
+        assertThat(dispatcher.next(slowProvider)).isSameAs(task2);
+        assertThat(dispatcher.complete(slowProvider, task2, 10, false)).isFalse();
+        assertThat(dispatcher.next(fastProvider)).isSameAs(task2);
+
+        assertThat(dispatcher.complete(fastProvider, task2, 10, true)).isTrue();
+        assertThat(dispatcher.whenAllResolved()).isDone();
+
+        // 工作线程退出后同样不再接收重新入队的任务
+        ProviderDispatcher next = new ProviderDispatcher(List.of(task3), List.of(slowProvider, fastProvider), 1,
+                                                         mockIndicator, 60_000);
+        startWorkers(next, slowProvider, fastProvider);
+        next.workerStopped(fastProvider);
+        assertThat(next.next(slowProvider)).isSameAs(task3);
+        assertThat(next.complete(slowProvider, task3, 10, false)).isTrue();
+    }
+
+    private static void startWorkers(ProviderDispatcher dispatcher, AIServiceProvider... providers) {
+        for (AIServiceProvider provider : providers) {
+            dispatcher.workerStarted(provider);
+        }
+    }
+}
@@ -12,8 +12,12 @@ import com.intellij.psi.javadoc.PsiDocComment;
 import org.jetbrains.annotations.NotNull;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import dev.dong4j.zeka.stack.idea.plugin.MyBasePlatformTestCase;
@@ -354,6 +358,248 @@ public class TaskExecutorIntegrationTest extends MyBasePlatformTestCase {
         System.out.println("Statistics: " + stats);
     }
 
+    /**
+     * 测试同一文件的多个元素合并写入
+     * <p>
+     * 类、字段和方法（部分带旧注释）的文档在一次写入中完成，旧注释全部被替换且不会错位
+     */
+    public void testCoalescedWritesInSingleFile() {
+        String originalCode = """
+            package com.example;
+            
+            /**
+             * Old class comment
+             */
+            public class UserService {
+                private String username;
+            
+                /**
+                 * Old method comment
+                 */
+                public void oldMethod() {
+                    System.out.println("Hello");
+                }
+            
+                public String getUserName(int userId) {
+                    return "user" + userId;
+                }
+            }
+            """;
+
+        PsiJavaFile file = createJavaFile("UserService.java", originalCode);
+        String filePath = file.getVirtualFile().getPath();
+
+        List<DocumentationTask> tasks = runReadAction(() -> {
+            PsiClass psiClass = file.getClasses()[0];
+            return List.of(
+                // 类任务只传入类声明，避免 Mock 按方法名匹配到方法文档
+                new DocumentationTask(psiClass, "public class UserService {}", DocumentationTask.TaskType.CLASS, filePath),
+                new DocumentationTask(psiClass.getFields()[0], psiClass.getFields()[0].getText(),
+                                      DocumentationTask.TaskType.FIELD, filePath),
+                new DocumentationTask(psiClass.getMethods()[0], psiClass.getMethods()[0].getText(),
+                                      DocumentationTask.TaskType.METHOD, filePath),
+                new DocumentationTask(psiClass.getMethods()[1], psiClass.getMethods()[1].getText(),
+                                      DocumentationTask.TaskType.METHOD, filePath)
+            );
+        });
+
+        taskExecutor.processTasks(tasks);
+        waitForPendingWrites();
+
+        String updatedContent = getFileText(file);
+
+        assertFalse("Old class comment should be removed", updatedContent.contains("Old class comment"));
+        assertFalse("Old method comment should be removed", updatedContent.contains("Old method comment"));
+        assertEquals("Every element should have exactly one JavaDoc", 4, countOccurrences(updatedContent, "/**"));
+
+        // 每个注释都应位于对应声明之前
+        assertTrue(updatedContent.indexOf("用户服务类") < updatedContent.indexOf("public class UserService"));
+        assertTrue(updatedContent.indexOf("/** 用户名 */") < updatedContent.indexOf("private String username"));
+        assertTrue(updatedContent.indexOf("打印 Hello") < updatedContent.indexOf("public void oldMethod"));
+        assertTrue(updatedContent.indexOf("根据用户ID获取用户名称") < updatedContent.indexOf("public String getUserName"));
+        assertTrue(updatedContent.indexOf("public void oldMethod") < updatedContent.indexOf("根据用户ID获取用户名称"));
+        assertEquals(4, taskExecutor.getStatistics().completed());
+    }
+
+    /**
+     * 测试单提供商并发流水线处理
+     * <p>
+     * 并发数大于 1 时使用流水线模式，所有任务都应被处理且文档全部插入
+     */
+    public void testProcessTasksPipelined() {
+        int originalConcurrency = settings.concurrency;
+        settings.concurrency = 3;
+        try {
+            String originalCode = """
+                package com.example;
+                
+                public class Calculator {
+                    public int add(int a, int b) {
+                        return a + b;
+                    }
+                
+                    public int subtract(int a, int b) {
+                        return a - b;
+                    }
+                
+                    public int multiply(int a, int b) {
+                        return a * b;
+                    }
+                
+                    public int divide(int a, int b) {
+                        return a / b;
+                    }
+                }
+                """;
+
+            PsiJavaFile file = createJavaFile("Calculator.java", originalCode);
+
+            List<PsiMethod> methods = runReadAction(() -> Arrays.asList(file.getClasses()[0].getMethods()));
+
+            List<DocumentationTask> tasks = methods.stream()
+                .map(method -> new DocumentationTask(
+                    method,
+                    runReadAction(() -> method.getText()),
+                    DocumentationTask.TaskType.METHOD,
+                    file.getVirtualFile().getPath()
+                ))
+                .collect(Collectors.toList());
+
+            taskExecutor.processTasks(tasks);
+            waitForPendingWrites();
+
+            String updatedContent = getFileText(file);
+            assertEquals("Should have JavaDoc for every method", 4, countOccurrences(updatedContent, "/**"));
+
+            TaskExecutor.TaskStatistics stats = taskExecutor.getStatistics();
+            assertEquals("Should complete all tasks", 4, stats.completed());
+            assertEquals("Should not fail any task", 0, stats.failed());
+        } finally {
+            settings.concurrency = originalConcurrency;
+        }
+    }
+
+    /**
+     * 测试流水线模式下用户取消
+     * <p>
+     * 取消后不再等待在途请求返回，在途的生成请求全部被取消，对应任务按失败处理
+     */
+    public void testProcessTasksPipelinedCancel() {
+        int originalConcurrency = settings.concurrency;
+        settings.concurrency = 3;
+        try {
+            String originalCode = """
+                package com.example;
+                
+                public class Calculator {
+                    public int add(int a, int b) {
+                        return a + b;
+                    }
+                
+                    public int subtract(int a, int b) {
+                        return a - b;
+                    }
+                
+                    public int multiply(int a, int b) {
+                        return a * b;
+                    }
+                
+                    public int divide(int a, int b) {
+                        return a / b;
+                    }
+                }
+                """;
+
+            PsiJavaFile file = createJavaFile("Calculator.java", originalCode);
+
+            List<PsiMethod> methods = runReadAction(() -> Arrays.asList(file.getClasses()[0].getMethods()));
+
+            List<DocumentationTask> tasks = methods.stream()
+                .map(method -> new DocumentationTask(
+                    method,
+                    runReadAction(() -> method.getText()),
+                    DocumentationTask.TaskType.METHOD,
+                    file.getVirtualFile().getPath()
+                ))
+                .collect(Collectors.toList());
+
+            // 请求永不返回，发出第三个请求时用户取消
+            HangingMockAIServiceProvider provider = new HangingMockAIServiceProvider(mockIndicator, 3);
+            injectMockAIService(taskExecutor, provider);
+
+            taskExecutor.processTasks(tasks);
+
+            assertEquals("Should only send requests before cancel", 3, provider.requests.size());
+            assertTrue("Should cancel every in-flight request",
+                       provider.requests.stream().allMatch(CompletableFuture::isCancelled));
+
+            TaskExecutor.TaskStatistics stats = taskExecutor.getStatistics();
+            assertEquals("Should not complete any task", 0, stats.completed());
+            assertEquals("Should fail the canceled tasks", 3, stats.failed());
+        } finally {
+            settings.concurrency = originalConcurrency;
+        }
+    }
+
+    /**
+     * 测试打包模式：同一个类的小成员合并为一次请求，缺失的注释逐个补生成
+     */
+    public void testPackedPrompts() {
+        boolean originalPacked = settings.packedPrompts;
+        settings.packedPrompts = true;
+        try {
+            String originalCode = """
+                package com.example;
+                
+                public class Account {
+                    private String username;
+                    private int age;
+                
+                    public int add(int a, int b) {
+                        return a + b;
+                    }
+                
+                    public int subtract(int a, int b) {
+                        return a - b;
+                    }
+                }
+                """;
+
+            PsiJavaFile file = createJavaFile("Account.java", originalCode);
+            PsiClass psiClass = runReadAction(() -> file.getClasses()[0]);
+            String filePath = file.getVirtualFile().getPath();
+
+            List<DocumentationTask> tasks = new ArrayList<>();
+            for (PsiField field : runReadAction(psiClass::getFields)) {
+                tasks.add(new DocumentationTask(field, runReadAction(field::getText),
+                                                DocumentationTask.TaskType.FIELD, filePath));
+            }
+            for (PsiMethod method : runReadAction(psiClass::getMethods)) {
+                tasks.add(new DocumentationTask(method, runReadAction(method::getText),
+                                                DocumentationTask.TaskType.METHOD, filePath));
+            }
+
+            PackingMockAIServiceProvider provider = new PackingMockAIServiceProvider();
+            injectMockAIService(taskExecutor, provider);
+
+            taskExecutor.processTasks(tasks);
+            waitForPendingWrites();
+
+            // 四个成员合并为一次打包请求，最后一个成员缺失注释后单独重新生成
+            assertEquals("Should send one packed request", List.of(4), provider.batchSizes);
+            assertEquals("Should regenerate the missing member individually", 1, provider.singleCalls.get());
+
+            String updatedContent = getFileText(file);
+            assertEquals("Should have JavaDoc for every member", 4, countOccurrences(updatedContent, "/**"));
+
+            TaskExecutor.TaskStatistics stats = taskExecutor.getStatistics();
+            assertEquals("Should complete all tasks", 4, stats.completed());
+            assertEquals("Should not fail any task", 0, stats.failed());
+        } finally {
+            settings.packedPrompts = originalPacked;
+        }
+    }
+
     /**
      * 测试跳过已有文档的功能
      */
@@ -413,10 +659,17 @@ public class TaskExecutorIntegrationTest extends MyBasePlatformTestCase {
      * 这样我们可以控制 AI 的返回结果，而不需要真实的 API 调用。
      */
     private void injectMockAIService(TaskExecutor executor) {
+        injectMockAIService(executor, new MockAIServiceProvider());
+    }
+
+    /**
+     * 注入指定的 Mock AI Service
+     */
+    private void injectMockAIService(TaskExecutor executor, AIServiceProvider provider) {
         try {
             Field field = TaskExecutor.class.getDeclaredField("aiService");
             field.setAccessible(true);
-            field.set(executor, new MockAIServiceProvider());
+            field.set(executor, provider);
         } catch (Exception e) {
             throw new RuntimeException("Failed to inject mock AI service", e);
         }
@@ -576,6 +829,69 @@ public class TaskExecutorIntegrationTest extends MyBasePlatformTestCase {
         }
     }
 
+    /**
+     * 支持打包请求的 Mock AI 服务
+     * <p>
+     * 记录每次打包请求的成员数，并故意让最后一个成员的注释缺失，用于验证逐个补生成的逻辑。
+     */
+    private static class PackingMockAIServiceProvider extends MockAIServiceProvider {
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        private final AtomicInteger singleCalls = new AtomicInteger(0);
+
+        @NotNull
+        @Override
+        public String generateDocumentation(@NotNull String code,
+                                            @NotNull DocumentationTask.TaskType type,
+                                            @NotNull String language) throws AIServiceException {
+            singleCalls.incrementAndGet();
+            return super.generateDocumentation(code, type, language);
+        }
+
+        @NotNull
+        @Override
+        public List<String> generateDocumentationBatch(@NotNull List<DocumentationTask> tasks,
+                                                       @NotNull String language) throws AIServiceException {
+            batchSizes.add(tasks.size());
+            List<String> results = new ArrayList<>();
+            for (int i = 0; i < tasks.size(); i++) {
+                DocumentationTask task = tasks.get(i);
+                results.add(i == tasks.size() - 1
+                            ? ""
+                            : super.generateDocumentation(task.getCode(), task.getType(), language));
+            }
+            return results;
+        }
+    }
+
+    /**
+     * 请求永不返回的 Mock AI 服务
+     * <p>
+     * 记录发出的请求，发出指定数量的请求后取消进度指示器，用于验证取消时中止在途请求的逻辑。
+     */
+    private static class HangingMockAIServiceProvider extends MockAIServiceProvider {
+        private final List<CompletableFuture<String>> requests = new CopyOnWriteArrayList<>();
+        private final ProgressIndicator indicator;
+        private final int cancelAfter;
+
+        HangingMockAIServiceProvider(ProgressIndicator indicator, int cancelAfter) {
+            this.indicator = indicator;
+            this.cancelAfter = cancelAfter;
+        }
+
+        @NotNull
+        @Override
+        public CompletableFuture<String> generateDocumentationAsync(@NotNull String code,
+                                                                    @NotNull DocumentationTask.TaskType type,
+                                                                    @NotNull String language) {
+            CompletableFuture<String> request = new CompletableFuture<>();
+            requests.add(request);
+            if (requests.size() == cancelAfter) {
+                indicator.cancel();
+            }
+            return request;
+        }
+    }
+
     /**
      * Mock Progress Indicator
      * <p>
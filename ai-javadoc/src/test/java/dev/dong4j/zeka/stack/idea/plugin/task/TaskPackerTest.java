@@ -0,0 +1,83 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.util.Computable;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.util.PsiTreeUtil;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+/**
+ * TaskPacker 单元测试
+ */
+@DisplayName("TaskPacker 单元测试")
+public class TaskPackerTest {
+
+    private final AtomicInteger extractions = new AtomicInteger();
+
+    @Test
+    @DisplayName("测试按元素长度装箱，不提前提取代码")
+    void testPackWithoutExtractingCode() {
+        PsiClass owner = mock(PsiClass.class);
+        PsiElement field = member(40);
+        PsiElement shortMethod = member(300);
+        PsiElement longMethod = member(TaskPacker.MAX_PACKABLE_CHARS + 1);
+        DocumentationTask fieldTask = lazyTask(field, DocumentationTask.TaskType.FIELD);
+        DocumentationTask shortTask = lazyTask(shortMethod, DocumentationTask.TaskType.METHOD);
+        DocumentationTask longTask = lazyTask(longMethod, DocumentationTask.TaskType.METHOD);
+
+        List<List<DocumentationTask>> packs;
+        try (MockedStatic<ApplicationManager> ignored = mockReadAction();
+             MockedStatic<PsiTreeUtil> treeUtil = mockStatic(PsiTreeUtil.class)) {
+            treeUtil.when(() -> PsiTreeUtil.getParentOfType(any(PsiElement.class), eq(PsiClass.class))).thenReturn(owner);
+            packs = TaskPacker.pack(List.of(fieldTask, shortTask, longTask), 4096);
+        }
+
+        // 超过长度上限的方法单独处理
+        assertThat(packs).containsExactly(List.of(fieldTask, shortTask));
+        assertThat(extractions).hasValue(0);
+        assertThat(fieldTask.getCodeLength()).isEqualTo(-1);
+    }
+
+    private static PsiElement member(int textLength) {
+        PsiElement element = mock(PsiElement.class);
+        when(element.isValid()).thenReturn(true);
+        when(element.getTextLength()).thenReturn(textLength);
+        return element;
+    }
+
+    @SuppressWarnings("unchecked")
+    private DocumentationTask lazyTask(PsiElement element, DocumentationTask.TaskType type) {
+        SmartPsiElementPointer<PsiElement> pointer = mock(SmartPsiElementPointer.class);
+        when(pointer.getElement()).thenReturn(element);
+        return new DocumentationTask(pointer, type, "/src/A.java", target -> {
+            extractions.incrementAndGet();
+            return "code";
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MockedStatic<ApplicationManager> mockReadAction() {
+        Application application = mock(Application.class);
+        when(application.runReadAction(any(Computable.class)))
+            .thenAnswer(invocation -> ((Computable<?>) invocation.getArgument(0)).compute());
+        MockedStatic<ApplicationManager> applicationManager = mockStatic(ApplicationManager.class);
+        applicationManager.when(ApplicationManager::getApplication).thenReturn(application);
+        return applicationManager;
+    }
+}
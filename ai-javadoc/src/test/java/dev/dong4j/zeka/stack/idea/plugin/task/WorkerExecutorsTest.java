@@ -0,0 +1,112 @@
+package dev.dong4j.zeka.stack.idea.plugin.task;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * WorkerExecutors 单元测试
+ */
+@DisplayName("WorkerExecutors 单元测试")
+public class WorkerExecutorsTest {
+
+    @Test
+    @DisplayName("测试线程池执行并等待本次运行的任务")
+    void testPoolRunsTasks() throws InterruptedException {
+        ExecutorService executor = WorkerExecutors.newRunExecutor(false, 4);
+        AtomicInteger counter = new AtomicInteger(0);
+
+        for (int i = 0; i < 20; i++) {
+            executor.execute(counter::incrementAndGet);
+        }
+        executor.shutdown();
+
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.isTerminated()).isTrue();
+        assertThat(counter.get()).isEqualTo(20);
+        assertThatThrownBy(() -> executor.execute(counter::incrementAndGet))
+            .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    @DisplayName("测试 shutdownNow 只中断本次运行的任务")
+    void testShutdownNowInterruptsOwnTasks() throws InterruptedException {
+        ExecutorService first = WorkerExecutors.newRunExecutor(false, 1);
+        ExecutorService second = WorkerExecutors.newRunExecutor(false, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean(false);
+
+        first.execute(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        first.shutdownNow();
+        assertThat(first.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        // 另一次运行不受影响
+        CountDownLatch done = new CountDownLatch(1);
+        second.execute(done::countDown);
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        second.shutdown();
+
+        Thread.sleep(100);
+        assertThat(interrupted.get()).isTrue();
+    }
+
+    @Test
+    @DisplayName("测试请求虚拟线程时返回可用的执行器")
+    void testVirtualThreadExecutor() throws InterruptedException {
+        ExecutorService executor = WorkerExecutors.newRunExecutor(true, 1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        executor.execute(done::countDown);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("测试工作任务数多于处理器数时全部立即开始")
+    void testAllBlockingWorkersStart() throws InterruptedException {
+        // 数量超过原先共享线程池的上限 max(8, 4 × CPU)，且每个工作任务都阻塞到全部开始为止
+        int workers = Math.max(8, Runtime.getRuntime().availableProcessors() * 4) + 4;
+        ExecutorService executor = WorkerExecutors.newRunExecutor(false, workers);
+        CountDownLatch started = new CountDownLatch(workers);
+        CountDownLatch release = new CountDownLatch(1);
+
+        for (int i = 0; i < workers; i++) {
+            executor.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        try {
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+}